@@ -0,0 +1,156 @@
+package mil.nga.giat.geowave.analytic.param;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import mil.nga.giat.geowave.analytic.PropertyManagement;
+
+import org.apache.commons.cli.Option;
+
+public class JoinParameters
+{
+	public enum Join
+			implements
+			ParameterEnum {
+		TRACK_DATA_TYPE_ID(
+				String.class),
+		OBSERVATION_DATA_TYPE_ID(
+				String.class),
+		TRACK_TIME_ATTRIBUTE(
+				String.class),
+		OBSERVATION_TIME_ATTRIBUTE(
+				String.class),
+		MAX_DISTANCE(
+				Double.class),
+		MAX_STALENESS_MILLIS(
+				Long.class),
+		CELL_SIZE(
+				Double.class),
+		TIME_BIN_MILLIS(
+				Long.class),
+		OUTPUT_DATA_TYPE_ID(
+				String.class),
+		INDEX_ID(
+				String.class);
+
+		private final Class<?> baseClass;
+
+		Join(
+				final Class<?> baseClass ) {
+			this.baseClass = baseClass;
+		}
+
+		@Override
+		public Class<?> getBaseClass() {
+			return baseClass;
+		}
+
+		@Override
+		public Enum<?> self() {
+			return this;
+		}
+	}
+
+	public static final void fillOptions(
+			final Set<Option> options,
+			final Join[] params ) {
+		if (contains(
+				params,
+				Join.TRACK_DATA_TYPE_ID)) {
+			options.add(PropertyManagement.newOption(
+					Join.TRACK_DATA_TYPE_ID,
+					"jtt",
+					"Data Type ID of the positions to enrich",
+					true));
+		}
+		if (contains(
+				params,
+				Join.OBSERVATION_DATA_TYPE_ID)) {
+			options.add(PropertyManagement.newOption(
+					Join.OBSERVATION_DATA_TYPE_ID,
+					"jot",
+					"Data Type ID of the observations to join to each position",
+					true));
+		}
+		if (contains(
+				params,
+				Join.TRACK_TIME_ATTRIBUTE)) {
+			options.add(PropertyManagement.newOption(
+					Join.TRACK_TIME_ATTRIBUTE,
+					"jtta",
+					"Time attribute of the positions, defaults to the first date attribute",
+					true));
+		}
+		if (contains(
+				params,
+				Join.OBSERVATION_TIME_ATTRIBUTE)) {
+			options.add(PropertyManagement.newOption(
+					Join.OBSERVATION_TIME_ATTRIBUTE,
+					"jota",
+					"Time attribute of the observations, defaults to the first date attribute",
+					true));
+		}
+		if (contains(
+				params,
+				Join.MAX_DISTANCE)) {
+			options.add(PropertyManagement.newOption(
+					Join.MAX_DISTANCE,
+					"jmd",
+					"Maximum distance between a position and its observation in the units of the CRS",
+					true));
+		}
+		if (contains(
+				params,
+				Join.MAX_STALENESS_MILLIS)) {
+			options.add(PropertyManagement.newOption(
+					Join.MAX_STALENESS_MILLIS,
+					"jms",
+					"Maximum age of an observation relative to a position in milliseconds",
+					true));
+		}
+		if (contains(
+				params,
+				Join.CELL_SIZE)) {
+			options.add(PropertyManagement.newOption(
+					Join.CELL_SIZE,
+					"jcs",
+					"Size of the spatial partitioning cells, at least the maximum distance",
+					true));
+		}
+		if (contains(
+				params,
+				Join.TIME_BIN_MILLIS)) {
+			options.add(PropertyManagement.newOption(
+					Join.TIME_BIN_MILLIS,
+					"jtb",
+					"Size of the time partitioning bins in milliseconds, at least the maximum staleness",
+					true));
+		}
+		if (contains(
+				params,
+				Join.OUTPUT_DATA_TYPE_ID)) {
+			options.add(PropertyManagement.newOption(
+					Join.OUTPUT_DATA_TYPE_ID,
+					"jout",
+					"Output Data Type ID of the enriched positions",
+					true));
+		}
+		if (contains(
+				params,
+				Join.INDEX_ID)) {
+			options.add(PropertyManagement.newOption(
+					Join.INDEX_ID,
+					"jiid",
+					"Index Identifier for the enriched positions",
+					true));
+		}
+	}
+
+	private static boolean contains(
+			final Join[] params,
+			final Join option ) {
+		return Arrays.asList(
+				params).contains(
+				option);
+	}
+}
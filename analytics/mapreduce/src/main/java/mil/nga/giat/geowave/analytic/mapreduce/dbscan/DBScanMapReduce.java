@@ -17,6 +17,7 @@ import mil.nga.giat.geowave.analytic.Projection;
 import mil.nga.giat.geowave.analytic.SimpleFeatureProjection;
 import mil.nga.giat.geowave.analytic.clustering.ClusteringUtils;
 import mil.nga.giat.geowave.analytic.distance.CoordinateCircleDistanceFn;
+import mil.nga.giat.geowave.analytic.distance.DistanceFn;
 import mil.nga.giat.geowave.analytic.mapreduce.JobContextConfigurationWrapper;
 import mil.nga.giat.geowave.analytic.mapreduce.dbscan.ClusterUnionList.ClusterUnionListFactory;
 import mil.nga.giat.geowave.analytic.mapreduce.dbscan.SingleItemClusterList.SingleItemClusterListFactory;
@@ -42,6 +43,8 @@ import org.opengis.feature.simple.SimpleFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 
 /**
@@ -217,6 +220,20 @@ public class DBScanMapReduce
 			}
 		}
 
+		@Override
+		protected Envelope getEnvelope(
+				final ClusterItem item ) {
+			return item.getGeometry().getEnvelopeInternal();
+		}
+
+		@Override
+		protected DistanceFn<Coordinate> getCoordinateDistanceFn() {
+			if (distanceFn instanceof ClusterItemDistanceFn) {
+				return ((ClusterItemDistanceFn) distanceFn).getCoordinateDistanceFunction();
+			}
+			return super.getCoordinateDistanceFn();
+		}
+
 		public NeighborListFactory<ClusterItem> createNeighborsListFactory(
 				Map<ByteArrayId, Cluster<ClusterItem>> summary ) {
 			return (firstIteration) ? new SingleItemClusterListFactory(
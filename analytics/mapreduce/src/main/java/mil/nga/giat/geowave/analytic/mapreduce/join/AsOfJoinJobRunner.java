@@ -0,0 +1,186 @@
+package mil.nga.giat.geowave.analytic.mapreduce.join;
+
+import java.util.Set;
+
+import mil.nga.giat.geowave.adapter.vector.FeatureDataAdapter;
+import mil.nga.giat.geowave.analytic.AdapterWithObjectWritable;
+import mil.nga.giat.geowave.analytic.PropertyManagement;
+import mil.nga.giat.geowave.analytic.RunnerUtils;
+import mil.nga.giat.geowave.analytic.mapreduce.GeoWaveAnalyticJobRunner;
+import mil.nga.giat.geowave.analytic.mapreduce.GeoWaveInputFormatConfiguration;
+import mil.nga.giat.geowave.analytic.mapreduce.GeoWaveOutputFormatConfiguration;
+import mil.nga.giat.geowave.analytic.mapreduce.join.AsOfJoinMapReduce.JoinCellWritable;
+import mil.nga.giat.geowave.analytic.param.JoinParameters;
+import mil.nga.giat.geowave.analytic.param.JoinParameters.Join;
+import mil.nga.giat.geowave.analytic.param.ParameterEnum;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.adapter.AdapterStore;
+import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
+import mil.nga.giat.geowave.datastore.accumulo.mapreduce.input.GeoWaveInputFormat;
+import mil.nga.giat.geowave.datastore.accumulo.mapreduce.output.GeoWaveOutputFormat;
+import mil.nga.giat.geowave.datastore.accumulo.mapreduce.output.GeoWaveOutputKey;
+
+import org.apache.commons.cli.Option;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.Job;
+import org.opengis.feature.simple.SimpleFeature;
+
+/**
+ * Run the as-of join of track positions and observations, writing the enriched
+ * positions back to GeoWave. See {@link AsOfJoinMapReduce}.
+ */
+public class AsOfJoinJobRunner extends
+		GeoWaveAnalyticJobRunner
+{
+	private final GeoWaveInputFormatConfiguration inputFormatConfiguration = new GeoWaveInputFormatConfiguration();
+
+	public AsOfJoinJobRunner() {
+		super.setInputFormatConfiguration(inputFormatConfiguration);
+		super.setOutputFormatConfiguration(new GeoWaveOutputFormatConfiguration());
+	}
+
+	@Override
+	public void configure(
+			final Job job )
+			throws Exception {
+		job.setMapperClass(AsOfJoinMapReduce.AsOfJoinMapper.class);
+		job.setReducerClass(AsOfJoinMapReduce.AsOfJoinReducer.class);
+		job.setMapOutputKeyClass(JoinCellWritable.class);
+		job.setMapOutputValueClass(AdapterWithObjectWritable.class);
+		job.setOutputKeyClass(GeoWaveOutputKey.class);
+		job.setOutputValueClass(SimpleFeature.class);
+		job.setSpeculativeExecution(false);
+
+		GeoWaveInputFormat.setAccumuloOperationsInfo(
+				job,
+				zookeeper,
+				instanceName,
+				userName,
+				password,
+				namespace);
+	}
+
+	@Override
+	public Class<?> getScope() {
+		return AsOfJoinMapReduce.class;
+	}
+
+	@Override
+	public int run(
+			final Configuration config,
+			final PropertyManagement runTimeProperties )
+			throws Exception {
+		final AdapterStore adapterStore = getAdapterStore(runTimeProperties);
+		final FeatureDataAdapter trackAdapter = getFeatureAdapter(
+				adapterStore,
+				runTimeProperties.getPropertyAsString(
+						Join.TRACK_DATA_TYPE_ID,
+						"track"));
+		final FeatureDataAdapter observationAdapter = getFeatureAdapter(
+				adapterStore,
+				runTimeProperties.getPropertyAsString(
+						Join.OBSERVATION_DATA_TYPE_ID,
+						"observation"));
+		inputFormatConfiguration.addDataAdapter(trackAdapter);
+		inputFormatConfiguration.addDataAdapter(observationAdapter);
+
+		final String outputDataTypeId = runTimeProperties.storeIfEmpty(
+				Join.OUTPUT_DATA_TYPE_ID,
+				trackAdapter.getAdapterId().getString() + "_enriched").toString();
+		DataAdapter<?> outputAdapter = adapterStore.getAdapter(new ByteArrayId(
+				outputDataTypeId));
+		if (outputAdapter == null) {
+			outputAdapter = new FeatureDataAdapter(
+					AsOfJoinMapReduce.createEnrichedType(
+							trackAdapter.getType(),
+							observationAdapter.getType(),
+							outputDataTypeId));
+			adapterStore.addAdapter(outputAdapter);
+		}
+		addDataAdapter(
+				config,
+				trackAdapter);
+		addDataAdapter(
+				config,
+				observationAdapter);
+		addDataAdapter(
+				config,
+				outputAdapter);
+		GeoWaveOutputFormat.addDataAdapter(
+				config,
+				outputAdapter);
+
+		final String indexId = checkIndex(
+				runTimeProperties,
+				Join.INDEX_ID,
+				"enriched_idx");
+		GeoWaveOutputFormat.addIndex(
+				config,
+				getIndexStore(
+						runTimeProperties).getIndex(
+						new ByteArrayId(
+								indexId)));
+
+		RunnerUtils.setParameter(
+				config,
+				getScope(),
+				new Object[] {
+					indexId
+				},
+				new ParameterEnum[] {
+					Join.INDEX_ID
+				});
+
+		RunnerUtils.setParameter(
+				config,
+				getScope(),
+				runTimeProperties,
+				new ParameterEnum[] {
+					Join.TRACK_DATA_TYPE_ID,
+					Join.OBSERVATION_DATA_TYPE_ID,
+					Join.TRACK_TIME_ATTRIBUTE,
+					Join.OBSERVATION_TIME_ATTRIBUTE,
+					Join.MAX_DISTANCE,
+					Join.MAX_STALENESS_MILLIS,
+					Join.CELL_SIZE,
+					Join.TIME_BIN_MILLIS,
+					Join.OUTPUT_DATA_TYPE_ID
+				});
+
+		return super.run(
+				config,
+				runTimeProperties);
+	}
+
+	private static FeatureDataAdapter getFeatureAdapter(
+			final AdapterStore adapterStore,
+			final String adapterId ) {
+		final DataAdapter<?> adapter = adapterStore.getAdapter(new ByteArrayId(
+				adapterId));
+		if (!(adapter instanceof FeatureDataAdapter)) {
+			throw new IllegalArgumentException(
+					"Data type '" + adapterId + "' must exist and be a simple feature type to be joined");
+		}
+		return (FeatureDataAdapter) adapter;
+	}
+
+	@Override
+	public void fillOptions(
+			final Set<Option> options ) {
+		super.fillOptions(options);
+		JoinParameters.fillOptions(
+				options,
+				new JoinParameters.Join[] {
+					Join.TRACK_DATA_TYPE_ID,
+					Join.OBSERVATION_DATA_TYPE_ID,
+					Join.TRACK_TIME_ATTRIBUTE,
+					Join.OBSERVATION_TIME_ATTRIBUTE,
+					Join.MAX_DISTANCE,
+					Join.MAX_STALENESS_MILLIS,
+					Join.CELL_SIZE,
+					Join.TIME_BIN_MILLIS,
+					Join.OUTPUT_DATA_TYPE_ID,
+					Join.INDEX_ID
+				});
+	}
+}
@@ -0,0 +1,749 @@
+package mil.nga.giat.geowave.analytic.mapreduce.join;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import mil.nga.giat.geowave.adapter.vector.FeatureDataAdapter;
+import mil.nga.giat.geowave.analytic.AdapterWithObjectWritable;
+import mil.nga.giat.geowave.analytic.ConfigurationWrapper;
+import mil.nga.giat.geowave.analytic.mapreduce.JobContextConfigurationWrapper;
+import mil.nga.giat.geowave.analytic.param.JoinParameters;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.datastore.accumulo.mapreduce.HadoopWritableSerializationTool;
+import mil.nga.giat.geowave.datastore.accumulo.mapreduce.JobContextAdapterStore;
+import mil.nga.giat.geowave.datastore.accumulo.mapreduce.input.GeoWaveInputFormat;
+import mil.nga.giat.geowave.datastore.accumulo.mapreduce.input.GeoWaveInputKey;
+import mil.nga.giat.geowave.datastore.accumulo.mapreduce.output.GeoWaveOutputKey;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.hadoop.io.ObjectWritable;
+import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Point;
+
+/**
+ * Enrich each position of a track with the most recent observation (such as a
+ * weather or sensor reading) taken within a maximum distance of the position
+ * and no more than a maximum staleness before it, an as-of join.
+ *
+ * Both data types are read through the GeoWave input format. The mapper keys
+ * every record by a coarse spatial cell and time bin. Positions are sent only
+ * to their own cell and bin; observations are replicated into the neighboring
+ * cells and the following time bin, but only where a position in that cell or
+ * bin could be within the distance and staleness tolerance. As long as the
+ * cell size is at least the maximum distance and the time bin is at least the
+ * maximum staleness, each position meets every observation that can match it
+ * in exactly one reducer group. The reducer sorts the observations of a group
+ * by time and, for each position, scans backward from the position's time
+ * until an observation is within the distance or the staleness is exceeded.
+ *
+ * Every position is written, with null observation attributes if there is no
+ * match. Distance is measured between centroids in the units of the CRS. When
+ * several observations share the latest time, the closest wins, and then the
+ * lowest observation ID.
+ *
+ * Properties:
+ *
+ * @formatter:off
+ *
+ *                "AsOfJoinMapReduce.Join.TrackDataTypeId" -> the data type of
+ *                the positions
+ *
+ *                "AsOfJoinMapReduce.Join.ObservationDataTypeId" -> the data
+ *                type of the observations
+ *
+ *                "AsOfJoinMapReduce.Join.TrackTimeAttribute",
+ *                "AsOfJoinMapReduce.Join.ObservationTimeAttribute" -> the time
+ *                attributes, defaulting to the first date attribute of each
+ *                type
+ *
+ *                "AsOfJoinMapReduce.Join.MaxDistance" -> maximum distance
+ *                between a position and its observation
+ *
+ *                "AsOfJoinMapReduce.Join.MaxStalenessMillis" -> maximum age of
+ *                an observation relative to the position
+ *
+ *                "AsOfJoinMapReduce.Join.CellSize" -> defaults to the maximum
+ *                distance
+ *
+ *                "AsOfJoinMapReduce.Join.TimeBinMillis" -> defaults to the
+ *                maximum staleness
+ *
+ *                "AsOfJoinMapReduce.Join.OutputDataTypeId" -> the data type of
+ *                the enriched positions
+ *
+ *                "AsOfJoinMapReduce.Join.IndexId" -> the index of the enriched
+ *                positions
+ *
+ * @formatter:on
+ */
+public class AsOfJoinMapReduce
+{
+	protected static final Logger LOGGER = LoggerFactory.getLogger(AsOfJoinMapReduce.class);
+
+	public static final String OBSERVATION_ID_ATTRIBUTE = "obs_id";
+	public static final String OBSERVATION_TIME_ATTRIBUTE = "obs_time";
+	public static final String OBSERVATION_DISTANCE_ATTRIBUTE = "obs_distance";
+	public static final String OBSERVATION_ATTRIBUTE_PREFIX = "obs_";
+
+	public static class AsOfJoinMapper extends
+			Mapper<GeoWaveInputKey, Object, JoinCellWritable, AdapterWithObjectWritable>
+	{
+		protected HadoopWritableSerializationTool serializationTool;
+		protected ByteArrayId trackAdapterId;
+		protected ByteArrayId observationAdapterId;
+		protected JoinSettings settings;
+
+		final protected AdapterWithObjectWritable outputValue = new AdapterWithObjectWritable();
+		final protected JoinCellWritable outputKey = new JoinCellWritable();
+
+		@Override
+		protected void map(
+				final GeoWaveInputKey key,
+				final Object value,
+				final Mapper<GeoWaveInputKey, Object, JoinCellWritable, AdapterWithObjectWritable>.Context context )
+				throws IOException,
+				InterruptedException {
+			final boolean isTrack = trackAdapterId.equals(key.getAdapterId());
+			if (!isTrack && !observationAdapterId.equals(key.getAdapterId())) {
+				return;
+			}
+			final SimpleFeature feature = (SimpleFeature) ((value instanceof ObjectWritable) ? serializationTool.fromWritable(
+					key.getAdapterId(),
+					(ObjectWritable) value) : value);
+			final Point centroid = getCentroid(feature);
+			final Date time = getTime(
+					feature,
+					isTrack ? settings.trackTimeAttribute : settings.observationTimeAttribute);
+			AdapterWithObjectWritable.fillWritableWithAdapter(
+					serializationTool,
+					outputValue,
+					key.getAdapterId(),
+					key.getDataId(),
+					isTrack,
+					feature);
+			if ((centroid == null) || (time == null)) {
+				if (isTrack) {
+					// a position that can not be joined is still written
+					outputKey.set(
+							Integer.MIN_VALUE,
+							Integer.MIN_VALUE,
+							Long.MIN_VALUE);
+					context.write(
+							outputKey,
+							outputValue);
+				}
+				return;
+			}
+			final double x = centroid.getX();
+			final double y = centroid.getY();
+			final long t = time.getTime();
+			final int cellX = settings.getCell(x);
+			final int cellY = settings.getCell(y);
+			final long timeBin = settings.getTimeBin(t);
+			if (isTrack) {
+				outputKey.set(
+						cellX,
+						cellY,
+						timeBin);
+				context.write(
+						outputKey,
+						outputValue);
+				return;
+			}
+			// replicate the observation to each cell and bin that may contain
+			// a position within tolerance
+			final int minCellX = (x - (cellX * settings.cellSize)) <= settings.maxDistance ? cellX - 1 : cellX;
+			final int maxCellX = (((cellX + 1) * settings.cellSize) - x) <= settings.maxDistance ? cellX + 1 : cellX;
+			final int minCellY = (y - (cellY * settings.cellSize)) <= settings.maxDistance ? cellY - 1 : cellY;
+			final int maxCellY = (((cellY + 1) * settings.cellSize) - y) <= settings.maxDistance ? cellY + 1 : cellY;
+			final long maxTimeBin = (((timeBin + 1) * settings.timeBinMillis) - t) <= settings.maxStalenessMillis ? timeBin + 1 : timeBin;
+			for (int cx = minCellX; cx <= maxCellX; cx++) {
+				for (int cy = minCellY; cy <= maxCellY; cy++) {
+					for (long bin = timeBin; bin <= maxTimeBin; bin++) {
+						outputKey.set(
+								cx,
+								cy,
+								bin);
+						context.write(
+								outputKey,
+								outputValue);
+					}
+				}
+			}
+		}
+
+		@Override
+		protected void setup(
+				final Mapper<GeoWaveInputKey, Object, JoinCellWritable, AdapterWithObjectWritable>.Context context )
+				throws IOException,
+				InterruptedException {
+			super.setup(context);
+			final ConfigurationWrapper config = new JobContextConfigurationWrapper(
+					context,
+					LOGGER);
+			try {
+				serializationTool = new HadoopWritableSerializationTool(
+						new JobContextAdapterStore(
+								context,
+								GeoWaveInputFormat.getAccumuloOperations(context)));
+			}
+			catch (AccumuloException | AccumuloSecurityException e) {
+				LOGGER.warn(
+						"Unable to get GeoWave adapter store from job context",
+						e);
+			}
+			settings = new JoinSettings(
+					config);
+			trackAdapterId = new ByteArrayId(
+					settings.trackDataTypeId);
+			observationAdapterId = new ByteArrayId(
+					settings.observationDataTypeId);
+		}
+	}
+
+	public static class AsOfJoinReducer extends
+			Reducer<JoinCellWritable, AdapterWithObjectWritable, GeoWaveOutputKey, SimpleFeature>
+	{
+		protected HadoopWritableSerializationTool serializationTool;
+		protected JoinSettings settings;
+		protected SimpleFeatureType enrichedType;
+		protected GeoWaveOutputKey outputKey;
+
+		@Override
+		protected void reduce(
+				final JoinCellWritable key,
+				final Iterable<AdapterWithObjectWritable> values,
+				final Reducer<JoinCellWritable, AdapterWithObjectWritable, GeoWaveOutputKey, SimpleFeature>.Context context )
+				throws IOException,
+				InterruptedException {
+			final List<SimpleFeature> positions = new ArrayList<SimpleFeature>();
+			final List<SimpleFeature> observations = new ArrayList<SimpleFeature>();
+			for (final AdapterWithObjectWritable value : values) {
+				final SimpleFeature feature = (SimpleFeature) AdapterWithObjectWritable.fromWritableWithAdapter(
+						serializationTool,
+						value);
+				if (value.isPrimary()) {
+					positions.add(feature);
+				}
+				else {
+					observations.add(feature);
+				}
+			}
+			final SortedObservations sortedObservations = new SortedObservations(
+					observations,
+					settings.observationTimeAttribute);
+			for (final SimpleFeature position : positions) {
+				final Point centroid = getCentroid(position);
+				final Date time = getTime(
+						position,
+						settings.trackTimeAttribute);
+				int match = -1;
+				if ((centroid != null) && (time != null)) {
+					match = sortedObservations.findLatest(
+							centroid.getX(),
+							centroid.getY(),
+							time.getTime(),
+							settings.maxDistance,
+							settings.maxStalenessMillis);
+				}
+				context.write(
+						outputKey,
+						match < 0 ? enrich(
+								enrichedType,
+								position,
+								null,
+								null,
+								null) : enrich(
+								enrichedType,
+								position,
+								sortedObservations.getObservation(match),
+								new Date(
+										sortedObservations.getTime(match)),
+								sortedObservations.getDistance(
+										match,
+										centroid.getX(),
+										centroid.getY())));
+			}
+			context.progress();
+		}
+
+		@Override
+		protected void setup(
+				final Reducer<JoinCellWritable, AdapterWithObjectWritable, GeoWaveOutputKey, SimpleFeature>.Context context )
+				throws IOException,
+				InterruptedException {
+			super.setup(context);
+			final ConfigurationWrapper config = new JobContextConfigurationWrapper(
+					context,
+					LOGGER);
+			try {
+				serializationTool = new HadoopWritableSerializationTool(
+						new JobContextAdapterStore(
+								context,
+								GeoWaveInputFormat.getAccumuloOperations(context)));
+			}
+			catch (AccumuloException | AccumuloSecurityException e) {
+				LOGGER.warn(
+						"Unable to get GeoWave adapter store from job context",
+						e);
+			}
+			settings = new JoinSettings(
+					config);
+			final FeatureDataAdapter trackAdapter = (FeatureDataAdapter) serializationTool.getAdapter(new ByteArrayId(
+					settings.trackDataTypeId));
+			final FeatureDataAdapter observationAdapter = (FeatureDataAdapter) serializationTool.getAdapter(new ByteArrayId(
+					settings.observationDataTypeId));
+			enrichedType = createEnrichedType(
+					trackAdapter.getType(),
+					observationAdapter.getType(),
+					settings.outputDataTypeId);
+			outputKey = new GeoWaveOutputKey(
+					new ByteArrayId(
+							settings.outputDataTypeId),
+					new ByteArrayId(
+							settings.indexId));
+		}
+	}
+
+	/**
+	 * The configured tolerances and partitioning of the join
+	 */
+	protected static class JoinSettings
+	{
+		protected final String trackDataTypeId;
+		protected final String observationDataTypeId;
+		protected final String trackTimeAttribute;
+		protected final String observationTimeAttribute;
+		protected final String outputDataTypeId;
+		protected final String indexId;
+		protected final double maxDistance;
+		protected final long maxStalenessMillis;
+		protected final double cellSize;
+		protected final long timeBinMillis;
+
+		protected JoinSettings(
+				final ConfigurationWrapper config ) {
+			trackDataTypeId = config.getString(
+					JoinParameters.Join.TRACK_DATA_TYPE_ID,
+					AsOfJoinMapReduce.class,
+					"track");
+			observationDataTypeId = config.getString(
+					JoinParameters.Join.OBSERVATION_DATA_TYPE_ID,
+					AsOfJoinMapReduce.class,
+					"observation");
+			trackTimeAttribute = config.getString(
+					JoinParameters.Join.TRACK_TIME_ATTRIBUTE,
+					AsOfJoinMapReduce.class,
+					null);
+			observationTimeAttribute = config.getString(
+					JoinParameters.Join.OBSERVATION_TIME_ATTRIBUTE,
+					AsOfJoinMapReduce.class,
+					null);
+			outputDataTypeId = config.getString(
+					JoinParameters.Join.OUTPUT_DATA_TYPE_ID,
+					AsOfJoinMapReduce.class,
+					trackDataTypeId + "_enriched");
+			indexId = config.getString(
+					JoinParameters.Join.INDEX_ID,
+					AsOfJoinMapReduce.class,
+					"enriched_idx");
+			maxDistance = config.getDouble(
+					JoinParameters.Join.MAX_DISTANCE,
+					AsOfJoinMapReduce.class,
+					1.0);
+			maxStalenessMillis = (long) config.getDouble(
+					JoinParameters.Join.MAX_STALENESS_MILLIS,
+					AsOfJoinMapReduce.class,
+					3600000);
+			// the partitioning is only correct if cells and bins are at least
+			// as large as the tolerances
+			cellSize = Math.max(
+					maxDistance,
+					config.getDouble(
+							JoinParameters.Join.CELL_SIZE,
+							AsOfJoinMapReduce.class,
+							maxDistance));
+			timeBinMillis = Math.max(
+					Math.max(
+							maxStalenessMillis,
+							1),
+					(long) config.getDouble(
+							JoinParameters.Join.TIME_BIN_MILLIS,
+							AsOfJoinMapReduce.class,
+							maxStalenessMillis));
+		}
+
+		protected int getCell(
+				final double value ) {
+			return (int) Math.floor(value / cellSize);
+		}
+
+		protected long getTimeBin(
+				final long time ) {
+			return (long) Math.floor((double) time / (double) timeBinMillis);
+		}
+	}
+
+	/**
+	 * The observations of one cell and time bin sorted by time, so that the
+	 * latest observation before a position can be found by a binary search and
+	 * a short backward scan
+	 */
+	protected static class SortedObservations
+	{
+		private final SimpleFeature[] observations;
+		private final long[] times;
+		private final double[] xs;
+		private final double[] ys;
+
+		protected SortedObservations(
+				final List<SimpleFeature> unsortedObservations,
+				final String timeAttribute ) {
+			final List<TimedObservation> timed = new ArrayList<TimedObservation>(
+					unsortedObservations.size());
+			for (final SimpleFeature observation : unsortedObservations) {
+				final Point centroid = getCentroid(observation);
+				final Date time = AsOfJoinMapReduce.getTime(
+						observation,
+						timeAttribute);
+				if ((centroid != null) && (time != null)) {
+					timed.add(new TimedObservation(
+							observation,
+							time.getTime(),
+							centroid.getX(),
+							centroid.getY()));
+				}
+			}
+			Collections.sort(
+					timed,
+					new Comparator<TimedObservation>() {
+						@Override
+						public int compare(
+								final TimedObservation o1,
+								final TimedObservation o2 ) {
+							return o1.time < o2.time ? -1 : (o1.time == o2.time ? 0 : 1);
+						}
+					});
+			observations = new SimpleFeature[timed.size()];
+			times = new long[timed.size()];
+			xs = new double[timed.size()];
+			ys = new double[timed.size()];
+			for (int i = 0; i < observations.length; i++) {
+				final TimedObservation observation = timed.get(i);
+				observations[i] = observation.feature;
+				times[i] = observation.time;
+				xs[i] = observation.x;
+				ys[i] = observation.y;
+			}
+		}
+
+		/**
+		 * @return the index of the latest observation at or before the time
+		 *         within the tolerances, or -1 if there is none
+		 */
+		protected int findLatest(
+				final double x,
+				final double y,
+				final long time,
+				final double maxDistance,
+				final long maxStalenessMillis ) {
+			// find the last observation at or before the time
+			int low = 0;
+			int high = times.length - 1;
+			int last = -1;
+			while (low <= high) {
+				final int mid = (low + high) >>> 1;
+				if (times[mid] <= time) {
+					last = mid;
+					low = mid + 1;
+				}
+				else {
+					high = mid - 1;
+				}
+			}
+			final long earliest = time - maxStalenessMillis;
+			int best = -1;
+			double bestDistance = Double.MAX_VALUE;
+			for (int i = last; (i >= 0) && (times[i] >= earliest); i--) {
+				if ((best >= 0) && (times[i] < times[best])) {
+					// only observations at the latest matching time compete
+					break;
+				}
+				final double distance = getDistance(
+						i,
+						x,
+						y);
+				if ((distance <= maxDistance) && ((best < 0) || (distance < bestDistance) || ((distance == bestDistance) && (observations[i].getID().compareTo(
+						observations[best].getID()) < 0)))) {
+					best = i;
+					bestDistance = distance;
+				}
+			}
+			return best;
+		}
+
+		protected SimpleFeature getObservation(
+				final int index ) {
+			return observations[index];
+		}
+
+		protected long getTime(
+				final int index ) {
+			return times[index];
+		}
+
+		protected double getDistance(
+				final int index,
+				final double x,
+				final double y ) {
+			final double dx = xs[index] - x;
+			final double dy = ys[index] - y;
+			return Math.sqrt((dx * dx) + (dy * dy));
+		}
+
+		private static class TimedObservation
+		{
+			private final SimpleFeature feature;
+			private final long time;
+			private final double x;
+			private final double y;
+
+			private TimedObservation(
+					final SimpleFeature feature,
+					final long time,
+					final double x,
+					final double y ) {
+				this.feature = feature;
+				this.time = time;
+				this.x = x;
+				this.y = y;
+			}
+		}
+	}
+
+	protected static Point getCentroid(
+			final SimpleFeature feature ) {
+		final Object geometry = feature.getDefaultGeometry();
+		if ((geometry == null) || !(geometry instanceof Geometry) || ((Geometry) geometry).isEmpty()) {
+			return null;
+		}
+		return ((Geometry) geometry).getCentroid();
+	}
+
+	/**
+	 * @param timeAttribute
+	 *            the name of the time attribute, or null to use the first
+	 *            date attribute
+	 */
+	protected static Date getTime(
+			final SimpleFeature feature,
+			final String timeAttribute ) {
+		if (timeAttribute != null) {
+			final Object value = feature.getAttribute(timeAttribute);
+			return value instanceof Date ? (Date) value : null;
+		}
+		for (final Object value : feature.getAttributes()) {
+			if (value instanceof Date) {
+				return (Date) value;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The enriched type has all of the attributes of the track type, followed
+	 * by the ID, time and distance of the matched observation and each
+	 * non-geometric attribute of the observation type prefixed with
+	 * {@link #OBSERVATION_ATTRIBUTE_PREFIX}.
+	 */
+	public static SimpleFeatureType createEnrichedType(
+			final SimpleFeatureType trackType,
+			final SimpleFeatureType observationType,
+			final String typeName ) {
+		final SimpleFeatureTypeBuilder builder = new SimpleFeatureTypeBuilder();
+		builder.init(trackType);
+		builder.setName(typeName);
+		builder.add(
+				OBSERVATION_ID_ATTRIBUTE,
+				String.class);
+		builder.add(
+				OBSERVATION_TIME_ATTRIBUTE,
+				Date.class);
+		builder.add(
+				OBSERVATION_DISTANCE_ATTRIBUTE,
+				Double.class);
+		for (final AttributeDescriptor descriptor : observationType.getAttributeDescriptors()) {
+			final String name = OBSERVATION_ATTRIBUTE_PREFIX + descriptor.getLocalName();
+			if (!(descriptor instanceof GeometryDescriptor) && (trackType.getDescriptor(name) == null) && !OBSERVATION_ID_ATTRIBUTE.equals(name) && !OBSERVATION_TIME_ATTRIBUTE.equals(name) && !OBSERVATION_DISTANCE_ATTRIBUTE.equals(name)) {
+				builder.add(
+						name,
+						descriptor.getType().getBinding());
+			}
+		}
+		return builder.buildFeatureType();
+	}
+
+	/**
+	 * @param observation
+	 *            the matched observation or null if there is no match
+	 */
+	public static SimpleFeature enrich(
+			final SimpleFeatureType enrichedType,
+			final SimpleFeature position,
+			final SimpleFeature observation,
+			final Date observationTime,
+			final Double distance ) {
+		final SimpleFeatureBuilder builder = new SimpleFeatureBuilder(
+				enrichedType);
+		for (final AttributeDescriptor descriptor : position.getFeatureType().getAttributeDescriptors()) {
+			builder.set(
+					descriptor.getLocalName(),
+					position.getAttribute(descriptor.getLocalName()));
+		}
+		if (observation != null) {
+			for (final AttributeDescriptor descriptor : observation.getFeatureType().getAttributeDescriptors()) {
+				final String name = OBSERVATION_ATTRIBUTE_PREFIX + descriptor.getLocalName();
+				if (!(descriptor instanceof GeometryDescriptor) && (enrichedType.getDescriptor(name) != null) && (position.getFeatureType().getDescriptor(name) == null)) {
+					builder.set(
+							name,
+							observation.getAttribute(descriptor.getLocalName()));
+				}
+			}
+			// set last so that observation attributes can not shadow them
+			builder.set(
+					OBSERVATION_ID_ATTRIBUTE,
+					observation.getID());
+			builder.set(
+					OBSERVATION_TIME_ATTRIBUTE,
+					observationTime);
+			builder.set(
+					OBSERVATION_DISTANCE_ATTRIBUTE,
+					distance);
+		}
+		return builder.buildFeature(position.getID());
+	}
+
+	/**
+	 * A spatial cell and time bin
+	 */
+	public static class JoinCellWritable implements
+			WritableComparable<JoinCellWritable>
+	{
+		private int cellX;
+		private int cellY;
+		private long timeBin;
+
+		public JoinCellWritable() {}
+
+		public JoinCellWritable(
+				final int cellX,
+				final int cellY,
+				final long timeBin ) {
+			set(
+					cellX,
+					cellY,
+					timeBin);
+		}
+
+		public void set(
+				final int cellX,
+				final int cellY,
+				final long timeBin ) {
+			this.cellX = cellX;
+			this.cellY = cellY;
+			this.timeBin = timeBin;
+		}
+
+		public int getCellX() {
+			return cellX;
+		}
+
+		public int getCellY() {
+			return cellY;
+		}
+
+		public long getTimeBin() {
+			return timeBin;
+		}
+
+		@Override
+		public void readFields(
+				final DataInput input )
+				throws IOException {
+			cellX = input.readInt();
+			cellY = input.readInt();
+			timeBin = input.readLong();
+		}
+
+		@Override
+		public void write(
+				final DataOutput output )
+				throws IOException {
+			output.writeInt(cellX);
+			output.writeInt(cellY);
+			output.writeLong(timeBin);
+		}
+
+		@Override
+		public int compareTo(
+				final JoinCellWritable o ) {
+			if (timeBin != o.timeBin) {
+				return timeBin < o.timeBin ? -1 : 1;
+			}
+			if (cellX != o.cellX) {
+				return cellX < o.cellX ? -1 : 1;
+			}
+			if (cellY != o.cellY) {
+				return cellY < o.cellY ? -1 : 1;
+			}
+			return 0;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = (prime * result) + cellX;
+			result = (prime * result) + cellY;
+			result = (prime * result) + (int) (timeBin ^ (timeBin >>> 32));
+			return result;
+		}
+
+		@Override
+		public boolean equals(
+				final Object obj ) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			final JoinCellWritable other = (JoinCellWritable) obj;
+			return (cellX == other.cellX) && (cellY == other.cellY) && (timeBin == other.timeBin);
+		}
+
+		@Override
+		public String toString() {
+			return "JoinCellWritable [cellX=" + cellX + ", cellY=" + cellY + ", timeBin=" + timeBin + "]";
+		}
+	}
+}
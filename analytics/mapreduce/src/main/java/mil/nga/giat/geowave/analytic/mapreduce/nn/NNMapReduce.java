@@ -10,7 +10,11 @@ import java.util.Map;
 
 import mil.nga.giat.geowave.analytic.AdapterWithObjectWritable;
 import mil.nga.giat.geowave.analytic.ConfigurationWrapper;
+import mil.nga.giat.geowave.analytic.distance.CoordinateCircleDistanceFn;
+import mil.nga.giat.geowave.analytic.distance.CoordinateEuclideanDistanceFn;
 import mil.nga.giat.geowave.analytic.distance.DistanceFn;
+import mil.nga.giat.geowave.analytic.distance.FeatureCentroidDistanceFn;
+import mil.nga.giat.geowave.analytic.distance.FeatureDistanceFn;
 import mil.nga.giat.geowave.analytic.distance.FeatureGeometryDistanceFn;
 import mil.nga.giat.geowave.analytic.log.LoggingConfigurationWrapper;
 import mil.nga.giat.geowave.analytic.mapreduce.JobContextConfigurationWrapper;
@@ -39,6 +43,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.primitives.SignedBytes;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
 
 /**
  * Find the nearest neighbors to a each item.
@@ -51,6 +58,11 @@ import com.google.common.primitives.SignedBytes;
  * bottom up, partitioning at a finer grain and iterating through larger
  * partitions.
  * 
+ * Within a partition, the items are indexed by their envelopes so that each
+ * item is only measured against the items that may be within the maximum
+ * distance. If the envelopes or the units of the distance function are not
+ * known, every pair of items is measured.
+ * 
  * The reducer has four extension points:
  * 
  * @Formatter:off
@@ -261,45 +273,46 @@ public class NNMapReduce
 			final NeighborIndex<VALUEIN> index = new NeighborIndex<VALUEIN>(
 					this.createNeighborsListFactory(summary));
 
+			final NeighborCandidateIndex<VALUEIN> candidateIndex = createCandidateIndex(
+					primaries,
+					others);
+
 			final Iterator<Map.Entry<ByteArrayId, VALUEIN>> primaryIt = primaries.entrySet().iterator();
 			while (primaryIt.hasNext()) {
 				final Map.Entry<ByteArrayId, VALUEIN> primary = primaryIt.next();
 				final NeighborList<VALUEIN> primaryList = index.init(primary);
-				for (final Map.Entry<ByteArrayId, VALUEIN> anotherPrimary : primaries.entrySet()) {
-					if (anotherPrimary.getKey().equals(
-							primary.getKey())) {
-						continue;
-					}
-					if (!primaryList.contains(anotherPrimary.getKey())) {
-						final DistanceProfile<?> distanceProfile = distanceProfileFn.computeProfile(
-								primary.getValue(),
-								anotherPrimary.getValue());
-						if (distanceProfile.getDistance() <= maxDistance) {
-							index.add(
-									distanceProfile,
-									primary,
-									anotherPrimary,
-									true);
+				if (candidateIndex != null) {
+					for (final NeighborCandidateIndex.Candidate<VALUEIN> candidate : candidateIndex.query(getSearchEnvelope(primary.getValue()))) {
+						// primaries that have been processed have already
+						// been compared to this one
+						if (candidate.isPrimary() && !primaries.containsKey(candidate.getEntry().getKey())) {
+							continue;
 						}
+						addIfNeighbor(
+								index,
+								primaryList,
+								primary,
+								candidate.getEntry(),
+								candidate.isPrimary());
 					}
 				}
-				context.progress();
-				for (final Map.Entry<ByteArrayId, VALUEIN> anOther : others.entrySet()) {
-					if (anOther.getKey().equals(
-							primary.getKey())) {
-						continue;
+				else {
+					for (final Map.Entry<ByteArrayId, VALUEIN> anotherPrimary : primaries.entrySet()) {
+						addIfNeighbor(
+								index,
+								primaryList,
+								primary,
+								anotherPrimary,
+								true);
 					}
-					if (!primaryList.contains(anOther.getKey())) {
-						final DistanceProfile<?> distanceProfile = distanceProfileFn.computeProfile(
-								primary.getValue(),
-								anOther.getValue());
-						if (distanceProfile.getDistance() <= maxDistance) {
-							index.add(
-									distanceProfile,
-									primary,
-									anOther,
-									false);
-						}
+					context.progress();
+					for (final Map.Entry<ByteArrayId, VALUEIN> anOther : others.entrySet()) {
+						addIfNeighbor(
+								index,
+								primaryList,
+								primary,
+								anOther,
+								false);
 					}
 				}
 				context.progress();
@@ -325,6 +338,131 @@ public class NNMapReduce
 					context);
 		}
 
+		private void addIfNeighbor(
+				final NeighborIndex<VALUEIN> index,
+				final NeighborList<VALUEIN> primaryList,
+				final Map.Entry<ByteArrayId, VALUEIN> primary,
+				final Map.Entry<ByteArrayId, VALUEIN> candidate,
+				final boolean candidateIsPrimary ) {
+			if (candidate.getKey().equals(
+					primary.getKey())) {
+				return;
+			}
+			if (!primaryList.contains(candidate.getKey())) {
+				final DistanceProfile<?> distanceProfile = distanceProfileFn.computeProfile(
+						primary.getValue(),
+						candidate.getValue());
+				if (distanceProfile.getDistance() <= maxDistance) {
+					index.add(
+							distanceProfile,
+							primary,
+							candidate,
+							candidateIsPrimary);
+				}
+			}
+		}
+
+		/**
+		 * Index the items of the partition by envelope so that each primary is
+		 * only compared to the items near it.
+		 * 
+		 * @return the index, or null if the envelope of an item or the search
+		 *         distance cannot be determined, in which case every pair of
+		 *         items is compared
+		 */
+		private NeighborCandidateIndex<VALUEIN> createCandidateIndex(
+				final Map<ByteArrayId, VALUEIN> primaries,
+				final Map<ByteArrayId, VALUEIN> others ) {
+			if (getCoordinateDistanceFn() == null) {
+				return null;
+			}
+			final NeighborCandidateIndex<VALUEIN> candidateIndex = new NeighborCandidateIndex<VALUEIN>();
+			for (final Map.Entry<ByteArrayId, VALUEIN> primary : primaries.entrySet()) {
+				final Envelope envelope = getEnvelope(primary.getValue());
+				if ((envelope == null) || envelope.isNull() || (getSearchEnvelope(primary.getValue()) == null)) {
+					return null;
+				}
+				candidateIndex.add(
+						primary,
+						envelope,
+						true);
+			}
+			for (final Map.Entry<ByteArrayId, VALUEIN> anOther : others.entrySet()) {
+				final Envelope envelope = getEnvelope(anOther.getValue());
+				if ((envelope == null) || envelope.isNull()) {
+					return null;
+				}
+				candidateIndex.add(
+						anOther,
+						envelope,
+						false);
+			}
+			return candidateIndex;
+		}
+
+		private Envelope getSearchEnvelope(
+				final VALUEIN item ) {
+			return NeighborCandidateIndex.getSearchEnvelope(
+					getEnvelope(item),
+					maxDistance,
+					getCoordinateDistanceFn());
+		}
+
+		/**
+		 * Extension point for items that are not simple features, geometries
+		 * or coordinates.
+		 * 
+		 * @return the envelope of the item in the coordinate space measured by
+		 *         {@link #getCoordinateDistanceFn()}, or null if unknown
+		 */
+		protected Envelope getEnvelope(
+				final VALUEIN item ) {
+			Geometry geometry = null;
+			if (item instanceof SimpleFeature) {
+				// the distance functions measure the first geometry attribute
+				for (final Object attribute : ((SimpleFeature) item).getAttributes()) {
+					if (attribute instanceof Geometry) {
+						geometry = (Geometry) attribute;
+						break;
+					}
+				}
+				if (geometry == null) {
+					geometry = (Geometry) ((SimpleFeature) item).getDefaultGeometry();
+				}
+			}
+			else if (item instanceof Geometry) {
+				geometry = (Geometry) item;
+			}
+			else if (item instanceof Coordinate) {
+				return new Envelope(
+						(Coordinate) item);
+			}
+			return geometry == null ? null : geometry.getEnvelopeInternal();
+		}
+
+		/**
+		 * Extension point for distance functions other than those provided.
+		 * 
+		 * @return the function used by the distance function to measure
+		 *         between coordinates of the items, or null if unknown
+		 */
+		@SuppressWarnings("unchecked")
+		protected DistanceFn<Coordinate> getCoordinateDistanceFn() {
+			if (distanceFn instanceof FeatureGeometryDistanceFn) {
+				return ((FeatureGeometryDistanceFn) distanceFn).getCoordinateDistanceFunction();
+			}
+			if (distanceFn instanceof FeatureCentroidDistanceFn) {
+				return ((FeatureCentroidDistanceFn) distanceFn).getCoordinateDistanceFunction();
+			}
+			if (distanceFn instanceof FeatureDistanceFn) {
+				return ((FeatureDistanceFn) distanceFn).getCoordinateDistanceFunction();
+			}
+			if ((distanceFn instanceof CoordinateEuclideanDistanceFn) || (distanceFn instanceof CoordinateCircleDistanceFn)) {
+				return (DistanceFn<Coordinate>) distanceFn;
+			}
+			return null;
+		}
+
 		public NeighborListFactory<VALUEIN> createNeighborsListFactory(
 				PARTITION_SUMMARY summary ) {
 			return new DefaultNeighborList.DefaultNeighborListFactory<VALUEIN>();
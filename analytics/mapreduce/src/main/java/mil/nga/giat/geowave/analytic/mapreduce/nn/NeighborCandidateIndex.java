@@ -0,0 +1,182 @@
+package mil.nga.giat.geowave.analytic.mapreduce.nn;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import mil.nga.giat.geowave.analytic.distance.CoordinateCircleDistanceFn;
+import mil.nga.giat.geowave.analytic.distance.CoordinateEuclideanDistanceFn;
+import mil.nga.giat.geowave.analytic.distance.DistanceFn;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.index.strtree.STRtree;
+
+/**
+ * An in-memory spatial index (an STR-tree) over the items of a single
+ * partition, used to find the candidate neighbors of an item without comparing
+ * it to every other item in the partition. Candidates are only selected by
+ * envelope, so the actual distance must still be measured; the index is
+ * conservative and never misses an item within the search distance.
+ *
+ * Candidates are returned in the order in which they were added, so that
+ * neighbor lists are populated in the same order as an exhaustive search.
+ *
+ * @param <NNTYPE>
+ */
+public class NeighborCandidateIndex<NNTYPE>
+{
+	/**
+	 * The smallest radius of curvature of the WGS84 ellipsoid (the meridional
+	 * radius at the equator), in meters. Dividing by it overestimates the angle
+	 * subtended by a distance anywhere on the ellipsoid.
+	 */
+	private static final double MIN_EARTH_RADIUS = 6335439.0;
+	/**
+	 * Allowance for the difference between the spherical bound and geodesic
+	 * distances on the ellipsoid
+	 */
+	private static final double SAFETY_FACTOR = 1.01;
+
+	private static final Comparator<Candidate<?>> ORDER = new Comparator<Candidate<?>>() {
+		@Override
+		public int compare(
+				final Candidate<?> c1,
+				final Candidate<?> c2 ) {
+			return (c1.order < c2.order) ? -1 : ((c1.order == c2.order) ? 0 : 1);
+		}
+	};
+
+	private final STRtree tree = new STRtree();
+	private int size = 0;
+
+	/**
+	 * Add an item; all items must be added prior to the first query.
+	 */
+	public void add(
+			final Map.Entry<ByteArrayId, NNTYPE> entry,
+			final Envelope envelope,
+			final boolean primary ) {
+		tree.insert(
+				envelope,
+				new Candidate<NNTYPE>(
+						entry,
+						primary,
+						size++));
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the items whose envelopes intersect the search envelope, in the
+	 *         order in which they were added
+	 */
+	@SuppressWarnings("unchecked")
+	public List<Candidate<NNTYPE>> query(
+			final Envelope searchEnvelope ) {
+		final List<Candidate<NNTYPE>> candidates = tree.query(searchEnvelope);
+		Collections.sort(
+				candidates,
+				ORDER);
+		return candidates;
+	}
+
+	/**
+	 * Expand an envelope by a distance, measured by the coordinate distance
+	 * function, such that the expanded envelope contains every coordinate
+	 * within that distance of the original envelope.
+	 *
+	 * @return the expanded envelope or null if the coordinate distance
+	 *         function is not supported, in which case the search for
+	 *         neighbors cannot be bounded
+	 */
+	public static Envelope getSearchEnvelope(
+			final Envelope envelope,
+			final double distance,
+			final DistanceFn<Coordinate> coordinateDistanceFn ) {
+		if (coordinateDistanceFn == null) {
+			return null;
+		}
+		if (coordinateDistanceFn.getClass() == CoordinateEuclideanDistanceFn.class) {
+			final Envelope searchEnvelope = new Envelope(
+					envelope);
+			searchEnvelope.expandBy(distance);
+			return searchEnvelope;
+		}
+		if (coordinateDistanceFn.getClass() == CoordinateCircleDistanceFn.class) {
+			return getGeographicSearchEnvelope(
+					envelope,
+					distance);
+		}
+		return null;
+	}
+
+	/**
+	 * Expand an envelope in longitude and latitude by a distance in meters
+	 */
+	private static Envelope getGeographicSearchEnvelope(
+			final Envelope envelope,
+			final double distance ) {
+		// the angle between the two points on a sphere small enough for every
+		// geodesic of this length to fit within it
+		final double angle = (distance * SAFETY_FACTOR) / MIN_EARTH_RADIUS;
+		final double latitudeDelta = Math.toDegrees(angle);
+		final double minLatitude = envelope.getMinY() - latitudeDelta;
+		final double maxLatitude = envelope.getMaxY() + latitudeDelta;
+		final double maxAbsLatitude = Math.max(
+				Math.abs(minLatitude),
+				Math.abs(maxLatitude));
+		if (maxAbsLatitude < 90) {
+			// from the haversine formula, the difference in longitude is
+			// largest where the points are closest to the poles
+			final double halfLongitudeSine = Math.sin(angle / 2) / Math.cos(Math.toRadians(maxAbsLatitude));
+			if (halfLongitudeSine < 1) {
+				final double longitudeDelta = Math.toDegrees(2 * Math.asin(halfLongitudeSine));
+				final double minLongitude = envelope.getMinX() - longitudeDelta;
+				final double maxLongitude = envelope.getMaxX() + longitudeDelta;
+				// neighbors across the anti-meridian require the full range of
+				// longitude
+				if ((minLongitude >= -180) && (maxLongitude <= 180)) {
+					return new Envelope(
+							minLongitude,
+							maxLongitude,
+							minLatitude,
+							maxLatitude);
+				}
+			}
+		}
+		return new Envelope(
+				-Double.MAX_VALUE,
+				Double.MAX_VALUE,
+				minLatitude,
+				maxLatitude);
+	}
+
+	public static class Candidate<NNTYPE>
+	{
+		private final Map.Entry<ByteArrayId, NNTYPE> entry;
+		private final boolean primary;
+		private final int order;
+
+		private Candidate(
+				final Map.Entry<ByteArrayId, NNTYPE> entry,
+				final boolean primary,
+				final int order ) {
+			this.entry = entry;
+			this.primary = primary;
+			this.order = order;
+		}
+
+		public Map.Entry<ByteArrayId, NNTYPE> getEntry() {
+			return entry;
+		}
+
+		public boolean isPrimary() {
+			return primary;
+		}
+	}
+}
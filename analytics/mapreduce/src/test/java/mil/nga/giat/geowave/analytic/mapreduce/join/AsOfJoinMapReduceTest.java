@@ -0,0 +1,325 @@
+package mil.nga.giat.geowave.analytic.mapreduce.join;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import mil.nga.giat.geowave.adapter.vector.FeatureDataAdapter;
+import mil.nga.giat.geowave.analytic.AdapterWithObjectWritable;
+import mil.nga.giat.geowave.analytic.mapreduce.join.AsOfJoinMapReduce.JoinCellWritable;
+import mil.nga.giat.geowave.analytic.mapreduce.kmeans.SimpleFeatureImplSerialization;
+import mil.nga.giat.geowave.analytic.param.JoinParameters;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.datastore.accumulo.mapreduce.GeoWaveConfiguratorBase;
+import mil.nga.giat.geowave.datastore.accumulo.mapreduce.JobContextAdapterStore;
+import mil.nga.giat.geowave.datastore.accumulo.mapreduce.input.GeoWaveInputKey;
+import mil.nga.giat.geowave.datastore.accumulo.mapreduce.output.GeoWaveOutputKey;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DataInputByteBuffer;
+import org.apache.hadoop.io.DataOutputByteBuffer;
+import org.apache.hadoop.mrunit.mapreduce.MapDriver;
+import org.apache.hadoop.mrunit.mapreduce.ReduceDriver;
+import org.apache.hadoop.mrunit.types.Pair;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+
+public class AsOfJoinMapReduceTest
+{
+	private static final double MAX_DISTANCE = 1.0;
+	private static final long MAX_STALENESS = 60000;
+	private static final long START_TIME = 1000000000000L;
+
+	MapDriver<GeoWaveInputKey, Object, JoinCellWritable, AdapterWithObjectWritable> mapDriver;
+	ReduceDriver<JoinCellWritable, AdapterWithObjectWritable, GeoWaveOutputKey, SimpleFeature> reduceDriver;
+	SimpleFeatureType trackType;
+	SimpleFeatureType observationType;
+	final GeometryFactory factory = new GeometryFactory();
+
+	@Before
+	public void setUp() {
+		mapDriver = MapDriver.newMapDriver(new AsOfJoinMapReduce.AsOfJoinMapper());
+		reduceDriver = ReduceDriver.newReduceDriver(new AsOfJoinMapReduce.AsOfJoinReducer());
+
+		final SimpleFeatureTypeBuilder trackBuilder = new SimpleFeatureTypeBuilder();
+		trackBuilder.setName("track");
+		trackBuilder.add(
+				"geometry",
+				Point.class);
+		trackBuilder.add(
+				"time",
+				Date.class);
+		trackBuilder.add(
+				"vessel",
+				String.class);
+		trackType = trackBuilder.buildFeatureType();
+
+		final SimpleFeatureTypeBuilder observationBuilder = new SimpleFeatureTypeBuilder();
+		observationBuilder.setName("observation");
+		observationBuilder.add(
+				"geometry",
+				Point.class);
+		observationBuilder.add(
+				"time",
+				Date.class);
+		observationBuilder.add(
+				"temperature",
+				Double.class);
+		observationType = observationBuilder.buildFeatureType();
+
+		for (final Configuration config : new Configuration[] {
+			mapDriver.getConfiguration(),
+			reduceDriver.getConfiguration()
+		}) {
+			config.set(
+					GeoWaveConfiguratorBase.enumToConfKey(
+							AsOfJoinMapReduce.class,
+							JoinParameters.Join.TRACK_DATA_TYPE_ID),
+					"track");
+			config.set(
+					GeoWaveConfiguratorBase.enumToConfKey(
+							AsOfJoinMapReduce.class,
+							JoinParameters.Join.OBSERVATION_DATA_TYPE_ID),
+					"observation");
+			config.setDouble(
+					GeoWaveConfiguratorBase.enumToConfKey(
+							AsOfJoinMapReduce.class,
+							JoinParameters.Join.MAX_DISTANCE),
+					MAX_DISTANCE);
+			config.setLong(
+					GeoWaveConfiguratorBase.enumToConfKey(
+							AsOfJoinMapReduce.class,
+							JoinParameters.Join.MAX_STALENESS_MILLIS),
+					MAX_STALENESS);
+			JobContextAdapterStore.addDataAdapter(
+					config,
+					new FeatureDataAdapter(
+							trackType));
+			JobContextAdapterStore.addDataAdapter(
+					config,
+					new FeatureDataAdapter(
+							observationType));
+		}
+		serializations();
+	}
+
+	private void serializations() {
+		final String[] strings = reduceDriver.getConfiguration().getStrings(
+				"io.serializations");
+		final String[] newStrings = new String[strings.length + 1];
+		System.arraycopy(
+				strings,
+				0,
+				newStrings,
+				0,
+				strings.length);
+		newStrings[newStrings.length - 1] = SimpleFeatureImplSerialization.class.getName();
+		reduceDriver.getConfiguration().setStrings(
+				"io.serializations",
+				newStrings);
+
+		mapDriver.getConfiguration().setStrings(
+				"io.serializations",
+				newStrings);
+	}
+
+	private SimpleFeature createFeature(
+			final SimpleFeatureType type,
+			final String id,
+			final double x,
+			final double y,
+			final long time,
+			final Object extra ) {
+		final SimpleFeatureBuilder builder = new SimpleFeatureBuilder(
+				type);
+		builder.add(factory.createPoint(new Coordinate(
+				x,
+				y)));
+		builder.add(new Date(
+				time));
+		builder.add(extra);
+		return builder.buildFeature(id);
+	}
+
+	private void addInput(
+			final SimpleFeature feature ) {
+		final GeoWaveInputKey inputKey = new GeoWaveInputKey();
+		inputKey.setAdapterId(new ByteArrayId(
+				feature.getFeatureType().getTypeName()));
+		inputKey.setDataId(new ByteArrayId(
+				feature.getID()));
+		mapDriver.addInput(
+				inputKey,
+				feature);
+	}
+
+	@Test
+	public void testJoinMatchesBruteForce()
+			throws IOException {
+		final Random random = new Random(
+				7);
+		final List<SimpleFeature> positions = new ArrayList<SimpleFeature>();
+		final List<SimpleFeature> observations = new ArrayList<SimpleFeature>();
+		for (int i = 0; i < 300; i++) {
+			final SimpleFeature observation = createFeature(
+					observationType,
+					"o" + i,
+					(random.nextDouble() * 10) - 5,
+					(random.nextDouble() * 10) - 5,
+					START_TIME + (random.nextInt(60) * 10000L),
+					random.nextDouble() * 30);
+			observations.add(observation);
+			addInput(observation);
+		}
+		for (int i = 0; i < 200; i++) {
+			final SimpleFeature position = createFeature(
+					trackType,
+					"p" + i,
+					(random.nextDouble() * 10) - 5,
+					(random.nextDouble() * 10) - 5,
+					START_TIME + (random.nextInt(600000)),
+					"v" + (i % 5));
+			positions.add(position);
+			addInput(position);
+		}
+
+		final List<Pair<JoinCellWritable, AdapterWithObjectWritable>> mapperResults = mapDriver.run();
+		// each position is sent to exactly one cell
+		int primaryCount = 0;
+		for (final Pair<JoinCellWritable, AdapterWithObjectWritable> pair : mapperResults) {
+			if (pair.getSecond().isPrimary()) {
+				primaryCount++;
+			}
+		}
+		assertEquals(
+				positions.size(),
+				primaryCount);
+
+		reduceDriver.addAll(getReducerDataFromMapperInput(mapperResults));
+		final List<Pair<GeoWaveOutputKey, SimpleFeature>> reduceResults = reduceDriver.run();
+		assertEquals(
+				positions.size(),
+				reduceResults.size());
+
+		final Map<String, SimpleFeature> enrichedPositions = new HashMap<String, SimpleFeature>();
+		for (final Pair<GeoWaveOutputKey, SimpleFeature> pair : reduceResults) {
+			enrichedPositions.put(
+					pair.getSecond().getID(),
+					pair.getSecond());
+		}
+		int matchCount = 0;
+		for (final SimpleFeature position : positions) {
+			final SimpleFeature enriched = enrichedPositions.get(position.getID());
+			final SimpleFeature expected = bruteForceMatch(
+					position,
+					observations);
+			if (expected == null) {
+				assertNull(enriched.getAttribute(AsOfJoinMapReduce.OBSERVATION_ID_ATTRIBUTE));
+			}
+			else {
+				matchCount++;
+				assertEquals(
+						expected.getID(),
+						enriched.getAttribute(AsOfJoinMapReduce.OBSERVATION_ID_ATTRIBUTE));
+				assertEquals(
+						expected.getAttribute("temperature"),
+						enriched.getAttribute(AsOfJoinMapReduce.OBSERVATION_ATTRIBUTE_PREFIX + "temperature"));
+			}
+			assertEquals(
+					position.getAttribute("vessel"),
+					enriched.getAttribute("vessel"));
+		}
+		// the data should exercise both matched and unmatched positions
+		assertTrue(matchCount > 0);
+		assertTrue(matchCount < positions.size());
+	}
+
+	@Test
+	public void testWritable()
+			throws IOException {
+		final JoinCellWritable writable1 = new JoinCellWritable(
+				1,
+				-2,
+				3);
+		final JoinCellWritable writable2 = new JoinCellWritable(
+				1,
+				-2,
+				4);
+		assertTrue(writable1.compareTo(writable2) < 0);
+
+		final DataOutputByteBuffer output = new DataOutputByteBuffer();
+		writable1.write(output);
+		output.flush();
+		final DataInputByteBuffer input = new DataInputByteBuffer();
+		input.reset(output.getData());
+		writable2.readFields(input);
+		assertEquals(
+				writable1,
+				writable2);
+	}
+
+	private SimpleFeature bruteForceMatch(
+			final SimpleFeature position,
+			final List<SimpleFeature> observations ) {
+		final Point point = (Point) position.getDefaultGeometry();
+		final long time = ((Date) position.getAttribute("time")).getTime();
+		SimpleFeature best = null;
+		long bestTime = Long.MIN_VALUE;
+		double bestDistance = Double.MAX_VALUE;
+		for (final SimpleFeature observation : observations) {
+			final Point obsPoint = (Point) observation.getDefaultGeometry();
+			final long obsTime = ((Date) observation.getAttribute("time")).getTime();
+			final double dx = obsPoint.getX() - point.getX();
+			final double dy = obsPoint.getY() - point.getY();
+			final double distance = Math.sqrt((dx * dx) + (dy * dy));
+			if ((obsTime > time) || (obsTime < (time - MAX_STALENESS)) || (distance > MAX_DISTANCE)) {
+				continue;
+			}
+			if ((best == null) || (obsTime > bestTime) || ((obsTime == bestTime) && ((distance < bestDistance) || ((distance == bestDistance) && (observation.getID().compareTo(
+					best.getID()) < 0))))) {
+				best = observation;
+				bestTime = obsTime;
+				bestDistance = distance;
+			}
+		}
+		return best;
+	}
+
+	private List<Pair<JoinCellWritable, List<AdapterWithObjectWritable>>> getReducerDataFromMapperInput(
+			final List<Pair<JoinCellWritable, AdapterWithObjectWritable>> mapperResults ) {
+		final Map<JoinCellWritable, List<AdapterWithObjectWritable>> groups = new HashMap<JoinCellWritable, List<AdapterWithObjectWritable>>();
+		for (final Pair<JoinCellWritable, AdapterWithObjectWritable> pair : mapperResults) {
+			List<AdapterWithObjectWritable> group = groups.get(pair.getFirst());
+			if (group == null) {
+				group = new ArrayList<AdapterWithObjectWritable>();
+				groups.put(
+						pair.getFirst(),
+						group);
+			}
+			group.add(pair.getSecond());
+		}
+		final List<Pair<JoinCellWritable, List<AdapterWithObjectWritable>>> reducerInputSet = new ArrayList<Pair<JoinCellWritable, List<AdapterWithObjectWritable>>>();
+		for (final Map.Entry<JoinCellWritable, List<AdapterWithObjectWritable>> entry : groups.entrySet()) {
+			reducerInputSet.add(new Pair<JoinCellWritable, List<AdapterWithObjectWritable>>(
+					entry.getKey(),
+					entry.getValue()));
+		}
+		return reducerInputSet;
+	}
+}
@@ -0,0 +1,217 @@
+package mil.nga.giat.geowave.analytic.mapreduce.nn;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mil.nga.giat.geowave.adapter.vector.FeatureDataAdapter;
+import mil.nga.giat.geowave.analytic.AdapterWithObjectWritable;
+import mil.nga.giat.geowave.analytic.GeometryDataSetGenerator;
+import mil.nga.giat.geowave.analytic.distance.DistanceFn;
+import mil.nga.giat.geowave.analytic.distance.FeatureCentroidOrthodromicDistanceFn;
+import mil.nga.giat.geowave.analytic.mapreduce.kmeans.SimpleFeatureImplSerialization;
+import mil.nga.giat.geowave.analytic.mapreduce.nn.NNMapReduce.PartitionDataWritable;
+import mil.nga.giat.geowave.analytic.param.CommonParameters;
+import mil.nga.giat.geowave.analytic.param.PartitionParameters;
+import mil.nga.giat.geowave.analytic.partitioner.Partitioner.PartitionData;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
+import mil.nga.giat.geowave.core.store.adapter.MemoryAdapterStore;
+import mil.nga.giat.geowave.datastore.accumulo.mapreduce.GeoWaveConfiguratorBase;
+import mil.nga.giat.geowave.datastore.accumulo.mapreduce.HadoopWritableSerializationTool;
+import mil.nga.giat.geowave.datastore.accumulo.mapreduce.JobContextAdapterStore;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mrunit.mapreduce.ReduceDriver;
+import org.apache.hadoop.mrunit.types.Pair;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * Compares the spatially indexed neighbor search of the reducer with the
+ * exhaustive search on a single dense partition.
+ */
+public class NNReducerSkewedDataTest
+{
+	private static final double MAX_DISTANCE = 100.0;
+
+	private SimpleFeatureType ftype;
+	private List<SimpleFeature> features;
+
+	@Before
+	public void setUp() {
+		final SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+		typeBuilder.setName("skewed");
+		typeBuilder.setCRS(DefaultGeographicCRS.WGS84);
+		typeBuilder.add(
+				"geom",
+				Geometry.class);
+		typeBuilder.add(
+				"name",
+				String.class);
+		ftype = typeBuilder.buildFeatureType();
+
+		final GeometryDataSetGenerator dataGenerator = new GeometryDataSetGenerator(
+				new FeatureCentroidOrthodromicDistanceFn(),
+				new SimpleFeatureBuilder(
+						ftype));
+		dataGenerator.setIncludePolygons(false);
+		// nearly all of the points fall within two clusters roughly two
+		// kilometers wide, as around a port
+		features = dataGenerator.generatePointSet(
+				0.01,
+				0.05,
+				2,
+				600,
+				new double[] {
+					-92,
+					-37
+				},
+				new double[] {
+					-90,
+					-35
+				});
+	}
+
+	@Test
+	public void testIndexedSearchMatchesExhaustiveSearch()
+			throws IOException {
+		CountingDistanceFn.COUNT.set(0);
+		final long indexedStart = System.currentTimeMillis();
+		final Map<String, String> indexedResults = run(new NNMapReduce.NNSimpleFeatureIDOutputReducer());
+		final long indexedTime = System.currentTimeMillis() - indexedStart;
+		final long indexedMeasurements = CountingDistanceFn.COUNT.get();
+
+		CountingDistanceFn.COUNT.set(0);
+		final long exhaustiveStart = System.currentTimeMillis();
+		final Map<String, String> exhaustiveResults = run(new ExhaustiveReducer());
+		final long exhaustiveTime = System.currentTimeMillis() - exhaustiveStart;
+		final long exhaustiveMeasurements = CountingDistanceFn.COUNT.get();
+
+		System.out.println("Indexed search: " + indexedMeasurements + " distances measured in " + indexedTime + " ms; exhaustive search: " + exhaustiveMeasurements + " distances measured in " + exhaustiveTime + " ms");
+
+		assertFalse(exhaustiveResults.isEmpty());
+		// the same neighbors, in the same order
+		assertEquals(
+				exhaustiveResults,
+				indexedResults);
+		assertTrue(indexedMeasurements * 10 < exhaustiveMeasurements);
+	}
+
+	private Map<String, String> run(
+			final NNMapReduce.NNReducer<SimpleFeature, Text, Text, Boolean> reducer )
+			throws IOException {
+		final ReduceDriver<PartitionDataWritable, AdapterWithObjectWritable, Text, Text> reduceDriver = ReduceDriver.newReduceDriver(reducer);
+		final Configuration config = reduceDriver.getConfiguration();
+		config.setClass(
+				GeoWaveConfiguratorBase.enumToConfKey(
+						NNMapReduce.class,
+						CommonParameters.Common.DISTANCE_FUNCTION_CLASS),
+				CountingDistanceFn.class,
+				DistanceFn.class);
+		config.setDouble(
+				GeoWaveConfiguratorBase.enumToConfKey(
+						NNMapReduce.class,
+						PartitionParameters.Partition.PARTITION_DISTANCE),
+				MAX_DISTANCE);
+		final FeatureDataAdapter adapter = new FeatureDataAdapter(
+				ftype);
+		JobContextAdapterStore.addDataAdapter(
+				config,
+				adapter);
+		final String[] strings = config.getStrings("io.serializations");
+		final String[] newStrings = new String[strings.length + 1];
+		System.arraycopy(
+				strings,
+				0,
+				newStrings,
+				0,
+				strings.length);
+		newStrings[newStrings.length - 1] = SimpleFeatureImplSerialization.class.getName();
+		config.setStrings(
+				"io.serializations",
+				newStrings);
+
+		final HadoopWritableSerializationTool serializationTool = new HadoopWritableSerializationTool(
+				new MemoryAdapterStore(
+						new DataAdapter<?>[] {
+							adapter
+						}));
+		final List<AdapterWithObjectWritable> values = new ArrayList<AdapterWithObjectWritable>();
+		for (int i = 0; i < features.size(); i++) {
+			final SimpleFeature feature = features.get(i);
+			final AdapterWithObjectWritable value = new AdapterWithObjectWritable();
+			// a quarter of the items only neighbor this partition
+			AdapterWithObjectWritable.fillWritableWithAdapter(
+					serializationTool,
+					value,
+					adapter.getAdapterId(),
+					new ByteArrayId(
+							feature.getID()),
+					(i % 4) != 0,
+					feature);
+			values.add(value);
+		}
+		reduceDriver.addInput(
+				new PartitionDataWritable(
+						new PartitionData(
+								new ByteArrayId(
+										"skewed"),
+								true)),
+				values);
+
+		final Map<String, String> results = new HashMap<String, String>();
+		for (final Pair<Text, Text> result : reduceDriver.run()) {
+			results.put(
+					result.getFirst().toString(),
+					result.getSecond().toString());
+		}
+		return results;
+	}
+
+	public static class CountingDistanceFn extends
+			FeatureCentroidOrthodromicDistanceFn
+	{
+		private static final long serialVersionUID = 1L;
+		private static final AtomicLong COUNT = new AtomicLong();
+
+		@Override
+		public double measure(
+				final SimpleFeature x,
+				final SimpleFeature y ) {
+			COUNT.incrementAndGet();
+			return super.measure(
+					x,
+					y);
+		}
+	}
+
+	/**
+	 * Compares every pair of items, as the reducer does when the distance
+	 * units are unknown
+	 */
+	public static class ExhaustiveReducer extends
+			NNMapReduce.NNSimpleFeatureIDOutputReducer
+	{
+		@Override
+		protected DistanceFn<Coordinate> getCoordinateDistanceFn() {
+			return null;
+		}
+	}
+}
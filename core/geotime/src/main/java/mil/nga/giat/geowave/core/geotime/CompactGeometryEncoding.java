@@ -0,0 +1,525 @@
+package mil.nga.giat.geowave.core.geotime;
+
+import java.util.Arrays;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryCollection;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.geom.MultiPoint;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+
+/**
+ * A compact binary encoding of JTS geometries in the spirit of TWKB. Ordinates
+ * are rounded to a fixed number of decimal digits and each one is written as
+ * the zig-zag varint of its difference from the previous ordinate of the same
+ * axis, so neighboring vertices such as those of a GPS track usually take one
+ * or two bytes per ordinate rather than eight.
+ *
+ * The header holds the type of the geometry, the precision and the bounding
+ * box of the rounded coordinates, so the envelope of an encoded geometry can be
+ * read without decoding it. The first byte of the encoding is never 0 or 1,
+ * the byte order marker that starts well-known binary, so the two encodings can
+ * be told apart.
+ *
+ * Coordinates are rounded when encoded, so a decoded geometry may differ from
+ * the original by half of the precision and may even be invalid; the precision
+ * must be chosen with the data in mind.
+ */
+public class CompactGeometryEncoding
+{
+	public static final byte FORMAT = 0x02;
+	public static final int MIN_PRECISION = -7;
+	public static final int MAX_PRECISION = 15;
+
+	private static final int POINT = 1;
+	private static final int LINESTRING = 2;
+	private static final int POLYGON = 3;
+	private static final int MULTIPOINT = 4;
+	private static final int MULTILINESTRING = 5;
+	private static final int MULTIPOLYGON = 6;
+	private static final int GEOMETRYCOLLECTION = 7;
+	private static final int TYPE_MASK = 0x0F;
+	private static final int EMPTY_FLAG = 0x10;
+	private static final int Z_FLAG = 0x20;
+
+	/**
+	 * @return whether the binary is in this encoding rather than well-known
+	 *         binary
+	 */
+	public static boolean isCompact(
+			final byte[] binary ) {
+		return (binary != null) && (binary.length > 0) && (binary[0] == FORMAT);
+	}
+
+	/**
+	 * @param precision
+	 *            the number of decimal digits of the ordinates, negative to
+	 *            round to tens, hundreds, etc.
+	 */
+	public static byte[] encode(
+			final Geometry geometry,
+			final int precision ) {
+		if ((precision < MIN_PRECISION) || (precision > MAX_PRECISION)) {
+			throw new IllegalArgumentException(
+					"Precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION);
+		}
+		final Coordinate first = geometry.getCoordinate();
+		final boolean hasZ = (first != null) && !Double.isNaN(first.z);
+		final Encoder encoder = new Encoder(
+				precision,
+				hasZ);
+		encoder.writeByte(FORMAT);
+		encoder.writeByte(typeByte(
+				geometry,
+				hasZ));
+		encoder.writeByte(precision);
+		if (!geometry.isEmpty()) {
+			// the bounding box of the rounded coordinates, as the minimum
+			// and the size of each axis
+			final Envelope env = geometry.getEnvelopeInternal();
+			final long minX = encoder.scale(env.getMinX());
+			final long minY = encoder.scale(env.getMinY());
+			encoder.writeSignedVarLong(minX);
+			encoder.writeVarLong(encoder.scale(env.getMaxX()) - minX);
+			encoder.writeSignedVarLong(minY);
+			encoder.writeVarLong(encoder.scale(env.getMaxY()) - minY);
+			encoder.writeGeometry(geometry);
+		}
+		return encoder.toByteArray();
+	}
+
+	public static Geometry decode(
+			final byte[] binary ) {
+		return decode(
+				binary,
+				GeometryUtils.GEOMETRY_FACTORY);
+	}
+
+	public static Geometry decode(
+			final byte[] binary,
+			final GeometryFactory factory ) {
+		final Decoder decoder = new Decoder(
+				binary,
+				factory);
+		decoder.readFormat();
+		final int type = decoder.readByte();
+		decoder.setPrecision(
+				decoder.readByte(),
+				(type & Z_FLAG) != 0);
+		if ((type & EMPTY_FLAG) != 0) {
+			return decoder.createEmpty(type & TYPE_MASK);
+		}
+		decoder.skipBoundingBox();
+		return decoder.readGeometry(type & TYPE_MASK);
+	}
+
+	/**
+	 * Reads the envelope from the header without decoding the geometry
+	 *
+	 * @return the envelope of the decoded geometry, a null envelope if the
+	 *         geometry is empty
+	 */
+	public static Envelope decodeEnvelope(
+			final byte[] binary ) {
+		final Decoder decoder = new Decoder(
+				binary,
+				null);
+		decoder.readFormat();
+		final int type = decoder.readByte();
+		decoder.setPrecision(
+				decoder.readByte(),
+				false);
+		if ((type & EMPTY_FLAG) != 0) {
+			return new Envelope();
+		}
+		final long minX = decoder.readSignedVarLong();
+		final long maxX = minX + decoder.readVarLong();
+		final long minY = decoder.readSignedVarLong();
+		final long maxY = minY + decoder.readVarLong();
+		return new Envelope(
+				decoder.unscale(minX),
+				decoder.unscale(maxX),
+				decoder.unscale(minY),
+				decoder.unscale(maxY));
+	}
+
+	/**
+	 * @return the precision the binary was encoded with
+	 */
+	public static int decodePrecision(
+			final byte[] binary ) {
+		return binary[2];
+	}
+
+	private static int typeByte(
+			final Geometry geometry,
+			final boolean hasZ ) {
+		int type;
+		if (geometry instanceof Point) {
+			type = POINT;
+		}
+		else if (geometry instanceof LineString) {
+			type = LINESTRING;
+		}
+		else if (geometry instanceof Polygon) {
+			type = POLYGON;
+		}
+		else if (geometry instanceof MultiPoint) {
+			type = MULTIPOINT;
+		}
+		else if (geometry instanceof MultiLineString) {
+			type = MULTILINESTRING;
+		}
+		else if (geometry instanceof MultiPolygon) {
+			type = MULTIPOLYGON;
+		}
+		else if (geometry instanceof GeometryCollection) {
+			type = GEOMETRYCOLLECTION;
+		}
+		else {
+			throw new IllegalArgumentException(
+					"Unsupported geometry type '" + geometry.getGeometryType() + "'");
+		}
+		if (geometry.isEmpty()) {
+			type |= EMPTY_FLAG;
+		}
+		if (hasZ) {
+			type |= Z_FLAG;
+		}
+		return type;
+	}
+
+	private static class Encoder
+	{
+		private final double scale;
+		private final boolean hasZ;
+		private byte[] buffer = new byte[64];
+		private int length = 0;
+		private long lastX = 0;
+		private long lastY = 0;
+		private long lastZ = 0;
+
+		private Encoder(
+				final int precision,
+				final boolean hasZ ) {
+			scale = Math.pow(
+					10,
+					precision);
+			this.hasZ = hasZ;
+		}
+
+		private long scale(
+				final double ordinate ) {
+			return Math.round(ordinate * scale);
+		}
+
+		private void writeGeometry(
+				final Geometry geometry ) {
+			if (geometry instanceof Point) {
+				writeCoordinates(((Point) geometry).getCoordinateSequence());
+			}
+			else if (geometry instanceof LineString) {
+				writeLineString((LineString) geometry);
+			}
+			else if (geometry instanceof Polygon) {
+				writePolygon((Polygon) geometry);
+			}
+			else if (geometry instanceof MultiPoint) {
+				// a point of a multi-point is just its coordinate, so empty
+				// points are dropped
+				int pointCount = 0;
+				for (int i = 0; i < geometry.getNumGeometries(); i++) {
+					if (!geometry.getGeometryN(
+							i).isEmpty()) {
+						pointCount++;
+					}
+				}
+				writeVarLong(pointCount);
+				for (int i = 0; i < geometry.getNumGeometries(); i++) {
+					final Point point = (Point) geometry.getGeometryN(i);
+					if (!point.isEmpty()) {
+						writeCoordinates(point.getCoordinateSequence());
+					}
+				}
+			}
+			else if ((geometry instanceof MultiLineString) || (geometry instanceof MultiPolygon)) {
+				writeVarLong(geometry.getNumGeometries());
+				for (int i = 0; i < geometry.getNumGeometries(); i++) {
+					writeGeometry(geometry.getGeometryN(i));
+				}
+			}
+			else {
+				writeVarLong(geometry.getNumGeometries());
+				for (int i = 0; i < geometry.getNumGeometries(); i++) {
+					final Geometry part = geometry.getGeometryN(i);
+					writeByte(typeByte(
+							part,
+							hasZ));
+					if (!part.isEmpty()) {
+						writeGeometry(part);
+					}
+				}
+			}
+		}
+
+		private void writeLineString(
+				final LineString lineString ) {
+			final CoordinateSequence coordinates = lineString.getCoordinateSequence();
+			writeVarLong(coordinates.size());
+			writeCoordinates(coordinates);
+		}
+
+		private void writePolygon(
+				final Polygon polygon ) {
+			if (polygon.isEmpty()) {
+				writeVarLong(0);
+				return;
+			}
+			writeVarLong(1 + polygon.getNumInteriorRing());
+			writeLineString(polygon.getExteriorRing());
+			for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+				writeLineString(polygon.getInteriorRingN(i));
+			}
+		}
+
+		private void writeCoordinates(
+				final CoordinateSequence coordinates ) {
+			for (int i = 0; i < coordinates.size(); i++) {
+				final long x = scale(coordinates.getX(i));
+				final long y = scale(coordinates.getY(i));
+				writeSignedVarLong(x - lastX);
+				writeSignedVarLong(y - lastY);
+				lastX = x;
+				lastY = y;
+				if (hasZ) {
+					final double zOrdinate = coordinates.getOrdinate(
+							i,
+							CoordinateSequence.Z);
+					final long z = Double.isNaN(zOrdinate) ? 0 : scale(zOrdinate);
+					writeSignedVarLong(z - lastZ);
+					lastZ = z;
+				}
+			}
+		}
+
+		private void writeSignedVarLong(
+				final long value ) {
+			// zig-zag encoding so that small negative values are small
+			writeVarLong((value << 1) ^ (value >> 63));
+		}
+
+		private void writeVarLong(
+				long value ) {
+			ensureCapacity(10);
+			while ((value & ~0x7FL) != 0) {
+				buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			buffer[length++] = (byte) value;
+		}
+
+		private void writeByte(
+				final int value ) {
+			ensureCapacity(1);
+			buffer[length++] = (byte) value;
+		}
+
+		private void ensureCapacity(
+				final int bytes ) {
+			if ((length + bytes) > buffer.length) {
+				buffer = Arrays.copyOf(
+						buffer,
+						Math.max(
+								buffer.length * 2,
+								length + bytes));
+			}
+		}
+
+		private byte[] toByteArray() {
+			return Arrays.copyOf(
+					buffer,
+					length);
+		}
+	}
+
+	private static class Decoder
+	{
+		private final byte[] binary;
+		private final GeometryFactory factory;
+		private int position = 0;
+		private double scale;
+		private boolean hasZ;
+		private long lastX = 0;
+		private long lastY = 0;
+		private long lastZ = 0;
+
+		private Decoder(
+				final byte[] binary,
+				final GeometryFactory factory ) {
+			this.binary = binary;
+			this.factory = factory;
+		}
+
+		private void readFormat() {
+			if (readByte() != FORMAT) {
+				throw new IllegalArgumentException(
+						"Binary is not a compact geometry encoding");
+			}
+		}
+
+		private void setPrecision(
+				final int precision,
+				final boolean hasZ ) {
+			scale = Math.pow(
+					10,
+					precision);
+			this.hasZ = hasZ;
+		}
+
+		private double unscale(
+				final long value ) {
+			return value / scale;
+		}
+
+		private void skipBoundingBox() {
+			for (int i = 0; i < 4; i++) {
+				readVarLong();
+			}
+		}
+
+		private Geometry readGeometry(
+				final int type ) {
+			switch (type) {
+				case POINT:
+					return factory.createPoint(readCoordinates(1)[0]);
+				case LINESTRING:
+					return factory.createLineString(readCoordinates((int) readVarLong()));
+				case POLYGON:
+					return readPolygon();
+				case MULTIPOINT: {
+					final Point[] points = new Point[(int) readVarLong()];
+					for (int i = 0; i < points.length; i++) {
+						points[i] = factory.createPoint(readCoordinates(1)[0]);
+					}
+					return factory.createMultiPoint(points);
+				}
+				case MULTILINESTRING: {
+					final LineString[] lineStrings = new LineString[(int) readVarLong()];
+					for (int i = 0; i < lineStrings.length; i++) {
+						lineStrings[i] = factory.createLineString(readCoordinates((int) readVarLong()));
+					}
+					return factory.createMultiLineString(lineStrings);
+				}
+				case MULTIPOLYGON: {
+					final Polygon[] polygons = new Polygon[(int) readVarLong()];
+					for (int i = 0; i < polygons.length; i++) {
+						polygons[i] = readPolygon();
+					}
+					return factory.createMultiPolygon(polygons);
+				}
+				case GEOMETRYCOLLECTION: {
+					final Geometry[] geometries = new Geometry[(int) readVarLong()];
+					for (int i = 0; i < geometries.length; i++) {
+						final int partType = readByte();
+						geometries[i] = ((partType & EMPTY_FLAG) != 0) ? createEmpty(partType & TYPE_MASK) : readGeometry(partType & TYPE_MASK);
+					}
+					return factory.createGeometryCollection(geometries);
+				}
+				default:
+					throw new IllegalArgumentException(
+							"Unknown geometry type " + type);
+			}
+		}
+
+		private Polygon readPolygon() {
+			final int ringCount = (int) readVarLong();
+			if (ringCount == 0) {
+				return factory.createPolygon(
+						null,
+						null);
+			}
+			final LinearRing shell = factory.createLinearRing(readCoordinates((int) readVarLong()));
+			final LinearRing[] holes = new LinearRing[ringCount - 1];
+			for (int i = 0; i < holes.length; i++) {
+				holes[i] = factory.createLinearRing(readCoordinates((int) readVarLong()));
+			}
+			return factory.createPolygon(
+					shell,
+					holes);
+		}
+
+		private Geometry createEmpty(
+				final int type ) {
+			switch (type) {
+				case POINT:
+					return factory.createPoint((Coordinate) null);
+				case LINESTRING:
+					return factory.createLineString((Coordinate[]) null);
+				case POLYGON:
+					return factory.createPolygon(
+							null,
+							null);
+				case MULTIPOINT:
+					return factory.createMultiPoint((Point[]) null);
+				case MULTILINESTRING:
+					return factory.createMultiLineString(null);
+				case MULTIPOLYGON:
+					return factory.createMultiPolygon(null);
+				default:
+					return factory.createGeometryCollection(null);
+			}
+		}
+
+		private Coordinate[] readCoordinates(
+				final int count ) {
+			final Coordinate[] coordinates = new Coordinate[count];
+			for (int i = 0; i < count; i++) {
+				lastX += readSignedVarLong();
+				lastY += readSignedVarLong();
+				if (hasZ) {
+					lastZ += readSignedVarLong();
+					coordinates[i] = new Coordinate(
+							unscale(lastX),
+							unscale(lastY),
+							unscale(lastZ));
+				}
+				else {
+					coordinates[i] = new Coordinate(
+							unscale(lastX),
+							unscale(lastY));
+				}
+			}
+			return coordinates;
+		}
+
+		private long readSignedVarLong() {
+			final long value = readVarLong();
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+		private long readVarLong() {
+			long value = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = binary[position++];
+				value |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			}
+			while ((b & 0x80) != 0);
+			return value;
+		}
+
+		private int readByte() {
+			return binary[position++];
+		}
+	}
+}
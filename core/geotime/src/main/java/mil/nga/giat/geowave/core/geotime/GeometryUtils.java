@@ -31,6 +31,28 @@ public class GeometryUtils
 	public static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
 	private final static Logger LOGGER = Logger.getLogger(GeometryUtils.class);
 	private static final int DEFAULT_DIMENSIONALITY = 2;
+	// the readers and writers hold state while reading and writing, so they
+	// are kept per thread rather than created for every geometry
+	private static final ThreadLocal<WKBReader> WKB_READER = new ThreadLocal<WKBReader>() {
+		@Override
+		protected WKBReader initialValue() {
+			return new WKBReader();
+		}
+	};
+	private static final ThreadLocal<WKBWriter> WKB_WRITER_2D = new ThreadLocal<WKBWriter>() {
+		@Override
+		protected WKBWriter initialValue() {
+			return new WKBWriter(
+					2);
+		}
+	};
+	private static final ThreadLocal<WKBWriter> WKB_WRITER_3D = new ThreadLocal<WKBWriter>() {
+		@Override
+		protected WKBWriter initialValue() {
+			return new WKBWriter(
+					3);
+		}
+	};
 
 	/**
 	 * This utility method will convert a JTS geometry to contraints that can be
@@ -181,8 +203,30 @@ public class GeometryUtils
 					Coordinate.Z)) ? 2 : 3;
 		}
 
-		return new WKBWriter(
-				dimensions).write(geometry);
+		return (dimensions == 2 ? WKB_WRITER_2D : WKB_WRITER_3D).get().write(geometry);
+	}
+
+	/**
+	 * Converts a JTS geometry to binary using the compact encoding if a
+	 * precision is given, otherwise well-known binary
+	 * 
+	 * @param geometry
+	 *            The JTS geometry
+	 * @param precision
+	 *            The number of decimal digits to keep of each ordinate, or
+	 *            null to keep them all
+	 * @return The binary representation of the geometry
+	 * @see CompactGeometryEncoding
+	 */
+	public static byte[] geometryToBinary(
+			final Geometry geometry,
+			final Integer precision ) {
+		if (precision == null) {
+			return geometryToBinary(geometry);
+		}
+		return CompactGeometryEncoding.encode(
+				geometry,
+				precision);
 	}
 
 	/**
@@ -194,8 +238,19 @@ public class GeometryUtils
 	 */
 	public static Geometry geometryFromBinary(
 			final byte[] binary ) {
+		if (CompactGeometryEncoding.isCompact(binary)) {
+			try {
+				return CompactGeometryEncoding.decode(binary);
+			}
+			catch (final RuntimeException e) {
+				LOGGER.warn(
+						"Unable to deserialize compact geometry data",
+						e);
+				return null;
+			}
+		}
 		try {
-			return new WKBReader().read(binary);
+			return WKB_READER.get().read(binary);
 		}
 		catch (final ParseException e) {
 			LOGGER.warn(
@@ -30,14 +30,17 @@ public class GeometryAdapter implements
 	@Override
 	public byte[] writeField(
 			final GeometryWrapper geometry ) {
-		return GeometryUtils.geometryToBinary(geometry.getGeometry());
+		return GeometryUtils.geometryToBinary(
+				geometry.getGeometry(),
+				geometry.getPrecision());
 	}
 
 	@Override
 	public GeometryWrapper readField(
 			final byte[] fieldData ) {
-		return new GeometryWrapper(
-				GeometryUtils.geometryFromBinary(fieldData));
+		// the geometry is decoded only if it is needed, filters may be able
+		// to test its envelope instead
+		return GeometryWrapper.fromBinary(fieldData);
 	}
 
 	@Override
@@ -1,5 +1,7 @@
 package mil.nga.giat.geowave.core.geotime.store.dimension;
 
+import mil.nga.giat.geowave.core.geotime.CompactGeometryEncoding;
+import mil.nga.giat.geowave.core.geotime.GeometryUtils;
 import mil.nga.giat.geowave.core.index.sfc.data.NumericData;
 import mil.nga.giat.geowave.core.index.sfc.data.NumericRange;
 import mil.nga.giat.geowave.core.store.dimension.DimensionField;
@@ -13,12 +15,19 @@ import com.vividsolutions.jts.geom.Envelope;
  * This class wraps JTS geometry with visibility so that it can be used within
  * GeoWave as a CommonIndexValue
  * 
+ * The geometry can also be wrapped in its binary form, in which case it is
+ * only decoded when it is first asked for. The envelope of a geometry in the
+ * compact encoding is read from its header without decoding it.
+ * 
  */
 public class GeometryWrapper implements
 		CommonIndexValue
 {
 	private byte[] visibility;
-	private final com.vividsolutions.jts.geom.Geometry geometry;
+	private com.vividsolutions.jts.geom.Geometry geometry;
+	private byte[] binary;
+	private Envelope envelope;
+	private Integer precision;
 	private static final double DOUBLE_TOLERANCE = 1E-12d;
 
 	public GeometryWrapper(
@@ -33,6 +42,37 @@ public class GeometryWrapper implements
 		this.geometry = geometry;
 	}
 
+	/**
+	 * @param precision
+	 *            the number of decimal digits of each ordinate to keep when
+	 *            the geometry is written in the compact encoding, or null to
+	 *            write well-known binary
+	 */
+	public GeometryWrapper(
+			final com.vividsolutions.jts.geom.Geometry geometry,
+			final byte[] visibility,
+			final Integer precision ) {
+		this.visibility = visibility;
+		this.geometry = geometry;
+		this.precision = precision;
+	}
+
+	/**
+	 * Wraps a geometry that is only decoded from the binary when it is asked
+	 * for
+	 */
+	public static GeometryWrapper fromBinary(
+			final byte[] binary ) {
+		final GeometryWrapper wrapper = new GeometryWrapper(
+				null);
+		wrapper.binary = binary;
+		if (CompactGeometryEncoding.isCompact(binary)) {
+			// keep the encoding if the geometry is written again
+			wrapper.precision = CompactGeometryEncoding.decodePrecision(binary);
+		}
+		return wrapper;
+	}
+
 	@Override
 	public void setVisibility(
 			final byte[] visibility ) {
@@ -45,9 +85,36 @@ public class GeometryWrapper implements
 	}
 
 	public com.vividsolutions.jts.geom.Geometry getGeometry() {
+		if ((geometry == null) && (binary != null)) {
+			geometry = GeometryUtils.geometryFromBinary(binary);
+			binary = null;
+		}
 		return geometry;
 	}
 
+	/**
+	 * @return the envelope of the geometry, without decoding it if possible,
+	 *         or null if there is no geometry
+	 */
+	public Envelope getEnvelope() {
+		if (envelope == null) {
+			if ((geometry == null) && CompactGeometryEncoding.isCompact(binary)) {
+				envelope = CompactGeometryEncoding.decodeEnvelope(binary);
+			}
+			else {
+				final com.vividsolutions.jts.geom.Geometry g = getGeometry();
+				if (g != null) {
+					envelope = g.getEnvelopeInternal();
+				}
+			}
+		}
+		return envelope;
+	}
+
+	public Integer getPrecision() {
+		return precision;
+	}
+
 	/**
 	 * Expects Longitude before Latitude
 	 */
@@ -59,7 +126,7 @@ public class GeometryWrapper implements
 		final int latPosition = fields[0] instanceof LatitudeField ? 0 : 1;
 		final int longPosition = fields[0] instanceof LatitudeField ? 1 : 0;
 		if (fields.length == 1) {
-			final Envelope env = geometry.getEnvelopeInternal();
+			final Envelope env = getEnvelope();
 			final NumericRange r = latPosition == 0 ? new NumericRange(
 					env.getMinY(),
 					env.getMaxY()) : new NumericRange(
@@ -73,7 +140,7 @@ public class GeometryWrapper implements
 					r.getMin(),
 					DOUBLE_TOLERANCE));
 		}
-		return geometry.getFactory().createPolygon(
+		return getGeometry().getFactory().createPolygon(
 				new Coordinate[] {
 					new Coordinate(
 							rangeData[longPosition].getMin() - DOUBLE_TOLERANCE,
@@ -91,6 +158,6 @@ public class GeometryWrapper implements
 							rangeData[longPosition].getMin() - DOUBLE_TOLERANCE,
 							rangeData[latPosition].getMin() - DOUBLE_TOLERANCE)
 				}).intersects(
-				geometry);
+				getGeometry());
 	}
 }
@@ -21,6 +21,7 @@ import mil.nga.giat.geowave.core.store.dimension.DimensionField;
 import mil.nga.giat.geowave.core.store.filter.BasicQueryFilter;
 import mil.nga.giat.geowave.core.store.filter.GenericTypeResolver;
 
+import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.prep.PreparedGeometry;
 import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
@@ -130,7 +131,7 @@ public class SpatialQueryFilter extends
 					fieldId);
 			if ((geomObj != null) && (geomObj instanceof GeometryWrapper)) {
 				final GeometryWrapper geom = (GeometryWrapper) geomObj;
-				if (geometryPasses(geom.getGeometry())) {
+				if (geometryPasses(geom)) {
 					geometryPasses = true;
 					break;
 				}
@@ -149,14 +150,27 @@ public class SpatialQueryFilter extends
 	}
 
 	private boolean geometryPasses(
-			final Geometry dataGeometry ) {
-		if (dataGeometry == null) {
+			final GeometryWrapper dataGeometry ) {
+		if (preparedGeometryImage == null) {
+			return false;
+		}
+		// test the envelope first, which for the compact encoding does not
+		// require decoding the geometry
+		final Envelope dataEnvelope = dataGeometry.getEnvelope();
+		if ((dataEnvelope == null) || !preparedGeometryImage.getEnvelope().intersects(
+				dataEnvelope)) {
 			return false;
 		}
-		if (preparedGeometryImage != null) {
-			return preparedGeometryImage.preparedGeometry.intersects(dataGeometry);
+		if (preparedGeometryImage.isRectangle() && preparedGeometryImage.getEnvelope().contains(
+				dataEnvelope)) {
+			// a geometry within a rectangle intersects it
+			return true;
+		}
+		final Geometry geometry = dataGeometry.getGeometry();
+		if (geometry == null) {
+			return false;
 		}
-		return false;
+		return preparedGeometryImage.preparedGeometry.intersects(geometry);
 	}
 
 	protected boolean isSpatialOnly() {
@@ -259,6 +273,14 @@ public class SpatialQueryFilter extends
 			return preparedGeometry;
 		}
 
+		public Envelope getEnvelope() {
+			return preparedGeometry.getGeometry().getEnvelopeInternal();
+		}
+
+		public boolean isRectangle() {
+			return preparedGeometry.getGeometry().isRectangle();
+		}
+
 		@Override
 		public int hashCode() {
 			final int prime = 31;
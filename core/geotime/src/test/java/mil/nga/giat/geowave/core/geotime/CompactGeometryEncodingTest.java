@@ -0,0 +1,217 @@
+package mil.nga.giat.geowave.core.geotime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+
+public class CompactGeometryEncodingTest
+{
+	private final GeometryFactory factory = new GeometryFactory();
+
+	@Test
+	public void testTrack() {
+		// a GPS track of closely spaced points
+		final Coordinate[] coordinates = new Coordinate[500];
+		for (int i = 0; i < coordinates.length; i++) {
+			coordinates[i] = new Coordinate(
+					-77.0365 + (i * 0.00013),
+					38.8977 + (Math.sin(i / 10.0) * 0.0005));
+		}
+		final LineString track = factory.createLineString(coordinates);
+		final byte[] compact = CompactGeometryEncoding.encode(
+				track,
+				6);
+		final byte[] wkb = GeometryUtils.geometryToBinary(track);
+		assertTrue(CompactGeometryEncoding.isCompact(compact));
+		assertFalse(CompactGeometryEncoding.isCompact(wkb));
+		assertTrue(compact.length * 3 < wkb.length);
+
+		final Geometry decoded = GeometryUtils.geometryFromBinary(compact);
+		assertEquals(
+				track.getNumPoints(),
+				decoded.getNumPoints());
+		for (int i = 0; i < coordinates.length; i++) {
+			assertEquals(
+					coordinates[i].x,
+					decoded.getCoordinates()[i].x,
+					0.000001);
+			assertEquals(
+					coordinates[i].y,
+					decoded.getCoordinates()[i].y,
+					0.000001);
+		}
+		// the envelope in the header is that of the decoded geometry
+		assertEquals(
+				decoded.getEnvelopeInternal(),
+				CompactGeometryEncoding.decodeEnvelope(compact));
+		assertEquals(
+				6,
+				CompactGeometryEncoding.decodePrecision(compact));
+	}
+
+	@Test
+	public void testPolygonWithHole() {
+		final LinearRing shell = factory.createLinearRing(new Coordinate[] {
+			new Coordinate(
+					-10,
+					-10),
+			new Coordinate(
+					10,
+					-10),
+			new Coordinate(
+					10,
+					10),
+			new Coordinate(
+					-10,
+					10),
+			new Coordinate(
+					-10,
+					-10)
+		});
+		final LinearRing hole = factory.createLinearRing(new Coordinate[] {
+			new Coordinate(
+					-1,
+					-1),
+			new Coordinate(
+					1,
+					-1),
+			new Coordinate(
+					1,
+					1),
+			new Coordinate(
+					-1,
+					-1)
+		});
+		final Polygon polygon = factory.createPolygon(
+				shell,
+				new LinearRing[] {
+					hole
+				});
+		assertRoundTrip(
+				polygon,
+				0);
+		assertRoundTrip(
+				factory.createMultiPolygon(new Polygon[] {
+					polygon,
+					(Polygon) polygon.buffer(
+							-2).getGeometryN(
+							0)
+				}),
+				3);
+	}
+
+	@Test
+	public void testCollections() {
+		final Point point = factory.createPoint(new Coordinate(
+				1.5,
+				-2.25));
+		final LineString line = factory.createLineString(new Coordinate[] {
+			new Coordinate(
+					0,
+					0),
+			new Coordinate(
+					-5.5,
+					3.75)
+		});
+		assertRoundTrip(
+				point,
+				2);
+		assertRoundTrip(
+				factory.createMultiPoint(new Point[] {
+					point,
+					factory.createPoint(new Coordinate(
+							3,
+							4))
+				}),
+				2);
+		assertRoundTrip(
+				factory.createMultiLineString(new LineString[] {
+					line,
+					line
+				}),
+				2);
+		assertRoundTrip(
+				factory.createGeometryCollection(new Geometry[] {
+					point,
+					line,
+					factory.createPoint((Coordinate) null)
+				}),
+				2);
+	}
+
+	@Test
+	public void testEmpty() {
+		final Geometry empty = factory.createLineString((Coordinate[]) null);
+		final byte[] binary = CompactGeometryEncoding.encode(
+				empty,
+				5);
+		assertTrue(GeometryUtils.geometryFromBinary(
+				binary).isEmpty());
+		assertTrue(CompactGeometryEncoding.decodeEnvelope(
+				binary).isNull());
+	}
+
+	@Test
+	public void test3D() {
+		final Point point = factory.createPoint(new Coordinate(
+				1.25,
+				2.5,
+				-30.75));
+		final Geometry decoded = GeometryUtils.geometryFromBinary(CompactGeometryEncoding.encode(
+				point,
+				2));
+		assertEquals(
+				-30.75,
+				decoded.getCoordinate().z,
+				0);
+	}
+
+	@Test
+	public void testNegativePrecision() {
+		final Point point = factory.createPoint(new Coordinate(
+				1234,
+				-5678));
+		final Envelope envelope = CompactGeometryEncoding.decodeEnvelope(CompactGeometryEncoding.encode(
+				point,
+				-2));
+		assertEquals(
+				1200,
+				envelope.getMinX(),
+				0);
+		assertEquals(
+				-5700,
+				envelope.getMinY(),
+				0);
+	}
+
+	private void assertRoundTrip(
+			final Geometry geometry,
+			final int precision ) {
+		final byte[] binary = GeometryUtils.geometryToBinary(
+				geometry,
+				precision);
+		final Geometry decoded = GeometryUtils.geometryFromBinary(binary);
+		assertEquals(
+				geometry.getGeometryType(),
+				decoded.getGeometryType());
+		assertTrue(geometry.equalsExact(
+				decoded,
+				Math.pow(
+						10,
+						-precision)));
+		assertEquals(
+				decoded.getEnvelopeInternal(),
+				CompactGeometryEncoding.decodeEnvelope(binary));
+	}
+}
@@ -16,6 +16,27 @@ import org.apache.log4j.Logger;
 public class PersistenceUtils
 {
 	private final static Logger LOGGER = Logger.getLogger(PersistenceUtils.class);
+	// keyed by the class rather than its name so that a class reloaded by
+	// another classloader gets its own constructor, and so that a cached
+	// constructor does not keep an unloaded classloader reachable
+	private final static ClassValue<Constructor<?>> CONSTRUCTOR_CACHE = new ClassValue<Constructor<?>>() {
+		@Override
+		protected Constructor<?> computeValue(
+				final Class<?> type ) {
+			try {
+				// use the no arg constructor and make sure its accessible
+				final Constructor<?> noArgConstructor = type.getDeclaredConstructor();
+				noArgConstructor.setAccessible(true);
+				return noArgConstructor;
+			}
+			catch (final Throwable e) {
+				LOGGER.warn(
+						"error creating class: could not find no-arg constructor for class " + type.getName(),
+						e);
+				return null;
+			}
+		}
+	};
 
 	public static byte[] toBinary(
 			final Collection<Persistable> persistables ) {
@@ -94,46 +115,55 @@ public class PersistenceUtils
 		return retVal;
 	}
 
+	/**
+	 * Create a new instance of the class using its no-arg constructor. The
+	 * class name is resolved through the current classloader and the
+	 * constructor of each class is cached so that repeated deserialization
+	 * (such as within tablet server iterators) does not pay for the
+	 * reflective lookup every time.
+	 * 
+	 * @param className
+	 *            the fully qualified class name
+	 * @param expectedType
+	 *            the type the instance must be assignable to
+	 * @return the new instance or null if it could not be created
+	 */
 	@SuppressWarnings("unchecked")
 	public static <T> T classFactory(
 			final String className,
 			final Class<T> expectedType ) {
-		Class<?> factoryType = null;
-
-		try {
-			factoryType = Class.forName(className);
-		}
-		catch (final Throwable e) {
-			LOGGER.warn(
-					"error creating class: could not find class " + className,
-					e);
-		}
-
-		if (factoryType != null) {
-			Object factoryClassInst = null;
+		final Constructor<?> noArgConstructor = getNoArgConstructor(className);
 
+		if (noArgConstructor != null) {
+			if (!expectedType.isAssignableFrom(noArgConstructor.getDeclaringClass())) {
+				LOGGER.warn("error creating class: " + className + " does not implement " + expectedType.getCanonicalName());
+				return null;
+			}
 			try {
-				// use the no arg constructor and make sure its accessible
-				final Constructor<?> noArgConstructor = factoryType.getDeclaredConstructor();
-				noArgConstructor.setAccessible(true);
-				factoryClassInst = noArgConstructor.newInstance();
+				return (T) noArgConstructor.newInstance();
 			}
 			catch (final Throwable e) {
 				LOGGER.warn(
 						"error creating class: could not create class " + className,
 						e);
 			}
-
-			if (factoryClassInst != null) {
-				if (!expectedType.isAssignableFrom(factoryClassInst.getClass())) {
-					LOGGER.warn("error creating class: " + className + " does not implement " + expectedType.getCanonicalName());
-				}
-				else {
-					return ((T) factoryClassInst);
-				}
-			}
 		}
 
 		return null;
 	}
+
+	private static Constructor<?> getNoArgConstructor(
+			final String className ) {
+		final Class<?> factoryType;
+		try {
+			factoryType = Class.forName(className);
+		}
+		catch (final Throwable e) {
+			LOGGER.warn(
+					"error creating class: could not find class " + className,
+					e);
+			return null;
+		}
+		return CONSTRUCTOR_CACHE.get(factoryType);
+	}
 }
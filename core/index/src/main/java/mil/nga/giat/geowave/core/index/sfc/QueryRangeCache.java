@@ -0,0 +1,285 @@
+package mil.nga.giat.geowave.core.index.sfc;
+
+import java.util.Arrays;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mil.nga.giat.geowave.core.index.dimension.NumericDimensionDefinition;
+import mil.nga.giat.geowave.core.index.sfc.data.BasicNumericDataset;
+import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericRange;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+
+/**
+ * A concurrent cache of query decompositions, keyed by the binary form of the
+ * index strategy that computed them, the query constraints, and the maximum
+ * number of ranges. Repeated queries with the same constraints (such as map
+ * tiles) can then skip the range decomposition entirely. Lookups do not
+ * contend on a single lock, and the cache is bounded by the total number of
+ * ranges it holds rather than by its number of entries, as a single
+ * decomposition may hold anywhere from one to many thousands of ranges. The
+ * least recently used decompositions are evicted first.
+ *
+ * By default the constraints must match exactly to share an entry. If
+ * quantization is enabled, the constraints are first expanded outward to a
+ * grid of 2^bits cells per dimension so that nearby queries share an entry;
+ * the decomposition is then computed for the expanded constraints, which may
+ * yield slightly wider ranges but never misses data.
+ *
+ * @param <V>
+ *            the type of the cached decomposition
+ */
+public class QueryRangeCache<V>
+{
+	public static final long DEFAULT_MAX_RANGES = 100000;
+	private final Weigher<Key, V> rangeCounter;
+	private volatile Cache<Key, V> cache;
+	private volatile long maxRanges;
+	private volatile int quantizationBits = 0;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * @param rangeCounter
+	 *            the number of ranges in each decomposition
+	 */
+	public QueryRangeCache(
+			final Weigher<Key, V> rangeCounter ) {
+		this(
+				rangeCounter,
+				DEFAULT_MAX_RANGES);
+	}
+
+	/**
+	 * @param rangeCounter
+	 *            the number of ranges in each decomposition
+	 * @param maxRanges
+	 *            the maximum total number of ranges of the decompositions to
+	 *            retain, 0 disables the cache
+	 */
+	public QueryRangeCache(
+			final Weigher<Key, V> rangeCounter,
+			final long maxRanges ) {
+		this.rangeCounter = rangeCounter;
+		setMaxRanges(maxRanges);
+	}
+
+	/**
+	 * Replaces the cache, discarding the decompositions it holds
+	 *
+	 * @param maxRanges
+	 *            the maximum total number of ranges of the decompositions to
+	 *            retain, 0 disables the cache
+	 */
+	public void setMaxRanges(
+			final long maxRanges ) {
+		this.maxRanges = maxRanges;
+		cache = CacheBuilder.newBuilder().maximumWeight(
+				Math.max(
+						0,
+						maxRanges)).weigher(
+				rangeCounter).build();
+	}
+
+	public long getMaxRanges() {
+		return maxRanges;
+	}
+
+	/**
+	 * @param quantizationBits
+	 *            the number of bits per dimension to quantize constraints to,
+	 *            or 0 to require constraints to match exactly
+	 */
+	public void setQuantizationBits(
+			final int quantizationBits ) {
+		this.quantizationBits = quantizationBits;
+		clear();
+	}
+
+	public int getQuantizationBits() {
+		return quantizationBits;
+	}
+
+	public boolean isEnabled() {
+		return maxRanges > 0;
+	}
+
+	/**
+	 * Expand the constraints outward to the quantization grid of each
+	 * dimension's bounds. The returned constraints should be used both to
+	 * create the key and to compute the decomposition.
+	 *
+	 * @param constraints
+	 *            the query constraints
+	 * @param dimensionDefinitions
+	 *            the dimension definitions that define the bounds of the grid
+	 * @return the quantized constraints, or the original constraints if
+	 *         quantization is disabled
+	 */
+	public MultiDimensionalNumericData quantize(
+			final MultiDimensionalNumericData constraints,
+			final NumericDimensionDefinition[] dimensionDefinitions ) {
+		final int bits = quantizationBits;
+		if ((bits <= 0) || (dimensionDefinitions.length != constraints.getDimensionCount())) {
+			return constraints;
+		}
+		final NumericData[] data = constraints.getDataPerDimension();
+		final NumericData[] quantizedData = new NumericData[data.length];
+		final double cellsPerDimension = Math.pow(
+				2,
+				bits);
+		for (int d = 0; d < data.length; d++) {
+			final NumericRange bounds = dimensionDefinitions[d].getBounds();
+			final double cellSize = (bounds.getMax() - bounds.getMin()) / cellsPerDimension;
+			if (!(cellSize > 0) || Double.isInfinite(cellSize)) {
+				quantizedData[d] = data[d];
+				continue;
+			}
+			quantizedData[d] = new NumericRange(
+					bounds.getMin() + (Math.floor((data[d].getMin() - bounds.getMin()) / cellSize) * cellSize),
+					bounds.getMin() + (Math.ceil((data[d].getMax() - bounds.getMin()) / cellSize) * cellSize));
+		}
+		return new BasicNumericDataset(
+				quantizedData);
+	}
+
+	public Key createKey(
+			final byte[] decomposerId,
+			final MultiDimensionalNumericData constraints,
+			final int maxRanges ) {
+		final NumericData[] data = constraints.getDataPerDimension();
+		final long[] bounds = new long[data.length * 2];
+		for (int d = 0; d < data.length; d++) {
+			bounds[2 * d] = Double.doubleToLongBits(data[d].getMin());
+			bounds[(2 * d) + 1] = Double.doubleToLongBits(data[d].getMax());
+		}
+		return new Key(
+				decomposerId,
+				bounds,
+				maxRanges);
+	}
+
+	/**
+	 * @return the cached decomposition or null if it has not been computed
+	 */
+	public V get(
+			final Key key ) {
+		if (!isEnabled()) {
+			return null;
+		}
+		final V value = cache.getIfPresent(key);
+		if (value == null) {
+			missCount.incrementAndGet();
+		}
+		else {
+			hitCount.incrementAndGet();
+		}
+		return value;
+	}
+
+	public void put(
+			final Key key,
+			final V value ) {
+		if (isEnabled()) {
+			cache.put(
+					key,
+					value);
+		}
+	}
+
+	public void clear() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * @return the number of decompositions cached
+	 */
+	public long size() {
+		return cache.size();
+	}
+
+	/**
+	 * @return the total number of ranges of the decompositions cached
+	 */
+	public long getRangeCount() {
+		long rangeCount = 0;
+		for (final Entry<Key, V> entry : cache.asMap().entrySet()) {
+			rangeCount += rangeCounter.weigh(
+					entry.getKey(),
+					entry.getValue());
+		}
+		return rangeCount;
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return the fraction of lookups that were found in the cache, or 0 if
+	 *         there have been no lookups
+	 */
+	public double getHitRate() {
+		final long hits = hitCount.get();
+		final long total = hits + missCount.get();
+		return total == 0 ? 0 : (double) hits / (double) total;
+	}
+
+	public void resetStatistics() {
+		hitCount.set(0);
+		missCount.set(0);
+	}
+
+	public static class Key
+	{
+		private final byte[] decomposerId;
+		private final long[] bounds;
+		private final int maxRanges;
+		private final int hashCode;
+
+		private Key(
+				final byte[] decomposerId,
+				final long[] bounds,
+				final int maxRanges ) {
+			this.decomposerId = decomposerId;
+			this.bounds = bounds;
+			this.maxRanges = maxRanges;
+			final int prime = 31;
+			int result = 1;
+			result = (prime * result) + Arrays.hashCode(bounds);
+			result = (prime * result) + Arrays.hashCode(decomposerId);
+			result = (prime * result) + maxRanges;
+			hashCode = result;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(
+				final Object obj ) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return (hashCode == other.hashCode) && (maxRanges == other.maxRanges) && Arrays.equals(
+					bounds,
+					other.bounds) && Arrays.equals(
+					decomposerId,
+					other.decomposerId);
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package mil.nga.giat.geowave.core.index.sfc;
 
 import mil.nga.giat.geowave.core.index.sfc.hilbert.HilbertSFC;
+import mil.nga.giat.geowave.core.index.sfc.zorder.PrimitiveZOrderSFC;
 import mil.nga.giat.geowave.core.index.sfc.zorder.ZOrderSFC;
 
 /***
@@ -17,8 +18,10 @@ public class SFCFactory
 	 *            specifies the min, max, and cardinality for this instance of
 	 *            the SFC
 	 * @param sfc
-	 *            specifies the type (Hilbert, ZOrder) of space filling curve to
-	 *            generate
+	 *            specifies the type (Hilbert, ZOrder, primitive ZOrder) of space
+	 *            filling curve to generate; a primitive ZOrder curve is only
+	 *            used if the dimensions fit within a long, otherwise a ZOrder
+	 *            curve is generated
 	 * @return a space filling curve instance generated based on the supplied
 	 *         parameters
 	 */
@@ -34,6 +37,14 @@ public class SFCFactory
 			case ZORDER:
 				return new ZOrderSFC(
 						dimensionDefs);
+
+			case PRIMITIVE_ZORDER:
+				if (PrimitiveZOrderSFC.isSupported(dimensionDefs)) {
+					return new PrimitiveZOrderSFC(
+							dimensionDefs);
+				}
+				return new ZOrderSFC(
+						dimensionDefs);
 		}
 
 		return null;
@@ -45,7 +56,8 @@ public class SFCFactory
 	 */
 	public static enum SFCType {
 		HILBERT,
-		ZORDER
+		ZORDER,
+		PRIMITIVE_ZORDER
 	}
 
 }
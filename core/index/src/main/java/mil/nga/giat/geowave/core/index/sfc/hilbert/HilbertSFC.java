@@ -17,13 +17,21 @@ import com.google.uzaygezen.core.CompactHilbertCurve;
 import com.google.uzaygezen.core.MultiDimensionalSpec;
 
 /***
- * Implementation of a Compact Hilbert space filling curve
+ * Implementation of a Compact Hilbert space filling curve. The compact Hilbert
+ * curve keeps mutable scratch state internally, so rather than locking on a
+ * shared instance each thread lazily gets its own curve built from the
+ * (immutable) curve specification.
  * 
  */
 public class HilbertSFC implements
 		SpaceFillingCurve
 {
+	/**
+	 * The curve built from the specification, kept for subclasses; it is not
+	 * safe to share between threads, use {@link #getCompactHilbertCurve()}
+	 */
 	protected CompactHilbertCurve compactHilbertCurve;
+	private ThreadLocal<CompactHilbertCurve> threadCompactHilbertCurve;
 	protected SFCDimensionDefinition[] dimensionDefinitions;
 	protected int totalPrecision;
 
@@ -54,9 +62,17 @@ public class HilbertSFC implements
 			totalPrecision += dimension.getBitsOfPrecision();
 		}
 
+		final MultiDimensionalSpec spec = new MultiDimensionalSpec(
+				bitsPerDimension);
 		compactHilbertCurve = new CompactHilbertCurve(
-				new MultiDimensionalSpec(
-						bitsPerDimension));
+				spec);
+		threadCompactHilbertCurve = new ThreadLocal<CompactHilbertCurve>() {
+			@Override
+			protected CompactHilbertCurve initialValue() {
+				return new CompactHilbertCurve(
+						spec);
+			}
+		};
 
 		dimensionDefinitions = dimensionDefs;
 		setOptimalOperations(
@@ -65,6 +81,14 @@ public class HilbertSFC implements
 				dimensionDefs);
 	}
 
+	/**
+	 * 
+	 * @return the compact Hilbert curve owned by the calling thread
+	 */
+	protected CompactHilbertCurve getCompactHilbertCurve() {
+		return threadCompactHilbertCurve.get();
+	}
+
 	protected void setOptimalOperations(
 			final int totalPrecision,
 			final List<Integer> bitsPerDimension,
@@ -115,7 +139,7 @@ public class HilbertSFC implements
 			final double[] values ) {
 		return getIdOperations.convertToHilbert(
 				values,
-				compactHilbertCurve,
+				getCompactHilbertCurve(),
 				dimensionDefinitions);
 	}
 
@@ -143,7 +167,7 @@ public class HilbertSFC implements
 		}
 		return decomposeQueryOperations.decomposeRange(
 				query.getDataPerDimension(),
-				compactHilbertCurve,
+				getCompactHilbertCurve(),
 				dimensionDefinitions,
 				totalPrecision,
 				maxFilteredIndexedRanges,
@@ -269,7 +293,7 @@ public class HilbertSFC implements
 			final byte[] id ) {
 		return getIdOperations.convertFromHilbert(
 				id,
-				compactHilbertCurve,
+				getCompactHilbertCurve(),
 				dimensionDefinitions);
 	}
 
@@ -278,7 +302,7 @@ public class HilbertSFC implements
 			final byte[] id ) {
 		return getIdOperations.indicesFromHilbert(
 				id,
-				compactHilbertCurve,
+				getCompactHilbertCurve(),
 				dimensionDefinitions);
 	}
 
@@ -16,6 +16,10 @@ import com.google.uzaygezen.core.CompactHilbertCurve;
  * adequately represented by primitives) and non-primitive based operations for
  * unbounded bits of precision.
  * 
+ * The compact Hilbert curve passed to each operation carries mutable internal
+ * state; implementations may assume it is not concurrently used by another
+ * thread and do not synchronize on it.
+ * 
  */
 public interface HilbertSFCOperations
 {
@@ -17,6 +17,7 @@ import mil.nga.giat.geowave.core.index.PersistenceUtils;
 import mil.nga.giat.geowave.core.index.StringUtils;
 import mil.nga.giat.geowave.core.index.dimension.NumericDimensionDefinition;
 import mil.nga.giat.geowave.core.index.dimension.bin.BinRange;
+import mil.nga.giat.geowave.core.index.sfc.QueryRangeCache;
 import mil.nga.giat.geowave.core.index.sfc.RangeDecomposition;
 import mil.nga.giat.geowave.core.index.sfc.SpaceFillingCurve;
 import mil.nga.giat.geowave.core.index.sfc.data.BasicNumericDataset;
@@ -27,6 +28,7 @@ import mil.nga.giat.geowave.core.index.sfc.data.NumericRange;
 
 import org.apache.log4j.Logger;
 
+import com.google.common.cache.Weigher;
 import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableBiMap.Builder;
 
@@ -41,11 +43,26 @@ public class TieredSFCIndexStrategy implements
 	private final static Logger LOGGER = Logger.getLogger(TieredSFCIndexStrategy.class);
 	private final static int MAX_ESTIMATED_DUPLICATE_IDS_PER_DIMENSION = 2;
 	protected static final int DEFAULT_MAX_RANGES = -1;
+	private final static QueryRangeCache<List<ByteArrayRange>> QUERY_RANGE_CACHE = new QueryRangeCache<List<ByteArrayRange>>(
+			new Weigher<QueryRangeCache.Key, List<ByteArrayRange>>() {
+				@Override
+				public int weigh(
+						final QueryRangeCache.Key key,
+						final List<ByteArrayRange> ranges ) {
+					return Math.max(
+							1,
+							ranges.size());
+				}
+			});
 	private SpaceFillingCurve[] orderedSfcs;
 	private ImmutableBiMap<Integer, Byte> orderedSfcIndexToTierId;
 	private NumericDimensionDefinition[] baseDefinitions;
-	private long maxEstimatedDuplicateIds;
-	private BigInteger maxEstimatedDuplicateIdsBigInteger;
+	private volatile long maxEstimatedDuplicateIds;
+	private volatile BigInteger maxEstimatedDuplicateIdsBigInteger;
+	// the binary form of this strategy identifies it within the query range
+	// cache, lazily computed
+	private volatile byte[] cacheId;
+	private QueryRangeCache<List<ByteArrayRange>> queryRangeCache = QUERY_RANGE_CACHE;
 
 	protected TieredSFCIndexStrategy() {}
 
@@ -70,10 +87,64 @@ public class TieredSFCIndexStrategy implements
 		maxEstimatedDuplicateIdsBigInteger = BigInteger.valueOf(maxEstimatedDuplicateIds);
 	}
 
+	/**
+	 * 
+	 * @return the cache of query ranges shared by all tiered strategies
+	 */
+	public static QueryRangeCache<List<ByteArrayRange>> getQueryRangeCache() {
+		return QUERY_RANGE_CACHE;
+	}
+
+	/**
+	 * Caches the query ranges of this strategy in the given cache rather than
+	 * the cache shared by all tiered strategies
+	 */
+	public void setQueryRangeCache(
+			final QueryRangeCache<List<ByteArrayRange>> queryRangeCache ) {
+		this.queryRangeCache = queryRangeCache;
+	}
+
 	@Override
 	public List<ByteArrayRange> getQueryRanges(
 			final MultiDimensionalNumericData indexedRange,
 			final int maxRangeDecomposition ) {
+		final QueryRangeCache<List<ByteArrayRange>> cache = queryRangeCache;
+		if (!cache.isEnabled()) {
+			return computeQueryRanges(
+					indexedRange,
+					maxRangeDecomposition);
+		}
+		final MultiDimensionalNumericData quantizedRange = cache.quantize(
+				indexedRange,
+				baseDefinitions);
+		final QueryRangeCache.Key key = cache.createKey(
+				getCacheId(),
+				quantizedRange,
+				maxRangeDecomposition);
+		List<ByteArrayRange> queryRanges = cache.get(key);
+		if (queryRanges == null) {
+			queryRanges = computeQueryRanges(
+					quantizedRange,
+					maxRangeDecomposition);
+			cache.put(
+					key,
+					queryRanges);
+		}
+		// callers are free to modify the returned list
+		return new ArrayList<ByteArrayRange>(
+				queryRanges);
+	}
+
+	private byte[] getCacheId() {
+		if (cacheId == null) {
+			cacheId = toBinary();
+		}
+		return cacheId;
+	}
+
+	private List<ByteArrayRange> computeQueryRanges(
+			final MultiDimensionalNumericData indexedRange,
+			final int maxRangeDecomposition ) {
 		// TODO don't just pass max ranges along to the SFC, take tiering and
 		// binning into account to limit the number of ranges correctly
 
@@ -274,7 +345,7 @@ public class TieredSFCIndexStrategy implements
 		return baseDefinitions;
 	}
 
-	synchronized private List<ByteArrayId> getRowIds(
+	private List<ByteArrayId> getRowIds(
 			final BinnedNumericDataset index,
 			final BigInteger maxEstimatedDuplicateIds ) {
 		// most times this should be a single row ID, but if the lowest
@@ -420,6 +491,7 @@ public class TieredSFCIndexStrategy implements
 	@Override
 	public void fromBinary(
 			final byte[] bytes ) {
+		cacheId = null;
 		final ByteBuffer buf = ByteBuffer.wrap(bytes);
 		final int numSfcs = buf.getInt();
 		final int numDimensions = buf.getInt();
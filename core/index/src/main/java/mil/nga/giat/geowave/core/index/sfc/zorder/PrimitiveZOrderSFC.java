@@ -0,0 +1,565 @@
+package mil.nga.giat.geowave.core.index.sfc.zorder;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.ByteArrayRange;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.index.sfc.RangeDecomposition;
+import mil.nga.giat.geowave.core.index.sfc.SFCDimensionDefinition;
+import mil.nga.giat.geowave.core.index.sfc.SpaceFillingCurve;
+import mil.nga.giat.geowave.core.index.sfc.data.BasicNumericDataset;
+import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericRange;
+
+/***
+ * Implementation of a Z-Order Space Filling Curve for 2 to 4 dimensions whose
+ * Z-values fit within a long. Encoding and decoding are done with primitive
+ * bit spreading rather than bit sets, and queries are decomposed into the
+ * ranges of the quadtree (or octree) cells that overlap the query, trimmed to
+ * the first and last Z-value within the query using BIGMIN and LITMAX.
+ *
+ * IDs are the Z-value in big-endian order, padded to the number of bytes
+ * required by the total bits of precision, the same as the Hilbert SFC.
+ */
+public class PrimitiveZOrderSFC implements
+		SpaceFillingCurve
+{
+	private SFCDimensionDefinition[] dimensionDefs;
+	private int bitsPerDimension;
+	private int totalBits;
+	private int byteCount;
+	private long binsPerDimension;
+	private long maxCoordinate;
+
+	protected PrimitiveZOrderSFC() {
+		super();
+	}
+
+	/***
+	 * Use the SFCFactory.createSpaceFillingCurve method - don't call this
+	 * constructor directly
+	 *
+	 */
+	public PrimitiveZOrderSFC(
+			final SFCDimensionDefinition[] dimensionDefs ) {
+		init(dimensionDefs);
+	}
+
+	/**
+	 * @return whether the dimensions can be encoded by a primitive Z-order
+	 *         curve
+	 */
+	public static boolean isSupported(
+			final SFCDimensionDefinition[] dimensionDefs ) {
+		return PrimitiveZOrderUtils.isSupported(
+				dimensionDefs.length,
+				getBitsPerDimension(dimensionDefs));
+	}
+
+	private static int getBitsPerDimension(
+			final SFCDimensionDefinition[] dimensionDefs ) {
+		int bitsPerDimension = 0;
+		for (final SFCDimensionDefinition dimensionDef : dimensionDefs) {
+			if (dimensionDef.getBitsOfPrecision() > bitsPerDimension) {
+				bitsPerDimension = dimensionDef.getBitsOfPrecision();
+			}
+		}
+		return bitsPerDimension;
+	}
+
+	private void init(
+			final SFCDimensionDefinition[] dimensionDefs ) {
+		this.dimensionDefs = dimensionDefs;
+		bitsPerDimension = getBitsPerDimension(dimensionDefs);
+		if (!PrimitiveZOrderUtils.isSupported(
+				dimensionDefs.length,
+				bitsPerDimension)) {
+			throw new IllegalArgumentException(
+					"Primitive Z-order requires " + PrimitiveZOrderUtils.MIN_DIMENSIONS + " to " + PrimitiveZOrderUtils.MAX_DIMENSIONS + " dimensions with at most " + PrimitiveZOrderUtils.MAX_TOTAL_BITS + " total bits of precision");
+		}
+		totalBits = bitsPerDimension * dimensionDefs.length;
+		byteCount = (totalBits + 7) / 8;
+		binsPerDimension = 1L << bitsPerDimension;
+		maxCoordinate = binsPerDimension - 1;
+	}
+
+	/***
+	 * {@inheritDoc}
+	 */
+	@Override
+	public byte[] getId(
+			final double[] values ) {
+		long zValue = 0;
+		for (int d = 0; d < values.length; d++) {
+			zValue |= PrimitiveZOrderUtils.encodeDimension(
+					getCoordinate(
+							values[d],
+							d),
+					d,
+					values.length);
+		}
+		return toBytes(zValue);
+	}
+
+	private long getCoordinate(
+			final double value,
+			final int dimension ) {
+		final double normalizedValue = dimensionDefs[dimension].normalize(value);
+		if ((normalizedValue < 0) || (normalizedValue > 1)) {
+			throw new IllegalArgumentException(
+					"Value (" + value + ") is not within dimension bounds. The normalized value (" + normalizedValue + ") must be within (0,1)");
+		}
+		// the maximum value belongs to the last bin
+		return Math.min(
+				(long) (normalizedValue * binsPerDimension),
+				maxCoordinate);
+	}
+
+	private long getBoundedCoordinate(
+			final double value,
+			final int dimension ) {
+		final double normalizedValue = Math.max(
+				0,
+				Math.min(
+						1,
+						dimensionDefs[dimension].normalize(value)));
+		return Math.min(
+				(long) (normalizedValue * binsPerDimension),
+				maxCoordinate);
+	}
+
+	private byte[] toBytes(
+			long zValue ) {
+		final byte[] id = new byte[byteCount];
+		for (int i = byteCount - 1; i >= 0; i--) {
+			id[i] = (byte) zValue;
+			zValue >>>= 8;
+		}
+		return id;
+	}
+
+	private long fromBytes(
+			final byte[] id ) {
+		long zValue = 0;
+		for (int i = 0; i < id.length; i++) {
+			zValue = (zValue << 8) | (id[i] & 0xFF);
+		}
+		return zValue;
+	}
+
+	@Override
+	public MultiDimensionalNumericData getRanges(
+			final byte[] id ) {
+		final long zValue = fromBytes(id);
+		final NumericData[] ranges = new NumericData[dimensionDefs.length];
+		for (int d = 0; d < dimensionDefs.length; d++) {
+			final long coordinate = PrimitiveZOrderUtils.decodeDimension(
+					zValue,
+					d,
+					dimensionDefs.length);
+			ranges[d] = new NumericRange(
+					dimensionDefs[d].denormalize((double) coordinate / binsPerDimension),
+					dimensionDefs[d].denormalize((double) (coordinate + 1) / binsPerDimension));
+		}
+		return new BasicNumericDataset(
+				ranges);
+	}
+
+	@Override
+	public long[] getCoordinates(
+			final byte[] id ) {
+		final long zValue = fromBytes(id);
+		final long[] coordinates = new long[dimensionDefs.length];
+		for (int d = 0; d < dimensionDefs.length; d++) {
+			coordinates[d] = PrimitiveZOrderUtils.decodeDimension(
+					zValue,
+					d,
+					dimensionDefs.length);
+		}
+		return coordinates;
+	}
+
+	@Override
+	public double[] getInsertionIdRangePerDimension() {
+		final double[] retVal = new double[dimensionDefs.length];
+		for (int i = 0; i < dimensionDefs.length; i++) {
+			retVal[i] = dimensionDefs[i].getRange() / binsPerDimension;
+		}
+		return retVal;
+	}
+
+	@Override
+	public BigInteger getEstimatedIdCount(
+			final MultiDimensionalNumericData data ) {
+		final double[] mins = data.getMinValuesPerDimension();
+		final double[] maxes = data.getMaxValuesPerDimension();
+		BigInteger estimatedIdCount = BigInteger.valueOf(1);
+		for (int d = 0; d < data.getDimensionCount(); d++) {
+			estimatedIdCount = estimatedIdCount.multiply(BigInteger.valueOf((getBoundedCoordinate(
+					maxes[d],
+					d) - getBoundedCoordinate(
+					mins[d],
+					d)) + 1));
+		}
+		return estimatedIdCount;
+	}
+
+	/***
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RangeDecomposition decomposeQuery(
+			final MultiDimensionalNumericData query,
+			final int maxFilteredIndexedRanges ) {
+		if (totalBits == 0) {
+			// special case for no precision
+			return new RangeDecomposition(
+					new ByteArrayRange[] {
+						new ByteArrayRange(
+								new ByteArrayId(
+										new byte[] {}),
+								new ByteArrayId(
+										new byte[] {}))
+					});
+		}
+		final int numDimensions = dimensionDefs.length;
+		final double[] queryMins = query.getMinValuesPerDimension();
+		final double[] queryMaxes = query.getMaxValuesPerDimension();
+		long zMin = 0;
+		long zMax = 0;
+		for (int d = 0; d < numDimensions; d++) {
+			zMin |= PrimitiveZOrderUtils.encodeDimension(
+					getBoundedCoordinate(
+							queryMins[d],
+							d),
+					d,
+					numDimensions);
+			zMax |= PrimitiveZOrderUtils.encodeDimension(
+					getBoundedCoordinate(
+							queryMaxes[d],
+							d),
+					d,
+					numDimensions);
+		}
+		final long[] ranges = decompose(
+				zMin,
+				zMax,
+				maxFilteredIndexedRanges);
+		final ByteArrayRange[] sfcRanges = new ByteArrayRange[ranges.length / 2];
+		for (int i = 0; i < sfcRanges.length; i++) {
+			sfcRanges[i] = new ByteArrayRange(
+					new ByteArrayId(
+							toBytes(ranges[2 * i])),
+					new ByteArrayId(
+							toBytes(ranges[(2 * i) + 1])));
+		}
+		return new RangeDecomposition(
+				sfcRanges);
+	}
+
+	/**
+	 * Breadth first decomposition of the query box into the Z-value ranges of
+	 * the cells it overlaps. Cells entirely within the box are complete ranges;
+	 * cells partially within the box are split further until the maximum
+	 * number of ranges would be exceeded, at which point each remaining
+	 * partial cell is trimmed to the first and last Z-value it has within the
+	 * box.
+	 *
+	 * @return the sorted, merged, inclusive ranges as pairs of start and end
+	 *         Z-values
+	 */
+	protected long[] decompose(
+			final long zMin,
+			final long zMax,
+			final int maxRanges ) {
+		final int numDimensions = dimensionDefs.length;
+		final int childCount = 1 << numDimensions;
+		final long[] dimensionMasks = new long[numDimensions];
+		for (int d = 0; d < numDimensions; d++) {
+			dimensionMasks[d] = PrimitiveZOrderUtils.getDimensionMask(
+					d,
+					numDimensions);
+		}
+		final LongList fullRanges = new LongList();
+		// the partial cells of the current level, by their first Z-value
+		LongList partialCells = new LongList();
+		partialCells.add(0);
+		int remainingBits = totalBits;
+		while ((remainingBits > 0) && (partialCells.size() > 0)) {
+			if ((maxRanges > 0) && (((fullRanges.size() / 2) + ((long) partialCells.size() * childCount)) > maxRanges)) {
+				break;
+			}
+			remainingBits -= numDimensions;
+			final long childSpan = remainingBits == 0 ? 0 : (-1L >>> (64 - remainingBits));
+			final LongList nextPartialCells = new LongList();
+			for (int i = 0; i < partialCells.size(); i++) {
+				final long cellStart = partialCells.get(i);
+				for (long child = 0; child < childCount; child++) {
+					final long childStart = cellStart | (child << remainingBits);
+					final long childEnd = childStart | childSpan;
+					boolean contained = true;
+					boolean disjoint = false;
+					for (int d = 0; d < numDimensions; d++) {
+						final long mask = dimensionMasks[d];
+						final long start = childStart & mask;
+						final long end = childEnd & mask;
+						final long min = zMin & mask;
+						final long max = zMax & mask;
+						if ((PrimitiveZOrderUtils.compareUnsigned(
+								end,
+								min) < 0) || (PrimitiveZOrderUtils.compareUnsigned(
+								start,
+								max) > 0)) {
+							disjoint = true;
+							break;
+						}
+						if ((PrimitiveZOrderUtils.compareUnsigned(
+								start,
+								min) < 0) || (PrimitiveZOrderUtils.compareUnsigned(
+								end,
+								max) > 0)) {
+							contained = false;
+						}
+					}
+					if (disjoint) {
+						continue;
+					}
+					if (contained) {
+						fullRanges.add(childStart);
+						fullRanges.add(childEnd);
+					}
+					else {
+						nextPartialCells.add(childStart);
+					}
+				}
+			}
+			partialCells = nextPartialCells;
+		}
+		final long cellSpan = remainingBits == 0 ? 0 : (-1L >>> (64 - remainingBits));
+		for (int i = 0; i < partialCells.size(); i++) {
+			final long cellStart = partialCells.get(i);
+			final long cellEnd = cellStart | cellSpan;
+			fullRanges.add(getFirstInBox(
+					cellStart,
+					zMin,
+					zMax));
+			fullRanges.add(getLastInBox(
+					cellEnd,
+					zMin,
+					zMax));
+		}
+		return mergeRanges(fullRanges);
+	}
+
+	private long getFirstInBox(
+			final long zValue,
+			final long zMin,
+			final long zMax ) {
+		if (PrimitiveZOrderUtils.compareUnsigned(
+				zValue,
+				zMin) <= 0) {
+			return zMin;
+		}
+		if (PrimitiveZOrderUtils.isInBox(
+				zValue,
+				zMin,
+				zMax,
+				dimensionDefs.length)) {
+			return zValue;
+		}
+		return PrimitiveZOrderUtils.bigMin(
+				zValue,
+				zMin,
+				zMax,
+				dimensionDefs.length,
+				totalBits);
+	}
+
+	private long getLastInBox(
+			final long zValue,
+			final long zMin,
+			final long zMax ) {
+		if (PrimitiveZOrderUtils.compareUnsigned(
+				zValue,
+				zMax) >= 0) {
+			return zMax;
+		}
+		if (PrimitiveZOrderUtils.isInBox(
+				zValue,
+				zMin,
+				zMax,
+				dimensionDefs.length)) {
+			return zValue;
+		}
+		return PrimitiveZOrderUtils.litMax(
+				zValue,
+				zMin,
+				zMax,
+				dimensionDefs.length,
+				totalBits);
+	}
+
+	private static long[] mergeRanges(
+			final LongList ranges ) {
+		final int rangeCount = ranges.size() / 2;
+		final Integer[] order = new Integer[rangeCount];
+		for (int i = 0; i < rangeCount; i++) {
+			order[i] = i;
+		}
+		final long[] values = ranges.values;
+		Arrays.sort(
+				order,
+				new Comparator<Integer>() {
+					@Override
+					public int compare(
+							final Integer o1,
+							final Integer o2 ) {
+						return PrimitiveZOrderUtils.compareUnsigned(
+								values[2 * o1],
+								values[2 * o2]);
+					}
+				});
+		final LongList merged = new LongList();
+		for (int i = 0; i < rangeCount; i++) {
+			final long start = values[2 * order[i]];
+			final long end = values[(2 * order[i]) + 1];
+			final int size = merged.size();
+			if ((size > 0) && (merged.get(size - 1) != -1L) && ((merged.get(size - 1) + 1) == start)) {
+				merged.set(
+						size - 1,
+						end);
+			}
+			else {
+				merged.add(start);
+				merged.add(end);
+			}
+		}
+		return Arrays.copyOf(
+				merged.values,
+				merged.size());
+	}
+
+	/***
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RangeDecomposition decomposeQueryFully(
+			final MultiDimensionalNumericData query ) {
+		return decomposeQuery(
+				query,
+				-1);
+	}
+
+	@Override
+	public int getBitsOfPrecision() {
+		return totalBits;
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final List<byte[]> dimensionDefBinaries = new ArrayList<byte[]>(
+				dimensionDefs.length);
+		int bufferLength = 4;
+		for (final SFCDimensionDefinition sfcDimension : dimensionDefs) {
+			final byte[] sfcDimensionBinary = PersistenceUtils.toBinary(sfcDimension);
+			bufferLength += (sfcDimensionBinary.length + 4);
+			dimensionDefBinaries.add(sfcDimensionBinary);
+		}
+		final ByteBuffer buf = ByteBuffer.allocate(bufferLength);
+		buf.putInt(dimensionDefs.length);
+		for (final byte[] dimensionDefBinary : dimensionDefBinaries) {
+			buf.putInt(dimensionDefBinary.length);
+			buf.put(dimensionDefBinary);
+		}
+		return buf.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		final int numDimensions = buf.getInt();
+		dimensionDefs = new SFCDimensionDefinition[numDimensions];
+		for (int i = 0; i < numDimensions; i++) {
+			final byte[] dim = new byte[buf.getInt()];
+			buf.get(dim);
+			dimensionDefs[i] = PersistenceUtils.fromBinary(
+					dim,
+					SFCDimensionDefinition.class);
+		}
+		init(dimensionDefs);
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		final String className = getClass().getName();
+		result = (prime * result) + ((className == null) ? 0 : className.hashCode());
+		result = (prime * result) + Arrays.hashCode(dimensionDefs);
+		return result;
+	}
+
+	@Override
+	public boolean equals(
+			final Object obj ) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		final PrimitiveZOrderSFC other = (PrimitiveZOrderSFC) obj;
+
+		if (!Arrays.equals(
+				dimensionDefs,
+				other.dimensionDefs)) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * A minimal growable list of primitive longs
+	 */
+	private static class LongList
+	{
+		private long[] values = new long[16];
+		private int size = 0;
+
+		private void add(
+				final long value ) {
+			if (size == values.length) {
+				values = Arrays.copyOf(
+						values,
+						size * 2);
+			}
+			values[size++] = value;
+		}
+
+		private long get(
+				final int index ) {
+			return values[index];
+		}
+
+		private void set(
+				final int index,
+				final long value ) {
+			values[index] = value;
+		}
+
+		private int size() {
+			return size;
+		}
+	}
+}
@@ -0,0 +1,316 @@
+package mil.nga.giat.geowave.core.index.sfc.zorder;
+
+/**
+ * Z-Order (Morton) encoding and decoding of 2, 3 or 4 dimensions into a single
+ * long using bit spreading, without any allocation. The bit of dimension d at
+ * level b (counting from the least significant bit) is stored at bit
+ * (b * numDimensions) + (numDimensions - 1 - d) of the Z-value, so that, like
+ * {@link ZOrderUtils}, the first dimension is the most significant within each
+ * level.
+ *
+ * Also provides the BIGMIN and LITMAX computations of Tropf and Herzog, which
+ * for a Z-value outside of a query box give the next and the previous Z-value
+ * inside of the box. All Z-values are compared as unsigned longs so that the
+ * full 64 bits may be used.
+ */
+public class PrimitiveZOrderUtils
+{
+	public static final int MIN_DIMENSIONS = 2;
+	public static final int MAX_DIMENSIONS = 4;
+	public static final int MAX_TOTAL_BITS = 64;
+
+	/**
+	 * @return whether a primitive Z-order curve can encode the number of
+	 *         dimensions at the given bits per dimension
+	 */
+	public static boolean isSupported(
+			final int numDimensions,
+			final int bitsPerDimension ) {
+		return (numDimensions >= MIN_DIMENSIONS) && (numDimensions <= MAX_DIMENSIONS) && (bitsPerDimension >= 0) && ((numDimensions * bitsPerDimension) <= MAX_TOTAL_BITS);
+	}
+
+	public static long encode(
+			final long x,
+			final long y ) {
+		return (spread2(x) << 1) | spread2(y);
+	}
+
+	public static long encode(
+			final long x,
+			final long y,
+			final long z ) {
+		return (spread3(x) << 2) | (spread3(y) << 1) | spread3(z);
+	}
+
+	public static long encode(
+			final long x,
+			final long y,
+			final long z,
+			final long w ) {
+		return (spread4(x) << 3) | (spread4(y) << 2) | (spread4(z) << 1) | spread4(w);
+	}
+
+	/**
+	 * Encode a single dimension's coordinate into its bit positions of a
+	 * Z-value; the Z-value of a point is the bitwise or of each dimension's
+	 * encoding.
+	 */
+	public static long encodeDimension(
+			final long coordinate,
+			final int dimension,
+			final int numDimensions ) {
+		final int shift = numDimensions - 1 - dimension;
+		switch (numDimensions) {
+			case 2:
+				return spread2(coordinate) << shift;
+			case 3:
+				return spread3(coordinate) << shift;
+			case 4:
+				return spread4(coordinate) << shift;
+			default:
+				throw new IllegalArgumentException(
+						"Primitive Z-order supports " + MIN_DIMENSIONS + " to " + MAX_DIMENSIONS + " dimensions, not " + numDimensions);
+		}
+	}
+
+	/**
+	 * Decode the coordinate of a single dimension from a Z-value
+	 */
+	public static long decodeDimension(
+			final long zValue,
+			final int dimension,
+			final int numDimensions ) {
+		final int shift = numDimensions - 1 - dimension;
+		switch (numDimensions) {
+			case 2:
+				return compact2(zValue >>> shift);
+			case 3:
+				return compact3(zValue >>> shift);
+			case 4:
+				return compact4(zValue >>> shift);
+			default:
+				throw new IllegalArgumentException(
+						"Primitive Z-order supports " + MIN_DIMENSIONS + " to " + MAX_DIMENSIONS + " dimensions, not " + numDimensions);
+		}
+	}
+
+	/**
+	 * @return a mask of all of the bits of a Z-value that belong to the
+	 *         dimension
+	 */
+	public static long getDimensionMask(
+			final int dimension,
+			final int numDimensions ) {
+		return encodeDimension(
+				-1L,
+				dimension,
+				numDimensions);
+	}
+
+	/**
+	 * @return whether a Z-value is within the box defined by the Z-values of
+	 *         its minimum and maximum corners
+	 */
+	public static boolean isInBox(
+			final long zValue,
+			final long zMin,
+			final long zMax,
+			final int numDimensions ) {
+		for (int d = 0; d < numDimensions; d++) {
+			final long mask = getDimensionMask(
+					d,
+					numDimensions);
+			// masking out the other dimensions preserves the order of the
+			// coordinates in this dimension
+			final long value = zValue & mask;
+			if ((compareUnsigned(
+					value,
+					zMin & mask) < 0) || (compareUnsigned(
+					value,
+					zMax & mask) > 0)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * BIGMIN: the smallest Z-value within the box that is greater than the
+	 * given Z-value
+	 *
+	 * @param zValue
+	 *            a Z-value between the corners that is not within the box
+	 * @param zMin
+	 *            the Z-value of the minimum corner of the box
+	 * @param zMax
+	 *            the Z-value of the maximum corner of the box
+	 * @param totalBits
+	 *            the number of significant bits in the Z-values
+	 */
+	public static long bigMin(
+			final long zValue,
+			long zMin,
+			long zMax,
+			final int numDimensions,
+			final int totalBits ) {
+		long bigMin = zMin;
+		for (int i = totalBits - 1; i >= 0; i--) {
+			final long bit = 1L << i;
+			final int zBit = (zValue & bit) != 0 ? 4 : 0;
+			final int minBit = (zMin & bit) != 0 ? 2 : 0;
+			final int maxBit = (zMax & bit) != 0 ? 1 : 0;
+			final long lowerBits = getLowerDimensionBits(
+					i,
+					numDimensions);
+			switch (zBit | minBit | maxBit) {
+				case 0b001:
+					bigMin = (zMin | bit) & ~lowerBits;
+					zMax = (zMax & ~bit) | lowerBits;
+					break;
+				case 0b011:
+					return zMin;
+				case 0b100:
+					return bigMin;
+				case 0b101:
+					zMin = (zMin | bit) & ~lowerBits;
+					break;
+				default:
+					// the bits agree (or the corners are inverted), continue
+					break;
+			}
+		}
+		return bigMin;
+	}
+
+	/**
+	 * LITMAX: the largest Z-value within the box that is less than the given
+	 * Z-value
+	 *
+	 * @param zValue
+	 *            a Z-value between the corners that is not within the box
+	 * @param zMin
+	 *            the Z-value of the minimum corner of the box
+	 * @param zMax
+	 *            the Z-value of the maximum corner of the box
+	 * @param totalBits
+	 *            the number of significant bits in the Z-values
+	 */
+	public static long litMax(
+			final long zValue,
+			long zMin,
+			long zMax,
+			final int numDimensions,
+			final int totalBits ) {
+		long litMax = zMax;
+		for (int i = totalBits - 1; i >= 0; i--) {
+			final long bit = 1L << i;
+			final int zBit = (zValue & bit) != 0 ? 4 : 0;
+			final int minBit = (zMin & bit) != 0 ? 2 : 0;
+			final int maxBit = (zMax & bit) != 0 ? 1 : 0;
+			final long lowerBits = getLowerDimensionBits(
+					i,
+					numDimensions);
+			switch (zBit | minBit | maxBit) {
+				case 0b001:
+					zMax = (zMax & ~bit) | lowerBits;
+					break;
+				case 0b011:
+					return litMax;
+				case 0b100:
+					return zMax;
+				case 0b101:
+					litMax = (zMax & ~bit) | lowerBits;
+					zMin = (zMin | bit) & ~lowerBits;
+					break;
+				default:
+					// the bits agree (or the corners are inverted), continue
+					break;
+			}
+		}
+		return litMax;
+	}
+
+	public static int compareUnsigned(
+			final long a,
+			final long b ) {
+		final long flippedA = a ^ Long.MIN_VALUE;
+		final long flippedB = b ^ Long.MIN_VALUE;
+		return flippedA < flippedB ? -1 : (flippedA == flippedB ? 0 : 1);
+	}
+
+	/**
+	 * @return the bits below bit i that belong to the same dimension as bit i
+	 */
+	private static long getLowerDimensionBits(
+			final int i,
+			final int numDimensions ) {
+		final long belowBit = (1L << i) - 1;
+		return getDimensionMask(
+				numDimensions - 1 - (i % numDimensions),
+				numDimensions) & belowBit;
+	}
+
+	private static long spread2(
+			final long value ) {
+		long x = value & 0xFFFFFFFFL;
+		x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+		x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+		x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+		x = (x | (x << 2)) & 0x3333333333333333L;
+		x = (x | (x << 1)) & 0x5555555555555555L;
+		return x;
+	}
+
+	private static long compact2(
+			final long value ) {
+		long x = value & 0x5555555555555555L;
+		x = (x | (x >>> 1)) & 0x3333333333333333L;
+		x = (x | (x >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+		x = (x | (x >>> 4)) & 0x00FF00FF00FF00FFL;
+		x = (x | (x >>> 8)) & 0x0000FFFF0000FFFFL;
+		x = (x | (x >>> 16)) & 0x00000000FFFFFFFFL;
+		return x;
+	}
+
+	private static long spread3(
+			final long value ) {
+		long x = value & 0x1FFFFFL;
+		x = (x | (x << 32)) & 0x001F00000000FFFFL;
+		x = (x | (x << 16)) & 0x001F0000FF0000FFL;
+		x = (x | (x << 8)) & 0x100F00F00F00F00FL;
+		x = (x | (x << 4)) & 0x10C30C30C30C30C3L;
+		x = (x | (x << 2)) & 0x1249249249249249L;
+		return x;
+	}
+
+	private static long compact3(
+			final long value ) {
+		long x = value & 0x1249249249249249L;
+		x = (x | (x >>> 2)) & 0x10C30C30C30C30C3L;
+		x = (x | (x >>> 4)) & 0x100F00F00F00F00FL;
+		x = (x | (x >>> 8)) & 0x001F0000FF0000FFL;
+		x = (x | (x >>> 16)) & 0x001F00000000FFFFL;
+		x = (x | (x >>> 32)) & 0x00000000001FFFFFL;
+		return x;
+	}
+
+	private static long spread4(
+			final long value ) {
+		long x = value & 0xFFFFL;
+		x = (x | (x << 24)) & 0x000000FF000000FFL;
+		x = (x | (x << 12)) & 0x000F000F000F000FL;
+		x = (x | (x << 6)) & 0x0303030303030303L;
+		x = (x | (x << 3)) & 0x1111111111111111L;
+		return x;
+	}
+
+	private static long compact4(
+			final long value ) {
+		long x = value & 0x1111111111111111L;
+		x = (x | (x >>> 3)) & 0x0303030303030303L;
+		x = (x | (x >>> 6)) & 0x000F000F000F000FL;
+		x = (x | (x >>> 12)) & 0x000000FF000000FFL;
+		x = (x | (x >>> 24)) & 0x000000000000FFFFL;
+		return x;
+	}
+}
@@ -0,0 +1,236 @@
+package mil.nga.giat.geowave.core.index.sfc;
+
+import java.util.List;
+
+import mil.nga.giat.geowave.core.index.ByteArrayRange;
+import mil.nga.giat.geowave.core.index.dimension.BasicDimensionDefinition;
+import mil.nga.giat.geowave.core.index.dimension.NumericDimensionDefinition;
+import mil.nga.giat.geowave.core.index.sfc.SFCFactory.SFCType;
+import mil.nga.giat.geowave.core.index.sfc.data.BasicNumericDataset;
+import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericRange;
+import mil.nga.giat.geowave.core.index.sfc.tiered.TieredSFCIndexFactory;
+import mil.nga.giat.geowave.core.index.sfc.tiered.TieredSFCIndexStrategy;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.cache.Weigher;
+
+public class QueryRangeCacheTest
+{
+	private static final NumericDimensionDefinition[] SPATIAL_DIMENSIONS = new NumericDimensionDefinition[] {
+		new BasicDimensionDefinition(
+				-180,
+				180),
+		new BasicDimensionDefinition(
+				-90,
+				90)
+	};
+
+	private static MultiDimensionalNumericData box(
+			final double minX,
+			final double minY,
+			final double maxX,
+			final double maxY ) {
+		return new BasicNumericDataset(
+				new NumericData[] {
+					new NumericRange(
+							minX,
+							maxX),
+					new NumericRange(
+							minY,
+							maxY)
+				});
+	}
+
+	private static final Weigher<QueryRangeCache.Key, List<ByteArrayRange>> RANGE_COUNTER = new Weigher<QueryRangeCache.Key, List<ByteArrayRange>>() {
+		@Override
+		public int weigh(
+				final QueryRangeCache.Key key,
+				final List<ByteArrayRange> ranges ) {
+			return ranges.size();
+		}
+	};
+
+	private static TieredSFCIndexStrategy createStrategy(
+			final QueryRangeCache<List<ByteArrayRange>> cache ) {
+		final TieredSFCIndexStrategy strategy = TieredSFCIndexFactory.createFullIncrementalTieredStrategy(
+				SPATIAL_DIMENSIONS,
+				new int[] {
+					31,
+					31
+				},
+				SFCType.HILBERT);
+		// the tests do not touch the cache shared by all strategies
+		strategy.setQueryRangeCache(cache);
+		return strategy;
+	}
+
+	@Test
+	public void testCachedRangesMatchComputedRanges() {
+		final MultiDimensionalNumericData tile = box(
+				-45,
+				0,
+				0,
+				45);
+		final List<ByteArrayRange> expected = createStrategy(
+				new QueryRangeCache<List<ByteArrayRange>>(
+						RANGE_COUNTER,
+						0)).getQueryRanges(
+				tile,
+				100);
+
+		final QueryRangeCache<List<ByteArrayRange>> cache = new QueryRangeCache<List<ByteArrayRange>>(
+				RANGE_COUNTER);
+		// a separate but identical strategy instance should share the entry
+		final List<ByteArrayRange> first = createStrategy(
+				cache).getQueryRanges(
+				tile,
+				100);
+		final List<ByteArrayRange> second = createStrategy(
+				cache).getQueryRanges(
+				tile,
+				100);
+		Assert.assertEquals(
+				expected,
+				first);
+		Assert.assertEquals(
+				expected,
+				second);
+		Assert.assertEquals(
+				1,
+				cache.getMissCount());
+		Assert.assertEquals(
+				1,
+				cache.getHitCount());
+
+		// a different max range count is a different entry
+		createStrategy(
+				cache).getQueryRanges(
+				tile,
+				10);
+		Assert.assertEquals(
+				2,
+				cache.getMissCount());
+	}
+
+	@Test
+	public void testInsertionIdsAreNotCached() {
+		final QueryRangeCache<List<ByteArrayRange>> cache = new QueryRangeCache<List<ByteArrayRange>>(
+				RANGE_COUNTER);
+		createStrategy(
+				cache).getInsertionIds(
+				box(
+						-10,
+						-10,
+						10,
+						10));
+		Assert.assertEquals(
+				0,
+				cache.size());
+		Assert.assertEquals(
+				0,
+				cache.getMissCount());
+	}
+
+	@Test
+	public void testEvictionByRangeCount() {
+		final QueryRangeCache<List<ByteArrayRange>> cache = new QueryRangeCache<List<ByteArrayRange>>(
+				RANGE_COUNTER,
+				1000);
+		final TieredSFCIndexStrategy strategy = createStrategy(cache);
+		// every tier adds at least one range, so these hold more ranges than
+		// the cache does
+		for (int i = 0; i < 50; i++) {
+			strategy.getQueryRanges(
+					box(
+							i,
+							i,
+							i + 1,
+							i + 1),
+					100);
+		}
+		Assert.assertTrue(cache.getRangeCount() <= 1000);
+		Assert.assertTrue(cache.size() < 50);
+		cache.resetStatistics();
+		// the most recently used box is still cached
+		strategy.getQueryRanges(
+				box(
+						49,
+						49,
+						50,
+						50),
+				100);
+		Assert.assertEquals(
+				1,
+				cache.getHitCount());
+
+		// a cache that cannot hold any ranges is disabled
+		cache.setMaxRanges(0);
+		Assert.assertFalse(cache.isEnabled());
+		Assert.assertEquals(
+				0,
+				cache.size());
+	}
+
+	@Test
+	public void testDisabledCache() {
+		final QueryRangeCache<List<ByteArrayRange>> cache = new QueryRangeCache<List<ByteArrayRange>>(
+				RANGE_COUNTER,
+				0);
+		final TieredSFCIndexStrategy strategy = createStrategy(cache);
+		for (int i = 0; i < 2; i++) {
+			Assert.assertFalse(strategy.getQueryRanges(
+					box(
+							0,
+							0,
+							1,
+							1),
+					10).isEmpty());
+		}
+		Assert.assertEquals(
+				0,
+				cache.size());
+		Assert.assertEquals(
+				0,
+				cache.getHitCount() + cache.getMissCount());
+	}
+
+	@Test
+	public void testQuantizationExpandsOutward() {
+		final QueryRangeCache<List<ByteArrayRange>> cache = new QueryRangeCache<List<ByteArrayRange>>(
+				RANGE_COUNTER);
+		cache.setQuantizationBits(8);
+		final MultiDimensionalNumericData original = box(
+				-45.3,
+				10.1,
+				-44.9,
+				10.2);
+		final MultiDimensionalNumericData quantized = cache.quantize(
+				original,
+				SPATIAL_DIMENSIONS);
+		for (int d = 0; d < 2; d++) {
+			Assert.assertTrue(quantized.getMinValuesPerDimension()[d] <= original.getMinValuesPerDimension()[d]);
+			Assert.assertTrue(quantized.getMaxValuesPerDimension()[d] >= original.getMaxValuesPerDimension()[d]);
+		}
+		// a nearby box within the same grid cells shares the key
+		final MultiDimensionalNumericData nearby = cache.quantize(
+				box(
+						-45.2,
+						10.12,
+						-44.95,
+						10.18),
+				SPATIAL_DIMENSIONS);
+		Assert.assertEquals(
+				cache.createKey(
+						new byte[] {},
+						quantized,
+						10),
+				cache.createKey(
+						new byte[] {},
+						nearby,
+						10));
+	}
+}
@@ -0,0 +1,109 @@
+package mil.nga.giat.geowave.core.index.sfc.tiered;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.ByteArrayRange;
+import mil.nga.giat.geowave.core.index.NumericIndexStrategy;
+import mil.nga.giat.geowave.core.index.dimension.BasicDimensionDefinition;
+import mil.nga.giat.geowave.core.index.dimension.NumericDimensionDefinition;
+import mil.nga.giat.geowave.core.index.sfc.SFCFactory.SFCType;
+import mil.nga.giat.geowave.core.index.sfc.data.BasicNumericDataset;
+import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericRange;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TieredSFCIndexStrategyConcurrencyTest
+{
+	private static final int THREAD_COUNT = 8;
+	private static final int SAMPLE_COUNT = 500;
+
+	private static final NumericDimensionDefinition[] SPATIAL_DIMENSIONS = new NumericDimensionDefinition[] {
+		new BasicDimensionDefinition(
+				-180,
+				180),
+		new BasicDimensionDefinition(
+				-90,
+				90)
+	};
+
+	@Test
+	public void testConcurrentIdsMatchSequentialIds()
+			throws Exception {
+		final NumericIndexStrategy indexStrategy = TieredSFCIndexFactory.createFullIncrementalTieredStrategy(
+				SPATIAL_DIMENSIONS,
+				new int[] {
+					31,
+					31
+				},
+				SFCType.HILBERT);
+		final Random random = new Random(
+				42);
+		final List<MultiDimensionalNumericData> samples = new ArrayList<MultiDimensionalNumericData>();
+		for (int i = 0; i < SAMPLE_COUNT; i++) {
+			final double x = (random.nextDouble() * 350) - 175;
+			final double y = (random.nextDouble() * 170) - 85;
+			samples.add(new BasicNumericDataset(
+					new NumericData[] {
+						new NumericRange(
+								x,
+								x + random.nextDouble()),
+						new NumericRange(
+								y,
+								y + random.nextDouble())
+					}));
+		}
+		final List<List<ByteArrayId>> expectedIds = new ArrayList<List<ByteArrayId>>();
+		final List<List<ByteArrayRange>> expectedRanges = new ArrayList<List<ByteArrayRange>>();
+		for (final MultiDimensionalNumericData sample : samples) {
+			expectedIds.add(indexStrategy.getInsertionIds(sample));
+			expectedRanges.add(indexStrategy.getQueryRanges(
+					sample,
+					100));
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+		try {
+			final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < THREAD_COUNT; t++) {
+				results.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						for (int i = 0; i < samples.size(); i++) {
+							if (!expectedIds.get(
+									i).equals(
+									indexStrategy.getInsertionIds(samples.get(i)))) {
+								return false;
+							}
+							if (!expectedRanges.get(
+									i).equals(
+									indexStrategy.getQueryRanges(
+											samples.get(i),
+											100))) {
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			for (final Future<Boolean> result : results) {
+				Assert.assertTrue(
+						"IDs generated concurrently must match sequentially generated IDs",
+						result.get());
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+}
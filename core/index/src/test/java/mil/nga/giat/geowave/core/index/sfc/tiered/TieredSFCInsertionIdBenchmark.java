@@ -0,0 +1,143 @@
+package mil.nga.giat.geowave.core.index.sfc.tiered;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.ByteArrayRange;
+import mil.nga.giat.geowave.core.index.NumericIndexStrategy;
+import mil.nga.giat.geowave.core.index.dimension.BasicDimensionDefinition;
+import mil.nga.giat.geowave.core.index.dimension.NumericDimensionDefinition;
+import mil.nga.giat.geowave.core.index.sfc.SFCFactory.SFCType;
+import mil.nga.giat.geowave.core.index.sfc.data.BasicNumericDataset;
+import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericRange;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericValue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures insertion ID generation and query decomposition throughput on a
+ * single shared tiered index strategy as the number of threads grows. With no
+ * shared lock on the SFC, throughput should scale close to linearly with the
+ * thread count. Run the main method from the test classpath; it repeats the
+ * benchmarks for 1, 2, 4 and 8 threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TieredSFCInsertionIdBenchmark
+{
+	private static final NumericDimensionDefinition[] SPATIAL_DIMENSIONS = new NumericDimensionDefinition[] {
+		new BasicDimensionDefinition(
+				-180,
+				180),
+		new BasicDimensionDefinition(
+				-90,
+				90)
+	};
+
+	@State(Scope.Benchmark)
+	public static class SharedIndex
+	{
+		private NumericIndexStrategy indexStrategy;
+
+		@Setup
+		public void setup() {
+			indexStrategy = TieredSFCIndexFactory.createFullIncrementalTieredStrategy(
+					SPATIAL_DIMENSIONS,
+					new int[] {
+						31,
+						31
+					},
+					SFCType.HILBERT);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ThreadData
+	{
+		private static final int SAMPLE_COUNT = 1024;
+		private final MultiDimensionalNumericData[] points = new MultiDimensionalNumericData[SAMPLE_COUNT];
+		private final MultiDimensionalNumericData[] boxes = new MultiDimensionalNumericData[SAMPLE_COUNT];
+		private int i = 0;
+
+		@Setup
+		public void setup() {
+			final Random random = new Random();
+			for (int s = 0; s < SAMPLE_COUNT; s++) {
+				final double x = (random.nextDouble() * 350) - 175;
+				final double y = (random.nextDouble() * 170) - 85;
+				points[s] = new BasicNumericDataset(
+						new NumericData[] {
+							new NumericValue(
+									x),
+							new NumericValue(
+									y)
+						});
+				boxes[s] = new BasicNumericDataset(
+						new NumericData[] {
+							new NumericRange(
+									x,
+									x + (random.nextDouble() * 5)),
+							new NumericRange(
+									y,
+									y + (random.nextDouble() * 5))
+						});
+			}
+		}
+
+		private int next() {
+			i = (i + 1) % SAMPLE_COUNT;
+			return i;
+		}
+	}
+
+	@Benchmark
+	public List<ByteArrayId> insertionIds(
+			final SharedIndex index,
+			final ThreadData data ) {
+		return index.indexStrategy.getInsertionIds(data.points[data.next()]);
+	}
+
+	@Benchmark
+	public List<ByteArrayRange> queryRanges(
+			final SharedIndex index,
+			final ThreadData data ) {
+		return index.indexStrategy.getQueryRanges(
+				data.boxes[data.next()],
+				1000);
+	}
+
+	public static void main(
+			final String[] args )
+			throws RunnerException {
+		for (final int threads : new int[] {
+			1,
+			2,
+			4,
+			8
+		}) {
+			new Runner(
+					new OptionsBuilder().include(
+							TieredSFCInsertionIdBenchmark.class.getSimpleName()).threads(
+							threads).build()).run();
+		}
+	}
+}
@@ -0,0 +1,356 @@
+package mil.nga.giat.geowave.core.index.sfc.zorder;
+
+import java.util.Random;
+
+import mil.nga.giat.geowave.core.index.ByteArrayRange;
+import mil.nga.giat.geowave.core.index.dimension.BasicDimensionDefinition;
+import mil.nga.giat.geowave.core.index.sfc.RangeDecomposition;
+import mil.nga.giat.geowave.core.index.sfc.SFCDimensionDefinition;
+import mil.nga.giat.geowave.core.index.sfc.SFCFactory;
+import mil.nga.giat.geowave.core.index.sfc.SFCFactory.SFCType;
+import mil.nga.giat.geowave.core.index.sfc.data.BasicNumericDataset;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericRange;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrimitiveZOrderSFCTest
+{
+	private static SFCDimensionDefinition[] createDimensions(
+			final int numDimensions,
+			final int bitsPerDimension ) {
+		final SFCDimensionDefinition[] dimensions = new SFCDimensionDefinition[numDimensions];
+		for (int d = 0; d < numDimensions; d++) {
+			// one unit per bin so that coordinates are easy to reason about
+			dimensions[d] = new SFCDimensionDefinition(
+					new BasicDimensionDefinition(
+							0,
+							1L << bitsPerDimension),
+					bitsPerDimension);
+		}
+		return dimensions;
+	}
+
+	private static long naiveEncode(
+			final long[] coordinates,
+			final int bitsPerDimension ) {
+		long zValue = 0;
+		for (int b = bitsPerDimension - 1; b >= 0; b--) {
+			for (int d = 0; d < coordinates.length; d++) {
+				zValue = (zValue << 1) | ((coordinates[d] >>> b) & 1);
+			}
+		}
+		return zValue;
+	}
+
+	private static long toLong(
+			final byte[] id ) {
+		long value = 0;
+		for (final byte b : id) {
+			value = (value << 8) | (b & 0xFF);
+		}
+		return value;
+	}
+
+	@Test
+	public void testEncodeMatchesNaiveInterleaving() {
+		final Random random = new Random(
+				3);
+		final int[] maxBits = new int[] {
+			0,
+			0,
+			32,
+			21,
+			16
+		};
+		for (int numDimensions = 2; numDimensions <= 4; numDimensions++) {
+			final int bits = maxBits[numDimensions];
+			for (int i = 0; i < 1000; i++) {
+				final long[] coordinates = new long[numDimensions];
+				long zValue = 0;
+				for (int d = 0; d < numDimensions; d++) {
+					coordinates[d] = random.nextLong() & ((1L << bits) - 1);
+					zValue |= PrimitiveZOrderUtils.encodeDimension(
+							coordinates[d],
+							d,
+							numDimensions);
+				}
+				Assert.assertEquals(
+						naiveEncode(
+								coordinates,
+								bits),
+						zValue);
+				for (int d = 0; d < numDimensions; d++) {
+					Assert.assertEquals(
+							coordinates[d],
+							PrimitiveZOrderUtils.decodeDimension(
+									zValue,
+									d,
+									numDimensions));
+				}
+			}
+		}
+		Assert.assertEquals(
+				PrimitiveZOrderUtils.encode(
+						5,
+						9),
+				naiveEncode(
+						new long[] {
+							5,
+							9
+						},
+						32));
+		Assert.assertEquals(
+				PrimitiveZOrderUtils.encode(
+						5,
+						9,
+						3),
+				naiveEncode(
+						new long[] {
+							5,
+							9,
+							3
+						},
+						21));
+		Assert.assertEquals(
+				PrimitiveZOrderUtils.encode(
+						5,
+						9,
+						3,
+						12),
+				naiveEncode(
+						new long[] {
+							5,
+							9,
+							3,
+							12
+						},
+						16));
+	}
+
+	@Test
+	public void testIdsRoundTrip() {
+		final PrimitiveZOrderSFC sfc = new PrimitiveZOrderSFC(
+				createDimensions(
+						3,
+						12));
+		final Random random = new Random(
+				5);
+		for (int i = 0; i < 1000; i++) {
+			final double[] values = new double[] {
+				random.nextInt(4096) + 0.5,
+				random.nextInt(4096) + 0.5,
+				random.nextInt(4096) + 0.5
+			};
+			final byte[] id = sfc.getId(values);
+			Assert.assertEquals(
+					5,
+					id.length);
+			final long[] coordinates = sfc.getCoordinates(id);
+			for (int d = 0; d < 3; d++) {
+				Assert.assertEquals(
+						(long) values[d],
+						coordinates[d]);
+			}
+			final NumericData[] ranges = sfc.getRanges(
+					id).getDataPerDimension();
+			for (int d = 0; d < 3; d++) {
+				Assert.assertTrue(ranges[d].getMin() <= values[d]);
+				Assert.assertTrue(ranges[d].getMax() >= values[d]);
+			}
+		}
+		// the maximum of each dimension belongs to the last bin
+		Assert.assertArrayEquals(
+				new long[] {
+					4095,
+					4095,
+					4095
+				},
+				sfc.getCoordinates(sfc.getId(new double[] {
+					4096,
+					4096,
+					4096
+				})));
+	}
+
+	@Test
+	public void testBigMinAndLitMax() {
+		final int bits = 4;
+		final Random random = new Random(
+				11);
+		for (int i = 0; i < 200; i++) {
+			final long minX = random.nextInt(16);
+			final long minY = random.nextInt(16);
+			final long maxX = minX + random.nextInt((int) (16 - minX));
+			final long maxY = minY + random.nextInt((int) (16 - minY));
+			final long zMin = PrimitiveZOrderUtils.encode(
+					minX,
+					minY);
+			final long zMax = PrimitiveZOrderUtils.encode(
+					maxX,
+					maxY);
+			for (long z = zMin + 1; z < zMax; z++) {
+				if (PrimitiveZOrderUtils.isInBox(
+						z,
+						zMin,
+						zMax,
+						2)) {
+					continue;
+				}
+				long expectedBigMin = -1;
+				for (long next = z + 1; next <= zMax; next++) {
+					if (PrimitiveZOrderUtils.isInBox(
+							next,
+							zMin,
+							zMax,
+							2)) {
+						expectedBigMin = next;
+						break;
+					}
+				}
+				long expectedLitMax = -1;
+				for (long previous = z - 1; previous >= zMin; previous--) {
+					if (PrimitiveZOrderUtils.isInBox(
+							previous,
+							zMin,
+							zMax,
+							2)) {
+						expectedLitMax = previous;
+						break;
+					}
+				}
+				Assert.assertEquals(
+						expectedBigMin,
+						PrimitiveZOrderUtils.bigMin(
+								z,
+								zMin,
+								zMax,
+								2,
+								bits * 2));
+				Assert.assertEquals(
+						expectedLitMax,
+						PrimitiveZOrderUtils.litMax(
+								z,
+								zMin,
+								zMax,
+								2,
+								bits * 2));
+			}
+		}
+	}
+
+	@Test
+	public void testDecomposition() {
+		final int bits = 5;
+		final PrimitiveZOrderSFC sfc = new PrimitiveZOrderSFC(
+				createDimensions(
+						2,
+						bits));
+		final Random random = new Random(
+				13);
+		for (int i = 0; i < 100; i++) {
+			final int minX = random.nextInt(32);
+			final int minY = random.nextInt(32);
+			final int maxX = minX + random.nextInt(32 - minX);
+			final int maxY = minY + random.nextInt(32 - minY);
+			final BasicNumericDataset query = new BasicNumericDataset(
+					new NumericData[] {
+						new NumericRange(
+								minX + 0.5,
+								maxX + 0.5),
+						new NumericRange(
+								minY + 0.5,
+								maxY + 0.5)
+					});
+			for (final int maxRanges : new int[] {
+				-1,
+				1,
+				4,
+				16
+			}) {
+				final RangeDecomposition decomposition = sfc.decomposeQuery(
+						query,
+						maxRanges);
+				final ByteArrayRange[] ranges = decomposition.getRanges();
+				if (maxRanges > 0) {
+					Assert.assertTrue(ranges.length <= maxRanges);
+				}
+				long previousEnd = -1;
+				final boolean[] covered = new boolean[1 << (2 * bits)];
+				for (final ByteArrayRange range : ranges) {
+					final long start = toLong(range.getStart().getBytes());
+					final long end = toLong(range.getEnd().getBytes());
+					// sorted, disjoint and not adjacent
+					Assert.assertTrue((previousEnd < 0) || (start > (previousEnd + 1)));
+					Assert.assertTrue(start <= end);
+					previousEnd = end;
+					// trimmed to values within the query
+					Assert.assertTrue(isInBox(
+							start,
+							minX,
+							minY,
+							maxX,
+							maxY));
+					Assert.assertTrue(isInBox(
+							end,
+							minX,
+							minY,
+							maxX,
+							maxY));
+					for (long z = start; z <= end; z++) {
+						covered[(int) z] = true;
+						if (maxRanges <= 0) {
+							// a full decomposition is exact
+							Assert.assertTrue(isInBox(
+									z,
+									minX,
+									minY,
+									maxX,
+									maxY));
+						}
+					}
+				}
+				for (int x = minX; x <= maxX; x++) {
+					for (int y = minY; y <= maxY; y++) {
+						Assert.assertTrue(covered[(int) PrimitiveZOrderUtils.encode(
+								x,
+								y)]);
+					}
+				}
+			}
+		}
+	}
+
+	private static boolean isInBox(
+			final long zValue,
+			final long minX,
+			final long minY,
+			final long maxX,
+			final long maxY ) {
+		final long x = PrimitiveZOrderUtils.decodeDimension(
+				zValue,
+				0,
+				2);
+		final long y = PrimitiveZOrderUtils.decodeDimension(
+				zValue,
+				1,
+				2);
+		return (x >= minX) && (x <= maxX) && (y >= minY) && (y <= maxY);
+	}
+
+	@Test
+	public void testFactorySelection() {
+		Assert.assertTrue(SFCFactory.createSpaceFillingCurve(
+				createDimensions(
+						2,
+						32),
+				SFCType.PRIMITIVE_ZORDER) instanceof PrimitiveZOrderSFC);
+		// too many bits to fit within a long
+		Assert.assertTrue(SFCFactory.createSpaceFillingCurve(
+				createDimensions(
+						3,
+						31),
+				SFCType.PRIMITIVE_ZORDER) instanceof ZOrderSFC);
+	}
+}
@@ -18,6 +18,31 @@ public class IngestUtils
 {
 	private final static Logger LOGGER = LoggerFactory.getLogger(IngestUtils.class);
 
+	/**
+	 * Handles each entry of the input once its adapter and index writer are
+	 * known, by default by writing it.
+	 */
+	public static interface IngestEntryHandler
+	{
+		public void handle(
+				IndexWriter indexWriter,
+				WritableDataAdapter adapter,
+				Object entry )
+				throws IOException;
+	}
+
+	private static final IngestEntryHandler WRITE_ENTRY = new IngestEntryHandler() {
+		@Override
+		public void handle(
+				final IndexWriter indexWriter,
+				final WritableDataAdapter adapter,
+				final Object entry ) {
+			indexWriter.write(
+					adapter,
+					entry);
+		}
+	};
+
 	public static <T> void ingest(
 			final T input,
 			final IngestCommandLineOptions ingestOptions,
@@ -25,6 +50,23 @@ public class IngestUtils
 			final IndexProvider indexProvider,
 			final IngestRunData ingestRunData )
 			throws IOException {
+		ingest(
+				input,
+				ingestOptions,
+				ingestPlugin,
+				indexProvider,
+				ingestRunData,
+				WRITE_ENTRY);
+	}
+
+	public static <T> void ingest(
+			final T input,
+			final IngestCommandLineOptions ingestOptions,
+			final IngestPluginBase<T, ?> ingestPlugin,
+			final IndexProvider indexProvider,
+			final IngestRunData ingestRunData,
+			final IngestEntryHandler entryHandler )
+			throws IOException {
 		final Index primaryIndex = ingestOptions.getIndex(indexProvider.getSupportedIndices());
 		if (primaryIndex == null) {
 			LOGGER.error("Could not get index instance, getIndex() returned null;");
@@ -72,7 +114,8 @@ public class IngestUtils
 					}
 					indexWriter = ingestRunData.getIndexWriter(index);
 				}
-				indexWriter.write(
+				entryHandler.handle(
+						indexWriter,
 						adapter,
 						geowaveData.getValue());
 			}
@@ -2,8 +2,8 @@ package mil.nga.giat.geowave.core.ingest.avro;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.avro.Schema;
 import org.apache.avro.io.BinaryDecoder;
@@ -18,6 +18,12 @@ import org.apache.log4j.Logger;
  * Generic Avro serializer/deserializer, can convert Avro Java object to a byte
  * array and a byte array back to a usable Avro Java object.
  * 
+ * The datum readers and writers are shared by all threads and the binary
+ * decoders and encoders are reused by each thread, so that records can be
+ * serialized and deserialized concurrently without locking. A
+ * {@link RecordDeserializer} also reuses the record it reads into, for a
+ * single thread deserializing a stream of records of one schema.
+ * 
  * @param <T>
  *            - Base Avro class extended by all generated class files
  */
@@ -27,12 +33,14 @@ public class GenericAvroSerializer<T>
 
 	private static final EncoderFactory ef = EncoderFactory.get();
 	private static final DecoderFactory df = DecoderFactory.get();
-	private static final Map<String, SpecificDatumWriter> writers = new HashMap<>();
-	private static final Map<String, SpecificDatumReader> readers = new HashMap<>();
+	private static final ConcurrentMap<String, SpecificDatumWriter> writers = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<String, SpecificDatumReader> readers = new ConcurrentHashMap<>();
+	private static final ThreadLocal<BinaryEncoder> encoders = new ThreadLocal<>();
+	private static final ThreadLocal<BinaryDecoder> decoders = new ThreadLocal<>();
 
 	public GenericAvroSerializer() {}
 
-	synchronized public static <T> byte[] serialize(
+	public static <T> byte[] serialize(
 			final T avroObject,
 			final Schema avroSchema ) {
 
@@ -40,17 +48,21 @@ public class GenericAvroSerializer<T>
 			final ByteArrayOutputStream os = new ByteArrayOutputStream();
 			final BinaryEncoder encoder = ef.binaryEncoder(
 					os,
-					null);
+					encoders.get());
+			encoders.set(encoder);
 
 			final String schemaName = getSchemaName(avroSchema);
-			if (!writers.containsKey(schemaName)) {
-				writers.put(
+			SpecificDatumWriter<T> writer = writers.get(schemaName);
+			if (writer == null) {
+				writer = new SpecificDatumWriter<T>(
+						avroSchema);
+				final SpecificDatumWriter<T> existingWriter = writers.putIfAbsent(
 						schemaName,
-						new SpecificDatumWriter<T>(
-								avroSchema));
+						writer);
+				if (existingWriter != null) {
+					writer = existingWriter;
+				}
 			}
-
-			final SpecificDatumWriter<T> writer = writers.get(schemaName);
 			writer.write(
 					avroObject,
 					encoder);
@@ -63,22 +75,16 @@ public class GenericAvroSerializer<T>
 		}
 	}
 
-	synchronized public static <T> T deserialize(
+	public static <T> T deserialize(
 			final byte[] avroData,
 			final Schema avroSchema ) {
 		try {
 			final BinaryDecoder decoder = df.binaryDecoder(
 					avroData,
-					null);
+					decoders.get());
+			decoders.set(decoder);
 
-			final String schemaName = getSchemaName(avroSchema);
-			if (!readers.containsKey(schemaName)) {
-				readers.put(
-						schemaName,
-						new SpecificDatumReader<T>(
-								avroSchema));
-			}
-			final SpecificDatumReader<T> reader = readers.get(schemaName);
+			final SpecificDatumReader<T> reader = getReader(avroSchema);
 			return reader.read(
 					null,
 					decoder);
@@ -89,13 +95,75 @@ public class GenericAvroSerializer<T>
 		}
 	}
 
+	private static <T> SpecificDatumReader<T> getReader(
+			final Schema avroSchema ) {
+		final String schemaName = getSchemaName(avroSchema);
+		SpecificDatumReader<T> reader = readers.get(schemaName);
+		if (reader == null) {
+			reader = new SpecificDatumReader<T>(
+					avroSchema);
+			final SpecificDatumReader<T> existingReader = readers.putIfAbsent(
+					schemaName,
+					reader);
+			if (existingReader != null) {
+				reader = existingReader;
+			}
+		}
+		return reader;
+	}
+
+	/**
+	 * Deserializes a stream of records of one schema on a single thread. The
+	 * datum reader is looked up once, and the decoder and the record are
+	 * reused from one record to the next, so the record returned is only valid
+	 * until the next call.
+	 * 
+	 * @param <T>
+	 *            - Base Avro class extended by all generated class files
+	 */
+	public static class RecordDeserializer<T>
+	{
+		private final SpecificDatumReader<T> reader;
+		private BinaryDecoder decoder = null;
+		private T record = null;
+
+		public RecordDeserializer(
+				final Schema avroSchema ) {
+			reader = getReader(avroSchema);
+		}
+
+		/**
+		 * @return the record, overwriting the one previously returned, or null
+		 *         if the data cannot be deserialized
+		 */
+		public T deserialize(
+				final byte[] avroData ) {
+			decoder = df.binaryDecoder(
+					avroData,
+					decoder);
+			try {
+				record = reader.read(
+						record,
+						decoder);
+				return record;
+			}
+			catch (final IOException e) {
+				LOGGER.error("Unable to deserialize byte[] to Avro object: " + e.getMessage());
+				// the record may have been partially overwritten
+				record = null;
+				return null;
+			}
+		}
+	}
+
 	private static String getSchemaName(
 			final Schema schema ) {
 		try {
 			return schema.getNamespace() + "." + schema.getName();
 		}
 		catch (final Exception e) {
-			return null;
+			// the concurrent maps do not allow a null key
+			return schema.getFullName();
 		}
 	}
 }
@@ -116,6 +116,13 @@ abstract public class AbstractMapReduceIngest<T extends Persistable & DataAdapte
 				accumuloOptions.getUser(), // accumuloUser
 				accumuloOptions.getPassword(), // accumuloPass
 				accumuloOptions.getNamespace()); // geowaveNamespace
+		// each task bulk imports the entries it writes if a directory is given
+		GeoWaveOutputFormat.setBulkImportDirectory(
+				job.getConfiguration(),
+				accumuloOptions.getBulkImportDirectory());
+		GeoWaveOutputFormat.setBulkImportBufferSize(
+				job.getConfiguration(),
+				accumuloOptions.getBulkImportBufferSize());
 
 		final WritableDataAdapter<?>[] dataAdapters = ingestPlugin.getDataAdapters(ingestOptions.getVisibility());
 		for (final WritableDataAdapter<?> dataAdapter : dataAdapters) {
@@ -3,11 +3,14 @@ package mil.nga.giat.geowave.core.ingest.kafka;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import kafka.consumer.Consumer;
 import kafka.consumer.ConsumerConfig;
@@ -15,6 +18,7 @@ import kafka.consumer.ConsumerIterator;
 import kafka.consumer.ConsumerTimeoutException;
 import kafka.consumer.KafkaStream;
 import kafka.javaapi.consumer.ConsumerConnector;
+import kafka.message.MessageAndMetadata;
 import mil.nga.giat.geowave.core.ingest.AbstractIngestCommandLineDriver;
 import mil.nga.giat.geowave.core.ingest.IngestCommandLineOptions;
 import mil.nga.giat.geowave.core.ingest.IngestFormatPluginProviderSpi;
@@ -31,6 +35,7 @@ import mil.nga.giat.geowave.datastore.accumulo.AccumuloOperations;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.avro.Schema;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
@@ -40,11 +45,22 @@ import org.apache.log4j.Logger;
  * This class executes the ingestion of intermediate data from a Kafka topic
  * into GeoWave.
  * 
+ * Each topic can be consumed as several message streams, each by its own
+ * thread, which deserialize and ingest their messages concurrently into the
+ * index writers shared by the topic. The ingest plugins are not required to be
+ * thread-safe, so each consumer thread ingests with its own instance of the
+ * topic's plugin. Each consumer thread also reuses its Avro decoder and record
+ * from one message to the next, as a record is fully ingested before the next
+ * message is read. The writers are flushed once the
+ * consumer threads together have ingested the batch size and, optionally,
+ * periodically. The throughput, offsets and lag of each topic are logged
+ * periodically.
  */
 public class IngestFromKafkaDriver extends
 		AbstractIngestCommandLineDriver
 {
 	private final static Logger LOGGER = Logger.getLogger(IngestFromKafkaDriver.class);
+	private static final long PROGRESS_INTERVAL_MILLIS = 10000;
 
 	private KafkaConsumerCommandLineOptions kafkaOptions;
 	private AccumuloCommandLineOptions accumuloOptions;
@@ -76,7 +92,9 @@ public class IngestFromKafkaDriver extends
 		final DataStore dataStore = new AccumuloDataStore(
 				operations);
 
-		final List<String> queue = new ArrayList<String>();
+		// the consumer threads remove their plugins from the queue once they
+		// are listening
+		final List<String> queue = Collections.synchronizedList(new ArrayList<String>());
 		addPluginsToQueue(
 				pluginProviders,
 				queue);
@@ -149,7 +167,7 @@ public class IngestFromKafkaDriver extends
 
 					launchTopicConsumer(
 							pluginProvider.getIngestFormatName(),
-							avroFormatPlugin,
+							pluginProvider,
 							runData,
 							queue);
 				}
@@ -178,7 +196,7 @@ public class IngestFromKafkaDriver extends
 
 	private void launchTopicConsumer(
 			final String formatPluginName,
-			final AvroFormatPlugin<?, ?> avroFormatPlugin,
+			final IngestFormatPluginProviderSpi<?, ?> pluginProvider,
 			final IngestRunData ingestRunData,
 			final List<String> queue )
 			throws Exception {
@@ -190,7 +208,7 @@ public class IngestFromKafkaDriver extends
 				try {
 					consumeFromTopic(
 							formatPluginName,
-							avroFormatPlugin,
+							pluginProvider,
 							ingestRunData,
 							queue);
 				}
@@ -205,7 +223,7 @@ public class IngestFromKafkaDriver extends
 
 	public <T> void consumeFromTopic(
 			final String formatPluginName,
-			final AvroFormatPlugin<T, ?> avroFormatPlugin,
+			final IngestFormatPluginProviderSpi<T, ?> pluginProvider,
 			final IngestRunData ingestRunData,
 			final List<String> queue )
 			throws Exception {
@@ -215,24 +233,77 @@ public class IngestFromKafkaDriver extends
 			throw new Exception(
 					"Kafka consumer connector is null, unable to create message streams");
 		}
+		final int consumerThreads = kafkaOptions.getConsumerThreads();
+		final KafkaTopicProgress progress = new KafkaTopicProgress(
+				formatPluginName);
+		final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		final ExecutorService consumerService = Executors.newFixedThreadPool(consumerThreads);
 		try {
-			LOGGER.debug("Kafka consumer setup for format [" + formatPluginName + "] against topic [" + formatPluginName + "]");
+			LOGGER.debug("Kafka consumer setup for format [" + formatPluginName + "] against topic [" + formatPluginName + "] with " + consumerThreads + " stream(s)");
 			final Map<String, Integer> topicCount = new HashMap<>();
 			topicCount.put(
 					formatPluginName,
-					1);
+					consumerThreads);
 
 			final Map<String, List<KafkaStream<byte[], byte[]>>> consumerStreams = consumer.createMessageStreams(topicCount);
 			final List<KafkaStream<byte[], byte[]>> streams = consumerStreams.get(formatPluginName);
 
 			queue.remove(formatPluginName);
-			consumeMessages(
-					formatPluginName,
-					avroFormatPlugin,
-					ingestRunData,
-					streams.get(0));
+			scheduler.scheduleWithFixedDelay(
+					new Runnable() {
+						@Override
+						public void run() {
+							LOGGER.info(progress);
+						}
+					},
+					PROGRESS_INTERVAL_MILLIS,
+					PROGRESS_INTERVAL_MILLIS,
+					TimeUnit.MILLISECONDS);
+			final long flushIntervalMs = kafkaOptions.getFlushIntervalMs();
+			if (flushIntervalMs > 0) {
+				scheduler.scheduleWithFixedDelay(
+						new Runnable() {
+							@Override
+							public void run() {
+								if (progress.flushed()) {
+									ingestRunData.flush();
+								}
+							}
+						},
+						flushIntervalMs,
+						flushIntervalMs,
+						TimeUnit.MILLISECONDS);
+			}
+
+			// the schema is resolved once for all of the topic's messages
+			final Schema schema = pluginProvider.getAvroFormatPlugin().getAvroSchema();
+			for (final KafkaStream<byte[], byte[]> stream : streams) {
+				consumerService.execute(new Runnable() {
+					@Override
+					public void run() {
+						// each consumer thread is given its own plugin
+						consumeMessages(
+								formatPluginName,
+								pluginProvider.getAvroFormatPlugin(),
+								schema,
+								ingestRunData,
+								stream,
+								progress);
+					}
+				});
+			}
+			consumerService.shutdown();
+			consumerService.awaitTermination(
+					Long.MAX_VALUE,
+					TimeUnit.MILLISECONDS);
 		}
 		finally {
+			consumerService.shutdownNow();
+			scheduler.shutdownNow();
+			if (progress.flushed()) {
+				ingestRunData.flush();
+			}
+			LOGGER.info(progress);
 			consumer.shutdown();
 		}
 	}
@@ -240,67 +311,73 @@ public class IngestFromKafkaDriver extends
 	protected <T> void consumeMessages(
 			final String formatPluginName,
 			final AvroFormatPlugin<T, ?> avroFormatPlugin,
+			final Schema schema,
 			final IngestRunData ingestRunData,
-			final KafkaStream<byte[], byte[]> stream ) {
-		int currentBatchId = 0;
+			final KafkaStream<byte[], byte[]> stream,
+			final KafkaTopicProgress progress ) {
 		final int batchSize = kafkaOptions.getBatchSize();
-		try {
-			final ConsumerIterator<byte[], byte[]> messageIterator = stream.iterator();
-			while (messageIterator.hasNext()) {
-				final byte[] msg = messageIterator.next().message();
-				LOGGER.info("[" + formatPluginName + "] message received");
-				final T dataRecord = GenericAvroSerializer.deserialize(
-						msg,
-						avroFormatPlugin.getAvroSchema());
-
-				if (dataRecord != null) {
-					try {
-						processMessage(
-								dataRecord,
-								ingestRunData,
-								avroFormatPlugin);
-						if (++currentBatchId > batchSize) {
-							ingestRunData.flush();
-							currentBatchId = 0;
+		final ConsumerIterator<byte[], byte[]> messageIterator = stream.iterator();
+		final GenericAvroSerializer.RecordDeserializer<T> deserializer = new GenericAvroSerializer.RecordDeserializer<T>(
+				schema);
+		while (true) {
+			try {
+				while (messageIterator.hasNext()) {
+					final MessageAndMetadata<byte[], byte[]> message = messageIterator.next();
+					progress.messageConsumed(
+							message.partition(),
+							message.offset());
+					final T dataRecord = deserializer.deserialize(message.message());
+
+					if (dataRecord != null) {
+						try {
+							processMessage(
+									dataRecord,
+									ingestRunData,
+									avroFormatPlugin);
+							if (progress.recordIngested(batchSize)) {
+								ingestRunData.flush();
+							}
+						}
+						catch (final Exception e) {
+							progress.messageFailed();
+							LOGGER.error(
+									"Error processing message: " + e.getMessage(),
+									e);
 						}
 					}
-					catch (final Exception e) {
-						LOGGER.error(
-								"Error processing message: " + e.getMessage(),
-								e);
+					else {
+						progress.messageFailed();
 					}
 				}
+				return;
 			}
-		}
-		catch (final ConsumerTimeoutException te) {
-			if (kafkaOptions.isFlushAndReconnect()) {
-				LOGGER.info(
-						"Consumer timed out from Kafka topic [" + formatPluginName + "... ",
-						te);
-				if (currentBatchId > 0) {
-					ingestRunData.flush();
+			catch (final ConsumerTimeoutException te) {
+				if (kafkaOptions.isFlushAndReconnect()) {
+					LOGGER.info(
+							"Consumer timed out from Kafka topic [" + formatPluginName + "... ",
+							te);
+					if (progress.flushed()) {
+						ingestRunData.flush();
+					}
+					// keep consuming from the same stream
+				}
+				else {
+					LOGGER.warn(
+							"Consumer timed out from Kafka topic [" + formatPluginName + "... ",
+							te);
+					return;
 				}
-				consumeMessages(
-						formatPluginName,
-						avroFormatPlugin,
-						ingestRunData,
-						stream);
 			}
-			else {
+			catch (final Exception e) {
 				LOGGER.warn(
-						"Consumer timed out from Kafka topic [" + formatPluginName + "... ",
-						te);
+						"Consuming from Kafka topic [" + formatPluginName + "] was interrupted... ",
+						e);
+				return;
 			}
 		}
-		catch (final Exception e) {
-			LOGGER.warn(
-					"Consuming from Kafka topic [" + formatPluginName + "] was interrupted... ",
-					e);
-		}
-
 	}
 
-	synchronized protected <T> void processMessage(
+	protected <T> void processMessage(
 			final T dataRecord,
 			final IngestRunData ingestRunData,
 			final AvroFormatPlugin<T, ?> plugin )
@@ -39,19 +39,40 @@ public class KafkaConsumerCommandLineOptions
 				false)
 	};
 	private static final int DEFAULT_BATCH_SIZE = 10000;
+	private static final int DEFAULT_CONSUMER_THREADS = 1;
 	private final static String RECONNECT_ON_TIMEOUT_KEY = "reconnectOnTimeout";
 	private final static String BATCH_SIZE_KEY = "batchSize";
+	private final static String CONSUMER_THREADS_KEY = "consumerThreads";
+	private final static String FLUSH_INTERVAL_KEY = "flushIntervalMs";
 	private final Properties kafkaProperties;
 	private final boolean flushAndReconnect;
 	private final int batchSize;
+	private final int consumerThreads;
+	private final long flushIntervalMs;
 
 	public KafkaConsumerCommandLineOptions(
 			final Properties kafkaProperties,
 			final boolean flushAndReconnect,
 			final int batchSize ) {
+		this(
+				kafkaProperties,
+				flushAndReconnect,
+				batchSize,
+				DEFAULT_CONSUMER_THREADS,
+				-1);
+	}
+
+	public KafkaConsumerCommandLineOptions(
+			final Properties kafkaProperties,
+			final boolean flushAndReconnect,
+			final int batchSize,
+			final int consumerThreads,
+			final long flushIntervalMs ) {
 		this.kafkaProperties = kafkaProperties;
 		this.flushAndReconnect = flushAndReconnect;
 		this.batchSize = batchSize;
+		this.consumerThreads = consumerThreads;
+		this.flushIntervalMs = flushIntervalMs;
 	}
 
 	public Properties getProperties() {
@@ -66,6 +87,19 @@ public class KafkaConsumerCommandLineOptions
 		return batchSize;
 	}
 
+	public int getConsumerThreads() {
+		return consumerThreads;
+	}
+
+	/**
+	 * @return the maximum time in milliseconds that consumed data is held
+	 *         before it is flushed, or a negative value to flush only by the
+	 *         batch size
+	 */
+	public long getFlushIntervalMs() {
+		return flushIntervalMs;
+	}
+
 	public static void applyOptions(
 			final Options allOptions ) {
 		KafkaCommandLineOptions.applyOptions(allOptions);
@@ -87,6 +121,20 @@ public class KafkaConsumerCommandLineOptions
 				"The data will automatically flush after this number of entries (default is '" + DEFAULT_BATCH_SIZE + "')");
 		batchSizeOption.setRequired(false);
 		allOptions.addOption(batchSizeOption);
+
+		final Option consumerThreadsOption = new Option(
+				CONSUMER_THREADS_KEY,
+				true,
+				"The number of message streams consumed from each topic, each by its own thread; the topic's partitions are divided among the streams (default is '" + DEFAULT_CONSUMER_THREADS + "')");
+		consumerThreadsOption.setRequired(false);
+		allOptions.addOption(consumerThreadsOption);
+
+		final Option flushIntervalOption = new Option(
+				FLUSH_INTERVAL_KEY,
+				true,
+				"The data will also automatically flush after this many milliseconds (by default the data is only flushed by the batch size)");
+		flushIntervalOption.setRequired(false);
+		allOptions.addOption(flushIntervalOption);
 	}
 
 	public static KafkaConsumerCommandLineOptions parseOptions(
@@ -108,9 +156,37 @@ public class KafkaConsumerCommandLineOptions
 						e);
 			}
 		}
+		int consumerThreads = DEFAULT_CONSUMER_THREADS;
+		if (commandLine.hasOption(CONSUMER_THREADS_KEY)) {
+			try {
+				final String value = commandLine.getOptionValue(CONSUMER_THREADS_KEY);
+				consumerThreads = Math.max(
+						1,
+						Integer.parseInt(value));
+			}
+			catch (final Exception e) {
+				LOGGER.error(
+						"Error parsing '" + CONSUMER_THREADS_KEY + "' as an integer",
+						e);
+			}
+		}
+		long flushIntervalMs = -1;
+		if (commandLine.hasOption(FLUSH_INTERVAL_KEY)) {
+			try {
+				final String value = commandLine.getOptionValue(FLUSH_INTERVAL_KEY);
+				flushIntervalMs = Long.parseLong(value);
+			}
+			catch (final Exception e) {
+				LOGGER.error(
+						"Error parsing '" + FLUSH_INTERVAL_KEY + "' as a long",
+						e);
+			}
+		}
 		return new KafkaConsumerCommandLineOptions(
 				baseOptions.getProperties(),
 				flushAndReconnect,
-				batchSize);
+				batchSize,
+				consumerThreads,
+				flushIntervalMs);
 	}
 }
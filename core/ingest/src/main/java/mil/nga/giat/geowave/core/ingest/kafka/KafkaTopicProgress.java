@@ -0,0 +1,184 @@
+package mil.nga.giat.geowave.core.ingest.kafka;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Gauge;
+import com.yammer.metrics.core.Metric;
+import com.yammer.metrics.core.MetricName;
+
+/**
+ * Counts the messages consumed from a Kafka topic by all of its consumer
+ * threads, the offset consumed of each of the topic's partitions and the
+ * number of records ingested since the index writers were last flushed. The
+ * lag of each partition behind the end of its log is read from the consumer
+ * lag metrics that the Kafka consumer keeps for each of the partitions it
+ * fetches.
+ */
+public class KafkaTopicProgress
+{
+	private static final String CONSUMER_LAG_METRIC = "ConsumerLag";
+	private final String topic;
+	private final long startTime = System.currentTimeMillis();
+	private final AtomicLong messages = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	private final AtomicLong unflushed = new AtomicLong();
+	private final ConcurrentMap<Integer, AtomicLong> partitionOffsets = new ConcurrentHashMap<Integer, AtomicLong>();
+
+	public KafkaTopicProgress(
+			final String topic ) {
+		this.topic = topic;
+	}
+
+	/**
+	 * Records that a message was consumed from a partition of the topic.
+	 */
+	public void messageConsumed(
+			final int partition,
+			final long offset ) {
+		messages.incrementAndGet();
+		AtomicLong partitionOffset = partitionOffsets.get(partition);
+		if (partitionOffset == null) {
+			partitionOffset = new AtomicLong(
+					-1);
+			final AtomicLong existingOffset = partitionOffsets.putIfAbsent(
+					partition,
+					partitionOffset);
+			if (existingOffset != null) {
+				partitionOffset = existingOffset;
+			}
+		}
+		// each partition is consumed by a single stream, so its offsets only
+		// increase
+		partitionOffset.set(offset);
+	}
+
+	public void messageFailed() {
+		failures.incrementAndGet();
+	}
+
+	/**
+	 * Records that a consumed message was ingested.
+	 * 
+	 * @return true if the number of records ingested since the last flush
+	 *         reached the batch size, in which case the caller is responsible
+	 *         for flushing
+	 */
+	public boolean recordIngested(
+			final int batchSize ) {
+		final long count = unflushed.incrementAndGet();
+		return (count >= batchSize) && unflushed.compareAndSet(
+				count,
+				0);
+	}
+
+	/**
+	 * Resets the number of records ingested since the last flush.
+	 * 
+	 * @return true if any records were ingested since the last flush
+	 */
+	public boolean flushed() {
+		return unflushed.getAndSet(0) > 0;
+	}
+
+	public String getTopic() {
+		return topic;
+	}
+
+	public long getMessages() {
+		return messages.get();
+	}
+
+	public long getFailures() {
+		return failures.get();
+	}
+
+	/**
+	 * @return the number of records ingested that the index writers may not
+	 *         have written yet
+	 */
+	public long getUnflushed() {
+		return unflushed.get();
+	}
+
+	/**
+	 * @return the messages consumed per second since the consumers started
+	 */
+	public double getThroughput() {
+		final long elapsedMillis = Math.max(
+				1,
+				System.currentTimeMillis() - startTime);
+		return (messages.get() * 1000.0) / elapsedMillis;
+	}
+
+	/**
+	 * @return the last offset consumed from each partition of the topic
+	 */
+	public SortedMap<Integer, Long> getPartitionOffsets() {
+		final SortedMap<Integer, Long> offsets = new TreeMap<Integer, Long>();
+		for (final Map.Entry<Integer, AtomicLong> entry : partitionOffsets.entrySet()) {
+			offsets.put(
+					entry.getKey(),
+					entry.getValue().get());
+		}
+		return offsets;
+	}
+
+	/**
+	 * @return the number of messages by which each partition of the topic
+	 *         fetched by this process is behind the end of its log
+	 */
+	public SortedMap<Integer, Long> getPartitionLags() {
+		final SortedMap<Integer, Long> lags = new TreeMap<Integer, Long>();
+		for (final Map.Entry<MetricName, Metric> entry : Metrics.defaultRegistry().allMetrics().entrySet()) {
+			final MetricName name = entry.getKey();
+			if (!CONSUMER_LAG_METRIC.equals(name.getName()) || !(entry.getValue() instanceof Gauge)) {
+				continue;
+			}
+			// the metric is tagged with the topic and partition, for example
+			// kafka.server:type=FetcherLagMetrics,name=ConsumerLag,clientId=c,topic=t,partition=0
+			String metricTopic = null;
+			Integer partition = null;
+			for (final String tag : name.getMBeanName().split(",")) {
+				if (tag.startsWith("topic=")) {
+					metricTopic = tag.substring(6);
+				}
+				else if (tag.startsWith("partition=")) {
+					try {
+						partition = Integer.valueOf(tag.substring(10));
+					}
+					catch (final NumberFormatException e) {
+						partition = null;
+					}
+				}
+			}
+			if (topic.equals(metricTopic) && (partition != null)) {
+				final Object lag = ((Gauge<?>) entry.getValue()).value();
+				if (lag instanceof Number) {
+					lags.put(
+							partition,
+							((Number) lag).longValue());
+				}
+			}
+		}
+		return lags;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"[%s] %d messages (%.1f/s), %d failed, %d not yet flushed, offsets by partition %s, lag by partition %s",
+				topic,
+				getMessages(),
+				getThroughput(),
+				getFailures(),
+				getUnflushed(),
+				getPartitionOffsets(),
+				getPartitionLags());
+	}
+}
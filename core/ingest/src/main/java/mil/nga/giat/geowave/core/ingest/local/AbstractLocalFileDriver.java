@@ -52,7 +52,7 @@ abstract public class AbstractLocalFileDriver<P extends LocalPluginBase, R> exte
 			throw new IllegalArgumentException(
 					localInput.getInput() + " does not exist");
 		}
-		final File base = f.isDirectory() ? f : f.getParentFile();
+		final File base = getBaseDirectory();
 
 		for (final LocalPluginBase localPlugin : localPlugins.values()) {
 			localPlugin.init(base);
@@ -66,6 +66,16 @@ abstract public class AbstractLocalFileDriver<P extends LocalPluginBase, R> exte
 						localInput.getExtensions()));
 	}
 
+	/**
+	 * @return the directory the plugins are initialized with, which is the
+	 *         input directory or the directory of the input file
+	 */
+	protected File getBaseDirectory() {
+		final File f = new File(
+				localInput.getInput());
+		return f.isDirectory() ? f : f.getParentFile();
+	}
+
 	abstract protected void processFile(
 			final File file,
 			String typeName,
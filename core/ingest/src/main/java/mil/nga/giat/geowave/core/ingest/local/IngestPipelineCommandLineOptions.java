@@ -0,0 +1,120 @@
+package mil.nga.giat.geowave.core.ingest.local;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+/**
+ * This class encapsulates the options for the number of threads of each stage
+ * of a local file ingest and the size of the queues between them. By default
+ * files are parsed and written one at a time on the thread discovering them.
+ */
+public class IngestPipelineCommandLineOptions
+{
+	public static final int DEFAULT_QUEUE_SIZE = 1000;
+	public static final int DEFAULT_BATCH_SIZE = 100;
+	private final int parseThreads;
+	private final int writeThreads;
+	private final int queueSize;
+	private final int batchSize;
+
+	public IngestPipelineCommandLineOptions(
+			final int parseThreads,
+			final int writeThreads,
+			final int queueSize,
+			final int batchSize ) {
+		this.parseThreads = parseThreads;
+		this.writeThreads = writeThreads;
+		this.queueSize = queueSize;
+		this.batchSize = batchSize;
+	}
+
+	public int getParseThreads() {
+		return parseThreads;
+	}
+
+	public int getWriteThreads() {
+		return writeThreads;
+	}
+
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public boolean isPipelined() {
+		return (parseThreads > 1) || (writeThreads > 1);
+	}
+
+	public static IngestPipelineCommandLineOptions parseOptions(
+			final CommandLine commandLine )
+			throws ParseException {
+		return new IngestPipelineCommandLineOptions(
+				parsePositiveInt(
+						commandLine,
+						"pt",
+						1),
+				parsePositiveInt(
+						commandLine,
+						"wt",
+						1),
+				parsePositiveInt(
+						commandLine,
+						"qs",
+						DEFAULT_QUEUE_SIZE),
+				parsePositiveInt(
+						commandLine,
+						"bs",
+						DEFAULT_BATCH_SIZE));
+	}
+
+	private static int parsePositiveInt(
+			final CommandLine commandLine,
+			final String option,
+			final int defaultValue )
+			throws ParseException {
+		if (!commandLine.hasOption(option)) {
+			return defaultValue;
+		}
+		final String value = commandLine.getOptionValue(option);
+		try {
+			final int intValue = Integer.parseInt(value.trim());
+			if (intValue > 0) {
+				return intValue;
+			}
+		}
+		catch (final NumberFormatException e) {
+			// fall through to the parse exception
+		}
+		throw new ParseException(
+				"Option '" + option + "' must be a positive integer, not '" + value + "'");
+	}
+
+	public static void applyOptions(
+			final Options allOptions ) {
+		allOptions.addOption(new Option(
+				"pt",
+				"parseThreads",
+				true,
+				"The number of threads parsing input files (optional, default is 1)"));
+		allOptions.addOption(new Option(
+				"wt",
+				"writeThreads",
+				true,
+				"The number of threads encoding and writing the parsed entries (optional, default is 1)"));
+		allOptions.addOption(new Option(
+				"qs",
+				"queueSize",
+				true,
+				"The capacity of the queues between the discovery, parsing and writing stages when more than one thread parses or writes (optional, default is " + DEFAULT_QUEUE_SIZE + ")"));
+		allOptions.addOption(new Option(
+				"bs",
+				"batchSize",
+				true,
+				"The number of parsed entries handed to the writing stage at a time when more than one thread parses or writes (optional, default is " + DEFAULT_BATCH_SIZE + ")"));
+	}
+}
@@ -2,9 +2,9 @@ package mil.nga.giat.geowave.core.ingest.local;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.ingest.GeoWaveData;
@@ -22,7 +22,7 @@ import mil.nga.giat.geowave.core.store.index.Index;
 public class IngestRunData implements
 		Closeable
 {
-	private final Map<ByteArrayId, IndexWriter> indexIdToWriterCache = new HashMap<ByteArrayId, IndexWriter>();
+	private final ConcurrentMap<ByteArrayId, IndexWriter> indexIdToWriterCache = new ConcurrentHashMap<ByteArrayId, IndexWriter>();
 	private final AdapterStore adapterCache;
 	private final DataStore dataStore;
 
@@ -39,14 +39,21 @@ public class IngestRunData implements
 		return data.getAdapter(adapterCache);
 	}
 
-	public synchronized IndexWriter getIndexWriter(
+	public IndexWriter getIndexWriter(
 			final Index index ) {
+		// the writer of each index is created once, every other lookup is
+		// lock-free so that concurrent ingest threads do not contend on it
 		IndexWriter indexWriter = indexIdToWriterCache.get(index.getId());
 		if (indexWriter == null) {
-			indexWriter = dataStore.createIndexWriter(index);
-			indexIdToWriterCache.put(
-					index.getId(),
-					indexWriter);
+			synchronized (this) {
+				indexWriter = indexIdToWriterCache.get(index.getId());
+				if (indexWriter == null) {
+					indexWriter = dataStore.createIndexWriter(index);
+					indexIdToWriterCache.put(
+							index.getId(),
+							indexWriter);
+				}
+			}
 		}
 		return indexWriter;
 	}
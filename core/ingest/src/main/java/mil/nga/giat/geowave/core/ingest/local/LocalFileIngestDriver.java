@@ -34,6 +34,8 @@ public class LocalFileIngestDriver extends
 	private final static Logger LOGGER = Logger.getLogger(LocalFileIngestDriver.class);
 	protected AccumuloCommandLineOptions accumulo;
 	protected IngestCommandLineOptions ingestOptions;
+	protected IngestPipelineCommandLineOptions pipelineOptions;
+	private LocalIngestPipeline pipeline;
 
 	public LocalFileIngestDriver(
 			final String operation ) {
@@ -47,6 +49,7 @@ public class LocalFileIngestDriver extends
 			throws ParseException {
 		accumulo = AccumuloCommandLineOptions.parseOptions(commandLine);
 		ingestOptions = IngestCommandLineOptions.parseOptions(commandLine);
+		pipelineOptions = IngestPipelineCommandLineOptions.parseOptions(commandLine);
 		super.parseOptionsInternal(commandLine);
 	}
 
@@ -55,6 +58,7 @@ public class LocalFileIngestDriver extends
 			final Options allOptions ) {
 		AccumuloCommandLineOptions.applyOptions(allOptions);
 		IngestCommandLineOptions.applyOptions(allOptions);
+		IngestPipelineCommandLineOptions.applyOptions(allOptions);
 		super.applyOptionsInternal(allOptions);
 	}
 
@@ -64,6 +68,7 @@ public class LocalFileIngestDriver extends
 			final List<IngestFormatPluginProviderSpi<?, ?>> pluginProviders ) {
 		// first collect the local file ingest plugins
 		final Map<String, LocalFileIngestPlugin<?>> localFileIngestPlugins = new HashMap<String, LocalFileIngestPlugin<?>>();
+		final Map<String, IngestFormatPluginProviderSpi<?, ?>> localFileIngestProviders = new HashMap<String, IngestFormatPluginProviderSpi<?, ?>>();
 		final List<WritableDataAdapter<?>> adapters = new ArrayList<WritableDataAdapter<?>>();
 		for (final IngestFormatPluginProviderSpi<?, ?> pluginProvider : pluginProviders) {
 			LocalFileIngestPlugin<?> localFileIngestPlugin = null;
@@ -89,6 +94,9 @@ public class LocalFileIngestDriver extends
 			localFileIngestPlugins.put(
 					pluginProvider.getIngestFormatName(),
 					localFileIngestPlugin);
+			localFileIngestProviders.put(
+					pluginProvider.getIngestFormatName(),
+					pluginProvider);
 			adapters.addAll(Arrays.asList(localFileIngestPlugin.getDataAdapters(ingestOptions.getVisibility())));
 		}
 
@@ -112,9 +120,36 @@ public class LocalFileIngestDriver extends
 		try (IngestRunData runData = new IngestRunData(
 				adapters,
 				dataStore)) {
-			processInput(
-					localFileIngestPlugins,
-					runData);
+			if (pipelineOptions.isPipelined()) {
+				try (LocalIngestPipeline ingestPipeline = new LocalIngestPipeline(
+						ingestOptions,
+						pipelineOptions,
+						runData,
+						new LocalIngestPipeline.PluginFactory() {
+							@Override
+							public LocalFileIngestPlugin<?> createPlugin(
+									final String typeName ) {
+								// each parsing thread is given its own plugin
+								final LocalFileIngestPlugin<?> plugin = localFileIngestProviders.get(
+										typeName).getLocalFileIngestPlugin();
+								plugin.init(getBaseDirectory());
+								return plugin;
+							}
+						})) {
+					pipeline = ingestPipeline;
+					processInput(
+							localFileIngestPlugins,
+							runData);
+				}
+				finally {
+					pipeline = null;
+				}
+			}
+			else {
+				processInput(
+						localFileIngestPlugins,
+						runData);
+			}
 		}
 		catch (final IOException e) {
 			LOGGER.fatal(
@@ -130,6 +165,13 @@ public class LocalFileIngestDriver extends
 			final LocalFileIngestPlugin<?> plugin,
 			final IngestRunData ingestRunData )
 			throws IOException {
+		if (pipeline != null) {
+			// the file is parsed and written by the pipeline's threads
+			pipeline.submit(
+					file,
+					typeName);
+			return;
+		}
 		IngestUtils.ingest(
 				file,
 				ingestOptions,
@@ -0,0 +1,560 @@
+package mil.nga.giat.geowave.core.ingest.local;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import mil.nga.giat.geowave.core.ingest.IngestCommandLineOptions;
+import mil.nga.giat.geowave.core.ingest.IngestUtils;
+import mil.nga.giat.geowave.core.ingest.IngestUtils.IngestEntryHandler;
+import mil.nga.giat.geowave.core.store.IndexWriter;
+import mil.nga.giat.geowave.core.store.adapter.WritableDataAdapter;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Ingests local files in stages connected by bounded queues: the files
+ * discovered are submitted by the calling thread, parsed into entries by a
+ * pool of parsing threads and encoded and written by a pool of writing threads
+ * into the index writers shared through the run data, which batch the writes
+ * to each index. A full queue blocks the stage feeding it, so that a slow stage
+ * holds back the others rather than running out of memory.
+ *
+ * The ingest plugins are not required to be thread-safe, so each parsing thread
+ * parses with its own instance of each plugin, created by the plugin factory
+ * when the thread is first given a file of the plugin's type.
+ *
+ * The number of files and entries through each stage and their throughput is
+ * logged periodically and when the pipeline is closed. If any file fails to be
+ * parsed or written, the remaining work is discarded and the failure is thrown
+ * when a file is next submitted or the pipeline is closed.
+ */
+public class LocalIngestPipeline implements
+		Closeable
+{
+	private final static Logger LOGGER = Logger.getLogger(LocalIngestPipeline.class);
+	private static final long PROGRESS_INTERVAL_MILLIS = 10000;
+	private static final long OFFER_TIMEOUT_MILLIS = 100;
+	private static final FileTask END_OF_FILES = new FileTask(
+			null,
+			null);
+	private static final List<Entry> END_OF_ENTRIES = Collections.emptyList();
+
+	private final IngestCommandLineOptions ingestOptions;
+	private final IngestRunData runData;
+	private final PluginFactory pluginFactory;
+	private final int batchSize;
+	private final BlockingQueue<FileTask> fileQueue;
+	private final BlockingQueue<List<Entry>> entryQueue;
+	private final List<Thread> parseThreads = new ArrayList<Thread>();
+	private final List<Thread> writeThreads = new ArrayList<Thread>();
+	private final Thread progressThread;
+	private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+	private final StageProgress discoveryProgress = new StageProgress(
+			"discovery",
+			"files",
+			false);
+	private final StageProgress parseProgress = new StageProgress(
+			"parsing",
+			"entries",
+			true);
+	private final StageProgress writeProgress = new StageProgress(
+			"writing",
+			"entries",
+			true);
+	private boolean closed = false;
+
+	public LocalIngestPipeline(
+			final IngestCommandLineOptions ingestOptions,
+			final IngestPipelineCommandLineOptions pipelineOptions,
+			final IngestRunData runData,
+			final PluginFactory pluginFactory ) {
+		this.ingestOptions = ingestOptions;
+		this.runData = runData;
+		this.pluginFactory = pluginFactory;
+		batchSize = pipelineOptions.getBatchSize();
+		fileQueue = new ArrayBlockingQueue<FileTask>(
+				pipelineOptions.getQueueSize());
+		// bound the number of entries waiting rather than the number of
+		// batches
+		entryQueue = new ArrayBlockingQueue<List<Entry>>(
+				Math.max(
+						1,
+						pipelineOptions.getQueueSize() / batchSize));
+		for (int i = 0; i < pipelineOptions.getParseThreads(); i++) {
+			parseThreads.add(startThread(
+					new ParseStage(),
+					"ingest-parse-" + i,
+					false));
+		}
+		for (int i = 0; i < pipelineOptions.getWriteThreads(); i++) {
+			writeThreads.add(startThread(
+					new WriteStage(),
+					"ingest-write-" + i,
+					false));
+		}
+		progressThread = startThread(
+				new ProgressReporter(),
+				"ingest-progress",
+				true);
+	}
+
+	private static Thread startThread(
+			final Runnable runnable,
+			final String name,
+			final boolean daemon ) {
+		final Thread thread = new Thread(
+				runnable,
+				name);
+		thread.setDaemon(daemon);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * Queues a file to be parsed, waiting for room in the queue if the parsing
+	 * stage is behind.
+	 *
+	 * @throws IOException
+	 *             if a previous file failed to be ingested
+	 */
+	public void submit(
+			final File file,
+			final String typeName )
+			throws IOException {
+		final FileTask task = new FileTask(
+				file,
+				typeName);
+		try {
+			while (!fileQueue.offer(
+					task,
+					OFFER_TIMEOUT_MILLIS,
+					TimeUnit.MILLISECONDS)) {
+				checkFailure();
+			}
+		}
+		catch (final InterruptedException e) {
+			throw new InterruptedIOException(
+					"Interrupted while queueing file '" + file.getAbsolutePath() + "'");
+		}
+		discoveryProgress.add(
+				1,
+				0);
+		checkFailure();
+	}
+
+	/**
+	 * Waits for all of the submitted files to be parsed and written and stops
+	 * the threads of the pipeline. The index writers are left open.
+	 *
+	 * @throws IOException
+	 *             if any file failed to be ingested
+	 */
+	@Override
+	public void close()
+			throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			endStage(
+					fileQueue,
+					END_OF_FILES,
+					parseThreads);
+			endStage(
+					entryQueue,
+					END_OF_ENTRIES,
+					writeThreads);
+		}
+		catch (final InterruptedException e) {
+			throw new InterruptedIOException(
+					"Interrupted while waiting for the ingest to complete");
+		}
+		finally {
+			progressThread.interrupt();
+		}
+		logProgress();
+		checkFailure();
+	}
+
+	private static <E> void endStage(
+			final BlockingQueue<E> queue,
+			final E endOfQueue,
+			final List<Thread> threads )
+			throws InterruptedException {
+		// each thread takes one end marker off of the queue and stops; the
+		// threads keep taking from the queue after a failure, but a thread
+		// that has been interrupted will never take its marker so stop
+		// offering them once none of the threads are left to take them
+		int endMarkers = 0;
+		while (endMarkers < threads.size()) {
+			if (queue.offer(
+					endOfQueue,
+					OFFER_TIMEOUT_MILLIS,
+					TimeUnit.MILLISECONDS)) {
+				endMarkers++;
+			}
+			else if (!isAnyAlive(threads)) {
+				break;
+			}
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+	}
+
+	private static boolean isAnyAlive(
+			final List<Thread> threads ) {
+		for (final Thread thread : threads) {
+			if (thread.isAlive()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void checkFailure()
+			throws IOException {
+		final Throwable t = failure.get();
+		if (t != null) {
+			throw new IOException(
+					"Unable to ingest local files",
+					t);
+		}
+	}
+
+	private void fail(
+			final String message,
+			final Throwable t ) {
+		if (failure.compareAndSet(
+				null,
+				t)) {
+			LOGGER.error(
+					message,
+					t);
+		}
+	}
+
+	private void logProgress() {
+		LOGGER.info(discoveryProgress + "; " + parseProgress + " (" + fileQueue.size() + " files queued); " + writeProgress + " (" + (entryQueue.size() * batchSize) + " entries queued)");
+	}
+
+	public StageProgress getDiscoveryProgress() {
+		return discoveryProgress;
+	}
+
+	public StageProgress getParseProgress() {
+		return parseProgress;
+	}
+
+	public StageProgress getWriteProgress() {
+		return writeProgress;
+	}
+
+	private class ParseStage implements
+			Runnable
+	{
+		// the plugin instances of this thread by their type name
+		private final Map<String, LocalFileIngestPlugin<?>> plugins = new HashMap<String, LocalFileIngestPlugin<?>>();
+
+		@Override
+		public void run() {
+			try {
+				FileTask task;
+				while ((task = fileQueue.take()) != END_OF_FILES) {
+					if (failure.get() == null) {
+						parse(task);
+					}
+				}
+			}
+			catch (final InterruptedException e) {
+				fail(
+						"Parsing thread interrupted",
+						e);
+			}
+		}
+
+		private void parse(
+				final FileTask task )
+				throws InterruptedException {
+			final long start = System.nanoTime();
+			final BatchingEntryHandler handler = new BatchingEntryHandler();
+			try {
+				final LocalFileIngestPlugin<?> plugin = getPlugin(task.typeName);
+				IngestUtils.ingest(
+						task.file,
+						ingestOptions,
+						plugin,
+						plugin,
+						runData,
+						handler);
+				handler.flush();
+			}
+			catch (final InterruptedIOException e) {
+				throw new InterruptedException(
+						e.getMessage());
+			}
+			catch (final Throwable e) {
+				fail(
+						"Unable to parse file '" + task.file.getAbsolutePath() + "'",
+						e);
+			}
+			parseProgress.add(
+					handler.count,
+					System.nanoTime() - start);
+		}
+
+		private LocalFileIngestPlugin<?> getPlugin(
+				final String typeName )
+				throws IOException {
+			LocalFileIngestPlugin<?> plugin = plugins.get(typeName);
+			if (plugin == null) {
+				plugin = pluginFactory.createPlugin(typeName);
+				if (plugin == null) {
+					throw new IOException(
+							"Unable to create an ingest plugin for type '" + typeName + "'");
+				}
+				plugins.put(
+						typeName,
+						plugin);
+			}
+			return plugin;
+		}
+	}
+
+	private class BatchingEntryHandler implements
+			IngestEntryHandler
+	{
+		private List<Entry> batch = new ArrayList<Entry>(
+				batchSize);
+		private long count = 0;
+
+		@Override
+		public void handle(
+				final IndexWriter indexWriter,
+				final WritableDataAdapter adapter,
+				final Object entry )
+				throws IOException {
+			batch.add(new Entry(
+					indexWriter,
+					adapter,
+					entry));
+			count++;
+			if (batch.size() >= batchSize) {
+				flush();
+			}
+		}
+
+		private void flush()
+				throws InterruptedIOException {
+			if (batch.isEmpty()) {
+				return;
+			}
+			try {
+				while (!entryQueue.offer(
+						batch,
+						OFFER_TIMEOUT_MILLIS,
+						TimeUnit.MILLISECONDS)) {
+					if (failure.get() != null) {
+						// the writing threads discard the entries after a
+						// failure, and may no longer be taking them
+						break;
+					}
+				}
+			}
+			catch (final InterruptedException e) {
+				throw new InterruptedIOException(
+						"Interrupted while queueing parsed entries");
+			}
+			batch = new ArrayList<Entry>(
+					batchSize);
+		}
+	}
+
+	private class WriteStage implements
+			Runnable
+	{
+		@Override
+		public void run() {
+			try {
+				List<Entry> batch;
+				while ((batch = entryQueue.take()) != END_OF_ENTRIES) {
+					if (failure.get() == null) {
+						write(batch);
+					}
+				}
+			}
+			catch (final InterruptedException e) {
+				fail(
+						"Writing thread interrupted",
+						e);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private void write(
+				final List<Entry> batch ) {
+			final long start = System.nanoTime();
+			try {
+				for (final Entry entry : batch) {
+					entry.indexWriter.write(
+							entry.adapter,
+							entry.value);
+				}
+			}
+			catch (final Throwable e) {
+				fail(
+						"Unable to write parsed entries",
+						e);
+			}
+			writeProgress.add(
+					batch.size(),
+					System.nanoTime() - start);
+		}
+	}
+
+	private class ProgressReporter implements
+			Runnable
+	{
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					Thread.sleep(PROGRESS_INTERVAL_MILLIS);
+					logProgress();
+				}
+			}
+			catch (final InterruptedException e) {
+				// the pipeline is closed
+			}
+		}
+	}
+
+	/**
+	 * Counts the files or entries through a stage of the pipeline and, for the
+	 * stages run by the pipeline's threads, the time they spent on them.
+	 */
+	public static class StageProgress
+	{
+		private final String stageName;
+		private final String unit;
+		private final boolean timed;
+		private final long startTime = System.currentTimeMillis();
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong busyNanos = new AtomicLong();
+
+		private StageProgress(
+				final String stageName,
+				final String unit,
+				final boolean timed ) {
+			this.stageName = stageName;
+			this.unit = unit;
+			this.timed = timed;
+		}
+
+		private void add(
+				final long count,
+				final long busyNanos ) {
+			this.count.addAndGet(count);
+			this.busyNanos.addAndGet(busyNanos);
+		}
+
+		public long getCount() {
+			return count.get();
+		}
+
+		/**
+		 * @return the count per second since the pipeline started
+		 */
+		public double getThroughput() {
+			final long elapsedMillis = Math.max(
+					1,
+					System.currentTimeMillis() - startTime);
+			return (count.get() * 1000.0) / elapsedMillis;
+		}
+
+		/**
+		 * @return the time spent by all of the stage's threads, in
+		 *         milliseconds
+		 */
+		public long getBusyMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(busyNanos.get());
+		}
+
+		@Override
+		public String toString() {
+			if (!timed) {
+				return String.format(
+						"%s: %d %s (%.1f/s)",
+						stageName,
+						getCount(),
+						unit,
+						getThroughput());
+			}
+			return String.format(
+					"%s: %d %s (%.1f/s, %d ms busy)",
+					stageName,
+					getCount(),
+					unit,
+					getThroughput(),
+					getBusyMillis());
+		}
+	}
+
+	/**
+	 * Creates the instances of the ingest plugins used by the parsing threads
+	 */
+	public static interface PluginFactory
+	{
+		/**
+		 * @param typeName
+		 *            the ingest type of the plugin
+		 * @return a new instance of the plugin, initialized for the input, that
+		 *         is only called by a single parsing thread
+		 */
+		public LocalFileIngestPlugin<?> createPlugin(
+				String typeName )
+				throws IOException;
+	}
+
+	private static class FileTask
+	{
+		private final File file;
+		private final String typeName;
+
+		private FileTask(
+				final File file,
+				final String typeName ) {
+			this.file = file;
+			this.typeName = typeName;
+		}
+	}
+
+	private static class Entry
+	{
+		private final IndexWriter indexWriter;
+		private final WritableDataAdapter adapter;
+		private final Object value;
+
+		private Entry(
+				final IndexWriter indexWriter,
+				final WritableDataAdapter adapter,
+				final Object value ) {
+			this.indexWriter = indexWriter;
+			this.adapter = adapter;
+			this.value = value;
+		}
+	}
+}
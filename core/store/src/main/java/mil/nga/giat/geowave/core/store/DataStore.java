@@ -10,6 +10,7 @@ import mil.nga.giat.geowave.core.store.data.VisibilityWriter;
 import mil.nga.giat.geowave.core.store.index.Index;
 import mil.nga.giat.geowave.core.store.query.Query;
 import mil.nga.giat.geowave.core.store.query.QueryOptions;
+import mil.nga.giat.geowave.core.store.query.aggregate.Aggregation;
 
 /**
  * A DataStore can both ingest and query data based on persisted indices and
@@ -503,4 +504,33 @@ public interface DataStore
 			final Integer limit,
 			final ScanCallback<?> scanCallback,
 			final String... authorizations );
+
+	/**
+	 * Aggregates the data in the index described by the index passed in that
+	 * matches the query parameter and the adapter, without returning the data.
+	 * The aggregation is performed where the data is stored when the data store
+	 * supports it, and the partial aggregations are merged into the result.
+	 * 
+	 * @param adapter
+	 *            the data adapter to use for the query
+	 * @param index
+	 *            The index information to query against
+	 * @param query
+	 *            The description of the query to be performed, or null to
+	 *            aggregate all of the adapter's data in the index
+	 * @param aggregation
+	 *            An empty aggregation to aggregate the data into, which is not
+	 *            modified
+	 * @param authorizations
+	 *            The authorization used to override the default authorization
+	 *            for cell visibility.
+	 * @return The aggregation of all data that matches the query, or the
+	 *         aggregation passed in if no data matches
+	 */
+	public <T, A extends Aggregation<T>> A aggregate(
+			final DataAdapter<T> adapter,
+			final Index index,
+			final Query query,
+			final A aggregation,
+			final String... authorizations );
 }
@@ -9,6 +9,8 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.index.Persistable;
@@ -49,6 +51,9 @@ abstract public class AbstractDataAdapter<T> implements
 	protected Map<ByteArrayId, IndexFieldHandler<T, ? extends CommonIndexValue, Object>> dimensionMatchingFieldHandlers;
 	protected List<NativeFieldHandler<T, Object>> nativeFieldHandlers;
 	protected FieldVisibilityHandler<T, Object> fieldVisiblityHandler;
+	// the type matching handler resolved for each dimension class, so that
+	// encoding and decoding entries does not repeat the search
+	private final ConcurrentMap<Class<?>, IndexFieldHandler<T, ? extends CommonIndexValue, Object>> resolvedTypeMatchingFieldHandlers = new ConcurrentHashMap<Class<?>, IndexFieldHandler<T, ? extends CommonIndexValue, Object>>();
 
 	protected AbstractDataAdapter() {}
 
@@ -74,6 +79,7 @@ abstract public class AbstractDataAdapter<T> implements
 	protected void init(
 			final List<? extends IndexFieldHandler<T, ? extends CommonIndexValue, Object>> indexFieldHandlers,
 			final Object defaultIndexHandlerData ) {
+		resolvedTypeMatchingFieldHandlers.clear();
 		dimensionMatchingFieldHandlers = new HashMap<ByteArrayId, IndexFieldHandler<T, ? extends CommonIndexValue, Object>>();
 		typeMatchingFieldHandlers = new HashMap<Class<?>, IndexFieldHandler<T, ? extends CommonIndexValue, Object>>();
 		// split out the dimension matching index handlers from the type
@@ -200,11 +206,19 @@ abstract public class AbstractDataAdapter<T> implements
 		IndexFieldHandler<T, ? extends CommonIndexValue, Object> fieldHandler = dimensionMatchingFieldHandlers.get(dimension.getFieldId());
 		if (fieldHandler == null) {
 			// if that fails, go for type matching
-			fieldHandler = FieldUtils.getAssignableValueFromClassMap(
-					GenericTypeResolver.resolveTypeArgument(
+			fieldHandler = resolvedTypeMatchingFieldHandlers.get(dimension.getClass());
+			if (fieldHandler == null) {
+				fieldHandler = FieldUtils.getAssignableValueFromClassMap(
+						GenericTypeResolver.resolveTypeArgument(
+								dimension.getClass(),
+								DimensionField.class),
+						typeMatchingFieldHandlers);
+				if (fieldHandler != null) {
+					resolvedTypeMatchingFieldHandlers.put(
 							dimension.getClass(),
-							DimensionField.class),
-					typeMatchingFieldHandlers);
+							fieldHandler);
+				}
+			}
 		}
 		return fieldHandler;
 	}
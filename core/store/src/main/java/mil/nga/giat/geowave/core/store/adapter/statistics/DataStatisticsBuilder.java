@@ -1,5 +1,6 @@
 package mil.nga.giat.geowave.core.store.adapter.statistics;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -21,6 +22,8 @@ public class DataStatisticsBuilder<T> implements
 	private final Map<ByteArrayId, DataStatistics<T>> statisticsMap = new HashMap<ByteArrayId, DataStatistics<T>>();
 	private final ByteArrayId statisticsId;
 	private final DataStatisticsVisibilityHandler<T> visibilityHandler;
+	private byte[] lastVisibility;
+	private DataStatistics<T> lastStatistics;
 
 	public DataStatisticsBuilder(
 			final StatisticalDataAdapter<T> adapter,
@@ -34,44 +37,68 @@ public class DataStatisticsBuilder<T> implements
 	public void entryIngested(
 			final DataStoreEntryInfo entryInfo,
 			final T entry ) {
-		final ByteArrayId visibility = new ByteArrayId(
+		getStatistics(
 				visibilityHandler.getVisibility(
 						entryInfo,
-						entry));
-		DataStatistics<T> statistics = statisticsMap.get(visibility);
+						entry)).entryIngested(
+				entryInfo,
+				entry);
+	}
+
+	/**
+	 * Get the statistics for a visibility, creating them if necessary. Entries
+	 * within a batch almost always share the same visibility, so the most
+	 * recently used statistics are checked first to avoid creating a key for
+	 * every entry.
+	 */
+	private DataStatistics<T> getStatistics(
+			final byte[] visibility ) {
+		if ((lastStatistics != null) && Arrays.equals(
+				lastVisibility,
+				visibility)) {
+			return lastStatistics;
+		}
+		// the visibility handler may reuse its array, so keep a copy
+		final byte[] visibilityCopy = (visibility == null) ? null : Arrays.copyOf(
+				visibility,
+				visibility.length);
+		final ByteArrayId visibilityId = new ByteArrayId(
+				visibilityCopy);
+		DataStatistics<T> statistics = statisticsMap.get(visibilityId);
 		if (statistics == null) {
 			statistics = adapter.createDataStatistics(statisticsId);
-			statistics.setVisibility(visibility.getBytes());
+			statistics.setVisibility(visibilityCopy);
 			statisticsMap.put(
-					visibility,
+					visibilityId,
 					statistics);
 		}
-		statistics.entryIngested(
-				entryInfo,
-				entry);
+		lastVisibility = visibilityCopy;
+		lastStatistics = statistics;
+		return statistics;
 	}
 
 	public Collection<DataStatistics<T>> getStatistics() {
 		return statisticsMap.values();
 	}
 
+	/**
+	 * Discard the statistics collected so far; use this rather than clearing
+	 * the collection returned by {@link #getStatistics()}
+	 */
+	public void clear() {
+		statisticsMap.clear();
+		lastVisibility = null;
+		lastStatistics = null;
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public void entryDeleted(
 			final DataStoreEntryInfo entryInfo,
 			final T entry ) {
-		final ByteArrayId visibilityByteArray = new ByteArrayId(
-				visibilityHandler.getVisibility(
-						entryInfo,
-						entry));
-		DataStatistics<T> statistics = statisticsMap.get(visibilityByteArray);
-		if (statistics == null) {
-			statistics = adapter.createDataStatistics(statisticsId);
-			statistics.setVisibility(visibilityByteArray.getBytes());
-			statisticsMap.put(
-					visibilityByteArray,
-					statistics);
-		}
+		final DataStatistics<T> statistics = getStatistics(visibilityHandler.getVisibility(
+				entryInfo,
+				entry));
 		if (statistics instanceof DeleteCallback) {
 			((DeleteCallback<T>) statistics).entryDeleted(
 					entryInfo,
@@ -83,21 +110,11 @@ public class DataStatisticsBuilder<T> implements
 	public void entryScanned(
 			DataStoreEntryInfo entryInfo,
 			T entry ) {
-		final ByteArrayId visibility = new ByteArrayId(
+		getStatistics(
 				visibilityHandler.getVisibility(
 						entryInfo,
-						entry));
-		DataStatistics<T> statistics = statisticsMap.get(visibility);
-		if (statistics == null) {
-			statistics = adapter.createDataStatistics(statisticsId);
-			statistics.setVisibility(visibility.getBytes());
-			statisticsMap.put(
-					visibility,
-					statistics);
-		}
-		statistics.entryIngested(
+						entry)).entryIngested(
 				entryInfo,
 				entry);
-
 	}
 }
@@ -1,5 +1,7 @@
 package mil.nga.giat.geowave.core.store.adapter.statistics;
 
+import java.util.Collection;
+
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.store.CloseableIterator;
 
@@ -32,6 +34,16 @@ public interface DataStatisticsStore
 	public void incorporateStatistics(
 			DataStatistics<?> statistics );
 
+	/**
+	 * Add each of the statistics to the store as a single batch, aggregating
+	 * them with any existing statistics
+	 * 
+	 * @param statistics
+	 *            the data statistics
+	 */
+	public void incorporateStatistics(
+			Collection<? extends DataStatistics<?>> statistics );
+
 	/**
 	 * Get all data statistics from the store by a data adapter ID
 	 * 
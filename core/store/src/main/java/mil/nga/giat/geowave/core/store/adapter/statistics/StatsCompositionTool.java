@@ -1,8 +1,10 @@
 package mil.nga.giat.geowave.core.store.adapter.statistics;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.store.DataStoreEntryInfo;
@@ -12,11 +14,23 @@ import mil.nga.giat.geowave.core.store.ScanCallback;
 import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
 
 /**
- * 
+ *
  * This tool does not react to callbacks if the provided statistics store is
  * null or the provided data adapter does not implement
  * {@link DataStatisticsStore}.
- * 
+ *
+ * Each thread that reports entries updates its own set of statistics, so
+ * concurrent ingest threads do not contend with each other. On flush, the
+ * statistics of every thread are merged so that each statistic (per
+ * visibility) is written to the store once, as a single batch. If a flush
+ * interval is set, the statistics are also flushed from the ingest path once
+ * the interval has elapsed, bounding the memory and the amount of statistics
+ * lost on failure without a write per entry.
+ *
+ * A thread's statistics are only tracked from its first entry until the next
+ * flush or reset, so the statistics of threads that have finished are not
+ * retained.
+ *
  * @param <T>
  *            Entry type
  */
@@ -27,9 +41,21 @@ public class StatsCompositionTool<T> implements
 		AutoCloseable
 {
 	DataStatisticsStore statisticsStore;
-	List<DataStatisticsBuilder<T>> statisticsBuilders = null;
+	StatisticalDataAdapter<T> statisticalAdapter = null;
+	ByteArrayId[] statisticsIds = null;
 	final boolean persistStats;
 	final Object MUTEX = new Object();
+	// the statistics of the threads that have reported entries since the last
+	// flush or reset
+	final List<ThreadStatistics> threadStatistics = new CopyOnWriteArrayList<ThreadStatistics>();
+	private final ThreadLocal<ThreadStatistics> localStatistics = new ThreadLocal<ThreadStatistics>() {
+		@Override
+		protected ThreadStatistics initialValue() {
+			return new ThreadStatistics();
+		}
+	};
+	private volatile long flushIntervalMillis = 0;
+	private volatile long lastFlushTime = System.currentTimeMillis();
 
 	public StatsCompositionTool() {
 		statisticsStore = null;
@@ -54,14 +80,8 @@ public class StatsCompositionTool<T> implements
 	private void init(
 			final DataAdapter<T> dataAdapter ) {
 		if (persistStats) {
-			final ByteArrayId[] statisticsIds = ((StatisticalDataAdapter<T>) dataAdapter).getSupportedStatisticsIds();
-			statisticsBuilders = new ArrayList<DataStatisticsBuilder<T>>(
-					statisticsIds.length);
-			for (final ByteArrayId id : statisticsIds) {
-				statisticsBuilders.add(new DataStatisticsBuilder<T>(
-						(StatisticalDataAdapter<T>) dataAdapter,
-						id));
-			}
+			statisticalAdapter = (StatisticalDataAdapter<T>) dataAdapter;
+			statisticsIds = statisticalAdapter.getSupportedStatisticsIds();
 		}
 	}
 
@@ -69,56 +89,103 @@ public class StatsCompositionTool<T> implements
 		return persistStats;
 	}
 
+	/**
+	 * @param flushIntervalMillis
+	 *            the minimum time between flushes of the statistics to the
+	 *            store while entries are ingested, or 0 to only flush when
+	 *            explicitly requested
+	 */
+	public void setFlushIntervalMillis(
+			final long flushIntervalMillis ) {
+		this.flushIntervalMillis = flushIntervalMillis;
+	}
+
+	public long getFlushIntervalMillis() {
+		return flushIntervalMillis;
+	}
+
 	@Override
 	public void entryDeleted(
 			final DataStoreEntryInfo entryInfo,
 			final T entry ) {
-		if (statisticsBuilders == null) {
+		if (statisticsIds == null) {
 			return;
 		}
-		synchronized (MUTEX) {
-			for (final DataStatisticsBuilder<T> builder : statisticsBuilders) {
+		final ThreadStatistics statistics = localStatistics.get();
+		synchronized (statistics) {
+			for (final DataStatisticsBuilder<T> builder : statistics.getBuilders()) {
 				builder.entryDeleted(
 						entryInfo,
 						entry);
 			}
 		}
-
+		flushIfIntervalElapsed();
 	}
 
 	@Override
 	public void entryScanned(
 			final DataStoreEntryInfo entryInfo,
 			final T entry ) {
-		if (statisticsBuilders == null) {
+		if (statisticsIds == null) {
 			return;
 		}
-
-		synchronized (MUTEX) {
-			for (final DataStatisticsBuilder<T> builder : statisticsBuilders) {
+		final ThreadStatistics statistics = localStatistics.get();
+		synchronized (statistics) {
+			for (final DataStatisticsBuilder<T> builder : statistics.getBuilders()) {
 				builder.entryScanned(
 						entryInfo,
 						entry);
 			}
 		}
-
+		flushIfIntervalElapsed();
 	}
 
 	/**
 	 * Update statistics store
 	 */
 	public void flush() {
-		if (statisticsBuilders == null) {
+		if (statisticsIds == null) {
 			return;
 		}
 
 		synchronized (MUTEX) {
-			for (final DataStatisticsBuilder<T> builder : statisticsBuilders) {
-				final Collection<DataStatistics<T>> statistics = builder.getStatistics();
-				for (final DataStatistics<T> s : statistics) {
-					statisticsStore.incorporateStatistics(s);
+			lastFlushTime = System.currentTimeMillis();
+			final List<Map<ByteArrayId, DataStatistics<T>>> combinedStatistics = new ArrayList<Map<ByteArrayId, DataStatistics<T>>>(
+					statisticsIds.length);
+			for (int i = 0; i < statisticsIds.length; i++) {
+				combinedStatistics.add(new LinkedHashMap<ByteArrayId, DataStatistics<T>>());
+			}
+			for (final ThreadStatistics statistics : threadStatistics) {
+				// only hold each thread's lock long enough to take its
+				// statistics, which are then merged outside of the lock
+				synchronized (statistics) {
+					for (int i = 0; i < statisticsIds.length; i++) {
+						final DataStatisticsBuilder<T> builder = statistics.builders.get(i);
+						final Map<ByteArrayId, DataStatistics<T>> combined = combinedStatistics.get(i);
+						for (final DataStatistics<T> s : builder.getStatistics()) {
+							final ByteArrayId visibility = new ByteArrayId(
+									s.getVisibility());
+							final DataStatistics<T> existing = combined.get(visibility);
+							if (existing == null) {
+								combined.put(
+										visibility,
+										s);
+							}
+							else {
+								existing.merge(s);
+							}
+						}
+						builder.clear();
+					}
+					statistics.unregister();
 				}
-				statistics.clear();
+			}
+			final List<DataStatistics<?>> statisticsToWrite = new ArrayList<DataStatistics<?>>();
+			for (final Map<ByteArrayId, DataStatistics<T>> combined : combinedStatistics) {
+				statisticsToWrite.addAll(combined.values());
+			}
+			if (!statisticsToWrite.isEmpty()) {
+				statisticsStore.incorporateStatistics(statisticsToWrite);
 			}
 		}
 	}
@@ -127,14 +194,18 @@ public class StatsCompositionTool<T> implements
 	 * Reset statistics, losing and updates since last flush
 	 */
 	public void reset() {
-		if (statisticsBuilders == null) {
+		if (statisticsIds == null) {
 			return;
 		}
 
 		synchronized (MUTEX) {
-			for (final DataStatisticsBuilder<T> builder : statisticsBuilders) {
-				final Collection<DataStatistics<T>> statistics = builder.getStatistics();
-				statistics.clear();
+			for (final ThreadStatistics statistics : threadStatistics) {
+				synchronized (statistics) {
+					for (final DataStatisticsBuilder<T> builder : statistics.builders) {
+						builder.clear();
+					}
+					statistics.unregister();
+				}
 			}
 		}
 	}
@@ -143,17 +214,31 @@ public class StatsCompositionTool<T> implements
 	public void entryIngested(
 			final DataStoreEntryInfo entryInfo,
 			final T entry ) {
-		if (statisticsBuilders == null) {
+		if (statisticsIds == null) {
 			return;
 		}
 
-		synchronized (MUTEX) {
-			for (final DataStatisticsBuilder<T> builder : statisticsBuilders) {
+		final ThreadStatistics statistics = localStatistics.get();
+		synchronized (statistics) {
+			for (final DataStatisticsBuilder<T> builder : statistics.getBuilders()) {
 				builder.entryIngested(
 						entryInfo,
 						entry);
 			}
 		}
+		flushIfIntervalElapsed();
+	}
+
+	private void flushIfIntervalElapsed() {
+		final long interval = flushIntervalMillis;
+		if ((interval > 0) && (statisticsStore != null) && ((System.currentTimeMillis() - lastFlushTime) >= interval)) {
+			synchronized (MUTEX) {
+				// another thread may have flushed while this one waited
+				if ((System.currentTimeMillis() - lastFlushTime) >= interval) {
+					flush();
+				}
+			}
+		}
 	}
 
 	@Override
@@ -167,4 +252,42 @@ public class StatsCompositionTool<T> implements
 		this.statisticsStore = statisticsStore;
 	}
 
+	/**
+	 * The statistics updated by a single thread, in the same order as the
+	 * statistics IDs. They are only in the list of thread statistics while they
+	 * may hold updates, and must only be registered or unregistered while
+	 * holding their lock.
+	 */
+	private class ThreadStatistics
+	{
+		private final List<DataStatisticsBuilder<T>> builders;
+		private boolean registered = false;
+
+		private ThreadStatistics() {
+			builders = new ArrayList<DataStatisticsBuilder<T>>(
+					statisticsIds.length);
+			for (final ByteArrayId id : statisticsIds) {
+				builders.add(new DataStatisticsBuilder<T>(
+						statisticalAdapter,
+						id));
+			}
+		}
+
+		/**
+		 * @return the builders to update, registering these statistics to be
+		 *         merged on the next flush
+		 */
+		private List<DataStatisticsBuilder<T>> getBuilders() {
+			if (!registered) {
+				threadStatistics.add(this);
+				registered = true;
+			}
+			return builders;
+		}
+
+		private void unregister() {
+			threadStatistics.remove(this);
+			registered = false;
+		}
+	}
 }
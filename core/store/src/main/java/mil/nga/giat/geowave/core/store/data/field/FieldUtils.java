@@ -1,8 +1,8 @@
 package mil.nga.giat.geowave.core.store.data.field;
 
-import java.util.Date;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.ServiceLoader;
@@ -16,91 +16,110 @@ import org.slf4j.LoggerFactory;
  * This class has a set of convenience methods to determine the appropriate
  * field reader and writer for a given field type (Class)
  * 
+ * The registered readers and writers are loaded once and never change, and the
+ * reader and writer resolved for each class is cached with the class, so that
+ * the lookups on the encoding and decoding paths do not lock or search the
+ * registry.
+ * 
  */
 public class FieldUtils
 {
 	private static final Logger LOGGER = LoggerFactory.getLogger(FieldUtils.class);
-	private static Map<Class<?>, FieldReader<?>> fieldReaderRegistry = null;
-	private static Map<Class<?>, FieldWriter<?, ?>> fieldWriterRegistry = null;
 
-	private static synchronized Map<Class<?>, FieldReader<?>> getRegisteredFieldReaders() {
-		if (fieldReaderRegistry == null) {
-			initRegistry();
+	private static final ClassValue<FieldReader<?>> RESOLVED_READERS = new ClassValue<FieldReader<?>>() {
+		@Override
+		protected FieldReader<?> computeValue(
+				final Class<?> type ) {
+			return resolve(
+					type,
+					Registry.INSTANCE.fieldReaders);
 		}
-		return fieldReaderRegistry;
-	}
+	};
 
-	private static synchronized Map<Class<?>, FieldWriter<?, ?>> getRegisteredFieldWriters() {
-		if (fieldWriterRegistry == null) {
-			initRegistry();
+	private static final ClassValue<FieldWriter<?, ?>> RESOLVED_WRITERS = new ClassValue<FieldWriter<?, ?>>() {
+		@Override
+		protected FieldWriter<?, ?> computeValue(
+				final Class<?> type ) {
+			return resolve(
+					type,
+					Registry.INSTANCE.fieldWriters);
 		}
-		return fieldWriterRegistry;
-	}
+	};
 
-	private static synchronized void initRegistry() {
-		fieldReaderRegistry = new HashMap<Class<?>, FieldReader<?>>();
-		fieldWriterRegistry = new HashMap<Class<?>, FieldWriter<?, ?>>();
-		final Iterator<FieldSerializationProviderSpi> serializationProviders = ServiceLoader.load(
-				FieldSerializationProviderSpi.class).iterator();
-		while (serializationProviders.hasNext()) {
-			final FieldSerializationProviderSpi<?> serializationProvider = serializationProviders.next();
-			if (serializationProvider != null) {
-				final Class<?> type = GenericTypeResolver.resolveTypeArgument(
-						serializationProvider.getClass(),
-						FieldSerializationProviderSpi.class);
-				final FieldReader<?> reader = serializationProvider.getFieldReader();
-				if (reader != null) {
-					if (fieldReaderRegistry.containsKey(type)) {
-						LOGGER.warn("Field reader already registered for " + type + "; not able to add " + reader);
-					}
-					else {
-						fieldReaderRegistry.put(
-								type,
-								reader);
-					}
-				}
-				final FieldWriter<?, ?> writer = serializationProvider.getFieldWriter();
-				if (writer != null) {
-					if (fieldWriterRegistry.containsKey(type)) {
-						LOGGER.warn("Field writer already registered for " + type + "; not able to add " + writer);
+	/**
+	 * The readers and writers of the registered serialization providers, loaded
+	 * when the registry is first used
+	 */
+	private static class Registry
+	{
+		private static final Registry INSTANCE = new Registry();
+		private final Map<Class<?>, FieldReader<?>> fieldReaders;
+		private final Map<Class<?>, FieldWriter<?, ?>> fieldWriters;
+
+		private Registry() {
+			final Map<Class<?>, FieldReader<?>> readers = new LinkedHashMap<Class<?>, FieldReader<?>>();
+			final Map<Class<?>, FieldWriter<?, ?>> writers = new LinkedHashMap<Class<?>, FieldWriter<?, ?>>();
+			final Iterator<FieldSerializationProviderSpi> serializationProviders = ServiceLoader.load(
+					FieldSerializationProviderSpi.class).iterator();
+			while (serializationProviders.hasNext()) {
+				final FieldSerializationProviderSpi<?> serializationProvider = serializationProviders.next();
+				if (serializationProvider != null) {
+					final Class<?> type = GenericTypeResolver.resolveTypeArgument(
+							serializationProvider.getClass(),
+							FieldSerializationProviderSpi.class);
+					final FieldReader<?> reader = serializationProvider.getFieldReader();
+					if (reader != null) {
+						if (readers.containsKey(type)) {
+							LOGGER.warn("Field reader already registered for " + type + "; not able to add " + reader);
+						}
+						else {
+							readers.put(
+									type,
+									reader);
+						}
 					}
-					else {
-						fieldWriterRegistry.put(
-								type,
-								writer);
+					final FieldWriter<?, ?> writer = serializationProvider.getFieldWriter();
+					if (writer != null) {
+						if (writers.containsKey(type)) {
+							LOGGER.warn("Field writer already registered for " + type + "; not able to add " + writer);
+						}
+						else {
+							writers.put(
+									type,
+									writer);
+						}
 					}
 				}
 			}
+			fieldReaders = Collections.unmodifiableMap(readers);
+			fieldWriters = Collections.unmodifiableMap(writers);
 		}
 	}
 
-	@SuppressWarnings("unchecked")
-	public static <T> FieldReader<T> getDefaultReaderForClass(
-			final Class<T> myClass ) {
-		final Map<Class<?>, FieldReader<?>> internalFieldReaders = getRegisteredFieldReaders();
+	private static <T> T resolve(
+			final Class<?> myClass,
+			final Map<Class<?>, T> registry ) {
 		// try concrete class
-		final FieldReader<T> reader = (FieldReader<T>) internalFieldReaders.get(myClass);
-		if (reader != null) {
-			return reader;
+		final T value = registry.get(myClass);
+		if (value != null) {
+			return value;
 		}
 		// if the concrete class lookup failed, try inheritance
-		return (FieldReader<T>) getAssignableValueFromClassMap(
+		return getAssignableValueFromClassMap(
 				myClass,
-				internalFieldReaders);
+				registry);
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <T> FieldReader<T> getDefaultReaderForClass(
+			final Class<T> myClass ) {
+		return (FieldReader<T>) RESOLVED_READERS.get(myClass);
 	}
 
 	@SuppressWarnings("unchecked")
 	public static <T> FieldWriter<?, T> getDefaultWriterForClass(
 			final Class<T> myClass ) {
-		final Map<Class<?>, FieldWriter<?, ?>> internalFieldWriters = getRegisteredFieldWriters();
-		// try concrete class
-		final FieldWriter<?, T> writer = (FieldWriter<?, T>) internalFieldWriters.get(myClass);
-		if (writer != null) {
-			return writer;
-		}// if the concrete class lookup failed, try inheritance
-		return (FieldWriter<?, T>) getAssignableValueFromClassMap(
-				myClass,
-				internalFieldWriters);
+		return (FieldWriter<?, T>) RESOLVED_WRITERS.get(myClass);
 	}
 
 	public static <T> T getAssignableValueFromClassMap(
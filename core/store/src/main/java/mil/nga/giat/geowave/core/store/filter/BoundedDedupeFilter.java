@@ -0,0 +1,110 @@
+package mil.nga.giat.geowave.core.store.filter;
+
+import java.nio.ByteBuffer;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.filter.FingerprintSet.AddResult;
+
+import org.apache.log4j.Logger;
+
+/**
+ * This filter will perform de-duplication using the combination of data adapter
+ * ID and data ID to determine uniqueness, like {@link MultiIndexDedupeFilter},
+ * but rather than caching every ID it only retains a 64-bit fingerprint of each
+ * ID in a primitive hash set that is limited to a memory budget and can
+ * optionally be allocated off-heap. Two distinct IDs with the same fingerprint
+ * would be treated as duplicates, but with 64-bit fingerprints this is
+ * negligible even for billions of rows. The behavior once the budget is
+ * exhausted is determined by the {@link DedupeOverflowPolicy}.
+ * 
+ */
+public class BoundedDedupeFilter extends
+		MultiIndexDedupeFilter
+{
+	private final static Logger LOGGER = Logger.getLogger(BoundedDedupeFilter.class);
+	private long memoryBudgetBytes;
+	private boolean offHeap;
+	private DedupeOverflowPolicy overflowPolicy;
+	private FingerprintSet visitedFingerprints;
+	private boolean overflowed = false;
+
+	protected BoundedDedupeFilter() {
+		super();
+	}
+
+	public BoundedDedupeFilter(
+			final long memoryBudgetBytes,
+			final boolean offHeap,
+			final DedupeOverflowPolicy overflowPolicy ) {
+		super();
+		this.memoryBudgetBytes = memoryBudgetBytes;
+		this.offHeap = offHeap;
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	@Override
+	protected boolean markVisited(
+			final ByteArrayId adapterId,
+			final ByteArrayId dataId ) {
+		if (visitedFingerprints == null) {
+			// allocated lazily so that the filter is cheap to serialize and
+			// to create for queries that are never duplicated
+			visitedFingerprints = new FingerprintSet(
+					memoryBudgetBytes,
+					offHeap);
+		}
+		final AddResult result = visitedFingerprints.add(FingerprintSet.fingerprint(
+				adapterId.getBytes(),
+				dataId.getBytes()));
+		switch (result) {
+			case ALREADY_PRESENT:
+				return false;
+			case FULL:
+				if (DedupeOverflowPolicy.FAIL.equals(overflowPolicy)) {
+					throw new IllegalStateException(
+							"Deduplication exceeded its memory budget of " + memoryBudgetBytes + " bytes after " + visitedFingerprints.size() + " unique rows");
+				}
+				if (!overflowed) {
+					LOGGER.warn("Deduplication exceeded its memory budget of " + memoryBudgetBytes + " bytes after " + visitedFingerprints.size() + " unique rows, subsequent results may contain duplicates");
+					overflowed = true;
+				}
+				return true;
+			case ADDED:
+			default:
+				return true;
+		}
+	}
+
+	/**
+	 * @return true if the memory budget was exhausted and rows have been passed
+	 *         through without being remembered
+	 */
+	public boolean isOverflowed() {
+		return overflowed;
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final byte[] superBinary = super.toBinary();
+		final ByteBuffer buf = ByteBuffer.allocate(14 + superBinary.length);
+		buf.putLong(memoryBudgetBytes);
+		buf.put((byte) (offHeap ? 1 : 0));
+		buf.put((byte) (overflowPolicy == null ? -1 : overflowPolicy.ordinal()));
+		buf.putInt(superBinary.length);
+		buf.put(superBinary);
+		return buf.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		memoryBudgetBytes = buf.getLong();
+		offHeap = buf.get() == 1;
+		final byte policyOrdinal = buf.get();
+		overflowPolicy = policyOrdinal < 0 ? null : DedupeOverflowPolicy.values()[policyOrdinal];
+		final byte[] superBinary = new byte[buf.getInt()];
+		buf.get(superBinary);
+		super.fromBinary(superBinary);
+	}
+}
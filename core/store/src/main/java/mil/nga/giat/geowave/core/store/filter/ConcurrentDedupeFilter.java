@@ -0,0 +1,60 @@
+package mil.nga.giat.geowave.core.store.filter;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+
+/**
+ * This filter will perform de-duplication like {@link MultiIndexDedupeFilter},
+ * but the IDs it has visited can be shared with other instances through
+ * concurrent sets rather than a lock. This allows each scan of a query that
+ * reads multiple indices in parallel to use its own filter while still
+ * de-duplicating across all of the indices. This is intended for client-side
+ * use; a filter that is serialized does not share its visited IDs.
+ *
+ */
+public class ConcurrentDedupeFilter extends
+		MultiIndexDedupeFilter
+{
+	private final ConcurrentMap<ByteArrayId, Set<ByteArrayId>> adapterIdToVisitedDataIdMap;
+
+	public ConcurrentDedupeFilter() {
+		this(
+				new ConcurrentHashMap<ByteArrayId, Set<ByteArrayId>>());
+	}
+
+	private ConcurrentDedupeFilter(
+			final ConcurrentMap<ByteArrayId, Set<ByteArrayId>> adapterIdToVisitedDataIdMap ) {
+		super();
+		this.adapterIdToVisitedDataIdMap = adapterIdToVisitedDataIdMap;
+	}
+
+	/**
+	 * @return a new filter that shares the IDs visited by this filter, for use
+	 *         by another scan of the same query
+	 */
+	public ConcurrentDedupeFilter createSharedFilter() {
+		return new ConcurrentDedupeFilter(
+				adapterIdToVisitedDataIdMap);
+	}
+
+	@Override
+	protected boolean markVisited(
+			final ByteArrayId adapterId,
+			final ByteArrayId dataId ) {
+		Set<ByteArrayId> visitedDataIds = adapterIdToVisitedDataIdMap.get(adapterId);
+		if (visitedDataIds == null) {
+			final Set<ByteArrayId> newVisitedDataIds = Collections.newSetFromMap(new ConcurrentHashMap<ByteArrayId, Boolean>());
+			visitedDataIds = adapterIdToVisitedDataIdMap.putIfAbsent(
+					adapterId,
+					newVisitedDataIds);
+			if (visitedDataIds == null) {
+				visitedDataIds = newVisitedDataIds;
+			}
+		}
+		return visitedDataIds.add(dataId);
+	}
+}
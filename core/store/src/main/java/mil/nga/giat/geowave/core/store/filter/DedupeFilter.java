@@ -38,8 +38,24 @@ public class DedupeFilter implements
 			// and this is only intended to support a single index
 			return true;
 		}
-		final ByteArrayId adapterId = persistenceEncoding.getAdapterId();
-		final ByteArrayId dataId = persistenceEncoding.getDataId();
+		return markVisited(
+				persistenceEncoding.getAdapterId(),
+				persistenceEncoding.getDataId());
+	}
+
+	/**
+	 * Record that the given adapter ID and data ID combination has been seen
+	 * 
+	 * @param adapterId
+	 *            the data adapter ID of the row
+	 * @param dataId
+	 *            the data ID of the row
+	 * @return true if this is the first time the combination has been seen,
+	 *         false if it is a duplicate
+	 */
+	protected boolean markVisited(
+			final ByteArrayId adapterId,
+			final ByteArrayId dataId ) {
 		Set<ByteArrayId> visitedDataIds = adapterIdToVisitedDataIdMap.get(adapterId);
 		if (visitedDataIds == null) {
 			visitedDataIds = new HashSet<ByteArrayId>();
@@ -0,0 +1,20 @@
+package mil.nga.giat.geowave.core.store.filter;
+
+/**
+ * Determines how a {@link BoundedDedupeFilter} behaves once it has used up its
+ * memory budget and can no longer remember newly visited rows.
+ * 
+ */
+public enum DedupeOverflowPolicy {
+	/**
+	 * Keep filtering rows that have already been remembered but pass every new
+	 * row through without remembering it, so duplicates of those rows may be
+	 * returned
+	 */
+	ALLOW_DUPLICATES,
+	/**
+	 * Throw an exception, terminating the query, rather than returning
+	 * results that may contain duplicates
+	 */
+	FAIL
+}
@@ -0,0 +1,200 @@
+package mil.nga.giat.geowave.core.store.filter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * A set of 64-bit fingerprints using open addressing over a primitive long
+ * buffer, so that it costs 8 bytes per slot rather than an object per entry.
+ * The buffer can optionally be allocated off-heap. The table grows by doubling
+ * but never beyond the given memory budget; once it is full, {@link #add(long)}
+ * reports the overflow to the caller rather than growing further.
+ * 
+ */
+public class FingerprintSet
+{
+	private static final int INITIAL_CAPACITY = 1024;
+	// keeps the table size in bytes addressable by a single buffer
+	private static final int MAX_SLOTS = 1 << 27;
+	private static final double MAX_LOAD_FACTOR = 0.75;
+	// zero marks an empty slot so it is tracked outside of the table
+	private static final long EMPTY = 0L;
+
+	private final boolean offHeap;
+	private final int maxCapacity;
+	private LongBuffer table;
+	private int capacity;
+	private int size;
+	private boolean containsEmptyValue = false;
+
+	/**
+	 * @param memoryBudgetBytes
+	 *            the maximum number of bytes that the table is allowed to use
+	 * @param offHeap
+	 *            whether to allocate the table as a direct buffer outside of
+	 *            the Java heap
+	 */
+	public FingerprintSet(
+			final long memoryBudgetBytes,
+			final boolean offHeap ) {
+		this.offHeap = offHeap;
+		// largest power of two number of slots that fit within the budget
+		final long maxSlots = Math.max(
+				1,
+				Math.min(
+						memoryBudgetBytes / 8,
+						MAX_SLOTS));
+		maxCapacity = (int) Long.highestOneBit(maxSlots);
+		capacity = Math.min(
+				INITIAL_CAPACITY,
+				maxCapacity);
+		table = allocate(capacity);
+	}
+
+	/**
+	 * @param fingerprint
+	 *            the fingerprint to add
+	 * @return {@link AddResult#ADDED} if the fingerprint was not yet in the
+	 *         set, {@link AddResult#ALREADY_PRESENT} if it was, or
+	 *         {@link AddResult#FULL} if it was not in the set and the set has
+	 *         reached its memory budget
+	 */
+	public AddResult add(
+			final long fingerprint ) {
+		if (fingerprint == EMPTY) {
+			if (containsEmptyValue) {
+				return AddResult.ALREADY_PRESENT;
+			}
+			containsEmptyValue = true;
+			return AddResult.ADDED;
+		}
+		int slot = findSlot(
+				table,
+				capacity,
+				fingerprint);
+		if (table.get(slot) == fingerprint) {
+			return AddResult.ALREADY_PRESENT;
+		}
+		if ((size + 1) > (capacity * MAX_LOAD_FACTOR)) {
+			if (capacity >= maxCapacity) {
+				return AddResult.FULL;
+			}
+			resize(capacity << 1);
+			slot = findSlot(
+					table,
+					capacity,
+					fingerprint);
+		}
+		table.put(
+				slot,
+				fingerprint);
+		size++;
+		return AddResult.ADDED;
+	}
+
+	public boolean contains(
+			final long fingerprint ) {
+		if (fingerprint == EMPTY) {
+			return containsEmptyValue;
+		}
+		return table.get(findSlot(
+				table,
+				capacity,
+				fingerprint)) == fingerprint;
+	}
+
+	public int size() {
+		return containsEmptyValue ? size + 1 : size;
+	}
+
+	/**
+	 * @return the number of bytes currently allocated for the table
+	 */
+	public long getAllocatedBytes() {
+		return capacity * 8L;
+	}
+
+	private void resize(
+			final int newCapacity ) {
+		final LongBuffer newTable = allocate(newCapacity);
+		for (int i = 0; i < capacity; i++) {
+			final long value = table.get(i);
+			if (value != EMPTY) {
+				newTable.put(
+						findSlot(
+								newTable,
+								newCapacity,
+								value),
+						value);
+			}
+		}
+		table = newTable;
+		capacity = newCapacity;
+	}
+
+	private LongBuffer allocate(
+			final int slots ) {
+		if (offHeap) {
+			return ByteBuffer.allocateDirect(
+					slots * 8).order(
+					ByteOrder.nativeOrder()).asLongBuffer();
+		}
+		return LongBuffer.wrap(new long[slots]);
+	}
+
+	/**
+	 * linear probing, returns either the slot containing the fingerprint or
+	 * the first empty slot
+	 */
+	private static int findSlot(
+			final LongBuffer table,
+			final int capacity,
+			final long fingerprint ) {
+		final int mask = capacity - 1;
+		int slot = (int) (mix(fingerprint) & mask);
+		while (true) {
+			final long value = table.get(slot);
+			if ((value == EMPTY) || (value == fingerprint)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private static long mix(
+			long value ) {
+		value ^= (value >>> 33);
+		value *= 0xff51afd7ed558ccdL;
+		value ^= (value >>> 33);
+		value *= 0xc4ceb9fe1a85ec53L;
+		value ^= (value >>> 33);
+		return value;
+	}
+
+	/**
+	 * Compute a 64-bit fingerprint of the combination of the given byte arrays.
+	 * The length of the first array is included so that different splits of
+	 * the same bytes produce different fingerprints.
+	 */
+	public static long fingerprint(
+			final byte[] first,
+			final byte[] second ) {
+		// FNV-1a followed by a final avalanche
+		long hash = 0xcbf29ce484222325L;
+		hash = (hash ^ first.length) * 0x100000001b3L;
+		for (final byte b : first) {
+			hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+		}
+		for (final byte b : second) {
+			hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+		}
+		return mix(hash);
+	}
+
+	public static enum AddResult {
+		ADDED,
+		ALREADY_PRESENT,
+		FULL
+	}
+}
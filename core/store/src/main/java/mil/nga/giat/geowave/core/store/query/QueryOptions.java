@@ -1,12 +1,16 @@
 package mil.nga.giat.geowave.core.store.query;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 
 import mil.nga.giat.geowave.core.index.Persistable;
 import mil.nga.giat.geowave.core.index.StringUtils;
+import mil.nga.giat.geowave.core.store.filter.BoundedDedupeFilter;
+import mil.nga.giat.geowave.core.store.filter.DedupeOverflowPolicy;
+import mil.nga.giat.geowave.core.store.filter.MultiIndexDedupeFilter;
 
 /**
  * Container object that encapsulates additional options to be applied to a
@@ -22,7 +26,16 @@ public class QueryOptions implements
 	 * 
 	 */
 	private static final long serialVersionUID = 544085046847603372L;
+	/**
+	 * Marks the binary format that includes dedupe options. Field IDs are
+	 * never empty strings, so options serialized as just the field IDs never
+	 * begin with this byte.
+	 */
+	private static final byte DEDUPE_OPTIONS_MARKER = 0;
 	private Collection<String> fieldIds = Collections.emptyList();
+	private long dedupeMemoryBudgetBytes = -1;
+	private boolean dedupeOffHeap = false;
+	private DedupeOverflowPolicy dedupeOverflowPolicy = DedupeOverflowPolicy.ALLOW_DUPLICATES;
 
 	/**
 	 * @param fieldIds
@@ -68,8 +81,75 @@ public class QueryOptions implements
 		this.fieldIds = fieldIds;
 	}
 
+	/**
+	 * Limit the memory used for client-side deduplication of the query
+	 * results. Rather than caching every ID, a 64-bit fingerprint of each ID is
+	 * retained within the given budget.
+	 * 
+	 * @param dedupeMemoryBudgetBytes
+	 *            the maximum number of bytes to use for deduplication, or a
+	 *            negative value to cache every ID without a limit (the default)
+	 * @param dedupeOffHeap
+	 *            whether to allocate the fingerprints outside of the Java heap
+	 * @param dedupeOverflowPolicy
+	 *            what to do if the budget is exhausted
+	 */
+	public void setDedupeMemoryBudget(
+			final long dedupeMemoryBudgetBytes,
+			final boolean dedupeOffHeap,
+			final DedupeOverflowPolicy dedupeOverflowPolicy ) {
+		this.dedupeMemoryBudgetBytes = dedupeMemoryBudgetBytes;
+		this.dedupeOffHeap = dedupeOffHeap;
+		this.dedupeOverflowPolicy = dedupeOverflowPolicy;
+	}
+
+	public long getDedupeMemoryBudgetBytes() {
+		return dedupeMemoryBudgetBytes;
+	}
+
+	public boolean isDedupeOffHeap() {
+		return dedupeOffHeap;
+	}
+
+	public DedupeOverflowPolicy getDedupeOverflowPolicy() {
+		return dedupeOverflowPolicy;
+	}
+
+	public boolean isDedupeMemoryBounded() {
+		return dedupeMemoryBudgetBytes >= 0;
+	}
+
+	/**
+	 * @return a new client-side filter for deduplicating results across one
+	 *         or more indices honoring the dedupe memory budget, if any
+	 */
+	public MultiIndexDedupeFilter createDedupeFilter() {
+		if (isDedupeMemoryBounded()) {
+			return new BoundedDedupeFilter(
+					dedupeMemoryBudgetBytes,
+					dedupeOffHeap,
+					dedupeOverflowPolicy);
+		}
+		return new MultiIndexDedupeFilter();
+	}
+
 	@Override
 	public byte[] toBinary() {
+		final byte[] fieldIdsBinary = fieldIdsToBinary();
+		if (!isDedupeMemoryBounded()) {
+			// retain the original format when there are no dedupe options
+			return fieldIdsBinary;
+		}
+		final ByteBuffer buf = ByteBuffer.allocate(11 + fieldIdsBinary.length);
+		buf.put(DEDUPE_OPTIONS_MARKER);
+		buf.putLong(dedupeMemoryBudgetBytes);
+		buf.put((byte) (dedupeOffHeap ? 1 : 0));
+		buf.put((byte) (dedupeOverflowPolicy == null ? -1 : dedupeOverflowPolicy.ordinal()));
+		buf.put(fieldIdsBinary);
+		return buf.array();
+	}
+
+	private byte[] fieldIdsToBinary() {
 		if (fieldIds == null) return new byte[0];
 		final StringBuffer buffer = new StringBuffer();
 		for (final String fieldId : fieldIds) {
@@ -84,7 +164,23 @@ public class QueryOptions implements
 	@Override
 	public void fromBinary(
 			final byte[] bytes ) {
-		final String data = StringUtils.stringFromBinary(bytes);
+		byte[] fieldIdsBinary = bytes;
+		if ((bytes.length > 0) && (bytes[0] == DEDUPE_OPTIONS_MARKER)) {
+			final ByteBuffer buf = ByteBuffer.wrap(bytes);
+			buf.get();
+			dedupeMemoryBudgetBytes = buf.getLong();
+			dedupeOffHeap = buf.get() == 1;
+			final byte policyOrdinal = buf.get();
+			dedupeOverflowPolicy = policyOrdinal < 0 ? null : DedupeOverflowPolicy.values()[policyOrdinal];
+			fieldIdsBinary = new byte[buf.remaining()];
+			buf.get(fieldIdsBinary);
+		}
+		else {
+			dedupeMemoryBudgetBytes = -1;
+			dedupeOffHeap = false;
+			dedupeOverflowPolicy = DedupeOverflowPolicy.ALLOW_DUPLICATES;
+		}
+		final String data = StringUtils.stringFromBinary(fieldIdsBinary);
 		final String[] ids = data.split(",");
 		fieldIds = Arrays.asList(ids);
 	}
@@ -0,0 +1,29 @@
+package mil.nga.giat.geowave.core.store.query.aggregate;
+
+import mil.nga.giat.geowave.core.index.Mergeable;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo;
+
+/**
+ * An aggregation summarizes the entries matching a query without returning
+ * them. It is serialized to where the entries are stored, each entry found
+ * there is aggregated into a copy of it, and the partial aggregations are
+ * serialized back and merged into the result.
+ * 
+ * @param <T>
+ *            The type of the entries that are aggregated
+ */
+public interface Aggregation<T> extends
+		Mergeable
+{
+	/**
+	 * Adds an entry matching the query to this aggregation
+	 * 
+	 * @param entryInfo
+	 *            the row IDs and fields that the entry was read from
+	 * @param entry
+	 *            the entry
+	 */
+	public void aggregate(
+			DataStoreEntryInfo entryInfo,
+			T entry );
+}
@@ -0,0 +1,68 @@
+package mil.nga.giat.geowave.core.store.query.aggregate;
+
+import mil.nga.giat.geowave.core.index.Mergeable;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo;
+import mil.nga.giat.geowave.core.store.adapter.statistics.DataStatistics;
+
+/**
+ * Aggregates the entries matching a query into a data statistic, so that the
+ * statistics that are otherwise kept for all of the entries of an adapter,
+ * such as the count, bounding box, time range or histograms, can be computed
+ * for an arbitrary query.
+ * 
+ * @param <T>
+ *            The type of the entries that are aggregated
+ */
+public class DataStatisticsAggregation<T> implements
+		Aggregation<T>
+{
+	private DataStatistics<T> statistics;
+
+	protected DataStatisticsAggregation() {}
+
+	public DataStatisticsAggregation(
+			final DataStatistics<T> statistics ) {
+		this.statistics = statistics;
+	}
+
+	public DataStatistics<T> getStatistics() {
+		return statistics;
+	}
+
+	@Override
+	public void aggregate(
+			final DataStoreEntryInfo entryInfo,
+			final T entry ) {
+		statistics.entryIngested(
+				entryInfo,
+				entry);
+	}
+
+	@Override
+	public void merge(
+			final Mergeable merge ) {
+		if ((merge != null) && (merge instanceof DataStatisticsAggregation)) {
+			statistics.merge(((DataStatisticsAggregation<?>) merge).statistics);
+		}
+	}
+
+	@Override
+	public byte[] toBinary() {
+		return PersistenceUtils.toBinary(statistics);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		statistics = PersistenceUtils.fromBinary(
+				bytes,
+				DataStatistics.class);
+	}
+
+	@Override
+	public String toString() {
+		return "aggregation[" + statistics + "]";
+	}
+}
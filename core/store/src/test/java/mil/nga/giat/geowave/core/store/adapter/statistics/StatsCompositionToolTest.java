@@ -0,0 +1,348 @@
+package mil.nga.giat.geowave.core.store.adapter.statistics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.StringUtils;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo.FieldInfo;
+import mil.nga.giat.geowave.core.store.adapter.AdapterPersistenceEncoding;
+import mil.nga.giat.geowave.core.store.adapter.IndexedAdapterPersistenceEncoding;
+import mil.nga.giat.geowave.core.store.data.field.FieldReader;
+import mil.nga.giat.geowave.core.store.data.field.FieldWriter;
+import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
+import mil.nga.giat.geowave.core.store.index.Index;
+
+import org.junit.Test;
+
+public class StatsCompositionToolTest
+{
+	private static final ByteArrayId ADAPTER_ID = new ByteArrayId(
+			"adapter");
+
+	@Test
+	public void testMergeAcrossThreads()
+			throws Exception {
+		final RecordingStatisticsStore store = new RecordingStatisticsStore();
+		final StatsCompositionTool<String> tool = new StatsCompositionTool<String>(
+				new TestAdapter(),
+				store);
+		final int numThreads = 4;
+		final int entriesPerThread = 1000;
+		final List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < numThreads; t++) {
+			threads.add(new Thread(
+					new Runnable() {
+						@Override
+						public void run() {
+							for (int i = 0; i < entriesPerThread; i++) {
+								tool.entryIngested(
+										new DataStoreEntryInfo(
+												Collections.<ByteArrayId> emptyList(),
+												Collections.<FieldInfo> emptyList()),
+										(i % 2) == 0 ? "a" : "b");
+							}
+						}
+					}));
+		}
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(
+				numThreads,
+				tool.threadStatistics.size());
+		tool.flush();
+		// the finished threads are no longer tracked
+		assertEquals(
+				0,
+				tool.threadStatistics.size());
+
+		// one batch with a single statistic per visibility
+		assertEquals(
+				1,
+				store.batches.size());
+		assertEquals(
+				2,
+				store.batches.get(
+						0).size());
+		assertEquals(
+				(numThreads * entriesPerThread) / 2,
+				store.getCount("a"));
+		assertEquals(
+				(numThreads * entriesPerThread) / 2,
+				store.getCount("b"));
+
+		// nothing new to write
+		tool.flush();
+		assertEquals(
+				1,
+				store.batches.size());
+
+		tool.entryIngested(
+				new DataStoreEntryInfo(
+						Collections.<ByteArrayId> emptyList(),
+						Collections.<FieldInfo> emptyList()),
+				"a");
+		assertEquals(
+				1,
+				tool.threadStatistics.size());
+		tool.reset();
+		assertEquals(
+				0,
+				tool.threadStatistics.size());
+		tool.flush();
+		assertEquals(
+				1,
+				store.batches.size());
+
+		// a thread that was flushed is tracked again by its next entry
+		tool.entryIngested(
+				new DataStoreEntryInfo(
+						Collections.<ByteArrayId> emptyList(),
+						Collections.<FieldInfo> emptyList()),
+				"b");
+		tool.flush();
+		assertEquals(
+				2,
+				store.batches.size());
+		assertEquals(
+				((numThreads * entriesPerThread) / 2) + 1,
+				store.getCount("b"));
+	}
+
+	@Test
+	public void testFlushInterval()
+			throws Exception {
+		final RecordingStatisticsStore store = new RecordingStatisticsStore();
+		final StatsCompositionTool<String> tool = new StatsCompositionTool<String>(
+				new TestAdapter(),
+				store);
+		tool.setFlushIntervalMillis(1);
+		Thread.sleep(5);
+		tool.entryIngested(
+				new DataStoreEntryInfo(
+						Collections.<ByteArrayId> emptyList(),
+						Collections.<FieldInfo> emptyList()),
+				"a");
+		assertEquals(
+				1,
+				store.batches.size());
+		assertEquals(
+				1,
+				store.getCount("a"));
+	}
+
+	@Test
+	public void testReusedVisibilityBuffer()
+			throws Exception {
+		final RecordingStatisticsStore store = new RecordingStatisticsStore();
+		final StatsCompositionTool<String> tool = new StatsCompositionTool<String>(
+				new TestAdapter(
+						true),
+				store);
+		for (final String entry : new String[] {
+			"a",
+			"b",
+			"b",
+			"a",
+			"b"
+		}) {
+			tool.entryIngested(
+					new DataStoreEntryInfo(
+							Collections.<ByteArrayId> emptyList(),
+							Collections.<FieldInfo> emptyList()),
+					entry);
+		}
+		tool.flush();
+		assertEquals(
+				2,
+				store.getCount("a"));
+		assertEquals(
+				3,
+				store.getCount("b"));
+	}
+
+	private static class RecordingStatisticsStore implements
+			DataStatisticsStore
+	{
+		private final List<List<DataStatistics<?>>> batches = new ArrayList<List<DataStatistics<?>>>();
+		private final Map<String, Long> counts = new HashMap<String, Long>();
+
+		private long getCount(
+				final String visibility ) {
+			final Long count = counts.get(visibility);
+			return count == null ? 0 : count;
+		}
+
+		@Override
+		public void setStatistics(
+				final DataStatistics<?> statistics ) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void incorporateStatistics(
+				final DataStatistics<?> statistics ) {
+			incorporateStatistics(Collections.singletonList(statistics));
+		}
+
+		@Override
+		public synchronized void incorporateStatistics(
+				final Collection<? extends DataStatistics<?>> statistics ) {
+			batches.add(new ArrayList<DataStatistics<?>>(
+					statistics));
+			for (final DataStatistics<?> s : statistics) {
+				final String visibility = StringUtils.stringFromBinary(s.getVisibility());
+				counts.put(
+						visibility,
+						getCount(visibility) + ((CountDataStatistics<?>) s).getCount());
+			}
+		}
+
+		@Override
+		public CloseableIterator<DataStatistics<?>> getDataStatistics(
+				final ByteArrayId adapterId,
+				final String... authorizations ) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public CloseableIterator<DataStatistics<?>> getAllDataStatistics(
+				final String... authorizations ) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public DataStatistics<?> getDataStatistics(
+				final ByteArrayId adapterId,
+				final ByteArrayId statisticsId,
+				final String... authorizations ) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean removeStatistics(
+				final ByteArrayId adapterId,
+				final ByteArrayId statisticsId,
+				final String... authorizations ) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Counts entries using the entry itself as the visibility, optionally
+	 * writing each visibility into the same array
+	 */
+	private static class TestAdapter implements
+			StatisticalDataAdapter<String>
+	{
+		private final boolean reuseVisibility;
+		private final byte[] visibilityBuffer = new byte[1];
+
+		private TestAdapter() {
+			this(
+					false);
+		}
+
+		private TestAdapter(
+				final boolean reuseVisibility ) {
+			this.reuseVisibility = reuseVisibility;
+		}
+
+		@Override
+		public ByteArrayId[] getSupportedStatisticsIds() {
+			return new ByteArrayId[] {
+				CountDataStatistics.STATS_ID
+			};
+		}
+
+		@Override
+		public DataStatistics<String> createDataStatistics(
+				final ByteArrayId statisticsId ) {
+			return new CountDataStatistics<String>(
+					ADAPTER_ID);
+		}
+
+		@Override
+		public DataStatisticsVisibilityHandler<String> getVisibilityHandler(
+				final ByteArrayId statisticsId ) {
+			return new DataStatisticsVisibilityHandler<String>() {
+				@Override
+				public byte[] getVisibility(
+						final DataStoreEntryInfo entryInfo,
+						final String entry ) {
+					final byte[] visibility = StringUtils.stringToBinary(entry);
+					if (reuseVisibility) {
+						visibilityBuffer[0] = visibility[0];
+						return visibilityBuffer;
+					}
+					return visibility;
+				}
+			};
+		}
+
+		@Override
+		public ByteArrayId getAdapterId() {
+			return ADAPTER_ID;
+		}
+
+		@Override
+		public boolean isSupported(
+				final String entry ) {
+			return true;
+		}
+
+		@Override
+		public ByteArrayId getDataId(
+				final String entry ) {
+			return new ByteArrayId(
+					entry);
+		}
+
+		@Override
+		public String decode(
+				final IndexedAdapterPersistenceEncoding data,
+				final Index index ) {
+			return null;
+		}
+
+		@Override
+		public AdapterPersistenceEncoding encode(
+				final String entry,
+				final CommonIndexModel indexModel ) {
+			return null;
+		}
+
+		@Override
+		public FieldReader<Object> getReader(
+				final ByteArrayId fieldId ) {
+			return null;
+		}
+
+		@Override
+		public FieldWriter<String, Object> getWriter(
+				final ByteArrayId fieldId ) {
+			return null;
+		}
+
+		@Override
+		public byte[] toBinary() {
+			return new byte[0];
+		}
+
+		@Override
+		public void fromBinary(
+				final byte[] bytes ) {}
+	}
+}
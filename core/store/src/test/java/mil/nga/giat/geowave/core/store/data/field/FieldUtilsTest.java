@@ -0,0 +1,63 @@
+package mil.nga.giat.geowave.core.store.data.field;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class FieldUtilsTest
+{
+	@Test
+	public void testResolvedOnce() {
+		final FieldReader<Integer> reader = FieldUtils.getDefaultReaderForClass(Integer.class);
+		final FieldWriter<?, Integer> writer = FieldUtils.getDefaultWriterForClass(Integer.class);
+		assertNotNull(reader);
+		assertNotNull(writer);
+		assertSame(
+				reader,
+				FieldUtils.getDefaultReaderForClass(Integer.class));
+		assertSame(
+				writer,
+				FieldUtils.getDefaultWriterForClass(Integer.class));
+		// classes without a serializer resolve to nothing, also when asked
+		// again
+		assertNull(FieldUtils.getDefaultReaderForClass(Thread.class));
+		assertNull(FieldUtils.getDefaultWriterForClass(Thread.class));
+		assertNull(FieldUtils.getDefaultReaderForClass(Thread.class));
+	}
+
+	@Test
+	public void testConcurrentLookups()
+			throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			final List<Future<FieldReader<String>>> futures = new ArrayList<Future<FieldReader<String>>>();
+			for (int i = 0; i < 64; i++) {
+				futures.add(executor.submit(new Callable<FieldReader<String>>() {
+					@Override
+					public FieldReader<String> call() {
+						return FieldUtils.getDefaultReaderForClass(String.class);
+					}
+				}));
+			}
+			final FieldReader<String> expected = FieldUtils.getDefaultReaderForClass(String.class);
+			assertNotNull(expected);
+			for (final Future<FieldReader<String>> future : futures) {
+				assertSame(
+						expected,
+						future.get());
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package mil.nga.giat.geowave.core.store.filter;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.store.data.IndexedPersistenceEncoding;
+import mil.nga.giat.geowave.core.store.data.PersistentDataset;
+import mil.nga.giat.geowave.core.store.index.CommonIndexValue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BoundedDedupeFilterTest
+{
+	private static final ByteArrayId ADAPTER_ID = new ByteArrayId(
+			"adapter");
+
+	private static IndexedPersistenceEncoding encoding(
+			final ByteArrayId adapterId,
+			final String dataId ) {
+		return new IndexedPersistenceEncoding(
+				adapterId,
+				new ByteArrayId(
+						dataId),
+				new ByteArrayId(
+						"row"),
+				1,
+				new PersistentDataset<CommonIndexValue>());
+	}
+
+	@Test
+	public void testDedupeMatchesUnbounded() {
+		final DedupeFilter unbounded = new MultiIndexDedupeFilter();
+		final DedupeFilter bounded = new BoundedDedupeFilter(
+				1024 * 1024,
+				false,
+				DedupeOverflowPolicy.FAIL);
+		final DedupeFilter offHeap = new BoundedDedupeFilter(
+				1024 * 1024,
+				true,
+				DedupeOverflowPolicy.FAIL);
+		for (int i = 0; i < 20000; i++) {
+			// every id is seen twice, once for each of two adapters
+			final IndexedPersistenceEncoding encoding = encoding(
+					i % 2 == 0 ? ADAPTER_ID : new ByteArrayId(
+							"other"),
+					"id_" + (i % 5000));
+			final boolean expected = unbounded.accept(encoding);
+			Assert.assertEquals(
+					expected,
+					bounded.accept(encoding));
+			Assert.assertEquals(
+					expected,
+					offHeap.accept(encoding));
+		}
+	}
+
+	@Test
+	public void testAllowDuplicatesOnOverflow() {
+		final BoundedDedupeFilter filter = new BoundedDedupeFilter(
+				8 * 1024,
+				false,
+				DedupeOverflowPolicy.ALLOW_DUPLICATES);
+		int accepted = 0;
+		for (int i = 0; i < 5000; i++) {
+			if (filter.accept(encoding(
+					ADAPTER_ID,
+					"id_" + i))) {
+				accepted++;
+			}
+		}
+		// every row is unique so all must be accepted despite the overflow
+		Assert.assertEquals(
+				5000,
+				accepted);
+		Assert.assertTrue(filter.isOverflowed());
+		// rows remembered before the overflow are still filtered
+		Assert.assertFalse(filter.accept(encoding(
+				ADAPTER_ID,
+				"id_0")));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testFailOnOverflow() {
+		final BoundedDedupeFilter filter = new BoundedDedupeFilter(
+				8 * 1024,
+				false,
+				DedupeOverflowPolicy.FAIL);
+		for (int i = 0; i < 5000; i++) {
+			filter.accept(encoding(
+					ADAPTER_ID,
+					"id_" + i));
+		}
+	}
+
+	@Test
+	public void testSerialization() {
+		final BoundedDedupeFilter filter = new BoundedDedupeFilter(
+				4096,
+				true,
+				DedupeOverflowPolicy.FAIL);
+		filter.setMultiIndexSupportEnabled(false);
+		final BoundedDedupeFilter copy = PersistenceUtils.fromBinary(
+				PersistenceUtils.toBinary(filter),
+				BoundedDedupeFilter.class);
+		Assert.assertArrayEquals(
+				filter.toBinary(),
+				copy.toBinary());
+		Assert.assertFalse(copy.supportsMultipleIndices());
+	}
+}
@@ -0,0 +1,84 @@
+package mil.nga.giat.geowave.core.store.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.data.IndexedPersistenceEncoding;
+import mil.nga.giat.geowave.core.store.data.PersistentDataset;
+import mil.nga.giat.geowave.core.store.index.CommonIndexValue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentDedupeFilterTest
+{
+	private static final ByteArrayId ADAPTER_ID = new ByteArrayId(
+			"adapter");
+
+	private static IndexedPersistenceEncoding encoding(
+			final String dataId ) {
+		return new IndexedPersistenceEncoding(
+				ADAPTER_ID,
+				new ByteArrayId(
+						dataId),
+				new ByteArrayId(
+						"row"),
+				1,
+				new PersistentDataset<CommonIndexValue>());
+	}
+
+	@Test
+	public void testSharedFilters() {
+		final ConcurrentDedupeFilter first = new ConcurrentDedupeFilter();
+		final ConcurrentDedupeFilter second = first.createSharedFilter();
+		final ConcurrentDedupeFilter unshared = new ConcurrentDedupeFilter();
+		Assert.assertTrue(first.accept(encoding("a")));
+		Assert.assertFalse(first.accept(encoding("a")));
+		// the shared filter has seen the id of the first filter
+		Assert.assertFalse(second.accept(encoding("a")));
+		Assert.assertTrue(second.accept(encoding("b")));
+		Assert.assertFalse(first.accept(encoding("b")));
+		Assert.assertTrue(unshared.accept(encoding("a")));
+	}
+
+	@Test
+	public void testConcurrentScans()
+			throws Exception {
+		final ConcurrentDedupeFilter sharedFilter = new ConcurrentDedupeFilter();
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<Integer>> accepted = new ArrayList<Future<Integer>>();
+			for (int s = 0; s < 4; s++) {
+				// every scan sees every id, as if each id were in every index
+				final ConcurrentDedupeFilter filter = sharedFilter.createSharedFilter();
+				accepted.add(executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						int count = 0;
+						for (int i = 0; i < 10000; i++) {
+							if (filter.accept(encoding("id_" + i))) {
+								count++;
+							}
+						}
+						return count;
+					}
+				}));
+			}
+			int total = 0;
+			for (final Future<Integer> count : accepted) {
+				total += count.get();
+			}
+			Assert.assertEquals(
+					10000,
+					total);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -2,6 +2,11 @@ package mil.nga.giat.geowave.core.store.query;
 
 import java.util.Arrays;
 
+import mil.nga.giat.geowave.core.index.StringUtils;
+import mil.nga.giat.geowave.core.store.filter.BoundedDedupeFilter;
+import mil.nga.giat.geowave.core.store.filter.DedupeOverflowPolicy;
+
+import org.junit.Assert;
 import org.junit.Test;
 
 public class QueryOptionsTest
@@ -21,4 +26,43 @@ public class QueryOptionsTest
 		ops.getFieldIds().contains(
 				"|abc");
 	}
+
+	@Test
+	public void testDedupeOptions() {
+		final QueryOptions ops = new QueryOptions(
+				Arrays.asList(
+						"123|",
+						"|abc"));
+		ops.setDedupeMemoryBudget(
+				1024,
+				true,
+				DedupeOverflowPolicy.FAIL);
+		final QueryOptions copy = new QueryOptions();
+		copy.fromBinary(ops.toBinary());
+		Assert.assertEquals(
+				1024,
+				copy.getDedupeMemoryBudgetBytes());
+		Assert.assertTrue(copy.isDedupeOffHeap());
+		Assert.assertEquals(
+				DedupeOverflowPolicy.FAIL,
+				copy.getDedupeOverflowPolicy());
+		Assert.assertTrue(copy.getFieldIds().contains(
+				"|abc"));
+		Assert.assertTrue(copy.createDedupeFilter() instanceof BoundedDedupeFilter);
+	}
+
+	@Test
+	public void testFieldIdsOnlyFormat() {
+		// options persisted before dedupe options existed were just the field
+		// IDs
+		final QueryOptions ops = new QueryOptions();
+		ops.fromBinary(StringUtils.stringToBinary("a,b"));
+		Assert.assertEquals(
+				Arrays.asList(
+						"a",
+						"b"),
+				ops.getFieldIds());
+		Assert.assertFalse(ops.isDedupeMemoryBounded());
+		Assert.assertFalse(ops.createDedupeFilter() instanceof BoundedDedupeFilter);
+	}
 }
@@ -0,0 +1,50 @@
+package mil.nga.giat.geowave.core.store.query.aggregate;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.store.adapter.statistics.CountDataStatistics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DataStatisticsAggregationTest
+{
+	private final ByteArrayId adapterId = new ByteArrayId(
+			"test");
+
+	@Test
+	public void testAggregateAndMerge() {
+		final DataStatisticsAggregation<String> aggregation = new DataStatisticsAggregation<String>(
+				new CountDataStatistics<String>(
+						adapterId));
+		// each partial aggregation starts from a serialized copy, as it would
+		// on a tablet server
+		final byte[] binary = PersistenceUtils.toBinary(aggregation);
+		final DataStatisticsAggregation<String> partial1 = copy(binary);
+		final DataStatisticsAggregation<String> partial2 = copy(binary);
+		for (int i = 0; i < 3; i++) {
+			partial1.aggregate(
+					null,
+					"entry" + i);
+		}
+		partial2.aggregate(
+				null,
+				"entry");
+
+		final DataStatisticsAggregation<String> result = copy(PersistenceUtils.toBinary(partial1));
+		result.merge(copy(PersistenceUtils.toBinary(partial2)));
+		Assert.assertEquals(
+				4,
+				((CountDataStatistics<String>) result.getStatistics()).getCount());
+		// the aggregation that was copied is left empty
+		Assert.assertFalse(((CountDataStatistics<String>) aggregation.getStatistics()).isSet());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static DataStatisticsAggregation<String> copy(
+			final byte[] binary ) {
+		return PersistenceUtils.fromBinary(
+				binary,
+				DataStatisticsAggregation.class);
+	}
+}
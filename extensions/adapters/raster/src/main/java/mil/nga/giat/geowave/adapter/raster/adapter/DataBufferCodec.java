@@ -0,0 +1,528 @@
+package mil.nga.giat.geowave.adapter.raster.adapter;
+
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferDouble;
+import java.awt.image.DataBufferFloat;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferShort;
+import java.awt.image.DataBufferUShort;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import javax.media.jai.remote.SerializableState;
+import javax.media.jai.remote.SerializerFactory;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Encodes a data buffer as its raw samples, bank by bank, behind a small
+ * versioned header:
+ *
+ * <pre>
+ * magic (2 bytes) | version (1 byte) | data type (1 byte) | compression (1 byte) | number of banks (4 bytes) | bank size (4 bytes) | samples
+ * </pre>
+ *
+ * Samples are written big-endian in the width of the data type and may be
+ * deflated as a whole. A tile is only stored compressed if that makes it
+ * smaller. Byte samples are decoded without copying, by wrapping the encoded
+ * array (or the inflated array) with the offset of each bank.
+ *
+ * Data buffers that were persisted using JAI's serializable state and Java
+ * serialization prior to this format are recognized by the Java serialization
+ * stream magic, which can never begin this format, and are still decoded.
+ */
+public class DataBufferCodec
+{
+	private final static Logger LOGGER = Logger.getLogger(DataBufferCodec.class);
+	private static final byte[] MAGIC = new byte[] {
+		'G',
+		'W'
+	};
+	private static final byte VERSION = 1;
+	private static final byte COMPRESSION_NONE = 0;
+	private static final byte COMPRESSION_DEFLATE = 1;
+	private static final int HEADER_LENGTH = 13;
+	// the first two bytes of any Java serialization stream
+	private static final byte LEGACY_MAGIC_0 = (byte) 0xAC;
+	private static final byte LEGACY_MAGIC_1 = (byte) 0xED;
+
+	private DataBufferCodec() {}
+
+	/**
+	 * @param dataBuffer
+	 *            the data buffer to encode
+	 * @param compress
+	 *            whether to try to deflate the samples
+	 * @return the encoded data buffer
+	 */
+	public static byte[] toBinary(
+			final DataBuffer dataBuffer,
+			final boolean compress ) {
+		final int elementSize = getElementSize(dataBuffer.getDataType());
+		if (elementSize <= 0) {
+			// an unusual data type, fall back to the legacy serialization
+			return toLegacyBinary(dataBuffer);
+		}
+		final int numBanks = dataBuffer.getNumBanks();
+		final int size = dataBuffer.getSize();
+		final int payloadLength = numBanks * size * elementSize;
+		final ByteBuffer buf = ByteBuffer.allocate(HEADER_LENGTH + payloadLength);
+		buf.put(MAGIC);
+		buf.put(VERSION);
+		buf.put((byte) dataBuffer.getDataType());
+		buf.put(COMPRESSION_NONE);
+		buf.putInt(numBanks);
+		buf.putInt(size);
+		writeSamples(
+				dataBuffer,
+				buf);
+		final byte[] uncompressed = buf.array();
+		if (compress && (payloadLength > 0)) {
+			final byte[] compressed = deflate(
+					uncompressed,
+					payloadLength);
+			if (compressed != null) {
+				return compressed;
+			}
+		}
+		return uncompressed;
+	}
+
+	/**
+	 * @param binary
+	 *            the array containing the encoded data buffer
+	 * @param offset
+	 *            the offset of the encoded data buffer in the array
+	 * @param length
+	 *            the length of the encoded data buffer
+	 * @return the data buffer, which may share the given array
+	 * @throws IOException
+	 *             if the binary is not an encoded data buffer
+	 */
+	public static DataBuffer fromBinary(
+			final byte[] binary,
+			final int offset,
+			final int length )
+			throws IOException {
+		if ((length >= 2) && (binary[offset] == LEGACY_MAGIC_0) && (binary[offset + 1] == LEGACY_MAGIC_1)) {
+			return fromLegacyBinary(
+					binary,
+					offset,
+					length);
+		}
+		if ((length < HEADER_LENGTH) || (binary[offset] != MAGIC[0]) || (binary[offset + 1] != MAGIC[1])) {
+			throw new IOException(
+					"Unrecognized data buffer encoding");
+		}
+		final ByteBuffer buf = ByteBuffer.wrap(
+				binary,
+				offset,
+				length);
+		buf.position(offset + MAGIC.length);
+		final byte version = buf.get();
+		if (version != VERSION) {
+			throw new IOException(
+					"Unsupported data buffer encoding version " + version);
+		}
+		final int dataType = buf.get();
+		final byte compression = buf.get();
+		final int numBanks = buf.getInt();
+		final int size = buf.getInt();
+		final int elementSize = getElementSize(dataType);
+		if (elementSize <= 0) {
+			throw new IOException(
+					"Unsupported data buffer type " + dataType);
+		}
+		final int payloadLength = numBanks * size * elementSize;
+		final byte[] samples;
+		int samplesOffset;
+		if (compression == COMPRESSION_DEFLATE) {
+			samples = inflate(
+					binary,
+					offset + HEADER_LENGTH,
+					length - HEADER_LENGTH,
+					payloadLength);
+			samplesOffset = 0;
+		}
+		else if (compression == COMPRESSION_NONE) {
+			if ((length - HEADER_LENGTH) < payloadLength) {
+				throw new IOException(
+						"Data buffer encoding is truncated");
+			}
+			samples = binary;
+			samplesOffset = offset + HEADER_LENGTH;
+		}
+		else {
+			throw new IOException(
+					"Unsupported data buffer compression " + compression);
+		}
+		return readSamples(
+				dataType,
+				numBanks,
+				size,
+				samples,
+				samplesOffset);
+	}
+
+	/**
+	 * @return whether the encoded data buffer is stored compressed
+	 */
+	public static boolean isCompressed(
+			final byte[] binary,
+			final int offset,
+			final int length ) {
+		return (length >= HEADER_LENGTH) && (binary[offset] == MAGIC[0]) && (binary[offset + 1] == MAGIC[1]) && (binary[offset + MAGIC.length + 2] == COMPRESSION_DEFLATE);
+	}
+
+	/**
+	 * A decoded byte buffer is a view of the array it was decoded from, which
+	 * may belong to someone else; it must be detached before being written to.
+	 *
+	 * @return the data buffer itself if it exclusively holds its bank arrays,
+	 *         otherwise a copy of the data buffer that does
+	 */
+	public static DataBuffer detach(
+			final DataBuffer dataBuffer ) {
+		if (!(dataBuffer instanceof DataBufferByte)) {
+			return dataBuffer;
+		}
+		final DataBufferByte byteBuffer = (DataBufferByte) dataBuffer;
+		final int numBanks = byteBuffer.getNumBanks();
+		final int size = byteBuffer.getSize();
+		boolean isView = false;
+		for (int b = 0; b < numBanks; b++) {
+			if ((byteBuffer.getOffsets()[b] != 0) || (byteBuffer.getData(b).length != size)) {
+				isView = true;
+				break;
+			}
+		}
+		if (!isView) {
+			return dataBuffer;
+		}
+		final byte[][] bankData = new byte[numBanks][];
+		for (int b = 0; b < numBanks; b++) {
+			final int bankOffset = byteBuffer.getOffsets()[b];
+			bankData[b] = Arrays.copyOfRange(
+					byteBuffer.getData(b),
+					bankOffset,
+					bankOffset + size);
+		}
+		return new DataBufferByte(
+				bankData,
+				size);
+	}
+
+	private static int getElementSize(
+			final int dataType ) {
+		switch (dataType) {
+			case DataBuffer.TYPE_BYTE:
+				return 1;
+			case DataBuffer.TYPE_SHORT:
+			case DataBuffer.TYPE_USHORT:
+				return 2;
+			case DataBuffer.TYPE_INT:
+			case DataBuffer.TYPE_FLOAT:
+				return 4;
+			case DataBuffer.TYPE_DOUBLE:
+				return 8;
+			default:
+				return -1;
+		}
+	}
+
+	private static void writeSamples(
+			final DataBuffer dataBuffer,
+			final ByteBuffer buf ) {
+		final int size = dataBuffer.getSize();
+		for (int b = 0; b < dataBuffer.getNumBanks(); b++) {
+			final int bankOffset = dataBuffer.getOffsets()[b];
+			// the standard buffers are written straight from their bank arrays,
+			// others (such as JAI's float and double buffers) element by element
+			if (dataBuffer instanceof DataBufferByte) {
+				buf.put(
+						((DataBufferByte) dataBuffer).getData(b),
+						bankOffset,
+						size);
+			}
+			else if (dataBuffer instanceof DataBufferShort) {
+				buf.asShortBuffer().put(
+						((DataBufferShort) dataBuffer).getData(b),
+						bankOffset,
+						size);
+				buf.position(buf.position() + (size * 2));
+			}
+			else if (dataBuffer instanceof DataBufferUShort) {
+				buf.asShortBuffer().put(
+						((DataBufferUShort) dataBuffer).getData(b),
+						bankOffset,
+						size);
+				buf.position(buf.position() + (size * 2));
+			}
+			else if (dataBuffer instanceof DataBufferInt) {
+				buf.asIntBuffer().put(
+						((DataBufferInt) dataBuffer).getData(b),
+						bankOffset,
+						size);
+				buf.position(buf.position() + (size * 4));
+			}
+			else if (dataBuffer instanceof DataBufferFloat) {
+				buf.asFloatBuffer().put(
+						((DataBufferFloat) dataBuffer).getData(b),
+						bankOffset,
+						size);
+				buf.position(buf.position() + (size * 4));
+			}
+			else if (dataBuffer instanceof DataBufferDouble) {
+				buf.asDoubleBuffer().put(
+						((DataBufferDouble) dataBuffer).getData(b),
+						bankOffset,
+						size);
+				buf.position(buf.position() + (size * 8));
+			}
+			else {
+				for (int i = 0; i < size; i++) {
+					switch (dataBuffer.getDataType()) {
+						case DataBuffer.TYPE_BYTE:
+							buf.put((byte) dataBuffer.getElem(
+									b,
+									i));
+							break;
+						case DataBuffer.TYPE_SHORT:
+						case DataBuffer.TYPE_USHORT:
+							buf.putShort((short) dataBuffer.getElem(
+									b,
+									i));
+							break;
+						case DataBuffer.TYPE_INT:
+							buf.putInt(dataBuffer.getElem(
+									b,
+									i));
+							break;
+						case DataBuffer.TYPE_FLOAT:
+							buf.putFloat(dataBuffer.getElemFloat(
+									b,
+									i));
+							break;
+						case DataBuffer.TYPE_DOUBLE:
+							buf.putDouble(dataBuffer.getElemDouble(
+									b,
+									i));
+							break;
+					}
+				}
+			}
+		}
+	}
+
+	private static DataBuffer readSamples(
+			final int dataType,
+			final int numBanks,
+			final int size,
+			final byte[] samples,
+			final int samplesOffset ) {
+		if (dataType == DataBuffer.TYPE_BYTE) {
+			// every bank shares the sample array at its own offset
+			final byte[][] bankData = new byte[numBanks][];
+			final int[] offsets = new int[numBanks];
+			for (int b = 0; b < numBanks; b++) {
+				bankData[b] = samples;
+				offsets[b] = samplesOffset + (b * size);
+			}
+			return new DataBufferByte(
+					bankData,
+					size,
+					offsets);
+		}
+		final ByteBuffer buf = ByteBuffer.wrap(samples);
+		buf.position(samplesOffset);
+		switch (dataType) {
+			case DataBuffer.TYPE_SHORT: {
+				final short[][] bankData = new short[numBanks][size];
+				for (int b = 0; b < numBanks; b++) {
+					buf.asShortBuffer().get(
+							bankData[b]);
+					buf.position(buf.position() + (size * 2));
+				}
+				return new DataBufferShort(
+						bankData,
+						size);
+			}
+			case DataBuffer.TYPE_USHORT: {
+				final short[][] bankData = new short[numBanks][size];
+				for (int b = 0; b < numBanks; b++) {
+					buf.asShortBuffer().get(
+							bankData[b]);
+					buf.position(buf.position() + (size * 2));
+				}
+				return new DataBufferUShort(
+						bankData,
+						size);
+			}
+			case DataBuffer.TYPE_INT: {
+				final int[][] bankData = new int[numBanks][size];
+				for (int b = 0; b < numBanks; b++) {
+					buf.asIntBuffer().get(
+							bankData[b]);
+					buf.position(buf.position() + (size * 4));
+				}
+				return new DataBufferInt(
+						bankData,
+						size);
+			}
+			case DataBuffer.TYPE_FLOAT: {
+				final float[][] bankData = new float[numBanks][size];
+				for (int b = 0; b < numBanks; b++) {
+					buf.asFloatBuffer().get(
+							bankData[b]);
+					buf.position(buf.position() + (size * 4));
+				}
+				return new DataBufferFloat(
+						bankData,
+						size);
+			}
+			case DataBuffer.TYPE_DOUBLE:
+			default: {
+				final double[][] bankData = new double[numBanks][size];
+				for (int b = 0; b < numBanks; b++) {
+					buf.asDoubleBuffer().get(
+							bankData[b]);
+					buf.position(buf.position() + (size * 8));
+				}
+				return new DataBufferDouble(
+						bankData,
+						size);
+			}
+		}
+	}
+
+	/**
+	 * @return the deflated encoding or null if deflating the samples does not
+	 *         make the encoding smaller
+	 */
+	private static byte[] deflate(
+			final byte[] uncompressed,
+			final int payloadLength ) {
+		final Deflater deflater = new Deflater(
+				Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(
+					uncompressed,
+					HEADER_LENGTH,
+					payloadLength);
+			deflater.finish();
+			// there is no point in a compressed encoding that is any larger
+			final byte[] compressed = new byte[uncompressed.length];
+			System.arraycopy(
+					uncompressed,
+					0,
+					compressed,
+					0,
+					HEADER_LENGTH);
+			compressed[MAGIC.length + 2] = COMPRESSION_DEFLATE;
+			int length = HEADER_LENGTH;
+			while (!deflater.finished() && (length < compressed.length)) {
+				length += deflater.deflate(
+						compressed,
+						length,
+						compressed.length - length);
+			}
+			if (!deflater.finished()) {
+				return null;
+			}
+			return Arrays.copyOf(
+					compressed,
+					length);
+		}
+		finally {
+			deflater.end();
+		}
+	}
+
+	private static byte[] inflate(
+			final byte[] binary,
+			final int offset,
+			final int length,
+			final int payloadLength )
+			throws IOException {
+		final Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(
+					binary,
+					offset,
+					length);
+			final byte[] samples = new byte[payloadLength];
+			int inflated = 0;
+			while (inflated < payloadLength) {
+				final int count = inflater.inflate(
+						samples,
+						inflated,
+						payloadLength - inflated);
+				if ((count == 0) && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IOException(
+							"Compressed data buffer is truncated");
+				}
+				inflated += count;
+			}
+			return samples;
+		}
+		catch (final DataFormatException e) {
+			throw new IOException(
+					"Unable to inflate data buffer",
+					e);
+		}
+		finally {
+			inflater.end();
+		}
+	}
+
+	private static byte[] toLegacyBinary(
+			final DataBuffer dataBuffer ) {
+		final SerializableState serializableDataBuffer = SerializerFactory.getState(dataBuffer);
+		try {
+			final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			final ObjectOutputStream oos = new ObjectOutputStream(
+					baos);
+			oos.writeObject(serializableDataBuffer);
+			return baos.toByteArray();
+		}
+		catch (final IOException e) {
+			LOGGER.warn(
+					"Unable to serialize data buffer",
+					e);
+		}
+		return new byte[] {};
+	}
+
+	private static DataBuffer fromLegacyBinary(
+			final byte[] binary,
+			final int offset,
+			final int length )
+			throws IOException {
+		final ObjectInputStream ois = new ObjectInputStream(
+				new ByteArrayInputStream(
+						binary,
+						offset,
+						length));
+		try {
+			final Object o = ois.readObject();
+			if ((o instanceof SerializableState) && (((SerializableState) o).getObject() instanceof DataBuffer)) {
+				return (DataBuffer) ((SerializableState) o).getObject();
+			}
+		}
+		catch (final ClassNotFoundException e) {
+			throw new IOException(
+					"Unable to deserialize data buffer",
+					e);
+		}
+		return null;
+	}
+}
@@ -76,14 +76,7 @@ public class GridCoverageWritable implements
 		final int bufferSize = input.readInt();
 		final byte[] buffer = new byte[bufferSize];
 		input.readFully(buffer);
-		try {
-			dataBuffer = RasterTile.getDataBuffer(buffer);
-		}
-		catch (final ClassNotFoundException e) {
-			throw new IOException(
-					"Unable to read raster data buffer",
-					e);
-		}
+		dataBuffer = RasterTile.getDataBuffer(buffer);
 		minX = input.readDouble();
 		maxX = input.readDouble();
 		minY = input.readDouble();
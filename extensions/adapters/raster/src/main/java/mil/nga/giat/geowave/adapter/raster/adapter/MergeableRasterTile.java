@@ -12,15 +12,31 @@ public class MergeableRasterTile<T extends Persistable> extends
 {
 	private final RootMergeStrategy<T> mergeStrategy;
 	private final ByteArrayId dataAdapterId;
+	private boolean detached = false;
 
 	public MergeableRasterTile(
 			final DataBuffer dataBuffer,
 			final T metadata,
 			final RootMergeStrategy<T> mergeStrategy,
 			final ByteArrayId dataAdapterId ) {
+		this(
+				dataBuffer,
+				metadata,
+				mergeStrategy,
+				dataAdapterId,
+				false);
+	}
+
+	public MergeableRasterTile(
+			final DataBuffer dataBuffer,
+			final T metadata,
+			final RootMergeStrategy<T> mergeStrategy,
+			final ByteArrayId dataAdapterId,
+			final boolean compressed ) {
 		super(
 				dataBuffer,
-				metadata);
+				metadata,
+				compressed);
 		this.mergeStrategy = mergeStrategy;
 		this.dataAdapterId = dataAdapterId;
 	}
@@ -33,6 +49,12 @@ public class MergeableRasterTile<T extends Persistable> extends
 	public void merge(
 			final Mergeable merge ) {
 		if ((mergeStrategy != null) && (merge != null) && (merge instanceof RasterTile)) {
+			if (!detached) {
+				// the merge is written into this tile's samples, which may
+				// still be backed by the binary the tile was read from
+				setDataBuffer(DataBufferCodec.detach(getDataBuffer()));
+				detached = true;
+			}
 			mergeStrategy.merge(
 					this,
 					(RasterTile<T>) merge,
@@ -153,6 +153,7 @@ public class RasterDataAdapter implements
 			"image");
 	public final static int DEFAULT_TILE_SIZE = 256;
 	public final static boolean DEFAULT_BUILD_PYRAMID = false;
+	public final static boolean DEFAULT_COMPRESS_TILES = false;
 	private static Operations resampleOperations;
 
 	/**
@@ -180,6 +181,7 @@ public class RasterDataAdapter implements
 	private RootMergeStrategy<?> mergeStrategy;
 	private boolean equalizeHistogram;
 	private Interpolation interpolation;
+	private boolean compressTiles = DEFAULT_COMPRESS_TILES;
 
 	protected RasterDataAdapter() {}
 
@@ -211,6 +213,23 @@ public class RasterDataAdapter implements
 				new NoDataMergeStrategy());
 	}
 
+	public RasterDataAdapter(
+			final String coverageName,
+			final Map<String, String> metadata,
+			final GridCoverage2D originalGridCoverage,
+			final int tileSize,
+			final boolean buildPyramid,
+			final boolean compressTiles ) {
+		this(
+				coverageName,
+				metadata,
+				originalGridCoverage,
+				tileSize,
+				buildPyramid,
+				new NoDataMergeStrategy());
+		this.compressTiles = compressTiles;
+	}
+
 	public RasterDataAdapter(
 			final String coverageName,
 			final Map<String, String> metadata,
@@ -285,6 +304,7 @@ public class RasterDataAdapter implements
 				interpolationToByte(adapter.interpolation),
 				adapter.buildPyramid,
 				mergeStrategy);
+		compressTiles = adapter.compressTiles;
 	}
 
 	public RasterDataAdapter(
@@ -307,6 +327,7 @@ public class RasterDataAdapter implements
 				interpolationToByte(adapter.interpolation),
 				adapter.buildPyramid,
 				mergeStrategy);
+		compressTiles = adapter.compressTiles;
 	}
 
 	public RasterDataAdapter(
@@ -1076,7 +1097,8 @@ public class RasterDataAdapter implements
 						entry,
 						this),
 				mergeStrategy,
-				getAdapterId());
+				getAdapterId(),
+				compressTiles);
 	}
 
 	@Override
@@ -1217,7 +1239,7 @@ public class RasterDataAdapter implements
 		else {
 			mergeStrategyBinary = new byte[] {};
 		}
-		final ByteBuffer buf = ByteBuffer.allocate(coverageNameBytes.length + sampleModelBinary.length + colorModelBinary.length + metadataBinaryLength + histogramConfigBinary.length + noDataBinary.length + minsBinary.length + maxesBinary.length + namesBinary.length + backgroundBinary.length + mergeStrategyBinary.length + 47);
+		final ByteBuffer buf = ByteBuffer.allocate(coverageNameBytes.length + sampleModelBinary.length + colorModelBinary.length + metadataBinaryLength + histogramConfigBinary.length + noDataBinary.length + minsBinary.length + maxesBinary.length + namesBinary.length + backgroundBinary.length + mergeStrategyBinary.length + 48);
 		buf.putInt(tileSize);
 		buf.putInt(coverageNameBytes.length);
 		buf.put(coverageNameBytes);
@@ -1247,6 +1269,7 @@ public class RasterDataAdapter implements
 		buf.put(buildPyramid ? (byte) 1 : (byte) 0);
 		buf.put(equalizeHistogram ? (byte) 1 : (byte) 0);
 		buf.put(interpolationToByte(interpolation));
+		buf.put(compressTiles ? (byte) 1 : (byte) 0);
 		return buf.array();
 	}
 
@@ -1486,6 +1509,8 @@ public class RasterDataAdapter implements
 		buildPyramid = (buf.get() != 0);
 		equalizeHistogram = (buf.get() != 0);
 		interpolation = Interpolation.getInstance(buf.get());
+		// adapters persisted before tile compression was an option end here
+		compressTiles = buf.hasRemaining() && (buf.get() != 0);
 		init();
 	}
 
@@ -1808,6 +1833,10 @@ public class RasterDataAdapter implements
 		};
 	}
 
+	public boolean isCompressTiles() {
+		return compressTiles;
+	}
+
 	public boolean isEqualizeHistogram() {
 		return equalizeHistogram;
 	}
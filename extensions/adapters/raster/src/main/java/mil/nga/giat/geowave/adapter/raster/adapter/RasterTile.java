@@ -1,16 +1,9 @@
 package mil.nga.giat.geowave.adapter.raster.adapter;
 
 import java.awt.image.DataBuffer;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.nio.ByteBuffer;
 
-import javax.media.jai.remote.SerializableState;
-import javax.media.jai.remote.SerializerFactory;
-
 import mil.nga.giat.geowave.core.index.Mergeable;
 import mil.nga.giat.geowave.core.index.Persistable;
 import mil.nga.giat.geowave.core.index.PersistenceUtils;
@@ -23,6 +16,7 @@ public class RasterTile<T extends Persistable> implements
 	private final static Logger LOGGER = Logger.getLogger(RasterTile.class);
 	private DataBuffer dataBuffer;
 	private T metadata;
+	private boolean compressed;
 
 	protected RasterTile() {
 		super();
@@ -31,8 +25,27 @@ public class RasterTile<T extends Persistable> implements
 	public RasterTile(
 			final DataBuffer dataBuffer,
 			final T metadata ) {
+		this(
+				dataBuffer,
+				metadata,
+				false);
+	}
+
+	/**
+	 * @param dataBuffer
+	 *            the samples of the tile
+	 * @param metadata
+	 *            the metadata of the tile, may be null
+	 * @param compressed
+	 *            whether to compress the samples when the tile is persisted
+	 */
+	public RasterTile(
+			final DataBuffer dataBuffer,
+			final T metadata,
+			final boolean compressed ) {
 		this.dataBuffer = dataBuffer;
 		this.metadata = metadata;
+		this.compressed = compressed;
 	}
 
 	public DataBuffer getDataBuffer() {
@@ -43,42 +56,31 @@ public class RasterTile<T extends Persistable> implements
 		return metadata;
 	}
 
+	public boolean isCompressed() {
+		return compressed;
+	}
+
 	protected static byte[] getDataBufferBinary(
 			final DataBuffer dataBuffer ) {
-		final SerializableState serializableDataBuffer = SerializerFactory.getState(dataBuffer);
-		try {
-			final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			final ObjectOutputStream oos = new ObjectOutputStream(
-					baos);
-			oos.writeObject(serializableDataBuffer);
-			return baos.toByteArray();
-		}
-		catch (final IOException e) {
-			LOGGER.warn(
-					"Unable to serialize data buffer",
-					e);
-		}
-		return new byte[] {};
+		return DataBufferCodec.toBinary(
+				dataBuffer,
+				false);
 	}
 
 	protected static DataBuffer getDataBuffer(
 			final byte[] binary )
-			throws IOException,
-			ClassNotFoundException {
-		final ByteArrayInputStream bais = new ByteArrayInputStream(
-				binary);
-		final ObjectInputStream ois = new ObjectInputStream(
-				bais);
-		final Object o = ois.readObject();
-		if ((o instanceof SerializableState) && (((SerializableState) o).getObject() instanceof DataBuffer)) {
-			return (DataBuffer) ((SerializableState) o).getObject();
-		}
-		return null;
+			throws IOException {
+		return DataBufferCodec.fromBinary(
+				binary,
+				0,
+				binary.length);
 	}
 
 	@Override
 	public byte[] toBinary() {
-		final byte[] dataBufferBinary = getDataBufferBinary(dataBuffer);
+		final byte[] dataBufferBinary = DataBufferCodec.toBinary(
+				dataBuffer,
+				compressed);
 		byte[] metadataBytes;
 		if (metadata != null) {
 			metadataBytes = PersistenceUtils.toBinary(metadata);
@@ -106,9 +108,18 @@ public class RasterTile<T extends Persistable> implements
 						metadataBytes,
 						Persistable.class);
 			}
-			final byte[] dataBufferBytes = new byte[bytes.length - metadataLength - 4];
-			buf.get(dataBufferBytes);
-			dataBuffer = getDataBuffer(dataBufferBytes);
+			// the samples are decoded in place, without copying them out of the
+			// tile's binary first
+			final int dataBufferOffset = metadataLength + 4;
+			final int dataBufferLength = bytes.length - dataBufferOffset;
+			compressed = DataBufferCodec.isCompressed(
+					bytes,
+					dataBufferOffset,
+					dataBufferLength);
+			dataBuffer = DataBufferCodec.fromBinary(
+					bytes,
+					dataBufferOffset,
+					dataBufferLength);
 		}
 		catch (final Exception e) {
 			LOGGER.warn(
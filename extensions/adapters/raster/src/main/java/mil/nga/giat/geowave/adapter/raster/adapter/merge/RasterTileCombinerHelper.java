@@ -32,7 +32,8 @@ public class RasterTileCombinerHelper<T extends Persistable>
 					rasterTile.getMetadata(),
 					mergeStrategy,
 					new ByteArrayId(
-							key.getColumnFamily().getBytes()));
+							key.getColumnFamily().getBytes()),
+					rasterTile.isCompressed());
 		}
 		return mergeable;
 	}
@@ -0,0 +1,156 @@
+package mil.nga.giat.geowave.adapter.raster.adapter;
+
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferFloat;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.media.jai.remote.SerializableState;
+import javax.media.jai.remote.SerializerFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures encoding (as on ingest) and decoding (as on read) of a 256x256 tile
+ * with the raw sample codec, with and without compression, against the
+ * previous JAI serializable state and Java serialization. Run the main method
+ * from the test classpath; the encoded sizes are printed on setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DataBufferCodecBenchmark
+{
+	private static final int TILE_SIZE = 256;
+
+	@Param({
+		"byte",
+		"float"
+	})
+	private String type;
+	private DataBuffer dataBuffer;
+	private byte[] legacyBinary;
+	private byte[] binary;
+	private byte[] compressedBinary;
+
+	@Setup
+	public void setup()
+			throws IOException {
+		final Random random = new Random(
+				1);
+		final int size = TILE_SIZE * TILE_SIZE;
+		if ("byte".equals(type)) {
+			// three band imagery
+			dataBuffer = new DataBufferByte(
+					size,
+					3);
+		}
+		else {
+			// a single band elevation model
+			dataBuffer = new DataBufferFloat(
+					size,
+					1);
+		}
+		for (int b = 0; b < dataBuffer.getNumBanks(); b++) {
+			double value = 100;
+			for (int i = 0; i < size; i++) {
+				// smoothly varying values, as in most coverages
+				value = Math.max(
+						0,
+						Math.min(
+								255,
+								value + random.nextGaussian()));
+				dataBuffer.setElemDouble(
+						b,
+						i,
+						value);
+			}
+		}
+		legacyBinary = legacyEncode();
+		binary = encode();
+		compressedBinary = encodeCompressed();
+		System.out.println(type + " tile: " + legacyBinary.length + " bytes serialized, " + binary.length + " bytes raw, " + compressedBinary.length + " bytes compressed");
+	}
+
+	@Benchmark
+	public byte[] legacyEncode()
+			throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final ObjectOutputStream oos = new ObjectOutputStream(
+				baos);
+		oos.writeObject(SerializerFactory.getState(dataBuffer));
+		oos.close();
+		return baos.toByteArray();
+	}
+
+	@Benchmark
+	public byte[] encode() {
+		return DataBufferCodec.toBinary(
+				dataBuffer,
+				false);
+	}
+
+	@Benchmark
+	public byte[] encodeCompressed() {
+		return DataBufferCodec.toBinary(
+				dataBuffer,
+				true);
+	}
+
+	@Benchmark
+	public Object legacyDecode()
+			throws Exception {
+		final ObjectInputStream ois = new ObjectInputStream(
+				new ByteArrayInputStream(
+						legacyBinary));
+		return ((SerializableState) ois.readObject()).getObject();
+	}
+
+	@Benchmark
+	public DataBuffer decode()
+			throws IOException {
+		return DataBufferCodec.fromBinary(
+				binary,
+				0,
+				binary.length);
+	}
+
+	@Benchmark
+	public DataBuffer decodeCompressed()
+			throws IOException {
+		return DataBufferCodec.fromBinary(
+				compressedBinary,
+				0,
+				compressedBinary.length);
+	}
+
+	public static void main(
+			final String[] args )
+			throws RunnerException {
+		new Runner(
+				new OptionsBuilder().include(
+						DataBufferCodecBenchmark.class.getSimpleName()).build()).run();
+	}
+}
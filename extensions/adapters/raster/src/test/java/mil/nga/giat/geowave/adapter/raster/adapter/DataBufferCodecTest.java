@@ -0,0 +1,230 @@
+package mil.nga.giat.geowave.adapter.raster.adapter;
+
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferDouble;
+import java.awt.image.DataBufferFloat;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferShort;
+import java.awt.image.DataBufferUShort;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+import javax.media.jai.remote.SerializerFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DataBufferCodecTest
+{
+	private static final int SIZE = 64 * 64;
+	private static final int NUM_BANKS = 3;
+
+	@Test
+	public void testRoundTripEveryType()
+			throws IOException {
+		final DataBuffer[] dataBuffers = new DataBuffer[] {
+			new DataBufferByte(
+					SIZE,
+					NUM_BANKS),
+			new DataBufferShort(
+					SIZE,
+					NUM_BANKS),
+			new DataBufferUShort(
+					SIZE,
+					NUM_BANKS),
+			new DataBufferInt(
+					SIZE,
+					NUM_BANKS),
+			new DataBufferFloat(
+					SIZE,
+					NUM_BANKS),
+			new DataBufferDouble(
+					SIZE,
+					NUM_BANKS)
+		};
+		for (final DataBuffer dataBuffer : dataBuffers) {
+			fill(dataBuffer);
+			for (final boolean compress : new boolean[] {
+				false,
+				true
+			}) {
+				final byte[] binary = DataBufferCodec.toBinary(
+						dataBuffer,
+						compress);
+				assertSamplesEqual(
+						dataBuffer,
+						DataBufferCodec.fromBinary(
+								binary,
+								0,
+								binary.length));
+			}
+		}
+	}
+
+	@Test
+	public void testCompression()
+			throws IOException {
+		// a mostly empty tile, as at the edge of a coverage
+		final DataBufferFloat dataBuffer = new DataBufferFloat(
+				SIZE,
+				1);
+		dataBuffer.setElemFloat(
+				10,
+				1.5f);
+		final byte[] uncompressed = DataBufferCodec.toBinary(
+				dataBuffer,
+				false);
+		final byte[] compressed = DataBufferCodec.toBinary(
+				dataBuffer,
+				true);
+		Assert.assertFalse(DataBufferCodec.isCompressed(
+				uncompressed,
+				0,
+				uncompressed.length));
+		Assert.assertTrue(DataBufferCodec.isCompressed(
+				compressed,
+				0,
+				compressed.length));
+		Assert.assertTrue(compressed.length < (uncompressed.length / 10));
+		assertSamplesEqual(
+				dataBuffer,
+				DataBufferCodec.fromBinary(
+						compressed,
+						0,
+						compressed.length));
+	}
+
+	@Test
+	public void testSubsetOfBanksAndOffset()
+			throws IOException {
+		// a buffer that only uses part of its bank arrays
+		final byte[][] bankData = new byte[NUM_BANKS][SIZE + 5];
+		for (int b = 0; b < NUM_BANKS; b++) {
+			for (int i = 0; i < bankData[b].length; i++) {
+				bankData[b][i] = (byte) ((i * 7) + b);
+			}
+		}
+		final DataBufferByte dataBuffer = new DataBufferByte(
+				bankData,
+				SIZE,
+				new int[] {
+					5,
+					3,
+					0
+				});
+		final byte[] binary = DataBufferCodec.toBinary(
+				dataBuffer,
+				false);
+		// the encoding can be read from within a larger array
+		final byte[] larger = new byte[binary.length + 20];
+		System.arraycopy(
+				binary,
+				0,
+				larger,
+				11,
+				binary.length);
+		final DataBuffer decoded = DataBufferCodec.fromBinary(
+				larger,
+				11,
+				binary.length);
+		assertSamplesEqual(
+				dataBuffer,
+				decoded);
+		// byte samples are not copied out of the encoding
+		Assert.assertSame(
+				larger,
+				((DataBufferByte) decoded).getData(0));
+
+		final DataBuffer detached = DataBufferCodec.detach(decoded);
+		Assert.assertNotSame(
+				larger,
+				((DataBufferByte) detached).getData(0));
+		assertSamplesEqual(
+				dataBuffer,
+				detached);
+		Assert.assertSame(
+				detached,
+				DataBufferCodec.detach(detached));
+	}
+
+	@Test
+	public void testLegacySerialization()
+			throws IOException {
+		final DataBufferUShort dataBuffer = new DataBufferUShort(
+				SIZE,
+				NUM_BANKS);
+		fill(dataBuffer);
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final ObjectOutputStream oos = new ObjectOutputStream(
+				baos);
+		oos.writeObject(SerializerFactory.getState(dataBuffer));
+		oos.close();
+		final byte[] legacyBinary = baos.toByteArray();
+		assertSamplesEqual(
+				dataBuffer,
+				DataBufferCodec.fromBinary(
+						legacyBinary,
+						0,
+						legacyBinary.length));
+		Assert.assertTrue(DataBufferCodec.toBinary(
+				dataBuffer,
+				false).length < legacyBinary.length);
+	}
+
+	@Test
+	public void testRasterTile() {
+		final DataBufferByte dataBuffer = new DataBufferByte(
+				SIZE,
+				NUM_BANKS);
+		fill(dataBuffer);
+		final RasterTile<?> tile = new RasterTile(
+				dataBuffer,
+				null,
+				true);
+		final RasterTile<?> decodedTile = new RasterTileReader().readField(new RasterTileWriter().writeField(tile));
+		Assert.assertTrue(decodedTile.isCompressed());
+		assertSamplesEqual(
+				dataBuffer,
+				decodedTile.getDataBuffer());
+	}
+
+	private static void fill(
+			final DataBuffer dataBuffer ) {
+		for (int b = 0; b < dataBuffer.getNumBanks(); b++) {
+			for (int i = 0; i < dataBuffer.getSize(); i++) {
+				dataBuffer.setElemDouble(
+						b,
+						i,
+						((i % 251) * 0.5) + b);
+			}
+		}
+	}
+
+	private static void assertSamplesEqual(
+			final DataBuffer expected,
+			final DataBuffer actual ) {
+		Assert.assertEquals(
+				expected.getDataType(),
+				actual.getDataType());
+		Assert.assertEquals(
+				expected.getNumBanks(),
+				actual.getNumBanks());
+		Assert.assertEquals(
+				expected.getSize(),
+				actual.getSize());
+		for (int b = 0; b < expected.getNumBanks(); b++) {
+			for (int i = 0; i < expected.getSize(); i++) {
+				Assert.assertEquals(
+						expected.getElemDouble(
+								b,
+								i),
+						actual.getElemDouble(
+								b,
+								i),
+						0);
+			}
+		}
+	}
+}
@@ -11,6 +11,8 @@ import mil.nga.giat.geowave.adapter.vector.plugin.visibility.JsonDefinitionColum
 import mil.nga.giat.geowave.adapter.vector.stats.StatsConfigurationCollection.SimpleFeatureStatsConfigurationCollection;
 import mil.nga.giat.geowave.adapter.vector.stats.StatsManager;
 import mil.nga.giat.geowave.adapter.vector.util.FeatureDataUtils;
+import mil.nga.giat.geowave.adapter.vector.utils.GeometryPrecisionConfiguration;
+import mil.nga.giat.geowave.adapter.vector.utils.GeometrySimplificationConfiguration;
 import mil.nga.giat.geowave.adapter.vector.utils.SimpleFeatureUserDataConfigurationSet;
 import mil.nga.giat.geowave.adapter.vector.utils.TimeDescriptors;
 import mil.nga.giat.geowave.adapter.vector.utils.TimeDescriptors.TimeDescriptorConfiguration;
@@ -89,6 +91,17 @@ import org.opengis.referencing.operation.MathTransform;
  * constraints cannot be changed, as they are critical components to the
  * efficiency of query processing.
  * 
+ * If the default geometry has a UserData property 'precision' set to a number
+ * of decimal digits, the geometry is stored with that precision using the
+ * {@link mil.nga.giat.geowave.core.geotime.CompactGeometryEncoding} rather
+ * than as well-known binary.
+ * 
+ * If the default geometry has a UserData property 'simplification' set to a
+ * list of tolerances in degrees, a simplified copy of the geometry is stored
+ * for each tolerance, see {@link FeatureGeometryLevels}. Renders at a coarse
+ * resolution read the coarsest simplified geometry that is accurate to the
+ * resolution in place of the full geometry.
+ * 
  */
 @SuppressWarnings("unchecked")
 public class FeatureDataAdapter extends
@@ -111,6 +124,7 @@ public class FeatureDataAdapter extends
 	private String visibilityAttributeName = "GEOWAVE_VISIBILITY";
 	private VisibilityManagement<SimpleFeature> fieldVisibilityManagement;
 	private TimeDescriptors timeDescriptors = null;
+	private FeatureGeometryLevels geometryLevels = null;
 
 	// should change this anytime the serialized image changes. Stay negative.
 	// so 0xa0, 0xa1, 0xa2 etc.
@@ -200,6 +214,16 @@ public class FeatureDataAdapter extends
 				persistedType,
 				reprojectedType,
 				transform);
+		final double[] tolerances = GeometrySimplificationConfiguration.getTolerances(persistedType);
+		if ((tolerances != null) && (reprojectedType.getGeometryDescriptor() != null)) {
+			geometryLevels = new FeatureGeometryLevels(
+					reprojectedType.getGeometryDescriptor().getLocalName(),
+					tolerances,
+					GeometryPrecisionConfiguration.getPrecision(persistedType));
+		}
+		else {
+			geometryLevels = null;
+		}
 	}
 
 	private static List<NativeFieldHandler<SimpleFeature, Object>> typeToFieldHandlers(
@@ -259,11 +283,16 @@ public class FeatureDataAdapter extends
 				defaultHandlers.add(timeHandler);
 			}
 
+			Integer precision = GeometryPrecisionConfiguration.getPrecision(internalType);
+			if ((precision == null) && (persistedType != null)) {
+				precision = GeometryPrecisionConfiguration.getPrecision(persistedType);
+			}
 			defaultHandlers.add(new FeatureGeometryHandler(
 					internalType.getGeometryDescriptor(),
 					new AdaptorProxyFieldLevelVisibilityHandler(
 							internalType.getGeometryDescriptor().getLocalName(),
-							this)));
+							this),
+					precision));
 			return defaultHandlers;
 		}
 		LOGGER.warn("Simple Feature Type could not be used for handling the indexed data");
@@ -282,6 +311,11 @@ public class FeatureDataAdapter extends
 	@Override
 	public FieldReader<Object> getReader(
 			final ByteArrayId fieldId ) {
+		if (FeatureGeometryLevels.isLevelField(fieldId)) {
+			// simplified geometries are only read in place of the full
+			// geometry, otherwise they are skipped without decoding them
+			return (FieldReader<Object>) (FieldReader<?>) FieldUtils.getDefaultReaderForClass(byte[].class);
+		}
 		final AttributeDescriptor descriptor = reprojectedType.getDescriptor(StringUtils.stringFromBinary(fieldId.getBytes()));
 		final Class<?> bindingClass = descriptor.getType().getBinding();
 		return (FieldReader<Object>) FieldUtils.getDefaultReaderForClass(bindingClass);
@@ -291,6 +325,11 @@ public class FeatureDataAdapter extends
 	@Override
 	public FieldWriter<SimpleFeature, Object> getWriter(
 			final ByteArrayId fieldId ) {
+		if ((geometryLevels != null) && FeatureGeometryLevels.isLevelField(fieldId)) {
+			return geometryLevels.createWriter(new AdaptorProxyFieldLevelVisibilityHandler(
+					reprojectedType.getGeometryDescriptor().getLocalName(),
+					this));
+		}
 
 		final AttributeDescriptor descriptor = reprojectedType.getDescriptor(StringUtils.stringFromBinary(fieldId.getBytes()));
 
@@ -331,6 +370,10 @@ public class FeatureDataAdapter extends
 				persistedType));
 		userDataConfiguration.addConfigurations(new SimpleFeatureStatsConfigurationCollection(
 				persistedType));
+		userDataConfiguration.addConfigurations(new GeometryPrecisionConfiguration(
+				persistedType));
+		userDataConfiguration.addConfigurations(new GeometrySimplificationConfiguration(
+				persistedType));
 		try {
 			attrBytes = StringUtils.stringToBinary(userDataConfiguration.asJsonString());
 		}
@@ -428,6 +471,10 @@ public class FeatureDataAdapter extends
 					myType));
 			userDataConfiguration.addConfigurations(new SimpleFeatureStatsConfigurationCollection(
 					myType));
+			userDataConfiguration.addConfigurations(new GeometryPrecisionConfiguration(
+					myType));
+			userDataConfiguration.addConfigurations(new GeometrySimplificationConfiguration(
+					myType));
 			try {
 				userDataConfiguration.fromJsonString(
 						StringUtils.stringFromBinary(attrBytes),
@@ -489,18 +536,32 @@ public class FeatureDataAdapter extends
 		return reprojectedType;
 	}
 
+	/**
+	 * @return the simplified geometries stored for each feature, or null if
+	 *         only the full geometry is stored
+	 */
+	public FeatureGeometryLevels getGeometryLevels() {
+		return geometryLevels;
+	}
+
 	@Override
 	public AdapterPersistenceEncoding encode(
 			final SimpleFeature entry,
 			final CommonIndexModel indexModel ) {
-
-		return super.encode(
-				FeatureDataUtils.defaultCRSTransform(
-						entry,
-						persistedType,
-						reprojectedType,
-						transform),
+		final SimpleFeature reprojectedEntry = FeatureDataUtils.defaultCRSTransform(
+				entry,
+				persistedType,
+				reprojectedType,
+				transform);
+		final AdapterPersistenceEncoding encoding = super.encode(
+				reprojectedEntry,
 				indexModel);
+		if (geometryLevels != null) {
+			geometryLevels.addLevels(
+					reprojectedEntry,
+					encoding.getAdapterExtendedData());
+		}
+		return encoding;
 	}
 
 	@Override
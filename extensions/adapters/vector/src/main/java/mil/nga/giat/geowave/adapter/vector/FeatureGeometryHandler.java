@@ -21,6 +21,7 @@ public class FeatureGeometryHandler implements
 {
 	private final FeatureAttributeHandler nativeGeometryHandler;
 	private final FieldVisibilityHandler<SimpleFeature, Object> visibilityHandler;
+	private final Integer precision;
 
 	public FeatureGeometryHandler(
 			final AttributeDescriptor geometryAttrDesc ) {
@@ -32,9 +33,26 @@ public class FeatureGeometryHandler implements
 	public FeatureGeometryHandler(
 			final AttributeDescriptor geometryAttrDesc,
 			final FieldVisibilityHandler<SimpleFeature, Object> visibilityHandler ) {
+		this(
+				geometryAttrDesc,
+				visibilityHandler,
+				null);
+	}
+
+	/**
+	 * @param precision
+	 *            the number of decimal digits of each ordinate to store using
+	 *            the compact geometry encoding, or null to store well-known
+	 *            binary
+	 */
+	public FeatureGeometryHandler(
+			final AttributeDescriptor geometryAttrDesc,
+			final FieldVisibilityHandler<SimpleFeature, Object> visibilityHandler,
+			final Integer precision ) {
 		nativeGeometryHandler = new FeatureAttributeHandler(
 				geometryAttrDesc);
 		this.visibilityHandler = visibilityHandler;
+		this.precision = precision;
 	}
 
 	@Override
@@ -60,7 +78,8 @@ public class FeatureGeometryHandler implements
 		}
 		return new GeometryWrapper(
 				geometry,
-				visibility);
+				visibility,
+				precision);
 	}
 
 	@SuppressWarnings("unchecked")
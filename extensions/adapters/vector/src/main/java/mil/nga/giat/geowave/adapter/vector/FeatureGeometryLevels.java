@@ -0,0 +1,185 @@
+package mil.nga.giat.geowave.adapter.vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mil.nga.giat.geowave.core.geotime.GeometryUtils;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.StringUtils;
+import mil.nga.giat.geowave.core.store.data.PersistentDataset;
+import mil.nga.giat.geowave.core.store.data.PersistentValue;
+import mil.nga.giat.geowave.core.store.data.field.FieldVisibilityHandler;
+import mil.nga.giat.geowave.core.store.data.field.FieldWriter;
+
+import org.opengis.feature.simple.SimpleFeature;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Polygonal;
+import com.vividsolutions.jts.geom.Puntal;
+import com.vividsolutions.jts.simplify.DouglasPeuckerSimplifier;
+import com.vividsolutions.jts.simplify.TopologyPreservingSimplifier;
+
+/**
+ * Simplified copies of the default geometry of features, stored as additional
+ * fields alongside the full geometry at several resolution levels. A query
+ * rendering at a coarse resolution can read the coarsest simplified geometry
+ * that is still accurate to the resolution rather than the full geometry.
+ * 
+ * Each level simplifies the full geometry with its tolerance, in the units of
+ * the advertised coordinate reference system. A level is only stored for a
+ * feature when it has fewer vertices than the next finer level, so features
+ * which are already coarse, such as points, are stored as before.
+ */
+public class FeatureGeometryLevels
+{
+	private static final String LEVEL_FIELD_PREFIX = "GEOWAVE_GEOMETRY_LEVEL_";
+	private static final byte[] LEVEL_FIELD_PREFIX_BYTES = StringUtils.stringToBinary(LEVEL_FIELD_PREFIX);
+
+	private final String geometryAttributeName;
+	private final double[] tolerances;
+	private final ByteArrayId[] levelFieldIds;
+	private final Integer precision;
+
+	/**
+	 * @param geometryAttributeName
+	 *            the name of the default geometry attribute
+	 * @param tolerances
+	 *            the simplification tolerance of each level, in increasing
+	 *            order
+	 * @param precision
+	 *            the precision with which the geometry is stored, or null to
+	 *            store well-known binary
+	 */
+	public FeatureGeometryLevels(
+			final String geometryAttributeName,
+			final double[] tolerances,
+			final Integer precision ) {
+		this.geometryAttributeName = geometryAttributeName;
+		this.tolerances = tolerances;
+		this.precision = precision;
+		levelFieldIds = new ByteArrayId[tolerances.length];
+		for (int i = 0; i < tolerances.length; i++) {
+			levelFieldIds[i] = new ByteArrayId(
+					LEVEL_FIELD_PREFIX + i);
+		}
+	}
+
+	public static byte[] getLevelFieldPrefix() {
+		return LEVEL_FIELD_PREFIX_BYTES;
+	}
+
+	/**
+	 * @return whether the field holds a simplified geometry rather than an
+	 *         attribute of the feature type
+	 */
+	public static boolean isLevelField(
+			final ByteArrayId fieldId ) {
+		final byte[] bytes = fieldId.getBytes();
+		if (bytes.length < LEVEL_FIELD_PREFIX_BYTES.length) {
+			return false;
+		}
+		for (int i = 0; i < LEVEL_FIELD_PREFIX_BYTES.length; i++) {
+			if (bytes[i] != LEVEL_FIELD_PREFIX_BYTES[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public double[] getTolerances() {
+		return tolerances;
+	}
+
+	/**
+	 * @param resolution
+	 *            the size of a pixel of the render, in the units of the
+	 *            advertised coordinate reference system
+	 * @return the fields of the levels whose simplification is not visible at
+	 *         the resolution, coarsest first
+	 */
+	public List<ByteArrayId> getLevelFieldIds(
+			final double resolution ) {
+		final List<ByteArrayId> fieldIds = new ArrayList<ByteArrayId>();
+		for (int i = tolerances.length - 1; i >= 0; i--) {
+			if (tolerances[i] <= resolution) {
+				fieldIds.add(levelFieldIds[i]);
+			}
+		}
+		return fieldIds;
+	}
+
+	/**
+	 * Adds the simplified geometries of a feature to the fields to store.
+	 * 
+	 * @param feature
+	 *            the feature, in the advertised coordinate reference system
+	 */
+	public void addLevels(
+			final SimpleFeature feature,
+			final PersistentDataset<Object> extendedData ) {
+		final Object value = feature.getAttribute(geometryAttributeName);
+		if (!(value instanceof Geometry) || (value instanceof Puntal)) {
+			return;
+		}
+		final Geometry geometry = (Geometry) value;
+		int numPoints = geometry.getNumPoints();
+		for (int i = 0; i < tolerances.length; i++) {
+			final Geometry simplified = simplify(
+					geometry,
+					tolerances[i]);
+			if ((simplified == null) || simplified.isEmpty() || (simplified.getNumPoints() >= numPoints)) {
+				continue;
+			}
+			numPoints = simplified.getNumPoints();
+			extendedData.addValue(new PersistentValue<Object>(
+					levelFieldIds[i],
+					simplified));
+		}
+	}
+
+	public static Geometry simplify(
+			final Geometry geometry,
+			final double tolerance ) {
+		if (geometry instanceof Polygonal) {
+			// keep rings from collapsing or crossing
+			return TopologyPreservingSimplifier.simplify(
+					geometry,
+					tolerance);
+		}
+		return DouglasPeuckerSimplifier.simplify(
+				geometry,
+				tolerance);
+	}
+
+	/**
+	 * @param visibilityHandler
+	 *            the visibility handler of the default geometry
+	 * @return a writer of the simplified geometries which encodes them as the
+	 *         full geometry is encoded, so that they can be read in its place,
+	 *         and gives them the visibility of the full geometry
+	 */
+	public FieldWriter<SimpleFeature, Object> createWriter(
+			final FieldVisibilityHandler<SimpleFeature, Object> visibilityHandler ) {
+		return new FieldWriter<SimpleFeature, Object>() {
+			@Override
+			public byte[] writeField(
+					final Object fieldValue ) {
+				return GeometryUtils.geometryToBinary(
+						(Geometry) fieldValue,
+						precision);
+			}
+
+			@Override
+			public byte[] getVisibility(
+					final SimpleFeature rowValue,
+					final ByteArrayId fieldId,
+					final Object fieldValue ) {
+				return visibilityHandler.getVisibility(
+						rowValue,
+						new ByteArrayId(
+								geometryAttributeName),
+						rowValue.getAttribute(geometryAttributeName));
+			}
+		};
+	}
+}
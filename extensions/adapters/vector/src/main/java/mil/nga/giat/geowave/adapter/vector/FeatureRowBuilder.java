@@ -36,6 +36,10 @@ public class FeatureRowBuilder implements
 	@Override
 	public void setField(
 			final PersistentValue<Object> fieldValue ) {
+		if (FeatureGeometryLevels.isLevelField(fieldValue.getId())) {
+			// simplified geometries are not attributes of the feature
+			return;
+		}
 		builder.set(
 				StringUtils.stringFromBinary(fieldValue.getId().getBytes()),
 				fieldValue.getValue());
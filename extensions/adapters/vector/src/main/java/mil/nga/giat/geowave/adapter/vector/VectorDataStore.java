@@ -4,6 +4,9 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import mil.nga.giat.geowave.adapter.vector.query.AccumuloCqlConstraintsQuery;
 import mil.nga.giat.geowave.adapter.vector.query.DistributedRenderQuery;
@@ -22,7 +25,11 @@ import mil.nga.giat.geowave.datastore.accumulo.AccumuloDataStore;
 import mil.nga.giat.geowave.datastore.accumulo.AccumuloOperations;
 import mil.nga.giat.geowave.datastore.accumulo.AccumuloOptions;
 import mil.nga.giat.geowave.datastore.accumulo.util.CloseableIteratorWrapper;
+import mil.nga.giat.geowave.datastore.accumulo.util.ParallelScanIterator;
 
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.log4j.Logger;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.filter.Filter;
@@ -40,6 +47,14 @@ import com.google.common.collect.Iterators;
 public class VectorDataStore extends
 		AccumuloDataStore
 {
+	private final static Logger LOGGER = Logger.getLogger(VectorDataStore.class);
+	/**
+	 * How long an index is taken not to hold an adapter before its table is
+	 * checked again, as the adapter may since have been ingested into it
+	 */
+	private static final long ADAPTER_NOT_IN_INDEX_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+	private final Map<String, Long> adapterNotInIndexCache = new ConcurrentHashMap<String, Long>();
 
 	public VectorDataStore(
 			final IndexStore indexStore,
@@ -89,6 +104,74 @@ public class VectorDataStore extends
 		return this.statisticsStore;
 	}
 
+	/**
+	 * Writes of an adapter to an index add a locality group for the adapter to
+	 * the index table, when locality groups are used. The locality groups that
+	 * exist are cached by the operations, and those that do not are cached
+	 * here for a minute so that every query does not read the table
+	 * configuration.
+	 * 
+	 * @return whether entries of the adapter have been written to the index,
+	 *         null if it cannot be determined
+	 */
+	public Boolean isAdapterInIndex(
+			final ByteArrayId adapterId,
+			final Index index ) {
+		if (!accumuloOptions.isUseLocalityGroups()) {
+			return null;
+		}
+		final String cacheKey = index.getId().getString() + "/" + adapterId.getString();
+		final Long checkedTime = adapterNotInIndexCache.get(cacheKey);
+		if (checkedTime != null) {
+			if ((System.currentTimeMillis() - checkedTime) < ADAPTER_NOT_IN_INDEX_TIMEOUT_MILLIS) {
+				return false;
+			}
+			adapterNotInIndexCache.remove(cacheKey);
+		}
+		try {
+			final boolean inIndex = accumuloOperations.localityGroupExists(
+					index.getId().getString(),
+					adapterId.getBytes());
+			if (!inIndex) {
+				adapterNotInIndexCache.put(
+						cacheKey,
+						System.currentTimeMillis());
+			}
+			return inIndex;
+		}
+		catch (final AccumuloException | TableNotFoundException e) {
+			LOGGER.warn(
+					"Unable to determine whether index '" + index.getId().getString() + "' holds adapter '" + adapterId.getString() + "'",
+					e);
+			return null;
+		}
+	}
+
+	public CloseableIterator<SimpleFeature> query(
+			final FeatureDataAdapter adapter,
+			final Index index,
+			final Query query,
+			final Filter filter,
+			final Integer limit,
+			final String... authorizations ) {
+		return query(
+				adapter,
+				index,
+				query,
+				filter,
+				limit,
+				null,
+				authorizations);
+	}
+
+	/**
+	 * @param geometryResolution
+	 *            the size of a pixel of the render the features are for, in
+	 *            the units of the adapter's coordinate reference system, so
+	 *            that the adapter's simplified geometries which are accurate to
+	 *            it can be returned in place of the full geometries; null to
+	 *            return the full geometries
+	 */
 	@SuppressWarnings("unchecked")
 	public CloseableIterator<SimpleFeature> query(
 			final FeatureDataAdapter adapter,
@@ -96,6 +179,7 @@ public class VectorDataStore extends
 			final Query query,
 			final Filter filter,
 			final Integer limit,
+			final Double geometryResolution,
 			final String... authorizations ) {
 		store(adapter);
 		final List<ByteArrayId> adapterIds = Arrays.asList(new ByteArrayId[] {
@@ -107,26 +191,31 @@ public class VectorDataStore extends
 				});
 
 		if (query == null) {
-			return (CloseableIterator<SimpleFeature>) new AccumuloCqlConstraintsQuery(
+			final AccumuloCqlConstraintsQuery accumuloQuery = new AccumuloCqlConstraintsQuery(
 					adapterIds,
 					index,
 					filter,
 					adapter,
-					authorizations).query(
+					authorizations);
+			accumuloQuery.setGeometryResolution(geometryResolution);
+			return (CloseableIterator<SimpleFeature>) accumuloQuery.query(
 					accumuloOperations,
 					adapterStore,
 					limit);
 		}
 		else if (query.isSupported(index)) {
 			// construct the query
-			return (CloseableIterator<SimpleFeature>) new AccumuloCqlConstraintsQuery(
+			final AccumuloCqlConstraintsQuery accumuloQuery = new AccumuloCqlConstraintsQuery(
 					adapterIds,
 					index,
 					query.getIndexConstraints(index.getIndexStrategy()),
 					query.createFilters(index.getIndexModel()),
 					filter,
 					adapter,
-					authorizations).query(
+					authorizations);
+			accumuloQuery.setRangeDecompositionPolicy(getRangeDecompositionPolicy());
+			accumuloQuery.setGeometryResolution(geometryResolution);
+			return (CloseableIterator<SimpleFeature>) accumuloQuery.query(
 					accumuloOperations,
 					adapterStore,
 					limit);
@@ -182,12 +271,34 @@ public class VectorDataStore extends
 							adapter
 						}),
 				distributedRenderer.isDecimationEnabled());
-		return new CloseableIteratorWrapper<SimpleFeature>(
+		return mergeResults(results);
+	}
+
+	/**
+	 * Combine the results of several queries, such as those of each index or of
+	 * each tier of an index. When parallel index queries are enabled, the
+	 * results are scanned concurrently and merged through a bounded queue,
+	 * otherwise they are scanned one after another.
+	 * 
+	 * @param results
+	 *            the results of each query, which are closed along with the
+	 *            combined results
+	 * @return the combined results, in no particular order
+	 */
+	public <T> CloseableIterator<T> mergeResults(
+			final List<CloseableIterator<T>> results ) {
+		if (accumuloOptions.isParallelIndexQueries() && (results.size() > 1)) {
+			return new ParallelScanIterator<T>(
+					results,
+					accumuloOptions.getIndexQueryThreads(),
+					accumuloOptions.getIndexQueryQueueSize());
+		}
+		return new CloseableIteratorWrapper<T>(
 				new Closeable() {
 					@Override
 					public void close()
 							throws IOException {
-						for (final CloseableIterator<SimpleFeature> result : results) {
+						for (final CloseableIterator<T> result : results) {
 							result.close();
 						}
 					}
@@ -233,6 +344,7 @@ public class VectorDataStore extends
 				adapter,
 				envelope,
 				authorizations);
+		accumuloQuery.setRangeDecompositionPolicy(getRangeDecompositionPolicy());
 
 		return (CloseableIterator<SimpleFeature>) accumuloQuery.query(
 				accumuloOperations,
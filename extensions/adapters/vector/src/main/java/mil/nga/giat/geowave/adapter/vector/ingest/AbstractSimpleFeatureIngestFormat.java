@@ -12,14 +12,17 @@ abstract public class AbstractSimpleFeatureIngestFormat<I> implements
 		IngestFormatPluginProviderSpi<I, SimpleFeature>
 {
 	protected final CQLFilterOptionProvider cqlFilterOptionProvider = new CQLFilterOptionProvider();
-	protected AbstractSimpleFeatureIngestPlugin<I> myInstance;
-
-	private synchronized AbstractSimpleFeatureIngestPlugin<I> getInstance() {
-		if (myInstance == null) {
-			myInstance = newPluginInstance();
-			myInstance.setFilterProvider(cqlFilterOptionProvider);
-		}
-		return myInstance;
+
+	/**
+	 * The plugins hold state, such as feature builders, while they convert
+	 * their input, so a new instance is created for each caller so that
+	 * concurrent ingest threads do not share one. The instances all share the
+	 * CQL filter options.
+	 */
+	private AbstractSimpleFeatureIngestPlugin<I> getInstance() {
+		final AbstractSimpleFeatureIngestPlugin<I> instance = newPluginInstance();
+		instance.setFilterProvider(cqlFilterOptionProvider);
+		return instance;
 	}
 
 	abstract protected AbstractSimpleFeatureIngestPlugin<I> newPluginInstance();
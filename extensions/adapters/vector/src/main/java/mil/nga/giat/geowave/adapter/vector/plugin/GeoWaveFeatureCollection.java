@@ -300,7 +300,8 @@ public class GeoWaveFeatureCollection extends
 						jtsBounds,
 						timeBounds,
 						getFilter(query),
-						limit);
+						limit,
+						getGeometryResolution(query));
 			}
 		}
 		catch (TransformException | FactoryException e) {
@@ -311,6 +312,20 @@ public class GeoWaveFeatureCollection extends
 		return featureCursor;
 	}
 
+	/**
+	 * @return the distance within which the renderer cannot distinguish the
+	 *         vertices of a geometry, if it has declared one
+	 */
+	private Double getGeometryResolution(
+			final Query query ) {
+		final Object distance = query.getHints().get(
+				Hints.GEOMETRY_DISTANCE);
+		if (distance instanceof Number) {
+			return ((Number) distance).doubleValue();
+		}
+		return null;
+	}
+
 	private ReferencedEnvelope getEnvelope(
 			final Query query )
 			throws TransformException,
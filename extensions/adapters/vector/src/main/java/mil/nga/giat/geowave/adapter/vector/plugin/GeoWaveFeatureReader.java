@@ -1,6 +1,5 @@
 package mil.nga.giat.geowave.adapter.vector.plugin;
 
-import java.io.Closeable;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -17,6 +16,7 @@ import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.TimeZone;
 
+import mil.nga.giat.geowave.adapter.vector.plugin.QueryPlan.IndexCandidate;
 import mil.nga.giat.geowave.adapter.vector.plugin.transaction.GeoWaveTransaction;
 import mil.nga.giat.geowave.adapter.vector.stats.FeatureStatistic;
 import mil.nga.giat.geowave.adapter.vector.util.QueryIndexHelper;
@@ -31,7 +31,6 @@ import mil.nga.giat.geowave.core.store.adapter.statistics.DataStatistics;
 import mil.nga.giat.geowave.core.store.index.Index;
 import mil.nga.giat.geowave.core.store.query.BasicQuery;
 import mil.nga.giat.geowave.core.store.query.BasicQuery.Constraints;
-import mil.nga.giat.geowave.datastore.accumulo.util.CloseableIteratorWrapper;
 
 import org.apache.log4j.Logger;
 import org.geotools.data.FeatureReader;
@@ -43,7 +42,6 @@ import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.feature.type.AttributeDescriptor;
 import org.opengis.filter.Filter;
 
-import com.google.common.collect.Iterators;
 import com.vividsolutions.jts.geom.Geometry;
 
 /**
@@ -138,16 +136,21 @@ public class GeoWaveFeatureReader implements
 		final List<CloseableIterator<SimpleFeature>> results = new ArrayList<CloseableIterator<SimpleFeature>>();
 		final Map<ByteArrayId, DataStatistics<SimpleFeature>> statsMap = components.getDataStatistics(transaction);
 
+		final Constraints timeConstraints = QueryIndexHelper.composeTimeBoundedConstraints(
+				components.getAdapter().getType(),
+				components.getAdapter().getTimeDescriptors(),
+				statsMap,
+				timeBounds);
+		final Constraints geoConstraints = (jtsBounds == null) ? null : QueryIndexHelper.composeGeometricConstraints(
+				components.getAdapter().getType(),
+				statsMap,
+				jtsBounds);
+		final QueryPlanner planner = new QueryPlanner();
+
 		try (CloseableIterator<Index> indexIt = getComponents().getDataStore().getIndices()) {
 			while (indexIt.hasNext()) {
 				final Index index = indexIt.next();
 
-				final Constraints timeConstraints = QueryIndexHelper.composeTimeBoundedConstraints(
-						components.getAdapter().getType(),
-						components.getAdapter().getTimeDescriptors(),
-						statsMap,
-						timeBounds);
-
 				/*
 				 * Inspect for SPATIAL_TEMPORAL type index. Most queries issued
 				 * from GeoServer, where time is an 'enabled' dimension, provide
@@ -155,42 +158,33 @@ public class GeoWaveFeatureReader implements
 				 * statistics were used to clip the bounds prior to this point.
 				 * However, the range may be still too wide. Ideally, spatial
 				 * temporal indexing should not be used in these cases.
-				 * Eventually all this logic should be replaced by a
-				 * QueryPlanner that takes the full set of constraints and has
-				 * in-depth knowledge of each indices capabilities.
+				 * Eventually this logic should move into the QueryPlanner,
+				 * given in-depth knowledge of each indices capabilities.
 				 */
+				final BasicQuery query;
 				if ((jtsBounds == null) || (DimensionalityType.SPATIAL_TEMPORAL.isCompatible(index) && timeConstraints.isEmpty())) {
 					// full table scan
-					results.add(issuer.query(
-							index,
-							null));
+					query = null;
+				}
+				else if (timeConstraints.isSupported(index)) {
+					query = composeQuery(
+							jtsBounds,
+							geoConstraints,
+							timeConstraints);
 				}
 				else {
-
-					final Constraints geoConstraints = QueryIndexHelper.composeGeometricConstraints(
-							components.getAdapter().getType(),
-							statsMap,
-							jtsBounds);
-
-					if (timeConstraints.isSupported(index)) {
-
-						results.add(issuer.query(
-								index,
-								composeQuery(
-										jtsBounds,
-										geoConstraints,
-										timeConstraints)));
-					}
-					else {
-						// just geo
-						results.add(issuer.query(
-								index,
-								composeQuery(
-										jtsBounds,
-										geoConstraints,
-										null)));
-					}
+					// just geo
+					query = composeQuery(
+							jtsBounds,
+							geoConstraints,
+							null);
 				}
+				planner.addCandidate(
+						index,
+						query,
+						components.getDataStore().isAdapterInIndex(
+								components.getAdapter().getAdapterId(),
+								index));
 			}
 		}
 		catch (final IOException e) {
@@ -198,17 +192,20 @@ public class GeoWaveFeatureReader implements
 					"unable to close index iterator for query",
 					e);
 		}
-		return interweaveTransaction(new CloseableIteratorWrapper<SimpleFeature>(
-				new Closeable() {
-					@Override
-					public void close()
-							throws IOException {
-						for (final CloseableIterator<SimpleFeature> result : results) {
-							result.close();
-						}
-					}
-				},
-				Iterators.concat(results.iterator())));
+
+		final QueryPlan plan = planner.plan();
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug(plan);
+		}
+		for (final IndexCandidate candidate : plan.getSelected()) {
+			results.add(issuer.query(
+					candidate.getIndex(),
+					candidate.getQuery()));
+		}
+		// the results are consumed on this thread, transactions are only
+		// interwoven with the merged results
+		return interweaveTransaction(components.getDataStore().mergeResults(
+				results));
 	}
 
 	private class BaseIssuer implements
@@ -217,14 +214,26 @@ public class GeoWaveFeatureReader implements
 
 		final Filter filter;
 		final Integer limit;
+		final Double geometryResolution;
 
 		public BaseIssuer(
 				final Filter filter,
 				final Integer limit ) {
+			this(
+					filter,
+					limit,
+					null);
+		}
+
+		public BaseIssuer(
+				final Filter filter,
+				final Integer limit,
+				final Double geometryResolution ) {
 			super();
 
 			this.filter = filter;
 			this.limit = limit;
+			this.geometryResolution = geometryResolution;
 		}
 
 		@Override
@@ -237,6 +246,7 @@ public class GeoWaveFeatureReader implements
 					query,
 					filter,
 					(limit != null) && (limit >= 0) ? limit : null,
+					geometryResolution,
 					transaction.composeAuthorizations());
 		}
 	}
@@ -397,6 +407,20 @@ public class GeoWaveFeatureReader implements
 			final TemporalConstraintsSet timeBounds,
 			final Filter filter,
 			final Integer limit ) {
+		return getData(
+				jtsBounds,
+				timeBounds,
+				filter,
+				limit,
+				null);
+	}
+
+	public CloseableIterator<SimpleFeature> getData(
+			final Geometry jtsBounds,
+			final TemporalConstraintsSet timeBounds,
+			final Filter filter,
+			final Integer limit,
+			final Double geometryResolution ) {
 		if (filter instanceof FidFilterImpl) {
 			final List<SimpleFeature> retVal = new ArrayList<SimpleFeature>();
 			final Set<String> fids = ((FidFilterImpl) filter).getIDs();
@@ -416,7 +440,8 @@ public class GeoWaveFeatureReader implements
 				timeBounds,
 				new BaseIssuer(
 						filter,
-						limit));
+						limit,
+						geometryResolution));
 	}
 
 	public CloseableIterator<SimpleFeature> getData(
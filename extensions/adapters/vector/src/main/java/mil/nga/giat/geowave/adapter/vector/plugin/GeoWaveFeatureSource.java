@@ -2,6 +2,7 @@ package mil.nga.giat.geowave.adapter.vector.plugin;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.Set;
 
 import mil.nga.giat.geowave.adapter.vector.FeatureDataAdapter;
 import mil.nga.giat.geowave.adapter.vector.plugin.transaction.GeoWaveEmptyTransaction;
@@ -17,6 +18,7 @@ import org.geotools.data.FeatureWriter;
 import org.geotools.data.Query;
 import org.geotools.data.store.ContentEntry;
 import org.geotools.data.store.ContentFeatureStore;
+import org.geotools.factory.Hints;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
@@ -179,6 +181,15 @@ public class GeoWaveFeatureSource extends
 		return (GeoWaveGTDataStore) super.getDataStore();
 	}
 
+	@Override
+	protected void addHints(
+			final Set<Hints.Key> hints ) {
+		// let the renderer tell us the resolution it draws at so that any
+		// simplified geometries can be returned, this is called while the
+		// super class is constructed so the adapter is not yet known
+		hints.add(Hints.GEOMETRY_DISTANCE);
+	}
+
 	@Override
 	protected boolean canTransact() {
 		// tell GeoTools that we natively handle this
@@ -35,6 +35,7 @@ import mil.nga.giat.geowave.core.store.adapter.statistics.DataStatisticsStore;
 import mil.nga.giat.geowave.core.store.dimension.DimensionField;
 import mil.nga.giat.geowave.core.store.index.Index;
 import mil.nga.giat.geowave.datastore.accumulo.AccumuloOperations;
+import mil.nga.giat.geowave.datastore.accumulo.AccumuloOptions;
 import mil.nga.giat.geowave.datastore.accumulo.BasicAccumuloOperations;
 import mil.nga.giat.geowave.datastore.accumulo.metadata.AccumuloAdapterStore;
 import mil.nga.giat.geowave.datastore.accumulo.metadata.AccumuloIndexStore;
@@ -152,17 +153,30 @@ public class GeoWaveGTDataStore extends
 				config.getUserName(),
 				config.getPassword(),
 				config.getAccumuloNamespace());
+		final AccumuloOptions options = new AccumuloOptions();
+		// scan the indices, or the tiers of an index when rendering, at once
+		options.setParallelIndexQueries(config.getQueryThreads() > 1);
+		options.setIndexQueryThreads(config.getQueryThreads());
+		options.setMetadataCacheExpiryMillis(config.getMetadataCacheExpiryMillis());
+		options.setMetadataCacheMissExpiryMillis(config.getMetadataCacheMissExpiryMillis());
 		final AccumuloIndexStore indexStore = new AccumuloIndexStore(
-				storeOperations);
+				storeOperations,
+				options.getMetadataCacheSize(),
+				options.getMetadataCacheExpiryMillis(),
+				options.getMetadataCacheMissExpiryMillis());
 		final DataStatisticsStore statisticsStore = new AccumuloDataStatisticsStoreExt(
 				storeOperations);
 		adapterStore = new AccumuloAdapterStore(
-				storeOperations);
+				storeOperations,
+				options.getMetadataCacheSize(),
+				options.getMetadataCacheExpiryMillis(),
+				options.getMetadataCacheMissExpiryMillis());
 		dataStore = new VectorDataStore(
 				indexStore,
 				adapterStore,
 				statisticsStore,
-				storeOperations);
+				storeOperations,
+				options);
 	}
 
 	protected Index getIndex(
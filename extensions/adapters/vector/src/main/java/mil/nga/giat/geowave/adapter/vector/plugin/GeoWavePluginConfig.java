@@ -46,6 +46,9 @@ public class GeoWavePluginConfig
 	protected static final String AUTH_MGT_KEY = "Authorization Management Provider";
 	protected static final String AUTH_URL_KEY = "Authorization Data URL";
 	protected static final String TRANSACTION_BUFFER_SIZE = "Transaction Buffer Size";
+	protected static final String QUERY_THREADS_KEY = "Query Threads";
+	protected static final String METADATA_CACHE_EXPIRY_KEY = "Metadata Cache Expiry";
+	protected static final String METADATA_CACHE_MISS_EXPIRY_KEY = "Metadata Cache Miss Expiry";
 
 	private static final Param ZOOKEEPER_SERVERS = new Param(
 			ZOOKEEPER_SERVERS_KEY,
@@ -81,6 +84,21 @@ public class GeoWavePluginConfig
 			Integer.class,
 			"Number of buffered buffered insertions before flush to the datastore.",
 			false);
+	private static final Param QUERY_THREADS = new Param(
+			QUERY_THREADS_KEY,
+			Integer.class,
+			"Number of indices or index tiers scanned at once for a query, defaults to 1 which scans them one after another.",
+			false);
+	private static final Param METADATA_CACHE_EXPIRY = new Param(
+			METADATA_CACHE_EXPIRY_KEY,
+			Long.class,
+			"Milliseconds after which a cached feature type or index is looked up again, to see changes made by other processes, defaults to 0 which keeps them until evicted.",
+			false);
+	private static final Param METADATA_CACHE_MISS_EXPIRY = new Param(
+			METADATA_CACHE_MISS_EXPIRY_KEY,
+			Long.class,
+			"Milliseconds for which a feature type or index that was not found is not looked up again, defaults to 0 which looks it up every time.",
+			false);
 
 	/*
 	 * private static final Param FEATURE_NAMESPACE = new Param(
@@ -121,6 +139,9 @@ public class GeoWavePluginConfig
 	private final AuthorizationFactorySPI authorizationFactory;
 	private final URL authorizationURL;
 	private final Integer transactionBufferSize;
+	private final Integer queryThreads;
+	private final Long metadataCacheExpiryMillis;
+	private final Long metadataCacheMissExpiryMillis;
 
 	private static List<Param> accumuloParams = null;
 
@@ -145,6 +166,9 @@ public class GeoWavePluginConfig
 			accumuloParams.add(AUTH_MGT);
 			accumuloParams.add(AUTH_URL);
 			accumuloParams.add(TRANSACTION_BUFFER_SIZE_PARAM);
+			accumuloParams.add(QUERY_THREADS);
+			accumuloParams.add(METADATA_CACHE_EXPIRY);
+			accumuloParams.add(METADATA_CACHE_MISS_EXPIRY);
 		}
 		return accumuloParams;
 	}
@@ -214,6 +238,27 @@ public class GeoWavePluginConfig
 		}
 		transactionBufferSize = bufferSizeFromParam;
 
+		param = params.get(QUERY_THREADS_KEY);
+		// scanning at once is opt in, as each query then holds several
+		// threads and its results are no longer grouped by index
+		Integer queryThreadsFromParam = 1;
+		if (param != null) {
+			try {
+				queryThreadsFromParam = param instanceof Integer ? (Integer) param : Integer.parseInt(param.toString());
+			}
+			catch (final Exception e) {
+				LOGGER.error("Malformed query threads : " + param);
+			}
+		}
+		queryThreads = queryThreadsFromParam;
+
+		metadataCacheExpiryMillis = getMillis(
+				params,
+				METADATA_CACHE_EXPIRY_KEY);
+		metadataCacheMissExpiryMillis = getMillis(
+				params,
+				METADATA_CACHE_MISS_EXPIRY_KEY);
+
 		param = params.get(LOCK_MGT_KEY);
 
 		final Iterator<LockingManagementFactory> it = getLockManagementFactoryList();
@@ -231,6 +276,21 @@ public class GeoWavePluginConfig
 		authorizationURL = getAuthorizationURL(params);
 	}
 
+	private static Long getMillis(
+			final Map<String, Serializable> params,
+			final String key ) {
+		final Serializable param = params.get(key);
+		if (param != null) {
+			try {
+				return param instanceof Long ? (Long) param : Long.parseLong(param.toString());
+			}
+			catch (final Exception e) {
+				LOGGER.error("Malformed " + key.toLowerCase() + " : " + param);
+			}
+		}
+		return 0L;
+	}
+
 	public static AuthorizationFactorySPI getAuthorizationFactory(
 			final Map<String, Serializable> params )
 
@@ -310,6 +370,18 @@ public class GeoWavePluginConfig
 		return transactionBufferSize;
 	}
 
+	public Integer getQueryThreads() {
+		return queryThreads;
+	}
+
+	public Long getMetadataCacheExpiryMillis() {
+		return metadataCacheExpiryMillis;
+	}
+
+	public Long getMetadataCacheMissExpiryMillis() {
+		return metadataCacheMissExpiryMillis;
+	}
+
 	private static Map<String, List<String>> getLockMgtOptions() {
 		final List<String> options = new ArrayList<String>();
 		final Iterator<LockingManagementFactory> it = getLockManagementFactoryList();
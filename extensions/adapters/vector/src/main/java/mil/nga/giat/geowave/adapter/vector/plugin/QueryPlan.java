@@ -0,0 +1,102 @@
+package mil.nga.giat.geowave.adapter.vector.plugin;
+
+import java.util.Collections;
+import java.util.List;
+
+import mil.nga.giat.geowave.core.store.index.Index;
+import mil.nga.giat.geowave.core.store.query.Query;
+
+/**
+ * The decision of a {@link QueryPlanner}: the indices to query along with every
+ * candidate index and the reason for the choice, so that the decision can be
+ * logged.
+ */
+public class QueryPlan
+{
+	private final List<IndexCandidate> selected;
+	private final List<IndexCandidate> candidates;
+	private final String reason;
+
+	public QueryPlan(
+			final List<IndexCandidate> selected,
+			final List<IndexCandidate> candidates,
+			final String reason ) {
+		this.selected = Collections.unmodifiableList(selected);
+		this.candidates = Collections.unmodifiableList(candidates);
+		this.reason = reason;
+	}
+
+	/**
+	 * @return the indices to query, each with the query to issue against it
+	 */
+	public List<IndexCandidate> getSelected() {
+		return selected;
+	}
+
+	/**
+	 * @return every index that was considered
+	 */
+	public List<IndexCandidate> getCandidates() {
+		return candidates;
+	}
+
+	public String getReason() {
+		return reason;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder(
+				"Query plan: ");
+		builder.append(reason);
+		for (final IndexCandidate candidate : candidates) {
+			builder.append(
+					selected.contains(candidate) ? "\n  * " : "\n    ").append(
+					candidate);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * An index that may be queried, with the query to issue against it
+	 */
+	public static class IndexCandidate
+	{
+		private final Index index;
+		private final Query query;
+		private final Boolean holdsAdapter;
+
+		public IndexCandidate(
+				final Index index,
+				final Query query,
+				final Boolean holdsAdapter ) {
+			this.index = index;
+			this.query = query;
+			this.holdsAdapter = holdsAdapter;
+		}
+
+		public Index getIndex() {
+			return index;
+		}
+
+		/**
+		 * @return the query to issue against the index, null for a full scan
+		 */
+		public Query getQuery() {
+			return query;
+		}
+
+		/**
+		 * @return whether entries of the adapter have been written to the
+		 *         index, null if unknown
+		 */
+		public Boolean getHoldsAdapter() {
+			return holdsAdapter;
+		}
+
+		@Override
+		public String toString() {
+			return index.getId().getString() + " [" + ((query == null) ? "full scan" : "constrained") + ", holds adapter: " + ((holdsAdapter == null) ? "unknown" : holdsAdapter) + "]";
+		}
+	}
+}
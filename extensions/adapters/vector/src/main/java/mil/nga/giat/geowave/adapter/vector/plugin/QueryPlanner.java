@@ -0,0 +1,74 @@
+package mil.nga.giat.geowave.adapter.vector.plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mil.nga.giat.geowave.adapter.vector.plugin.QueryPlan.IndexCandidate;
+import mil.nga.giat.geowave.core.store.index.Index;
+import mil.nga.giat.geowave.core.store.query.Query;
+
+/**
+ * Chooses which of the indices of a data store to query for a feature type,
+ * rather than querying all of them.
+ *
+ * Indices known not to hold the adapter are not queried. Every index that
+ * holds the adapter, or may hold it, is queried, since separate ingests of an
+ * adapter may have written different entries to different indices. When no
+ * index is known to hold the adapter every candidate is queried.
+ */
+public class QueryPlanner
+{
+	private final List<IndexCandidate> candidates = new ArrayList<IndexCandidate>();
+
+	/**
+	 * @param index
+	 *            an index that can answer the query
+	 * @param query
+	 *            the query to issue against the index, null for a full scan
+	 * @param holdsAdapter
+	 *            whether entries of the adapter have been written to the
+	 *            index, null if unknown
+	 */
+	public void addCandidate(
+			final Index index,
+			final Query query,
+			final Boolean holdsAdapter ) {
+		candidates.add(new IndexCandidate(
+				index,
+				query,
+				holdsAdapter));
+	}
+
+	public QueryPlan plan() {
+		if (candidates.size() <= 1) {
+			return new QueryPlan(
+					candidates,
+					candidates,
+					"single candidate index");
+		}
+		final List<IndexCandidate> selected = new ArrayList<IndexCandidate>();
+		int holdingCount = 0;
+		for (final IndexCandidate candidate : candidates) {
+			if (candidate.getHoldsAdapter() == null) {
+				selected.add(candidate);
+			}
+			else if (candidate.getHoldsAdapter()) {
+				selected.add(candidate);
+				holdingCount++;
+			}
+		}
+		if (holdingCount == 0) {
+			// the adapter may have been written without tracking the indices
+			// it is in, none can be ruled out
+			return new QueryPlan(
+					candidates,
+					candidates,
+					"unknown which indices hold the adapter, querying all candidates");
+		}
+		final int unknownCount = selected.size() - holdingCount;
+		return new QueryPlan(
+				selected,
+				candidates,
+				holdingCount + " of " + candidates.size() + " candidate indices hold the adapter, querying " + (holdingCount == 1 ? "it" : "them") + (unknownCount == 0 ? "" : " and the " + unknownCount + " that may hold it"));
+	}
+}
@@ -5,14 +5,20 @@ import java.util.LinkedList;
 import java.util.List;
 
 import mil.nga.giat.geowave.adapter.vector.FeatureDataAdapter;
+import mil.nga.giat.geowave.adapter.vector.FeatureGeometryLevels;
 import mil.nga.giat.geowave.adapter.vector.query.cql.FilterToCQLTool;
+import mil.nga.giat.geowave.core.geotime.store.dimension.GeometryAdapter;
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.index.ByteArrayUtils;
 import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.index.StringUtils;
 import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import mil.nga.giat.geowave.core.store.dimension.DimensionField;
 import mil.nga.giat.geowave.core.store.filter.DistributableFilterList;
 import mil.nga.giat.geowave.core.store.filter.DistributableQueryFilter;
 import mil.nga.giat.geowave.core.store.filter.QueryFilter;
+import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
+import mil.nga.giat.geowave.core.store.index.CommonIndexValue;
 import mil.nga.giat.geowave.core.store.index.Index;
 import mil.nga.giat.geowave.datastore.accumulo.query.AccumuloConstraintsQuery;
 
@@ -22,7 +28,10 @@ import org.opengis.filter.Filter;
 
 /**
  * This class extends the capabilities of a simple constraints query to support
- * GeoTools' CQL filters within the tablet servers.
+ * GeoTools' CQL filters within the tablet servers. If the data adapter stores
+ * simplified geometries and a geometry resolution is set, the tablet servers
+ * also return the coarsest simplified geometry accurate to the resolution in
+ * place of the full geometry.
  * 
  */
 public class AccumuloCqlConstraintsQuery extends
@@ -30,6 +39,7 @@ public class AccumuloCqlConstraintsQuery extends
 {
 	private final Filter cqlFilter;
 	private final FeatureDataAdapter dataAdapter;
+	private Double geometryResolution;
 
 	public AccumuloCqlConstraintsQuery(
 			final Index index,
@@ -125,5 +135,81 @@ public class AccumuloCqlConstraintsQuery extends
 		else {
 			super.addScanIteratorSettings(scanner);
 		}
+		addGeometryLevelIterator(scanner);
+	}
+
+	/**
+	 * @param geometryResolution
+	 *            the size of a pixel of the render the results are for, in the
+	 *            units of the advertised coordinate reference system, or null
+	 *            to always return the full geometries
+	 */
+	public void setGeometryResolution(
+			final Double geometryResolution ) {
+		this.geometryResolution = geometryResolution;
+	}
+
+	public Double getGeometryResolution() {
+		return geometryResolution;
+	}
+
+	private void addGeometryLevelIterator(
+			final ScannerBase scanner ) {
+		if ((dataAdapter == null) || (dataAdapter.getGeometryLevels() == null)) {
+			return;
+		}
+		final String levelFieldPrefix = ByteArrayUtils.byteArrayToString(FeatureGeometryLevels.getLevelFieldPrefix());
+		final ByteArrayId geometryFieldId = getGeometryFieldId(index.getIndexModel());
+		final StringBuilder levelFields = new StringBuilder();
+		if ((geometryResolution != null) && (geometryFieldId != null)) {
+			for (final ByteArrayId levelFieldId : dataAdapter.getGeometryLevels().getLevelFieldIds(
+					geometryResolution)) {
+				if (levelFields.length() > 0) {
+					levelFields.append(',');
+				}
+				levelFields.append(StringUtils.stringFromBinary(levelFieldId.getBytes()));
+			}
+		}
+		// the simplified geometries that are not used are dropped before the
+		// rows are encoded
+		final IteratorSetting filterSettings = new IteratorSetting(
+				GeometryLevelFilterIterator.GEOMETRY_LEVEL_FILTER_ITERATOR_PRIORITY,
+				GeometryLevelFilterIterator.GEOMETRY_LEVEL_FILTER_ITERATOR_NAME,
+				GeometryLevelFilterIterator.class);
+		filterSettings.addOption(
+				GeometryLevelIterator.LEVEL_FIELD_PREFIX,
+				levelFieldPrefix);
+		filterSettings.addOption(
+				GeometryLevelIterator.LEVEL_FIELDS,
+				levelFields.toString());
+		scanner.addScanIterator(filterSettings);
+		if (levelFields.length() == 0) {
+			// there is no simplified geometry to replace the geometry with
+			return;
+		}
+		final IteratorSetting iteratorSettings = new IteratorSetting(
+				GeometryLevelIterator.GEOMETRY_LEVEL_ITERATOR_PRIORITY,
+				GeometryLevelIterator.GEOMETRY_LEVEL_ITERATOR_NAME,
+				GeometryLevelIterator.class);
+		iteratorSettings.addOption(
+				GeometryLevelIterator.GEOMETRY_FIELD,
+				ByteArrayUtils.byteArrayToString(geometryFieldId.getBytes()));
+		iteratorSettings.addOption(
+				GeometryLevelIterator.LEVEL_FIELD_PREFIX,
+				levelFieldPrefix);
+		iteratorSettings.addOption(
+				GeometryLevelIterator.LEVEL_FIELDS,
+				levelFields.toString());
+		scanner.addScanIterator(iteratorSettings);
+	}
+
+	private static ByteArrayId getGeometryFieldId(
+			final CommonIndexModel indexModel ) {
+		for (final DimensionField<? extends CommonIndexValue> dimension : indexModel.getDimensions()) {
+			if (dimension.getReader() instanceof GeometryAdapter) {
+				return dimension.getFieldId();
+			}
+		}
+		return null;
 	}
 }
@@ -0,0 +1,105 @@
+package mil.nga.giat.geowave.adapter.vector.query;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import mil.nga.giat.geowave.core.index.ByteArrayUtils;
+import mil.nga.giat.geowave.core.index.StringUtils;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.Filter;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+
+/**
+ * This class is an Accumulo Iterator that runs before the whole row iterators
+ * of a query and drops the simplified geometries that the query does not use,
+ * one column at a time, so that rows are encoded without them rather than
+ * decoded and encoded again to remove them. Only the simplified geometries
+ * accurate to the resolution of the query, if any, are kept for the
+ * {@link GeometryLevelIterator} to choose from.
+ *
+ */
+public class GeometryLevelFilterIterator extends
+		Filter
+{
+	public static final String GEOMETRY_LEVEL_FILTER_ITERATOR_NAME = "GEOWAVE_GEOMETRY_LEVEL_FILTER_ITERATOR";
+	// before the whole row iterators, after the feature collection
+	// iterators of the table
+	public static final int GEOMETRY_LEVEL_FILTER_ITERATOR_PRIORITY = 8;
+	private byte[] levelFieldPrefix;
+	private List<byte[]> levelFields;
+
+	@Override
+	public boolean accept(
+			final Key k,
+			final Value v ) {
+		final ByteSequence qualifier = k.getColumnQualifierData();
+		if (!startsWith(
+				qualifier,
+				levelFieldPrefix)) {
+			return true;
+		}
+		final byte[] qualifierBytes = qualifier.toArray();
+		for (final byte[] levelField : levelFields) {
+			if (Arrays.equals(
+					qualifierBytes,
+					levelField)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void init(
+			final SortedKeyValueIterator<Key, Value> source,
+			final Map<String, String> options,
+			final IteratorEnvironment env )
+			throws IOException {
+		super.init(
+				source,
+				options,
+				env);
+		if (!options.containsKey(GeometryLevelIterator.LEVEL_FIELD_PREFIX)) {
+			throw new IllegalArgumentException(
+					"'" + GeometryLevelIterator.LEVEL_FIELD_PREFIX + "' must be set for " + GeometryLevelFilterIterator.class.getName());
+		}
+		levelFieldPrefix = ByteArrayUtils.byteArrayFromString(options.get(GeometryLevelIterator.LEVEL_FIELD_PREFIX));
+		levelFields = new ArrayList<byte[]>();
+		final String levelFieldsStr = options.get(GeometryLevelIterator.LEVEL_FIELDS);
+		if ((levelFieldsStr != null) && !levelFieldsStr.isEmpty()) {
+			for (final String levelField : levelFieldsStr.split(",")) {
+				levelFields.add(StringUtils.stringToBinary(levelField));
+			}
+		}
+	}
+
+	@Override
+	public SortedKeyValueIterator<Key, Value> deepCopy(
+			final IteratorEnvironment env ) {
+		final GeometryLevelFilterIterator iterator = (GeometryLevelFilterIterator) super.deepCopy(env);
+		iterator.levelFieldPrefix = levelFieldPrefix;
+		iterator.levelFields = levelFields;
+		return iterator;
+	}
+
+	private static boolean startsWith(
+			final ByteSequence bytes,
+			final byte[] prefix ) {
+		if (bytes.length() < prefix.length) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length; i++) {
+			if (bytes.byteAt(i) != prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
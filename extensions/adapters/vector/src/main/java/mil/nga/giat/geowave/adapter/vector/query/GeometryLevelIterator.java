@@ -0,0 +1,194 @@
+package mil.nga.giat.geowave.adapter.vector.query;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import mil.nga.giat.geowave.core.index.ByteArrayUtils;
+import mil.nga.giat.geowave.core.index.StringUtils;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.WrappingIterator;
+import org.apache.accumulo.core.iterators.user.WholeRowIterator;
+
+/**
+ * This class is an Accumulo Iterator that runs after the whole row iterators
+ * of a query and replaces the full geometry of each row with the coarsest of
+ * the row's simplified geometries that is accurate to the resolution of the
+ * query, so that the tablet servers return far fewer bytes for renders at a
+ * coarse resolution. The simplified geometries are removed from every row,
+ * whether or not one of them is used. The
+ * {@link GeometryLevelFilterIterator} is expected to have already dropped the
+ * simplified geometries that are not accurate to the resolution, and is used
+ * alone when there is no resolution, so that rows without any of them are not
+ * encoded again.
+ * 
+ */
+public class GeometryLevelIterator extends
+		WrappingIterator
+{
+	public static final String GEOMETRY_LEVEL_ITERATOR_NAME = "GEOWAVE_GEOMETRY_LEVEL_ITERATOR";
+	// after the whole row, filtering and skipping iterators
+	public static final int GEOMETRY_LEVEL_ITERATOR_PRIORITY = 20;
+	public static final String GEOMETRY_FIELD = "geometry_field";
+	public static final String LEVEL_FIELD_PREFIX = "level_field_prefix";
+	public static final String LEVEL_FIELDS = "level_fields";
+	private byte[] geometryField;
+	private byte[] levelFieldPrefix;
+	private List<byte[]> levelFields;
+	private Value topValue;
+
+	public GeometryLevelIterator() {
+		super();
+	}
+
+	@Override
+	public void init(
+			final SortedKeyValueIterator<Key, Value> source,
+			final Map<String, String> options,
+			final IteratorEnvironment env )
+			throws IOException {
+		super.init(
+				source,
+				options,
+				env);
+		if (!options.containsKey(GEOMETRY_FIELD) || !options.containsKey(LEVEL_FIELD_PREFIX)) {
+			throw new IllegalArgumentException(
+					"'" + GEOMETRY_FIELD + "' and '" + LEVEL_FIELD_PREFIX + "' must be set for " + GeometryLevelIterator.class.getName());
+		}
+		geometryField = ByteArrayUtils.byteArrayFromString(options.get(GEOMETRY_FIELD));
+		levelFieldPrefix = ByteArrayUtils.byteArrayFromString(options.get(LEVEL_FIELD_PREFIX));
+		levelFields = new ArrayList<byte[]>();
+		final String levelFieldsStr = options.get(LEVEL_FIELDS);
+		if ((levelFieldsStr != null) && !levelFieldsStr.isEmpty()) {
+			for (final String levelField : levelFieldsStr.split(",")) {
+				levelFields.add(StringUtils.stringToBinary(levelField));
+			}
+		}
+	}
+
+	@Override
+	public SortedKeyValueIterator<Key, Value> deepCopy(
+			final IteratorEnvironment env ) {
+		final GeometryLevelIterator iterator = new GeometryLevelIterator();
+		iterator.setSource(getSource().deepCopy(
+				env));
+		iterator.geometryField = geometryField;
+		iterator.levelFieldPrefix = levelFieldPrefix;
+		iterator.levelFields = levelFields;
+		return iterator;
+	}
+
+	@Override
+	public void seek(
+			final Range range,
+			final Collection<ByteSequence> columnFamilies,
+			final boolean inclusive )
+			throws IOException {
+		super.seek(
+				range,
+				columnFamilies,
+				inclusive);
+		replaceGeometry();
+	}
+
+	@Override
+	public void next()
+			throws IOException {
+		super.next();
+		replaceGeometry();
+	}
+
+	@Override
+	public Value getTopValue() {
+		return topValue;
+	}
+
+	private void replaceGeometry()
+			throws IOException {
+		if (!super.hasTop()) {
+			topValue = null;
+			return;
+		}
+		final Value value = super.getTopValue();
+		final SortedMap<Key, Value> row = WholeRowIterator.decodeRow(
+				super.getTopKey(),
+				value);
+		Key geometryKey = null;
+		Value levelValue = null;
+		int levelIndex = levelFields.size();
+		boolean hasLevels = false;
+		for (final Map.Entry<Key, Value> entry : row.entrySet()) {
+			final byte[] qualifier = entry.getKey().getColumnQualifierData().toArray();
+			if (Arrays.equals(
+					qualifier,
+					geometryField)) {
+				geometryKey = entry.getKey();
+			}
+			else if (startsWith(
+					qualifier,
+					levelFieldPrefix)) {
+				hasLevels = true;
+				// the levels are ordered coarsest first
+				for (int i = 0; i < levelIndex; i++) {
+					if (Arrays.equals(
+							qualifier,
+							levelFields.get(i))) {
+						levelValue = entry.getValue();
+						levelIndex = i;
+						break;
+					}
+				}
+			}
+		}
+		if (!hasLevels) {
+			topValue = value;
+			return;
+		}
+		final List<Key> keys = new ArrayList<Key>(
+				row.size());
+		final List<Value> values = new ArrayList<Value>(
+				row.size());
+		for (final Map.Entry<Key, Value> entry : row.entrySet()) {
+			final Key key = entry.getKey();
+			if (startsWith(
+					key.getColumnQualifierData().toArray(),
+					levelFieldPrefix)) {
+				continue;
+			}
+			keys.add(key);
+			if ((levelValue != null) && (key == geometryKey)) {
+				values.add(levelValue);
+			}
+			else {
+				values.add(entry.getValue());
+			}
+		}
+		topValue = WholeRowIterator.encodeRow(
+				keys,
+				values);
+	}
+
+	private static boolean startsWith(
+			final byte[] bytes,
+			final byte[] prefix ) {
+		if (bytes.length < prefix.length) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length; i++) {
+			if (bytes[i] != prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
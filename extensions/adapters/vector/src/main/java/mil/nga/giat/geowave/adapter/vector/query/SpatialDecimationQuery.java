@@ -137,18 +137,37 @@ public class SpatialDecimationQuery extends
 	@Override
 	protected void addScanIteratorSettings(
 			final ScannerBase scanner ) {
+		final double[] spans = computeGeneralizationDistances();
+		// the simplified geometries need only be accurate to a single pixel
+		// rather than to the decimation's pixel size
+		setGeometryResolution(Math.min(
+				spans[0],
+				spans[1]) / pixelSize);
 		super.addScanIteratorSettings(scanner);
+		final IteratorSetting iteratorSettings = new IteratorSetting(
+				SpatialDecimationQuery.CARDINALITY_SKIPPING_ITERATOR_PRIORITY,
+				SpatialDecimationQuery.CARDINALITY_SKIPPING_ITERATOR_NAME,
+				FixedCardinalitySkippingIterator.class);
+		// log base 2 to determine number of bits
+		final double cardinalityX = Math.log((spans[0] / 360)) / Math.log(2);
+		final double cardinalityY = Math.log((spans[1] / 180)) / Math.log(2);
+		final long combinedCardinality = Math.max(
+				-(Math.round(cardinalityX + cardinalityY)),
+				0) + 8;
+
+		iteratorSettings.addOption(
+				FixedCardinalitySkippingIterator.CARDINALITY_SKIP_INTERVAL,
+				Integer.toString((int) combinedCardinality));
+		scanner.addScanIterator(iteratorSettings);
+	}
+
+	private double[] computeGeneralizationDistances() {
 		// TODO for now let's forget about CRS, but we should do a transform to
 		// 4326 if it isn't already in that CRS
 		final double east = envelope.getMaxX();
 		final double west = envelope.getMinX();
 		final double north = envelope.getMaxY();
 		final double south = envelope.getMinY();
-		final IteratorSetting iteratorSettings = new IteratorSetting(
-				SpatialDecimationQuery.CARDINALITY_SKIPPING_ITERATOR_PRIORITY,
-				SpatialDecimationQuery.CARDINALITY_SKIPPING_ITERATOR_NAME,
-				FixedCardinalitySkippingIterator.class);
-
 		try {
 			final AffineTransform worldToScreen = RendererUtilities.worldToScreenTransform(
 					new ReferencedEnvelope(
@@ -164,23 +183,12 @@ public class SpatialDecimationQuery extends
 			final MathTransform2D fullTransform = (MathTransform2D) ProjectiveTransform.create(worldToScreen);
 			// calculate spans
 			try {
-				final double[] spans = Decimator.computeGeneralizationDistances(
+				return Decimator.computeGeneralizationDistances(
 						fullTransform.inverse(),
 						new Rectangle(
 								width,
 								height),
 						pixelSize);
-				// log base 2 to determine number of bits
-				final double cardinalityX = Math.log((spans[0] / 360)) / Math.log(2);
-				final double cardinalityY = Math.log((spans[1] / 180)) / Math.log(2);
-				final long combinedCardinality = Math.max(
-						-(Math.round(cardinalityX + cardinalityY)),
-						0) + 8;
-
-				iteratorSettings.addOption(
-						FixedCardinalitySkippingIterator.CARDINALITY_SKIP_INTERVAL,
-						Integer.toString((int) combinedCardinality));
-				scanner.addScanIterator(iteratorSettings);
 			}
 			catch (final TransformException e) {
 				throw new IllegalArgumentException(
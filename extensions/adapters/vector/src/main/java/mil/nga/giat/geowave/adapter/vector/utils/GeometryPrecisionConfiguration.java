@@ -0,0 +1,105 @@
+package mil.nga.giat.geowave.adapter.vector.utils;
+
+import mil.nga.giat.geowave.core.geotime.CompactGeometryEncoding;
+
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.GeometryDescriptor;
+
+/**
+ * Describes the precision with which the default geometry of a feature type is
+ * stored. If the UserData property 'precision' of the default geometry is set
+ * to the number of decimal digits to keep of each ordinate, the geometry is
+ * stored in the compact encoding rather than as well-known binary.
+ *
+ * persistedType.getGeometryDescriptor().getUserData().put("precision", 6)
+ *
+ * The precision must be a whole number of digits between
+ * {@link CompactGeometryEncoding#MIN_PRECISION} and
+ * {@link CompactGeometryEncoding#MAX_PRECISION}. It is checked when it is read
+ * from the type, so that a feature type with an invalid precision fails once
+ * when its adapter is created rather than on every entry encoded.
+ */
+public class GeometryPrecisionConfiguration implements
+		SimpleFeatureUserDataConfiguration
+{
+	private static final long serialVersionUID = 2947362816290846153L;
+	public static final String PRECISION_KEY = "precision";
+	private Integer precision = null;
+
+	public GeometryPrecisionConfiguration() {}
+
+	public GeometryPrecisionConfiguration(
+			final SimpleFeatureType type ) {
+		configureFromType(type);
+	}
+
+	public Integer getPrecision() {
+		return precision;
+	}
+
+	public void setPrecision(
+			final Integer precision ) {
+		this.precision = validate(precision);
+	}
+
+	@Override
+	public void updateType(
+			final SimpleFeatureType type ) {
+		final GeometryDescriptor descriptor = type.getGeometryDescriptor();
+		if ((descriptor != null) && (precision != null)) {
+			descriptor.getUserData().put(
+					PRECISION_KEY,
+					precision);
+		}
+	}
+
+	@Override
+	public void configureFromType(
+			final SimpleFeatureType type ) {
+		precision = getPrecision(type);
+	}
+
+	/**
+	 * @return the precision of the default geometry of the type, or null if it
+	 *         is stored as well-known binary
+	 * @throws IllegalArgumentException
+	 *             if the precision is not a whole number within the range the
+	 *             compact encoding supports
+	 */
+	public static Integer getPrecision(
+			final SimpleFeatureType type ) {
+		final GeometryDescriptor descriptor = type.getGeometryDescriptor();
+		if (descriptor == null) {
+			return null;
+		}
+		final Object precision = descriptor.getUserData().get(
+				PRECISION_KEY);
+		if (precision == null) {
+			return null;
+		}
+		if (precision instanceof Number) {
+			return validate(((Number) precision).intValue());
+		}
+		if (precision instanceof String) {
+			try {
+				return validate(Integer.valueOf(((String) precision).trim()));
+			}
+			catch (final NumberFormatException e) {
+				throw new IllegalArgumentException(
+						"The '" + PRECISION_KEY + "' of the geometry of feature type '" + type.getTypeName() + "' must be a number of digits, not '" + precision + "'",
+						e);
+			}
+		}
+		throw new IllegalArgumentException(
+				"The '" + PRECISION_KEY + "' of the geometry of feature type '" + type.getTypeName() + "' must be a number of digits, not a " + precision.getClass().getName());
+	}
+
+	private static Integer validate(
+			final Integer precision ) {
+		if ((precision != null) && ((precision < CompactGeometryEncoding.MIN_PRECISION) || (precision > CompactGeometryEncoding.MAX_PRECISION))) {
+			throw new IllegalArgumentException(
+					"The geometry '" + PRECISION_KEY + "' must be between " + CompactGeometryEncoding.MIN_PRECISION + " and " + CompactGeometryEncoding.MAX_PRECISION + ", not " + precision);
+		}
+		return precision;
+	}
+}
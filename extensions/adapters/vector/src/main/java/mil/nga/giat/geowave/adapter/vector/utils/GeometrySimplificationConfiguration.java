@@ -0,0 +1,114 @@
+package mil.nga.giat.geowave.adapter.vector.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.GeometryDescriptor;
+
+/**
+ * Describes the resolution levels at which simplified copies of the default
+ * geometry of a feature type are stored. If the UserData property
+ * 'simplification' of the default geometry is set to the simplification
+ * tolerances, in degrees, a simplified geometry is stored for each tolerance
+ * along with the full geometry. The tolerances may be given as an array or
+ * collection of numbers or as a comma-separated string.
+ *
+ * persistedType.getGeometryDescriptor().getUserData().put("simplification",
+ * "0.0001,0.001,0.01")
+ */
+public class GeometrySimplificationConfiguration implements
+		SimpleFeatureUserDataConfiguration
+{
+	private static final long serialVersionUID = -3640298472619405318L;
+	public static final String SIMPLIFICATION_KEY = "simplification";
+	private double[] tolerances = null;
+
+	public GeometrySimplificationConfiguration() {}
+
+	public GeometrySimplificationConfiguration(
+			final SimpleFeatureType type ) {
+		configureFromType(type);
+	}
+
+	public double[] getTolerances() {
+		return tolerances;
+	}
+
+	public void setTolerances(
+			final double[] tolerances ) {
+		this.tolerances = tolerances;
+	}
+
+	@Override
+	public void updateType(
+			final SimpleFeatureType type ) {
+		final GeometryDescriptor descriptor = type.getGeometryDescriptor();
+		if ((descriptor != null) && (tolerances != null)) {
+			descriptor.getUserData().put(
+					SIMPLIFICATION_KEY,
+					tolerances);
+		}
+	}
+
+	@Override
+	public void configureFromType(
+			final SimpleFeatureType type ) {
+		tolerances = getTolerances(type);
+	}
+
+	/**
+	 * @return the positive simplification tolerances of the default geometry
+	 *         of the type in increasing order, or null if no simplified
+	 *         geometries are stored
+	 */
+	public static double[] getTolerances(
+			final SimpleFeatureType type ) {
+		final GeometryDescriptor descriptor = type.getGeometryDescriptor();
+		if (descriptor == null) {
+			return null;
+		}
+		final Object value = descriptor.getUserData().get(
+				SIMPLIFICATION_KEY);
+		double[] tolerances;
+		if (value instanceof double[]) {
+			tolerances = ((double[]) value).clone();
+		}
+		else if (value instanceof Number) {
+			tolerances = new double[] {
+				((Number) value).doubleValue()
+			};
+		}
+		else if (value instanceof Collection) {
+			final Collection<?> values = (Collection<?>) value;
+			tolerances = new double[values.size()];
+			int i = 0;
+			for (final Object v : values) {
+				if (!(v instanceof Number)) {
+					return null;
+				}
+				tolerances[i++] = ((Number) v).doubleValue();
+			}
+		}
+		else if (value instanceof String) {
+			final String[] values = ((String) value).split(",");
+			tolerances = new double[values.length];
+			try {
+				for (int i = 0; i < values.length; i++) {
+					tolerances[i] = Double.parseDouble(values[i].trim());
+				}
+			}
+			catch (final NumberFormatException e) {
+				return null;
+			}
+		}
+		else {
+			return null;
+		}
+		Arrays.sort(tolerances);
+		if ((tolerances.length == 0) || !(tolerances[0] > 0)) {
+			return null;
+		}
+		return tolerances;
+	}
+}
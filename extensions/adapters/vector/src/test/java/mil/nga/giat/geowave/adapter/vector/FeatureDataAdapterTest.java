@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.text.ParseException;
 import java.util.Date;
@@ -13,6 +14,7 @@ import java.util.UUID;
 import mil.nga.giat.geowave.adapter.vector.plugin.GeoWaveGTDataStore;
 import mil.nga.giat.geowave.adapter.vector.util.FeatureDataUtils;
 import mil.nga.giat.geowave.adapter.vector.utils.DateUtilities;
+import mil.nga.giat.geowave.adapter.vector.utils.GeometryPrecisionConfiguration;
 import mil.nga.giat.geowave.core.geotime.IndexType;
 import mil.nga.giat.geowave.core.geotime.store.dimension.GeometryWrapper;
 import mil.nga.giat.geowave.core.store.adapter.AdapterPersistenceEncoding;
@@ -136,6 +138,31 @@ public class FeatureDataAdapterTest
 				wrapper.getGeometry().getCentroid().getCoordinate());
 	}
 
+	@Test
+	public void testInvalidPrecision()
+			throws SchemaException {
+		for (final Object precision : new Object[] {
+			16,
+			-8,
+			"six"
+		}) {
+			final SimpleFeatureType type = DataUtilities.createType(
+					"sp.geostuff",
+					"geometry:Geometry:srid=4326,pop:java.lang.Long");
+			type.getGeometryDescriptor().getUserData().put(
+					GeometryPrecisionConfiguration.PRECISION_KEY,
+					precision);
+			try {
+				new FeatureDataAdapter(
+						type);
+				fail("the adapter must not be created with a precision of " + precision);
+			}
+			catch (final IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
 	@Test
 	public void testSingleTime() {
 		schema.getDescriptor(
@@ -0,0 +1,154 @@
+package mil.nga.giat.geowave.adapter.vector;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import mil.nga.giat.geowave.adapter.vector.utils.GeometrySimplificationConfiguration;
+import mil.nga.giat.geowave.core.geotime.GeometryUtils;
+import mil.nga.giat.geowave.core.geotime.IndexType;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.adapter.AdapterPersistenceEncoding;
+import mil.nga.giat.geowave.core.store.data.PersistentValue;
+
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+public class FeatureGeometryLevelsTest
+{
+	private final GeometryFactory factory = new GeometryFactory();
+	private SimpleFeatureType schema;
+
+	@Before
+	public void setup()
+			throws SchemaException {
+		schema = DataUtilities.createType(
+				"sp.levels",
+				"geometry:Geometry:srid=4326,pid:String");
+		schema.getGeometryDescriptor().getUserData().put(
+				GeometrySimplificationConfiguration.SIMPLIFICATION_KEY,
+				"0.01, 0.0001,0.001");
+	}
+
+	@Test
+	public void testTolerances() {
+		assertArrayEquals(
+				new double[] {
+					0.0001,
+					0.001,
+					0.01
+				},
+				GeometrySimplificationConfiguration.getTolerances(schema),
+				0);
+		schema.getGeometryDescriptor().getUserData().put(
+				GeometrySimplificationConfiguration.SIMPLIFICATION_KEY,
+				"0,0.001");
+		assertNull(GeometrySimplificationConfiguration.getTolerances(schema));
+		schema.getGeometryDescriptor().getUserData().remove(
+				GeometrySimplificationConfiguration.SIMPLIFICATION_KEY);
+		assertNull(GeometrySimplificationConfiguration.getTolerances(schema));
+		assertNull(new FeatureDataAdapter(
+				schema).getGeometryLevels());
+	}
+
+	@Test
+	public void testLevelFieldIds() {
+		final FeatureGeometryLevels levels = new FeatureDataAdapter(
+				schema).getGeometryLevels();
+		assertNotNull(levels);
+		assertTrue(levels.getLevelFieldIds(
+				0.00001).isEmpty());
+		final List<ByteArrayId> fieldIds = levels.getLevelFieldIds(0.005);
+		assertEquals(
+				2,
+				fieldIds.size());
+		// coarsest first
+		assertEquals(
+				"GEOWAVE_GEOMETRY_LEVEL_1",
+				fieldIds.get(
+						0).getString());
+		assertEquals(
+				"GEOWAVE_GEOMETRY_LEVEL_0",
+				fieldIds.get(
+						1).getString());
+		assertTrue(FeatureGeometryLevels.isLevelField(fieldIds.get(0)));
+		assertFalse(FeatureGeometryLevels.isLevelField(new ByteArrayId(
+				"geometry")));
+	}
+
+	@Test
+	public void testEncode() {
+		// a track of closely spaced points along a gentle curve
+		final Coordinate[] coordinates = new Coordinate[1000];
+		for (int i = 0; i < coordinates.length; i++) {
+			coordinates[i] = new Coordinate(
+					-77.0 + (i * 0.0001),
+					38.9 + (Math.sin(i / 100.0) * 0.01));
+		}
+		final Geometry track = factory.createLineString(coordinates);
+		final FeatureDataAdapter adapter = new FeatureDataAdapter(
+				schema);
+		final AdapterPersistenceEncoding encoding = adapter.encode(
+				buildFeature(track),
+				IndexType.SPATIAL_VECTOR.getDefaultIndexModel());
+
+		int numPoints = track.getNumPoints();
+		int levelCount = 0;
+		for (final PersistentValue<Object> value : encoding.getAdapterExtendedData().getValues()) {
+			if (!FeatureGeometryLevels.isLevelField(value.getId())) {
+				continue;
+			}
+			levelCount++;
+			final Geometry level = (Geometry) value.getValue();
+			assertTrue(level.getNumPoints() < numPoints);
+			numPoints = level.getNumPoints();
+			// the simplified geometry is read as the full geometry is
+			final byte[] binary = adapter.getWriter(
+					value.getId()).writeField(
+					level);
+			assertTrue(GeometryUtils.geometryFromBinary(
+					binary).equalsExact(
+					level));
+		}
+		assertEquals(
+				3,
+				levelCount);
+
+		// points are never simplified
+		final AdapterPersistenceEncoding pointEncoding = adapter.encode(
+				buildFeature(factory.createPoint(new Coordinate(
+						-77.0,
+						38.9))),
+				IndexType.SPATIAL_VECTOR.getDefaultIndexModel());
+		for (final PersistentValue<Object> value : pointEncoding.getAdapterExtendedData().getValues()) {
+			assertFalse(FeatureGeometryLevels.isLevelField(value.getId()));
+		}
+	}
+
+	private SimpleFeature buildFeature(
+			final Geometry geometry ) {
+		final SimpleFeatureBuilder builder = new SimpleFeatureBuilder(
+				schema);
+		builder.set(
+				"geometry",
+				geometry);
+		builder.set(
+				"pid",
+				"track");
+		return builder.buildFeature("track");
+	}
+}
@@ -0,0 +1,153 @@
+package mil.nga.giat.geowave.adapter.vector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import mil.nga.giat.geowave.core.geotime.IndexType;
+import mil.nga.giat.geowave.core.geotime.store.query.SpatialQuery;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
+import mil.nga.giat.geowave.core.store.index.Index;
+import mil.nga.giat.geowave.datastore.accumulo.AccumuloOptions;
+import mil.nga.giat.geowave.datastore.accumulo.BasicAccumuloOperations;
+import mil.nga.giat.geowave.datastore.accumulo.util.ParallelScanIterator;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+public class VectorDataStoreMergeResultsTest
+{
+	private static final Index SPATIAL_INDEX = IndexType.SPATIAL_VECTOR.createDefaultIndex();
+	private static final Index SPATIAL_TEMPORAL_INDEX = IndexType.SPATIAL_TEMPORAL_VECTOR.createDefaultIndex();
+	private final GeometryFactory factory = new GeometryFactory();
+	private VectorDataStore sequentialStore;
+	private VectorDataStore parallelStore;
+	private final List<String> expectedIds = new ArrayList<String>();
+
+	@Before
+	public void setup()
+			throws SchemaException,
+			AccumuloException,
+			AccumuloSecurityException {
+		final BasicAccumuloOperations operations = new BasicAccumuloOperations(
+				new MockInstance(
+						"VectorDataStoreMergeResultsTest").getConnector(
+						"root",
+						new PasswordToken(
+								new byte[0])));
+		sequentialStore = new VectorDataStore(
+				operations);
+		final AccumuloOptions options = new AccumuloOptions();
+		options.setParallelIndexQueries(true);
+		options.setIndexQueryThreads(2);
+		options.setIndexQueryQueueSize(4);
+		parallelStore = new VectorDataStore(
+				operations,
+				options);
+
+		final SimpleFeatureType schema = DataUtilities.createType(
+				"VectorDataStoreMergeResultsTest",
+				"geometry:Geometry:srid=4326,when:Date,pid:String");
+		final FeatureDataAdapter adapter = new FeatureDataAdapter(
+				schema);
+		final SimpleFeatureBuilder builder = new SimpleFeatureBuilder(
+				schema);
+		// more features than the queue holds, split between both indices
+		for (int i = 0; i < 50; i++) {
+			builder.set(
+					"geometry",
+					factory.createPoint(new Coordinate(
+							-77.0 + (i * 0.01),
+							38.9)));
+			builder.set(
+					"when",
+					new Date(
+							i * 1000L));
+			builder.set(
+					"pid",
+					"pid" + i);
+			final String id = "feature" + i;
+			sequentialStore.ingest(
+					adapter,
+					(i % 2) == 0 ? SPATIAL_INDEX : SPATIAL_TEMPORAL_INDEX,
+					builder.buildFeature(id));
+			expectedIds.add(id);
+		}
+		Collections.sort(expectedIds);
+	}
+
+	@Test
+	public void testSequentialAndParallelResultsMatch()
+			throws IOException {
+		final List<String> sequentialIds = query(sequentialStore);
+		final List<String> parallelIds = query(parallelStore);
+		assertEquals(
+				expectedIds,
+				sequentialIds);
+		assertEquals(
+				sequentialIds,
+				parallelIds);
+	}
+
+	@Test
+	public void testMergeMode()
+			throws IOException {
+		try (CloseableIterator<SimpleFeature> it = sequentialStore.mergeResults(queryEachIndex(sequentialStore))) {
+			assertFalse(it instanceof ParallelScanIterator);
+		}
+		try (CloseableIterator<SimpleFeature> it = parallelStore.mergeResults(queryEachIndex(parallelStore))) {
+			assertTrue(it instanceof ParallelScanIterator);
+		}
+	}
+
+	private List<String> query(
+			final VectorDataStore store )
+			throws IOException {
+		final List<String> ids = new ArrayList<String>();
+		try (CloseableIterator<SimpleFeature> it = store.mergeResults(queryEachIndex(store))) {
+			while (it.hasNext()) {
+				ids.add(it.next().getID());
+			}
+		}
+		// the merge order is only defined for sequential scans
+		Collections.sort(ids);
+		return ids;
+	}
+
+	private List<CloseableIterator<SimpleFeature>> queryEachIndex(
+			final VectorDataStore store ) {
+		final SpatialQuery query = new SpatialQuery(
+				factory.toGeometry(new Envelope(
+						-78,
+						-76,
+						38,
+						40)));
+		final List<CloseableIterator<SimpleFeature>> results = new ArrayList<CloseableIterator<SimpleFeature>>();
+		results.add(store.<SimpleFeature> query(
+				SPATIAL_INDEX,
+				query));
+		results.add(store.<SimpleFeature> query(
+				SPATIAL_TEMPORAL_INDEX,
+				query));
+		return results;
+	}
+}
@@ -0,0 +1,121 @@
+package mil.nga.giat.geowave.adapter.vector.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mil.nga.giat.geowave.adapter.vector.plugin.QueryPlan.IndexCandidate;
+import mil.nga.giat.geowave.core.geotime.IndexType;
+import mil.nga.giat.geowave.core.store.index.Index;
+
+import org.junit.Test;
+
+public class QueryPlannerTest
+{
+	private static final Index SPATIAL_INDEX = IndexType.SPATIAL_VECTOR.createDefaultIndex();
+	private static final Index SPATIAL_TEMPORAL_INDEX = IndexType.SPATIAL_TEMPORAL_VECTOR.createDefaultIndex();
+
+	@Test
+	public void testSingleCandidate() {
+		final QueryPlanner planner = new QueryPlanner();
+		planner.addCandidate(
+				SPATIAL_INDEX,
+				null,
+				false);
+		assertSelected(
+				planner.plan(),
+				SPATIAL_INDEX);
+	}
+
+	@Test
+	public void testSkipsIndicesWithoutAdapter() {
+		final QueryPlanner planner = new QueryPlanner();
+		planner.addCandidate(
+				SPATIAL_INDEX,
+				null,
+				true);
+		planner.addCandidate(
+				SPATIAL_TEMPORAL_INDEX,
+				null,
+				false);
+		final QueryPlan plan = planner.plan();
+		assertSelected(
+				plan,
+				SPATIAL_INDEX);
+		assertEquals(
+				2,
+				plan.getCandidates().size());
+	}
+
+	@Test
+	public void testQueriesEveryIndexHoldingAdapter() {
+		// separate ingests may have written different entries of the adapter
+		// to each index, so none of them can be left out
+		final QueryPlanner planner = new QueryPlanner();
+		planner.addCandidate(
+				SPATIAL_INDEX,
+				null,
+				true);
+		planner.addCandidate(
+				SPATIAL_TEMPORAL_INDEX,
+				null,
+				true);
+		assertSelected(
+				planner.plan(),
+				SPATIAL_INDEX,
+				SPATIAL_TEMPORAL_INDEX);
+	}
+
+	@Test
+	public void testQueriesIndicesThatMayHoldAdapter() {
+		final QueryPlanner planner = new QueryPlanner();
+		planner.addCandidate(
+				SPATIAL_INDEX,
+				null,
+				true);
+		planner.addCandidate(
+				SPATIAL_TEMPORAL_INDEX,
+				null,
+				null);
+		assertSelected(
+				planner.plan(),
+				SPATIAL_INDEX,
+				SPATIAL_TEMPORAL_INDEX);
+	}
+
+	@Test
+	public void testNoIndexKnownToHoldAdapter() {
+		final QueryPlanner planner = new QueryPlanner();
+		planner.addCandidate(
+				SPATIAL_INDEX,
+				null,
+				false);
+		planner.addCandidate(
+				SPATIAL_TEMPORAL_INDEX,
+				null,
+				false);
+		assertSelected(
+				planner.plan(),
+				SPATIAL_INDEX,
+				SPATIAL_TEMPORAL_INDEX);
+	}
+
+	private static void assertSelected(
+			final QueryPlan plan,
+			final Index... expected ) {
+		final List<Index> selected = new ArrayList<Index>();
+		for (final IndexCandidate candidate : plan.getSelected()) {
+			selected.add(candidate.getIndex());
+		}
+		assertEquals(
+				expected.length,
+				selected.size());
+		for (final Index index : expected) {
+			assertTrue(
+					plan.toString(),
+					selected.contains(index));
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package mil.nga.giat.geowave.adapter.vector.query;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import mil.nga.giat.geowave.adapter.vector.FeatureDataAdapter;
+import mil.nga.giat.geowave.adapter.vector.FeatureGeometryLevels;
+import mil.nga.giat.geowave.adapter.vector.VectorDataStore;
+import mil.nga.giat.geowave.adapter.vector.utils.GeometrySimplificationConfiguration;
+import mil.nga.giat.geowave.core.geotime.IndexType;
+import mil.nga.giat.geowave.core.geotime.store.query.SpatialQuery;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.ByteArrayUtils;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
+import mil.nga.giat.geowave.core.store.index.Index;
+import mil.nga.giat.geowave.datastore.accumulo.BasicAccumuloOperations;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.user.WholeRowIterator;
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.Filter;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+public class GeometryLevelIteratorTest
+{
+	private static final Index INDEX = IndexType.SPATIAL_VECTOR.createDefaultIndex();
+	private final GeometryFactory factory = new GeometryFactory();
+	private BasicAccumuloOperations operations;
+	private VectorDataStore dataStore;
+	private FeatureDataAdapter adapter;
+	private Geometry track;
+
+	@Before
+	public void setup()
+			throws SchemaException,
+			AccumuloException,
+			AccumuloSecurityException {
+		operations = new BasicAccumuloOperations(
+				new MockInstance(
+						"GeometryLevelIteratorTest").getConnector(
+						"root",
+						new PasswordToken(
+								new byte[0])));
+		dataStore = new VectorDataStore(
+				operations);
+		final SimpleFeatureType schema = DataUtilities.createType(
+				"GeometryLevelIteratorTest",
+				"geometry:Geometry:srid=4326,pid:String");
+		schema.getGeometryDescriptor().getUserData().put(
+				GeometrySimplificationConfiguration.SIMPLIFICATION_KEY,
+				"0.0001,0.001,0.01");
+		adapter = new FeatureDataAdapter(
+				schema);
+
+		// a track of closely spaced points along a gentle curve
+		final Coordinate[] coordinates = new Coordinate[1000];
+		for (int i = 0; i < coordinates.length; i++) {
+			coordinates[i] = new Coordinate(
+					-77.0 + (i * 0.0001),
+					38.9 + (Math.sin(i / 100.0) * 0.01));
+		}
+		track = factory.createLineString(coordinates);
+		final SimpleFeatureBuilder builder = new SimpleFeatureBuilder(
+				schema);
+		builder.set(
+				"geometry",
+				track);
+		builder.set(
+				"pid",
+				"track");
+		dataStore.ingest(
+				adapter,
+				INDEX,
+				builder.buildFeature("track"));
+	}
+
+	@Test
+	public void testQueryWithoutResolution()
+			throws IOException {
+		assertTrue(track.equalsExact(query(null)));
+	}
+
+	@Test
+	public void testQueryWithResolution()
+			throws IOException {
+		// the coarsest level accurate to the resolution replaces the geometry
+		final Geometry geometry = query(0.005);
+		assertTrue(geometry.getNumPoints() < track.getNumPoints());
+		assertTrue(FeatureGeometryLevels.simplify(
+				track,
+				0.001).equalsExact(
+				geometry));
+		// finer than every level, so the full geometry is returned
+		assertTrue(track.equalsExact(query(0.00001)));
+	}
+
+	@Test
+	public void testLevelFieldsRemoved()
+			throws IOException,
+			TableNotFoundException {
+		// the levels are stored alongside the full geometry
+		assertTrue(hasLevelFields(scanRows(false)));
+		assertFalse(hasLevelFields(scanRows(true)));
+	}
+
+	private Geometry query(
+			final Double geometryResolution )
+			throws IOException {
+		Geometry geometry = null;
+		try (CloseableIterator<SimpleFeature> it = dataStore.query(
+				adapter,
+				INDEX,
+				new SpatialQuery(
+						factory.toGeometry(new Envelope(
+								-78,
+								-76,
+								38,
+								40))),
+				(Filter) null,
+				(Integer) null,
+				geometryResolution)) {
+			// the track may be in more than one row but is returned once
+			while (it.hasNext()) {
+				geometry = (Geometry) it.next().getDefaultGeometry();
+			}
+		}
+		assertNotNull(geometry);
+		return geometry;
+	}
+
+	private SortedMap<Key, Value> scanRows(
+			final boolean withLevelFilter )
+			throws TableNotFoundException,
+			IOException {
+		final Scanner scanner = operations.createScanner(INDEX.getId().getString());
+		scanner.addScanIterator(new IteratorSetting(
+				10,
+				WholeRowIterator.class));
+		if (withLevelFilter) {
+			// as for a query without a resolution, the levels are dropped
+			// before the rows are encoded
+			final IteratorSetting iteratorSettings = new IteratorSetting(
+					GeometryLevelFilterIterator.GEOMETRY_LEVEL_FILTER_ITERATOR_PRIORITY,
+					GeometryLevelFilterIterator.GEOMETRY_LEVEL_FILTER_ITERATOR_NAME,
+					GeometryLevelFilterIterator.class);
+			iteratorSettings.addOption(
+					GeometryLevelIterator.LEVEL_FIELD_PREFIX,
+					ByteArrayUtils.byteArrayToString(FeatureGeometryLevels.getLevelFieldPrefix()));
+			scanner.addScanIterator(iteratorSettings);
+		}
+		final SortedMap<Key, Value> entries = new TreeMap<Key, Value>();
+		for (final Entry<Key, Value> row : scanner) {
+			entries.putAll(WholeRowIterator.decodeRow(
+					row.getKey(),
+					row.getValue()));
+		}
+		assertFalse(entries.isEmpty());
+		return entries;
+	}
+
+	private static boolean hasLevelFields(
+			final Map<Key, Value> entries ) {
+		for (final Key key : entries.keySet()) {
+			if (FeatureGeometryLevels.isLevelField(new ByteArrayId(
+					key.getColumnQualifierData().toArray()))) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
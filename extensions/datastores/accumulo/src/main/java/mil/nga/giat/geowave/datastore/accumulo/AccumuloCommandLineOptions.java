@@ -6,6 +6,7 @@ import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
+import org.apache.hadoop.conf.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,6 +23,8 @@ public class AccumuloCommandLineOptions
 	private final String user;
 	private final String password;
 	private final String namespace;
+	private final String bulkImportDirectory;
+	private final long bulkImportBufferSize;
 	private AccumuloOperations operations;
 
 	public AccumuloCommandLineOptions(
@@ -32,12 +35,51 @@ public class AccumuloCommandLineOptions
 			final String namespace )
 			throws AccumuloException,
 			AccumuloSecurityException {
+		this(
+				zookeepers,
+				instanceId,
+				user,
+				password,
+				namespace,
+				null);
+	}
+
+	public AccumuloCommandLineOptions(
+			final String zookeepers,
+			final String instanceId,
+			final String user,
+			final String password,
+			final String namespace,
+			final String bulkImportDirectory )
+			throws AccumuloException,
+			AccumuloSecurityException {
+		this(
+				zookeepers,
+				instanceId,
+				user,
+				password,
+				namespace,
+				bulkImportDirectory,
+				BulkImportAccumuloOperations.DEFAULT_MAX_BUFFER_SIZE);
+	}
+
+	public AccumuloCommandLineOptions(
+			final String zookeepers,
+			final String instanceId,
+			final String user,
+			final String password,
+			final String namespace,
+			final String bulkImportDirectory,
+			final long bulkImportBufferSize )
+			throws AccumuloException,
+			AccumuloSecurityException {
 		this.zookeepers = zookeepers;
 		this.instanceId = instanceId;
 		this.user = user;
 		this.password = password;
 		this.namespace = namespace;
-
+		this.bulkImportDirectory = bulkImportDirectory;
+		this.bulkImportBufferSize = bulkImportBufferSize;
 	}
 
 	public String getZookeepers() {
@@ -60,10 +102,37 @@ public class AccumuloCommandLineOptions
 		return namespace;
 	}
 
+	/**
+	 * @return the directory within which entries are written to files to be
+	 *         bulk imported, or null if they are written with a batch writer
+	 */
+	public String getBulkImportDirectory() {
+		return bulkImportDirectory;
+	}
+
+	/**
+	 * @return the approximate number of bytes of entries each bulk import
+	 *         writer sorts in memory before writing them to a file
+	 */
+	public long getBulkImportBufferSize() {
+		return bulkImportBufferSize;
+	}
+
 	public synchronized AccumuloOperations getAccumuloOperations()
 			throws AccumuloException,
 			AccumuloSecurityException {
-		if (operations == null) {
+		if ((operations == null) && (bulkImportDirectory != null)) {
+			operations = new BulkImportAccumuloOperations(
+					zookeepers,
+					instanceId,
+					user,
+					password,
+					namespace,
+					bulkImportDirectory,
+					new Configuration(),
+					bulkImportBufferSize);
+		}
+		else if (operations == null) {
 			operations = new BasicAccumuloOperations(
 					zookeepers,
 					instanceId,
@@ -85,6 +154,21 @@ public class AccumuloCommandLineOptions
 		final String namespace = commandLine.getOptionValue(
 				"n",
 				"");
+		final String bulkImportDirectory = commandLine.getOptionValue("bulkImportDir");
+		long bulkImportBufferSize = BulkImportAccumuloOperations.DEFAULT_MAX_BUFFER_SIZE;
+		if (commandLine.hasOption("bulkImportBufferMb")) {
+			final String value = commandLine.getOptionValue("bulkImportBufferMb");
+			try {
+				bulkImportBufferSize = Long.parseLong(value.trim()) * 1024L * 1024L;
+			}
+			catch (final NumberFormatException e) {
+				bulkImportBufferSize = 0;
+			}
+			if (bulkImportBufferSize <= 0) {
+				success = false;
+				LOGGER.error("Bulk import buffer size must be a positive number of megabytes, not '" + value + "'");
+			}
+		}
 		if (zookeepers == null) {
 			success = false;
 			LOGGER.error("Zookeeper URL not set");
@@ -111,7 +195,9 @@ public class AccumuloCommandLineOptions
 					instanceId,
 					user,
 					password,
-					namespace);
+					namespace,
+					bulkImportDirectory,
+					bulkImportBufferSize);
 		}
 		catch (AccumuloException | AccumuloSecurityException e) {
 			LOGGER.error(
@@ -160,5 +246,19 @@ public class AccumuloCommandLineOptions
 				true,
 				"The table namespace (optional; default is no namespace)");
 		allOptions.addOption(namespace);
+
+		final Option bulkImportDirectory = new Option(
+				"bid",
+				"bulkImportDir",
+				true,
+				"A directory, readable and writable by Accumulo, to write the ingested entries to as sorted files which are then bulk imported rather than written through a batch writer (optional; default is to use a batch writer)");
+		allOptions.addOption(bulkImportDirectory);
+
+		final Option bulkImportBufferSize = new Option(
+				"bibs",
+				"bulkImportBufferMb",
+				true,
+				"The megabytes of entries each bulk import writer sorts in memory before writing them to a file, when a bulk import directory is given (optional; default is " + (BulkImportAccumuloOperations.DEFAULT_MAX_BUFFER_SIZE / (1024L * 1024L)) + ")");
+		allOptions.addOption(bulkImportBufferSize);
 	}
 }
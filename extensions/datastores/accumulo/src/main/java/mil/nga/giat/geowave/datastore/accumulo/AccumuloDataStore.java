@@ -33,26 +33,33 @@ import mil.nga.giat.geowave.core.store.adapter.statistics.StatsCompositionTool;
 import mil.nga.giat.geowave.core.store.data.VisibilityWriter;
 import mil.nga.giat.geowave.core.store.data.visibility.UnconstrainedVisibilityHandler;
 import mil.nga.giat.geowave.core.store.data.visibility.UniformVisibilityWriter;
+import mil.nga.giat.geowave.core.store.filter.ConcurrentDedupeFilter;
 import mil.nga.giat.geowave.core.store.filter.MultiIndexDedupeFilter;
 import mil.nga.giat.geowave.core.store.index.Index;
 import mil.nga.giat.geowave.core.store.index.IndexStore;
 import mil.nga.giat.geowave.core.store.query.Query;
 import mil.nga.giat.geowave.core.store.query.QueryOptions;
+import mil.nga.giat.geowave.core.store.query.aggregate.Aggregation;
 import mil.nga.giat.geowave.datastore.accumulo.metadata.AccumuloAdapterStore;
 import mil.nga.giat.geowave.datastore.accumulo.metadata.AccumuloDataStatisticsStore;
 import mil.nga.giat.geowave.datastore.accumulo.metadata.AccumuloIndexStore;
+import mil.nga.giat.geowave.datastore.accumulo.query.AccumuloAggregationQuery;
 import mil.nga.giat.geowave.datastore.accumulo.query.AccumuloConstraintsQuery;
 import mil.nga.giat.geowave.datastore.accumulo.query.AccumuloFilteredIndexQuery;
 import mil.nga.giat.geowave.datastore.accumulo.query.AccumuloRowIdQuery;
 import mil.nga.giat.geowave.datastore.accumulo.query.AccumuloRowPrefixQuery;
+import mil.nga.giat.geowave.datastore.accumulo.query.AdaptiveRangeDecompositionPolicy;
+import mil.nga.giat.geowave.datastore.accumulo.query.FixedRangeDecompositionPolicy;
 import mil.nga.giat.geowave.datastore.accumulo.query.QueryFilterIterator;
+import mil.nga.giat.geowave.datastore.accumulo.query.RangeDecompositionPolicy;
 import mil.nga.giat.geowave.datastore.accumulo.query.SingleEntryFilterIterator;
 import mil.nga.giat.geowave.datastore.accumulo.util.AccumuloUtils;
 import mil.nga.giat.geowave.datastore.accumulo.util.AltIndexIngestCallback;
 import mil.nga.giat.geowave.datastore.accumulo.util.CloseableIteratorWrapper;
+import mil.nga.giat.geowave.datastore.accumulo.util.ParallelScanIterator;
 import mil.nga.giat.geowave.datastore.accumulo.util.DataAdapterAndIndexCache;
+import mil.nga.giat.geowave.datastore.accumulo.util.EntryToMutationConverter;
 import mil.nga.giat.geowave.datastore.accumulo.util.IteratorWrapper;
-import mil.nga.giat.geowave.datastore.accumulo.util.IteratorWrapper.Callback;
 import mil.nga.giat.geowave.datastore.accumulo.util.IteratorWrapper.Converter;
 
 import org.apache.accumulo.core.client.AccumuloException;
@@ -97,6 +104,9 @@ public class AccumuloDataStore implements
 	protected final DataStatisticsStore statisticsStore;
 	protected final AccumuloOperations accumuloOperations;
 	protected final AccumuloOptions accumuloOptions;
+	private final RangeDecompositionPolicy adaptiveRangeDecompositionPolicy;
+	private final RangeDecompositionPolicy fixedRangeDecompositionPolicy = new FixedRangeDecompositionPolicy();
+	private RangeDecompositionPolicy rangeDecompositionPolicy = null;
 
 	public AccumuloDataStore(
 			final AccumuloOperations accumuloOperations ) {
@@ -115,9 +125,15 @@ public class AccumuloDataStore implements
 			final AccumuloOptions accumuloOptions ) {
 		this(
 				new AccumuloIndexStore(
-						accumuloOperations),
+						accumuloOperations,
+						accumuloOptions.getMetadataCacheSize(),
+						accumuloOptions.getMetadataCacheExpiryMillis(),
+						accumuloOptions.getMetadataCacheMissExpiryMillis()),
 				new AccumuloAdapterStore(
-						accumuloOperations),
+						accumuloOperations,
+						accumuloOptions.getMetadataCacheSize(),
+						accumuloOptions.getMetadataCacheExpiryMillis(),
+						accumuloOptions.getMetadataCacheMissExpiryMillis()),
 				new AccumuloDataStatisticsStore(
 						accumuloOperations),
 				accumuloOperations,
@@ -148,6 +164,30 @@ public class AccumuloDataStore implements
 		this.statisticsStore = statisticsStore;
 		this.accumuloOperations = accumuloOperations;
 		this.accumuloOptions = accumuloOptions;
+		adaptiveRangeDecompositionPolicy = new AdaptiveRangeDecompositionPolicy(
+				accumuloOperations,
+				statisticsStore);
+	}
+
+	/**
+	 * @return the policy deciding how many ranges the constraints of queries
+	 *         are decomposed into
+	 */
+	public RangeDecompositionPolicy getRangeDecompositionPolicy() {
+		if (rangeDecompositionPolicy != null) {
+			return rangeDecompositionPolicy;
+		}
+		return accumuloOptions.isAdaptiveRangeDecomposition() ? adaptiveRangeDecompositionPolicy : fixedRangeDecompositionPolicy;
+	}
+
+	/**
+	 * @param rangeDecompositionPolicy
+	 *            a policy to use in place of the one chosen by the options,
+	 *            null to use the options again
+	 */
+	public void setRangeDecompositionPolicy(
+			final RangeDecompositionPolicy rangeDecompositionPolicy ) {
+		this.rangeDecompositionPolicy = rangeDecompositionPolicy;
 	}
 
 	@Override
@@ -483,37 +523,20 @@ public class AccumuloDataStore implements
 				finalIngestCallback = null;
 			}
 
+			// encode each entry once and share the resulting entry info with
+			// the ingest callbacks rather than re-encoding it after the write
+			final EntryToMutationConverter<T> converter = new EntryToMutationConverter<T>(
+					dataWriter,
+					index,
+					customFieldVisibilityWriter,
+					finalIngestCallback);
 			writer.write(new Iterable<Mutation>() {
 				@Override
 				public Iterator<Mutation> iterator() {
 					return new IteratorWrapper<T, Mutation>(
 							entryIterator,
-							new Converter<T, Mutation>() {
-
-								@Override
-								public Iterator<Mutation> convert(
-										final T entry ) {
-									return AccumuloUtils.entryToMutations(
-											dataWriter,
-											index,
-											entry,
-											customFieldVisibilityWriter).iterator();
-								}
-							},
-							finalIngestCallback == null ? null : new Callback<T, Mutation>() {
-
-								@Override
-								public void notifyIterationComplete(
-										final T entry ) {
-									finalIngestCallback.entryIngested(
-											AccumuloUtils.getIngestInfo(
-													dataWriter,
-													index,
-													entry,
-													customFieldVisibilityWriter),
-											entry);
-								}
-							});
+							converter,
+							finalIngestCallback == null ? null : converter);
 				}
 			});
 			writer.close();
@@ -1024,6 +1047,7 @@ public class AccumuloDataStore implements
 				new ArrayList<Object>().iterator());
 	}
 
+	@SuppressWarnings("unchecked")
 	private CloseableIterator<?> query(
 			final List<ByteArrayId> adapterIds,
 			final Query query,
@@ -1035,14 +1059,32 @@ public class AccumuloDataStore implements
 			final String... authorizations ) {
 		// query the indices that are supported for this query object, and these
 		// data adapter Ids
-		final List<CloseableIterator<?>> results = new ArrayList<CloseableIterator<?>>();
+		final List<CloseableIterator<Object>> results = new ArrayList<CloseableIterator<Object>>();
+		final List<MultiIndexDedupeFilter> clientDedupeFilters = new ArrayList<MultiIndexDedupeFilter>();
 		int indexCount = 0;
-		// all queries will use the same instance of the dedupe filter for
-		// client side filtering because the filter needs to be applied across
-		// indices
-		final MultiIndexDedupeFilter clientDedupeFilter = new MultiIndexDedupeFilter();
+		// a dedupe filter bounded in memory by the query options is a single
+		// set of fingerprints, so those queries scan the indices in turn
+		final boolean parallel = accumuloOptions.isParallelIndexQueries() && ((queryOptions == null) || !queryOptions.isDedupeMemoryBounded());
+		// sequential queries will use the same instance of the dedupe filter
+		// for client side filtering because the filter needs to be applied
+		// across indices, parallel queries give each index scan its own filter
+		// sharing the visited IDs
+		final MultiIndexDedupeFilter sharedDedupeFilter;
+		if (parallel) {
+			sharedDedupeFilter = new ConcurrentDedupeFilter();
+		}
+		else {
+			sharedDedupeFilter = queryOptions == null ? new MultiIndexDedupeFilter() : queryOptions.createDedupeFilter();
+		}
 		while (indices.hasNext()) {
 			final Index index = indices.next();
+			final MultiIndexDedupeFilter clientDedupeFilter;
+			if (parallel && !clientDedupeFilters.isEmpty()) {
+				clientDedupeFilter = ((ConcurrentDedupeFilter) sharedDedupeFilter).createSharedFilter();
+			}
+			else {
+				clientDedupeFilter = sharedDedupeFilter;
+			}
 			final AccumuloConstraintsQuery accumuloQuery;
 			if (query == null) {
 				accumuloQuery = new AccumuloConstraintsQuery(
@@ -1070,17 +1112,28 @@ public class AccumuloDataStore implements
 				// results should contain subset of fieldIds
 				accumuloQuery.setFieldIds(queryOptions.getFieldIds());
 			}
-			results.add(accumuloQuery.query(
+			accumuloQuery.setRangeDecompositionPolicy(getRangeDecompositionPolicy());
+			results.add((CloseableIterator<Object>) accumuloQuery.query(
 					accumuloOperations,
 					adapterStore,
 					limit,
 					true));
+			clientDedupeFilters.add(clientDedupeFilter);
 			indexCount++;
 		}
 		// if there aren't multiple indices, the client-side dedupe filter can
 		// just cache rows that are duplicated within the index and not
 		// everything
-		clientDedupeFilter.setMultiIndexSupportEnabled(indexCount > 1);
+		for (final MultiIndexDedupeFilter clientDedupeFilter : clientDedupeFilters) {
+			clientDedupeFilter.setMultiIndexSupportEnabled(indexCount > 1);
+		}
+		if (parallel && (indexCount > 1)) {
+			// scan the indices at once
+			return new ParallelScanIterator<Object>(
+					results,
+					accumuloOptions.getIndexQueryThreads(),
+					accumuloOptions.getIndexQueryQueueSize());
+		}
 		// concatenate iterators
 		return new CloseableIteratorWrapper<Object>(
 				new Closeable() {
@@ -1249,6 +1302,30 @@ public class AccumuloDataStore implements
 				authorizations);
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T, A extends Aggregation<T>> A aggregate(
+			final DataAdapter<T> adapter,
+			final Index index,
+			final Query query,
+			final A aggregation,
+			final String... authorizations ) {
+		if ((query != null) && !query.isSupported(index)) {
+			throw new IllegalArgumentException(
+					"Index does not support the query");
+		}
+		store(adapter);
+		final AccumuloAggregationQuery accumuloQuery = new AccumuloAggregationQuery(
+				adapter,
+				index,
+				query == null ? null : query.getIndexConstraints(index.getIndexStrategy()),
+				query == null ? null : query.createFilters(index.getIndexModel()),
+				aggregation,
+				authorizations);
+		accumuloQuery.setRangeDecompositionPolicy(getRangeDecompositionPolicy());
+		return (A) accumuloQuery.aggregate(accumuloOperations);
+	}
+
 	public <T> void deleteEntries(
 			final DataAdapter<T> adapter,
 			final Index index,
@@ -1281,11 +1358,13 @@ public class AccumuloDataStore implements
 	private <T> StatsCompositionTool<T> getStatsCompositionTool(
 			final Index index,
 			final DataAdapter<T> adapter ) {
-		return new StatsCompositionTool<T>(
+		final StatsCompositionTool<T> tool = new StatsCompositionTool<T>(
 				new DataAdapterStatsWrapper<T>(
 						index,
 						adapter),
 				accumuloOptions.isPersistDataStatistics() ? statisticsStore : null);
+		tool.setFlushIntervalMillis(accumuloOptions.getStatisticsFlushIntervalMillis());
+		return tool;
 	}
 
 	private <T> void synchronizeStatsWithStore(
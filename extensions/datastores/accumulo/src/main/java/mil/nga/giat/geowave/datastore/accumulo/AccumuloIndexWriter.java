@@ -1,10 +1,12 @@
 package mil.nga.giat.geowave.datastore.accumulo;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.index.StringUtils;
@@ -23,6 +25,7 @@ import mil.nga.giat.geowave.datastore.accumulo.util.DataAdapterAndIndexCache;
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.data.Mutation;
 import org.apache.log4j.Logger;
 
 /**
@@ -30,6 +33,9 @@ import org.apache.log4j.Logger;
  * open writer. The first entry that is written will open a writer and it is the
  * responsibility of the caller to close this writer when complete.
  * 
+ * Many threads can share a writer. Each adapter is registered the first time
+ * it is written, entries are encoded on the writing threads concurrently, and
+ * only handing the mutations off to the underlying writers is synchronized.
  */
 public class AccumuloIndexWriter implements
 		IndexWriter
@@ -47,7 +53,11 @@ public class AccumuloIndexWriter implements
 	protected String altIdxTableName;
 
 	protected boolean persistStats;
-	protected final Map<ByteArrayId, StatsCompositionTool<?>> statsMap = new HashMap<ByteArrayId, StatsCompositionTool<?>>();
+	// bulk imported entries are only in the table once imported, so their
+	// statistics are only written once the writers have been flushed
+	protected boolean deferStats;
+	protected final ConcurrentMap<ByteArrayId, StatsCompositionTool<?>> statsMap = new ConcurrentHashMap<ByteArrayId, StatsCompositionTool<?>>();
+	protected final Set<ByteArrayId> registeredAdapters = Collections.newSetFromMap(new ConcurrentHashMap<ByteArrayId, Boolean>());
 
 	public AccumuloIndexWriter(
 			final Index index,
@@ -78,6 +88,7 @@ public class AccumuloIndexWriter implements
 
 		useAltIndex = accumuloOptions.isUseAltIndex();
 		persistStats = accumuloOptions.isPersistDataStatistics();
+		deferStats = accumuloOperations instanceof BulkImportAccumuloOperations;
 		if (useAltIndex) {
 			if (accumuloOperations.tableExists(indexName)) {
 				if (!accumuloOperations.tableExists(altIdxTableName)) {
@@ -122,13 +133,19 @@ public class AccumuloIndexWriter implements
 	}
 
 	private synchronized void closeInternal() {
-		if (writer != null) {
-			writer.close();
-			writer = null;
+		try {
+			if (writer != null) {
+				final Writer closing = writer;
+				writer = null;
+				closing.close();
+			}
 		}
-		if (useAltIndex && (altIdxWriter != null)) {
-			altIdxWriter.close();
-			altIdxWriter = null;
+		finally {
+			if (useAltIndex && (altIdxWriter != null)) {
+				final Writer closing = altIdxWriter;
+				altIdxWriter = null;
+				closing.close();
+			}
 		}
 	}
 
@@ -164,78 +181,109 @@ public class AccumuloIndexWriter implements
 	public <T> List<ByteArrayId> writeInternal(
 			final WritableDataAdapter<T> writableAdapter,
 			final T entry ) {
-		final ByteArrayId adapterIdObj = writableAdapter.getAdapterId();
-
-		final byte[] adapterId = writableAdapter.getAdapterId().getBytes();
+		register(writableAdapter);
 
-		try {
-			if (writableAdapter instanceof AttachedIteratorDataAdapter) {
-				if (!DataAdapterAndIndexCache.getInstance(
-						AttachedIteratorDataAdapter.ATTACHED_ITERATOR_CACHE_ID).add(
-						adapterIdObj,
-						indexName)) {
-					accumuloOperations.attachIterators(
-							indexName,
-							accumuloOptions.isCreateTable(),
-							((AttachedIteratorDataAdapter) writableAdapter).getAttachedIteratorConfig(index));
-				}
+		// encode on the calling thread so that threads sharing this writer
+		// encode their entries concurrently, and only hand the mutations off
+		// to the writers one thread at a time
+		final DataStoreEntryInfo entryInfo = AccumuloUtils.getIngestInfo(
+				writableAdapter,
+				index,
+				entry);
+		final List<Mutation> mutations = AccumuloUtils.buildMutations(
+				writableAdapter.getAdapterId().getBytes(),
+				entryInfo);
+		final List<Mutation> altIdxMutations = useAltIndex ? AccumuloUtils.buildAltIndexMutations(
+				writableAdapter,
+				entryInfo,
+				entry) : null;
+		synchronized (this) {
+			ensureOpen();
+			writer.write(mutations);
+			if ((altIdxMutations != null) && !altIdxMutations.isEmpty()) {
+				altIdxWriter.write(altIdxMutations);
 			}
-			if (accumuloOptions.isUseLocalityGroups() && !accumuloOperations.localityGroupExists(
-					indexName,
-					adapterId)) {
-				accumuloOperations.addLocalityGroup(
-						indexName,
-						adapterId);
+			if (persistStats && deferStats) {
+				// counted along with the write so that a flush imports every
+				// entry it writes the statistics of
+				getStatsTool(
+						writableAdapter).entryIngested(
+						entryInfo,
+						entry);
 			}
 		}
-		catch (AccumuloException | TableNotFoundException | AccumuloSecurityException e) {
-			LOGGER.error(
-					"Unable to determine existence of locality group [" + writableAdapter.getAdapterId().getString() + "]",
-					e);
+		if (persistStats && !deferStats) {
+			// the tool keeps separate statistics for each thread
+			getStatsTool(
+					writableAdapter).entryIngested(
+					entryInfo,
+					entry);
 		}
-		DataStoreEntryInfo entryInfo;
-		synchronized (this) {
-			dataStore.store(writableAdapter);
-			dataStore.store(index);
-
-			ensureOpen();
-			entryInfo = AccumuloUtils.write(
-					writableAdapter,
-					index,
-					entry,
-					writer);
+		return entryInfo.getRowIds();
+	}
 
-			if (useAltIndex) {
-				AccumuloUtils.writeAltIndex(
-						writableAdapter,
-						entryInfo,
-						entry,
-						altIdxWriter);
+	/**
+	 * Sets up the table for the adapter and persists the adapter and index the
+	 * first time the adapter is written
+	 */
+	private <T> void register(
+			final WritableDataAdapter<T> writableAdapter ) {
+		final ByteArrayId adapterId = writableAdapter.getAdapterId();
+		if (registeredAdapters.contains(adapterId)) {
+			return;
+		}
+		synchronized (registeredAdapters) {
+			// other threads writing the same adapter wait for it to be
+			// registered
+			if (!registeredAdapters.contains(adapterId)) {
+				// the table must exist for the locality group to be added
+				ensureOpen();
+				setupAdapter(writableAdapter);
+				dataStore.store(writableAdapter);
+				dataStore.store(index);
+				registeredAdapters.add(adapterId);
 			}
-			if (persistStats) {
-				StatsCompositionTool<T> tool = (StatsCompositionTool<T>) statsMap.get(adapterIdObj);
-				if (tool == null) {
-					tool = new StatsCompositionTool<T>(
-							new DataAdapterStatsWrapper<T>(
-									index,
-									writableAdapter));
-					statsMap.put(
-							adapterIdObj,
-							tool);
-				}
-				tool.entryIngested(
-						entryInfo,
-						entry);
+		}
+	}
 
+	@SuppressWarnings("unchecked")
+	private <T> StatsCompositionTool<T> getStatsTool(
+			final WritableDataAdapter<T> writableAdapter ) {
+		final ByteArrayId adapterId = writableAdapter.getAdapterId();
+		StatsCompositionTool<T> tool = (StatsCompositionTool<T>) statsMap.get(adapterId);
+		if (tool == null) {
+			tool = new StatsCompositionTool<T>(
+					new DataAdapterStatsWrapper<T>(
+							index,
+							writableAdapter));
+			if (!deferStats && (accumuloOptions.getStatisticsFlushIntervalMillis() > 0)) {
+				// periodic flushes need the store up front
+				tool.setStatisticsStore(new AccumuloDataStatisticsStore(
+						accumuloOperations));
+				tool.setFlushIntervalMillis(accumuloOptions.getStatisticsFlushIntervalMillis());
+			}
+			final StatsCompositionTool<?> existingTool = statsMap.putIfAbsent(
+					adapterId,
+					tool);
+			if (existingTool != null) {
+				tool = (StatsCompositionTool<T>) existingTool;
 			}
 		}
-		return entryInfo.getRowIds();
+		return tool;
 	}
 
 	@Override
 	public void close() {
 		// thread safe close
-		closeInternal();
+		try {
+			closeInternal();
+		}
+		catch (final RuntimeException e) {
+			// the entries may not have been written, as when a bulk import
+			// fails, so their statistics are not merged into the store
+			statsMap.clear();
+			throw e;
+		}
 
 		// write the statistics and clear it
 
@@ -286,22 +334,34 @@ public class AccumuloIndexWriter implements
 	@Override
 	public synchronized void flush() {
 		// thread safe flush of the writers
-		if (writer != null) {
-			writer.flush();
+		try {
+			if (writer != null) {
+				writer.flush();
+			}
+			if (useAltIndex && (altIdxWriter != null)) {
+				altIdxWriter.flush();
+			}
 		}
-		if (useAltIndex && (altIdxWriter != null)) {
-			altIdxWriter.flush();
+		catch (final RuntimeException e) {
+			if (deferStats) {
+				// as on close, the statistics of entries that failed to be
+				// imported are not merged into the store
+				for (final StatsCompositionTool<?> tool : statsMap.values()) {
+					tool.reset();
+				}
+			}
+			throw e;
 		}
 
-		// write the statistics and clear it
+		// write the statistics, keeping the tools as other threads may still
+		// be updating them
 		if (persistStats) {
 			final DataStatisticsStore statsStore = new AccumuloDataStatisticsStore(
 					accumuloOperations);
-			for (StatsCompositionTool<?> tool : this.statsMap.values()) {
+			for (final StatsCompositionTool<?> tool : statsMap.values()) {
 				tool.setStatisticsStore(statsStore);
 				tool.flush();
 			}
-			statsMap.clear();
 		}
 	}
 }
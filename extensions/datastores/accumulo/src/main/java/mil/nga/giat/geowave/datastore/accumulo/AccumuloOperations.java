@@ -1,5 +1,6 @@
 package mil.nga.giat.geowave.datastore.accumulo;
 
+import java.util.Collection;
 import java.util.List;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
@@ -10,6 +11,7 @@ import org.apache.accumulo.core.client.BatchDeleter;
 import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.Scanner;
 import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.hadoop.io.Text;
 
 /**
  * This interface is used as a basis for establishing connections for queries
@@ -188,6 +190,22 @@ public interface AccumuloOperations
 	public boolean tableExists(
 			final String tableName );
 
+	/**
+	 * Gets the split points of the table with the given name, which divide it
+	 * into tablets
+	 * 
+	 * @param tableName
+	 *            The basic name of the table. Note that that basic
+	 *            implementation of the factory will allow for a table namespace
+	 *            to prefix this name
+	 * @return The split points, in sorted order
+	 */
+	public Collection<Text> getSplits(
+			final String tableName )
+			throws AccumuloException,
+			AccumuloSecurityException,
+			TableNotFoundException;
+
 	/**
 	 * Checks for the existence of the locality group with the given name,
 	 * within the table of the given name
@@ -12,6 +12,14 @@ public class AccumuloOptions
 	protected boolean createTable = true;
 	protected boolean useLocalityGroups = true;
 	protected boolean useAltIndex = true;
+	protected boolean parallelIndexQueries = false;
+	protected int indexQueryThreads = 4;
+	protected int indexQueryQueueSize = 1000;
+	protected long statisticsFlushIntervalMillis = 0;
+	protected boolean adaptiveRangeDecomposition = false;
+	protected int metadataCacheSize = 100;
+	protected long metadataCacheExpiryMillis = 0;
+	protected long metadataCacheMissExpiryMillis = 0;
 
 	public boolean isPersistDataStatistics() {
 		return persistDataStatistics;
@@ -66,4 +74,117 @@ public class AccumuloOptions
 			final boolean useAltIndex ) {
 		this.useAltIndex = useAltIndex;
 	}
+
+	/**
+	 * When enabled, queries across multiple indices scan every index at once
+	 * rather than one index after another, merging the results through a
+	 * bounded queue. Results are no longer grouped by index, and any scan
+	 * callback may be invoked from multiple threads. The scans of all queries
+	 * share one bounded pool of threads. Queries with a memory bounded dedupe
+	 * filter still scan one index after another.
+	 */
+	public boolean isParallelIndexQueries() {
+		return parallelIndexQueries;
+	}
+
+	public void setParallelIndexQueries(
+			final boolean parallelIndexQueries ) {
+		this.parallelIndexQueries = parallelIndexQueries;
+	}
+
+	/**
+	 * @return the maximum number of indices scanned at once by a single
+	 *         parallel query
+	 */
+	public int getIndexQueryThreads() {
+		return indexQueryThreads;
+	}
+
+	public void setIndexQueryThreads(
+			final int indexQueryThreads ) {
+		this.indexQueryThreads = indexQueryThreads;
+	}
+
+	/**
+	 * @return the number of results a parallel query buffers before the index
+	 *         scans wait for the consumer
+	 */
+	public int getIndexQueryQueueSize() {
+		return indexQueryQueueSize;
+	}
+
+	public void setIndexQueryQueueSize(
+			final int indexQueryQueueSize ) {
+		this.indexQueryQueueSize = indexQueryQueueSize;
+	}
+
+	/**
+	 * @return the minimum time between writes of the statistics accumulated
+	 *         while ingesting, or 0 to only write them when the ingest is
+	 *         flushed or closed
+	 */
+	public long getStatisticsFlushIntervalMillis() {
+		return statisticsFlushIntervalMillis;
+	}
+
+	public void setStatisticsFlushIntervalMillis(
+			final long statisticsFlushIntervalMillis ) {
+		this.statisticsFlushIntervalMillis = statisticsFlushIntervalMillis;
+	}
+
+	/**
+	 * When enabled, the number of ranges a query is decomposed into is chosen
+	 * per query from the statistics and the tablets of the index, rather than
+	 * being fixed. This costs a statistics lookup and a lookup of the table's
+	 * splits per query plan, although both are cached briefly. Disabled by
+	 * default.
+	 */
+	public boolean isAdaptiveRangeDecomposition() {
+		return adaptiveRangeDecomposition;
+	}
+
+	public void setAdaptiveRangeDecomposition(
+			final boolean adaptiveRangeDecomposition ) {
+		this.adaptiveRangeDecomposition = adaptiveRangeDecomposition;
+	}
+
+	/**
+	 * @return the maximum number of adapters, and of indices, that the data
+	 *         store caches
+	 */
+	public int getMetadataCacheSize() {
+		return metadataCacheSize;
+	}
+
+	public void setMetadataCacheSize(
+			final int metadataCacheSize ) {
+		this.metadataCacheSize = metadataCacheSize;
+	}
+
+	/**
+	 * @return the time after which a cached adapter or index is looked up
+	 *         again, so that updates made by other processes are seen, or 0 to
+	 *         keep them until they are evicted
+	 */
+	public long getMetadataCacheExpiryMillis() {
+		return metadataCacheExpiryMillis;
+	}
+
+	public void setMetadataCacheExpiryMillis(
+			final long metadataCacheExpiryMillis ) {
+		this.metadataCacheExpiryMillis = metadataCacheExpiryMillis;
+	}
+
+	/**
+	 * @return the time for which an adapter or index that was not found is not
+	 *         looked up again, or 0 to look it up every time
+	 */
+	public long getMetadataCacheMissExpiryMillis() {
+		return metadataCacheMissExpiryMillis;
+	}
+
+	public void setMetadataCacheMissExpiryMillis(
+			final long metadataCacheMissExpiryMillis ) {
+		this.metadataCacheMissExpiryMillis = metadataCacheMissExpiryMillis;
+	}
 }
@@ -4,6 +4,8 @@ import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import mil.nga.giat.geowave.datastore.accumulo.util.EncodingBuffer;
+
 import org.apache.accumulo.core.data.Key;
 
 /**
@@ -69,14 +71,30 @@ public class AccumuloRowId
 	}
 
 	public byte[] getRowId() {
-		final ByteBuffer buf = ByteBuffer.allocate(12 + dataId.length + adapterId.length + insertionId.length);
-		buf.put(insertionId);
-		buf.put(adapterId);
-		buf.put(dataId);
-		buf.putInt(adapterId.length);
-		buf.putInt(dataId.length);
-		buf.putInt(numberOfDuplicates);
-		return buf.array();
+		return getRowId(
+				insertionId,
+				dataId,
+				adapterId,
+				numberOfDuplicates);
+	}
+
+	/**
+	 * Serializes the elements of a row ID without constructing the row ID,
+	 * writing them into the encoding buffer of the calling thread so that only
+	 * the returned array is allocated
+	 */
+	public static byte[] getRowId(
+			final byte[] insertionId,
+			final byte[] dataId,
+			final byte[] adapterId,
+			final int numberOfDuplicates ) {
+		return EncodingBuffer.get().put(
+				insertionId).put(
+				adapterId).put(
+				dataId).putInt(
+				adapterId.length).putInt(
+				dataId.length).putInt(
+				numberOfDuplicates).toByteArray();
 	}
 
 	public byte[] getInsertionId() {
@@ -2,6 +2,7 @@ package mil.nga.giat.geowave.datastore.accumulo;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -216,7 +217,24 @@ public class BasicAccumuloOperations implements
 			final boolean createTable )
 			throws TableNotFoundException {
 		final String qName = getQualifiedTableName(tableName);
-		if (createTable && !connector.tableOperations().exists(
+		if (createTable) {
+			createWriterTable(qName);
+		}
+		return new mil.nga.giat.geowave.datastore.accumulo.BatchWriterWrapper(
+				connector.createBatchWriter(
+						qName,
+						byteBufferSize,
+						timeoutMillis,
+						numThreads));
+	}
+
+	/**
+	 * Creates the table written to by a writer, with the default table
+	 * configuration, if it does not exist
+	 */
+	protected void createWriterTable(
+			final String qName ) {
+		if (!connector.tableOperations().exists(
 				qName)) {
 			try {
 				connector.tableOperations().create(
@@ -228,12 +246,6 @@ public class BasicAccumuloOperations implements
 						e);
 			}
 		}
-		return new mil.nga.giat.geowave.datastore.accumulo.BatchWriterWrapper(
-				connector.createBatchWriter(
-						qName,
-						byteBufferSize,
-						timeoutMillis,
-						numThreads));
 	}
 
 	@Override
@@ -307,7 +319,7 @@ public class BasicAccumuloOperations implements
 		return tableNamespace;
 	}
 
-	private String getQualifiedTableName(
+	protected String getQualifiedTableName(
 			final String unqualifiedTableName ) {
 		return AccumuloUtils.getQualifiedTableName(
 				tableNamespace,
@@ -450,6 +462,16 @@ public class BasicAccumuloOperations implements
 				qName);
 	}
 
+	@Override
+	public Collection<Text> getSplits(
+			final String tableName )
+			throws AccumuloException,
+			AccumuloSecurityException,
+			TableNotFoundException {
+		return connector.tableOperations().listSplits(
+				getQualifiedTableName(tableName));
+	}
+
 	@Override
 	public boolean localityGroupExists(
 			final String tableName,
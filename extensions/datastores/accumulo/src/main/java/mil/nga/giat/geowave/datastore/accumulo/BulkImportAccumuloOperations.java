@@ -0,0 +1,200 @@
+package mil.nga.giat.geowave.datastore.accumulo;
+
+import java.io.IOException;
+
+import mil.nga.giat.geowave.datastore.accumulo.metadata.AbstractAccumuloPersistence;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.log4j.Logger;
+
+/**
+ * This Accumulo operations implementation writes the entries of the index
+ * tables with a bulk import rather than a batch writer (see
+ * {@link BulkImportWriter}). The GeoWave metadata, including the adapters,
+ * indices and the statistics gathered as the entries are written, is still
+ * written with a batch writer so that the statistics continue to be merged by
+ * the combiner on the metadata table. The statistics of the entries are only
+ * written once the entries have been imported, when the index writer is
+ * flushed or closed.
+ */
+public class BulkImportAccumuloOperations extends
+		BasicAccumuloOperations
+{
+	private final static Logger LOGGER = Logger.getLogger(BulkImportAccumuloOperations.class);
+	public static final long DEFAULT_MAX_BUFFER_SIZE = 256L * 1024L * 1024L; // 256 MB
+
+	private final String bulkImportDirectory;
+	private final Configuration configuration;
+	private final long maxBufferSize;
+
+	/**
+	 * @param zookeeperUrl
+	 *            The comma-delimited URLs for all zookeeper servers
+	 * @param instanceName
+	 *            The zookeeper instance name
+	 * @param userName
+	 *            The username for an account to establish an Accumulo connector
+	 * @param password
+	 *            The password for the account to establish an Accumulo
+	 *            connector
+	 * @param tableNamespace
+	 *            An optional string that is prefixed to any of the table names
+	 * @param bulkImportDirectory
+	 *            The directory, readable and writable by Accumulo, within which
+	 *            the files to import are written
+	 * @param configuration
+	 *            The Hadoop configuration used to access the directory
+	 * @throws AccumuloException
+	 *             Thrown if a generic exception occurs when establishing a
+	 *             connector
+	 * @throws AccumuloSecurityException
+	 *             the credentials passed in are invalid
+	 */
+	public BulkImportAccumuloOperations(
+			final String zookeeperUrl,
+			final String instanceName,
+			final String userName,
+			final String password,
+			final String tableNamespace,
+			final String bulkImportDirectory,
+			final Configuration configuration )
+			throws AccumuloException,
+			AccumuloSecurityException {
+		this(
+				zookeeperUrl,
+				instanceName,
+				userName,
+				password,
+				tableNamespace,
+				bulkImportDirectory,
+				configuration,
+				DEFAULT_MAX_BUFFER_SIZE);
+	}
+
+	/**
+	 * @param zookeeperUrl
+	 *            The comma-delimited URLs for all zookeeper servers
+	 * @param instanceName
+	 *            The zookeeper instance name
+	 * @param userName
+	 *            The username for an account to establish an Accumulo connector
+	 * @param password
+	 *            The password for the account to establish an Accumulo
+	 *            connector
+	 * @param tableNamespace
+	 *            An optional string that is prefixed to any of the table names
+	 * @param bulkImportDirectory
+	 *            The directory, readable and writable by Accumulo, within which
+	 *            the files to import are written
+	 * @param configuration
+	 *            The Hadoop configuration used to access the directory
+	 * @param maxBufferSize
+	 *            The approximate number of bytes of entries each writer sorts
+	 *            in memory before writing them to a file
+	 * @throws AccumuloException
+	 *             Thrown if a generic exception occurs when establishing a
+	 *             connector
+	 * @throws AccumuloSecurityException
+	 *             the credentials passed in are invalid
+	 */
+	public BulkImportAccumuloOperations(
+			final String zookeeperUrl,
+			final String instanceName,
+			final String userName,
+			final String password,
+			final String tableNamespace,
+			final String bulkImportDirectory,
+			final Configuration configuration,
+			final long maxBufferSize )
+			throws AccumuloException,
+			AccumuloSecurityException {
+		super(
+				zookeeperUrl,
+				instanceName,
+				userName,
+				password,
+				tableNamespace);
+		this.bulkImportDirectory = bulkImportDirectory;
+		this.configuration = configuration;
+		this.maxBufferSize = maxBufferSize;
+	}
+
+	/**
+	 * @param connector
+	 *            The connector to use for all operations
+	 * @param tableNamespace
+	 *            An optional string that is prefixed to any of the table names
+	 * @param bulkImportDirectory
+	 *            The directory, readable and writable by Accumulo, within which
+	 *            the files to import are written
+	 * @param configuration
+	 *            The Hadoop configuration used to access the directory
+	 * @param maxBufferSize
+	 *            The approximate number of bytes of entries each writer sorts
+	 *            in memory before writing them to a file
+	 */
+	public BulkImportAccumuloOperations(
+			final Connector connector,
+			final String tableNamespace,
+			final String bulkImportDirectory,
+			final Configuration configuration,
+			final long maxBufferSize ) {
+		super(
+				connector,
+				tableNamespace);
+		this.bulkImportDirectory = bulkImportDirectory;
+		this.configuration = configuration;
+		this.maxBufferSize = maxBufferSize;
+	}
+
+	public String getBulkImportDirectory() {
+		return bulkImportDirectory;
+	}
+
+	public long getMaxBufferSize() {
+		return maxBufferSize;
+	}
+
+	@Override
+	public Writer createWriter(
+			final String tableName,
+			final boolean createTable )
+			throws TableNotFoundException {
+		if (AbstractAccumuloPersistence.METADATA_TABLE.equals(tableName)) {
+			return super.createWriter(
+					tableName,
+					createTable);
+		}
+		final String qName = getQualifiedTableName(tableName);
+		if (createTable) {
+			createWriterTable(qName);
+		}
+		if (!connector.tableOperations().exists(
+				qName)) {
+			throw new TableNotFoundException(
+					null,
+					qName,
+					"Unable to bulk import into table");
+		}
+		try {
+			return new BulkImportWriter(
+					connector,
+					qName,
+					bulkImportDirectory,
+					configuration,
+					maxBufferSize);
+		}
+		catch (final IOException e) {
+			LOGGER.error(
+					"Unable to access bulk import directory '" + bulkImportDirectory + "', using a batch writer",
+					e);
+			return super.createWriter(
+					tableName,
+					false);
+		}
+	}
+}
@@ -0,0 +1,264 @@
+package mil.nga.giat.geowave.datastore.accumulo;
+
+import java.io.IOException;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.data.ColumnUpdate;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVWriter;
+import org.apache.accumulo.core.file.rfile.RFile;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.log4j.Logger;
+
+/**
+ * This writer bulk loads the mutations written to it rather than sending them
+ * to the tablet servers. The key/values of the mutations are buffered in sorted
+ * order and written to an RFile each time the buffer fills, and the RFiles
+ * written so far are imported into the table each time the writer is flushed
+ * or closed. The tablet servers then take ownership of the files without
+ * writing the entries through their in-memory maps, so that large ingests do
+ * not trigger minor compactions. Each import is its own batch of files, so
+ * flushing often, as a long running ingest does to make its entries visible,
+ * imports many small files.
+ *
+ * The entries are not visible until the writer is flushed or closed, and the
+ * timestamps of the entries are all set to the time of their import. The
+ * working directory must be on a file system that the Accumulo tablet servers
+ * can read and write.
+ *
+ * A file that cannot be written or imported fails the write, flush or close
+ * that needed it with a runtime exception rather than dropping its entries. The
+ * files of a batch that failed to import are left in its directory to be
+ * imported manually, and later entries are written to a new batch.
+ */
+public class BulkImportWriter implements
+		Writer
+{
+	private final static Logger LOGGER = Logger.getLogger(BulkImportWriter.class);
+	private static final String BATCH_DIRECTORY_FORMAT = "batch%05d";
+	private static final String FILES_DIRECTORY = "files";
+	private static final String FAILURES_DIRECTORY = "failures";
+	// the overhead of each buffered key/value beyond its bytes
+	private static final int ENTRY_OVERHEAD = 128;
+
+	private final Connector connector;
+	private final String qualifiedTableName;
+	private final FileSystem fileSystem;
+	private final Configuration configuration;
+	private final Path workDirectory;
+	private final long maxBufferSize;
+	private final TreeMap<Key, Value> buffer = new TreeMap<Key, Value>();
+	private long bufferSize = 0;
+	private int batchCount = 0;
+	// the files written to the current batch, which is not yet imported
+	private int fileCount = 0;
+	private boolean failedImport = false;
+
+	/**
+	 * @param connector
+	 *            the connector used to import the files
+	 * @param qualifiedTableName
+	 *            the table to import the files into, including its namespace
+	 * @param bulkImportDirectory
+	 *            the directory to write the files within; each writer uses its
+	 *            own sub-directory which is removed when the writer is closed
+	 * @param configuration
+	 *            the Hadoop configuration used to access the file system
+	 * @param maxBufferSize
+	 *            the approximate number of bytes of key/values to sort in
+	 *            memory before they are written to a file
+	 */
+	public BulkImportWriter(
+			final Connector connector,
+			final String qualifiedTableName,
+			final String bulkImportDirectory,
+			final Configuration configuration,
+			final long maxBufferSize )
+			throws IOException {
+		this.connector = connector;
+		this.qualifiedTableName = qualifiedTableName;
+		this.configuration = configuration;
+		this.maxBufferSize = maxBufferSize;
+		workDirectory = new Path(
+				new Path(
+						bulkImportDirectory,
+						qualifiedTableName),
+				UUID.randomUUID().toString());
+		fileSystem = workDirectory.getFileSystem(configuration);
+	}
+
+	@Override
+	public synchronized void write(
+			final Iterable<Mutation> mutations ) {
+		for (final Mutation mutation : mutations) {
+			write(mutation);
+		}
+	}
+
+	@Override
+	public synchronized void write(
+			final Mutation mutation ) {
+		final byte[] row = mutation.getRow();
+		for (final ColumnUpdate update : mutation.getUpdates()) {
+			final Key key = new Key(
+					row,
+					update.getColumnFamily(),
+					update.getColumnQualifier(),
+					update.getColumnVisibility(),
+					update.hasTimestamp() ? update.getTimestamp() : Long.MAX_VALUE,
+					update.isDeleted());
+			final Value value = new Value(
+					update.getValue());
+			// as with the batch writer the last update of a key wins
+			final Value previous = buffer.put(
+					key,
+					value);
+			if (previous == null) {
+				bufferSize += key.getSize() + value.getSize() + ENTRY_OVERHEAD;
+			}
+		}
+		if (bufferSize >= maxBufferSize) {
+			writeFile();
+		}
+	}
+
+	/**
+	 * Writes the buffered entries to a file and imports the files written since
+	 * the last import, making their entries visible
+	 */
+	@Override
+	public synchronized void flush() {
+		writeFile();
+		importFiles();
+	}
+
+	@Override
+	public synchronized void close() {
+		writeFile();
+		importFiles();
+		if (failedImport) {
+			// the failed batches are left behind to be imported manually
+			return;
+		}
+		try {
+			fileSystem.delete(
+					workDirectory,
+					true);
+		}
+		catch (final IOException e) {
+			LOGGER.warn(
+					"Unable to remove bulk import directory '" + workDirectory + "'",
+					e);
+		}
+	}
+
+	private void writeFile() {
+		if (buffer.isEmpty()) {
+			return;
+		}
+		final Path file = new Path(
+				new Path(
+						getBatchDirectory(),
+						FILES_DIRECTORY),
+				String.format(
+						"%05d.%s",
+						fileCount,
+						RFile.EXTENSION));
+		try {
+			final FileSKVWriter fileWriter = FileOperations.getInstance().openWriter(
+					file.toString(),
+					fileSystem,
+					configuration,
+					AccumuloConfiguration.getDefaultConfiguration());
+			try {
+				fileWriter.startDefaultLocalityGroup();
+				for (final Entry<Key, Value> entry : buffer.entrySet()) {
+					fileWriter.append(
+							entry.getKey(),
+							entry.getValue());
+				}
+			}
+			finally {
+				fileWriter.close();
+			}
+			fileCount++;
+		}
+		catch (final IOException e) {
+			// the entries stay buffered to be written with the next file
+			throw new RuntimeException(
+					"Unable to write bulk import file '" + file + "'",
+					e);
+		}
+		buffer.clear();
+		bufferSize = 0;
+	}
+
+	private Path getBatchDirectory() {
+		return new Path(
+				workDirectory,
+				String.format(
+						BATCH_DIRECTORY_FORMAT,
+						batchCount));
+	}
+
+	private void importFiles() {
+		if (fileCount == 0) {
+			return;
+		}
+		final Path batchDirectory = getBatchDirectory();
+		final Path failures = new Path(
+				batchDirectory,
+				FAILURES_DIRECTORY);
+		// whether or not the import succeeds, later files go to a new batch
+		// so that none of these files are imported twice
+		final int batchFileCount = fileCount;
+		batchCount++;
+		fileCount = 0;
+		try {
+			// the failures directory must exist and be empty
+			fileSystem.mkdirs(failures);
+			connector.tableOperations().importDirectory(
+					qualifiedTableName,
+					new Path(
+							batchDirectory,
+							FILES_DIRECTORY).toString(),
+					failures.toString(),
+					true);
+			final FileStatus[] failedFiles = fileSystem.listStatus(failures);
+			if ((failedFiles != null) && (failedFiles.length > 0)) {
+				failedImport = true;
+				throw new RuntimeException(
+						failedFiles.length + " of " + batchFileCount + " files failed to be imported into table '" + qualifiedTableName + "', see '" + failures + "'");
+			}
+		}
+		catch (IOException | AccumuloException | AccumuloSecurityException | TableNotFoundException e) {
+			failedImport = true;
+			throw new RuntimeException(
+					"Unable to bulk import '" + batchDirectory + "' into table '" + qualifiedTableName + "'",
+					e);
+		}
+		try {
+			fileSystem.delete(
+					batchDirectory,
+					true);
+		}
+		catch (final IOException e) {
+			LOGGER.warn(
+					"Unable to remove bulk import directory '" + batchDirectory + "'",
+					e);
+		}
+	}
+}
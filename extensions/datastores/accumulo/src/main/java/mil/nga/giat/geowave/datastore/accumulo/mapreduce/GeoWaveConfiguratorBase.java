@@ -12,6 +12,7 @@ import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
 import mil.nga.giat.geowave.core.store.index.Index;
 import mil.nga.giat.geowave.datastore.accumulo.AccumuloOperations;
 import mil.nga.giat.geowave.datastore.accumulo.BasicAccumuloOperations;
+import mil.nga.giat.geowave.datastore.accumulo.BulkImportAccumuloOperations;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
@@ -41,7 +42,9 @@ public class GeoWaveConfiguratorBase
 		INSTANCE_NAME,
 		USER_NAME,
 		PASSWORD,
-		TABLE_NAMESPACE
+		TABLE_NAMESPACE,
+		BULK_IMPORT_DIRECTORY,
+		BULK_IMPORT_BUFFER_SIZE
 	}
 
 	// TODO use these options to restrict creation when set (currently, within
@@ -150,6 +153,30 @@ public class GeoWaveConfiguratorBase
 		final String zookeeperURL = getZookeeperUrl(
 				implementingClass,
 				context);
+		final String bulkImportDirectory = getBulkImportDirectory(
+				implementingClass,
+				context);
+		if ((zookeeperURL != null) && (zookeeperURL.length() > 0) && (bulkImportDirectory != null)) {
+			return new BulkImportAccumuloOperations(
+					zookeeperURL,
+					getInstanceName(
+							implementingClass,
+							context),
+					getUserName(
+							implementingClass,
+							context),
+					getPassword(
+							implementingClass,
+							context),
+					getTableNamespace(
+							implementingClass,
+							context),
+					bulkImportDirectory,
+					getConfiguration(context),
+					getBulkImportBufferSize(
+							implementingClass,
+							context));
+		}
 		if (zookeeperURL != null && zookeeperURL.length() > 0)
 			return new BasicAccumuloOperations(
 					zookeeperURL,
@@ -264,6 +291,59 @@ public class GeoWaveConfiguratorBase
 				getConfiguration(context));
 	}
 
+	/**
+	 * Sets the directory within which the entries written are stored in files
+	 * to be bulk imported rather than written through a batch writer
+	 */
+	public static void setBulkImportDirectory(
+			final Class<?> implementingClass,
+			final Configuration config,
+			final String bulkImportDirectory ) {
+		if (bulkImportDirectory != null) {
+			config.set(
+					enumToConfKey(
+							implementingClass,
+							AccumuloOperationsConfig.BULK_IMPORT_DIRECTORY),
+					bulkImportDirectory);
+		}
+	}
+
+	public static String getBulkImportDirectory(
+			final Class<?> implementingClass,
+			final JobContext context ) {
+		return getConfiguration(
+				context).get(
+				enumToConfKey(
+						implementingClass,
+						AccumuloOperationsConfig.BULK_IMPORT_DIRECTORY));
+	}
+
+	/**
+	 * Sets the approximate number of bytes of entries each bulk import writer
+	 * sorts in memory before writing them to a file
+	 */
+	public static void setBulkImportBufferSize(
+			final Class<?> implementingClass,
+			final Configuration config,
+			final long bulkImportBufferSize ) {
+		config.setLong(
+				enumToConfKey(
+						implementingClass,
+						AccumuloOperationsConfig.BULK_IMPORT_BUFFER_SIZE),
+				bulkImportBufferSize);
+	}
+
+	public static long getBulkImportBufferSize(
+			final Class<?> implementingClass,
+			final JobContext context ) {
+		return getConfiguration(
+				context).getLong(
+				enumToConfKey(
+						implementingClass,
+						AccumuloOperationsConfig.BULK_IMPORT_BUFFER_SIZE),
+				BulkImportAccumuloOperations.DEFAULT_MAX_BUFFER_SIZE);
+	}
+
 	public static void addIndex(
 			final Class<?> implementingClass,
 			final Configuration config,
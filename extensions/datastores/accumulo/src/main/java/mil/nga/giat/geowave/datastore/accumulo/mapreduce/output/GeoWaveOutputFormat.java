@@ -338,6 +338,44 @@ public class GeoWaveOutputFormat extends
 				geowaveTableNamespace);
 	}
 
+	/**
+	 * Configures the job to bulk import the entries written rather than write
+	 * them through a batch writer. Each task sorts the entries it writes into
+	 * files within the directory and imports them when it completes. The
+	 * statistics of the entries are still written to the GeoWave metadata.
+	 * 
+	 * @param config
+	 *            hadoop configuration
+	 * @param bulkImportDirectory
+	 *            a directory on a file system that Accumulo can read and write
+	 */
+	public static void setBulkImportDirectory(
+			final Configuration config,
+			final String bulkImportDirectory ) {
+		GeoWaveConfiguratorBase.setBulkImportDirectory(
+				CLASS,
+				config,
+				bulkImportDirectory);
+	}
+
+	/**
+	 * Sets the memory each task uses to sort the entries it bulk imports.
+	 * 
+	 * @param config
+	 *            hadoop configuration
+	 * @param bulkImportBufferSize
+	 *            the approximate number of bytes of entries sorted in memory
+	 *            before they are written to a file
+	 */
+	public static void setBulkImportBufferSize(
+			final Configuration config,
+			final long bulkImportBufferSize ) {
+		GeoWaveConfiguratorBase.setBulkImportBufferSize(
+				CLASS,
+				config,
+				bulkImportBufferSize);
+	}
+
 	/**
 	 * Sets the log level for this job.
 	 * 
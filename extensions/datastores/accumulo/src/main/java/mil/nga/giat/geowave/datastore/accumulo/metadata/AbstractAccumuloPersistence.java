@@ -6,7 +6,6 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -31,14 +30,17 @@ import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.hadoop.io.Text;
 import org.apache.log4j.Logger;
 
+import com.google.common.cache.CacheStats;
+
 /**
  * This abstract class does most of the work for storing persistable objects in
  * Accumulo and can be easily extended for any object that needs to be
  * persisted.
  * 
- * There is an LRU cache associated with it so staying in sync with external
- * updates is not practical - it assumes the objects are not updated often or at
- * all. The objects are stored in their own table.
+ * There is a concurrent LRU cache associated with it so staying in sync with
+ * external updates is not practical - it assumes the objects are not updated
+ * often or at all, although cached objects can be made to expire. The objects
+ * are stored in their own table.
  * 
  * @param <T>
  *            The type of persistable object that this stores
@@ -53,30 +55,49 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 	// updating and looking up objects simultaneously that would require some
 	// locking/synchronization mechanism, and even possibly update
 	// notifications?
-	private static final int MAX_ENTRIES = 100;
-	protected final Map<ByteArrayId, T> cache = Collections.synchronizedMap(new LinkedHashMap<ByteArrayId, T>(
-			MAX_ENTRIES + 1,
-			.75F,
-			true) {
-		/**
-				 *
-				 */
-		private static final long serialVersionUID = 1L;
-
-		// This method is called just after a new entry has been added
-		@Override
-		public boolean removeEldestEntry(
-				final Map.Entry<ByteArrayId, T> eldest ) {
-			return size() > MAX_ENTRIES;
-		}
-	});
+	protected static final int DEFAULT_MAX_ENTRIES = 100;
+	protected final MetadataCache<T> cache;
 
-	// just attach iterators once per instance
-	private boolean iteratorsAttached = false;
+	// just attach iterators once per instance; the flag is only set once the
+	// attach succeeds so that no writes reach the table before the iterators
+	private volatile boolean iteratorsAttached = false;
 
 	public AbstractAccumuloPersistence(
 			final AccumuloOperations accumuloOperations ) {
+		this(
+				accumuloOperations,
+				DEFAULT_MAX_ENTRIES,
+				0,
+				0);
+	}
+
+	/**
+	 * @param maxEntries
+	 *            the maximum number of objects to cache
+	 * @param expiryMillis
+	 *            the time after which a cached object is looked up again, 0 to
+	 *            keep objects until they are evicted
+	 * @param missExpiryMillis
+	 *            the time for which an object that was not found is not looked
+	 *            up again, 0 to always look up objects that were not found
+	 */
+	public AbstractAccumuloPersistence(
+			final AccumuloOperations accumuloOperations,
+			final int maxEntries,
+			final long expiryMillis,
+			final long missExpiryMillis ) {
 		this.accumuloOperations = accumuloOperations;
+		cache = new MetadataCache<T>(
+				maxEntries,
+				expiryMillis,
+				missExpiryMillis);
+	}
+
+	/**
+	 * @return the hit, miss and eviction counts of the cache
+	 */
+	public CacheStats getCacheStats() {
+		return cache.getStats();
 	}
 
 	protected String getAccumuloTablename() {
@@ -168,49 +189,66 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 
 	protected void addObject(
 			final T object ) {
-		final ByteArrayId id = getPrimaryId(object);
-		addObjectToCache(object);
+		addObjects(Collections.singletonList(object));
+	}
+
+	/**
+	 * Write each of the objects with a single writer
+	 */
+	protected void addObjects(
+			final Collection<? extends T> objects ) {
+		if (objects.isEmpty()) {
+			return;
+		}
+		for (final T object : objects) {
+			addObjectToCache(object);
+		}
 		try {
 
 			final Writer writer = accumuloOperations.createWriter(
 					getAccumuloTablename(),
 					true);
-			synchronized (this) {
-				if (!iteratorsAttached) {
-					iteratorsAttached = true;
-					final IteratorConfig[] configs = getIteratorConfig();
-					if ((configs != null) && (configs.length > 0)) {
-						accumuloOperations.attachIterators(
-								getAccumuloTablename(),
-								true,
-								configs);
+			if (!iteratorsAttached) {
+				synchronized (this) {
+					if (!iteratorsAttached) {
+						final IteratorConfig[] configs = getIteratorConfig();
+						if ((configs != null) && (configs.length > 0)) {
+							accumuloOperations.attachIterators(
+									getAccumuloTablename(),
+									true,
+									configs);
+						}
+						iteratorsAttached = true;
 					}
 				}
 			}
 
-			final Mutation mutation = new Mutation(
-					new Text(
-							id.getBytes()));
-			final Text cf = getSafeText(getAccumuloColumnFamily());
-			final Text cq = getSafeText(getAccumuloColumnQualifier(object));
-			final byte[] visibility = getAccumuloVisibility(object);
-			if (visibility != null) {
-				mutation.put(
-						cf,
-						cq,
-						new ColumnVisibility(
-								visibility),
-						new Value(
-								PersistenceUtils.toBinary(object)));
-			}
-			else {
-				mutation.put(
-						cf,
-						cq,
-						new Value(
-								PersistenceUtils.toBinary(object)));
+			for (final T object : objects) {
+				final ByteArrayId id = getPrimaryId(object);
+				final Mutation mutation = new Mutation(
+						new Text(
+								id.getBytes()));
+				final Text cf = getSafeText(getAccumuloColumnFamily());
+				final Text cq = getSafeText(getAccumuloColumnQualifier(object));
+				final byte[] visibility = getAccumuloVisibility(object);
+				if (visibility != null) {
+					mutation.put(
+							cf,
+							cq,
+							new ColumnVisibility(
+									visibility),
+							new Value(
+									PersistenceUtils.toBinary(object)));
+				}
+				else {
+					mutation.put(
+							cf,
+							cq,
+							new Value(
+									PersistenceUtils.toBinary(object)));
+				}
+				writer.write(mutation);
 			}
-			writer.write(mutation);
 			writer.close();
 		}
 		catch (final TableNotFoundException e) {
@@ -230,13 +268,17 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 				object);
 	}
 
+	/**
+	 * @return the cached object, {@link MetadataCache#MISSING} if the object
+	 *         was recently not found, or null if neither is cached
+	 */
 	protected Object getObjectFromCache(
 			final ByteArrayId primaryId,
 			final ByteArrayId secondaryId ) {
 		final ByteArrayId combinedId = getCombinedId(
 				primaryId,
 				secondaryId);
-		return cache.get(combinedId);
+		return cache.lookup(combinedId);
 	}
 
 	protected boolean deleteObjectFromCache(
@@ -245,7 +287,19 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 		final ByteArrayId combinedId = getCombinedId(
 				primaryId,
 				secondaryId);
-		return (cache.remove(combinedId) != null);
+		return cache.remove(combinedId);
+	}
+
+	/**
+	 * Record that the object was not found, so that it is not looked up again
+	 * until the cached miss expires or the object is added
+	 */
+	protected void addMissToCache(
+			final ByteArrayId primaryId,
+			final ByteArrayId secondaryId ) {
+		cache.putMissing(getCombinedId(
+				primaryId,
+				secondaryId));
 	}
 
 	protected IteratorConfig[] getIteratorConfig() {
@@ -287,7 +341,15 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 		final Object cacheResult = getObjectFromCache(
 				primaryId,
 				secondaryId);
-		if (cacheResult != null) {
+		// a miss is only cached for lookups without authorizations, as it
+		// may be visible with them
+		final boolean cacheMiss = (authorizations == null) || (authorizations.length == 0);
+		if (cacheResult == MetadataCache.MISSING) {
+			if (cacheMiss) {
+				return null;
+			}
+		}
+		else if (cacheResult != null) {
 			return (T) cacheResult;
 		}
 		try {
@@ -301,6 +363,11 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 					LOGGER.warn("Object '" + getCombinedId(
 							primaryId,
 							secondaryId).getString() + "' not found");
+					if (cacheMiss) {
+						addMissToCache(
+								primaryId,
+								secondaryId);
+					}
 					return null;
 				}
 				final Entry<Key, Value> entry = it.next();
@@ -455,10 +522,11 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 	protected boolean objectExists(
 			final ByteArrayId primaryId,
 			final ByteArrayId secondaryId ) {
-		if (getObjectFromCache(
+		final Object cacheResult = getObjectFromCache(
 				primaryId,
-				secondaryId) != null) {
-			return true;
+				secondaryId);
+		if (cacheResult != null) {
+			return cacheResult != MetadataCache.MISSING;
 		}
 		try {
 			final BatchScanner scanner = getScanner(
@@ -472,6 +540,9 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 					return (entryToValue(it.next()) != null);
 				}
 				else {
+					addMissToCache(
+							primaryId,
+							secondaryId);
 					return false;
 				}
 
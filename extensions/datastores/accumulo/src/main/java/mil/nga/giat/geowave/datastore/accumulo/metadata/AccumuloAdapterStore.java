@@ -26,6 +26,18 @@ public class AccumuloAdapterStore extends
 				accumuloOperations);
 	}
 
+	public AccumuloAdapterStore(
+			final AccumuloOperations accumuloOperations,
+			final int maxCacheEntries,
+			final long cacheExpiryMillis,
+			final long cacheMissExpiryMillis ) {
+		super(
+				accumuloOperations,
+				maxCacheEntries,
+				cacheExpiryMillis,
+				cacheMissExpiryMillis);
+	}
+
 	@Override
 	public void addAdapter(
 			final DataAdapter<?> adapter ) {
@@ -1,6 +1,7 @@
 package mil.nga.giat.geowave.datastore.accumulo.metadata;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map.Entry;
@@ -60,6 +61,12 @@ public class AccumuloDataStatisticsStore extends
 
 	}
 
+	@Override
+	public void incorporateStatistics(
+			final Collection<? extends DataStatistics<?>> statistics ) {
+		addObjects(statistics);
+	}
+
 	@Override
 	protected void addObjectToCache(
 			final DataStatistics<?> object ) {
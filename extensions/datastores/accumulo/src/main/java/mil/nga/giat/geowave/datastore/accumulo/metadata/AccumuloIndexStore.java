@@ -27,6 +27,18 @@ public class AccumuloIndexStore extends
 				accumuloOperations);
 	}
 
+	public AccumuloIndexStore(
+			final AccumuloOperations accumuloOperations,
+			final int maxCacheEntries,
+			final long cacheExpiryMillis,
+			final long cacheMissExpiryMillis ) {
+		super(
+				accumuloOperations,
+				maxCacheEntries,
+				cacheExpiryMillis,
+				cacheMissExpiryMillis);
+	}
+
 	@Override
 	public void addIndex(
 			final Index index ) {
@@ -0,0 +1,142 @@
+package mil.nga.giat.geowave.datastore.accumulo.metadata;
+
+import java.util.concurrent.TimeUnit;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * A concurrent, size bounded cache of persisted metadata objects, keyed by
+ * their combined primary and secondary IDs. Lookups do not contend on a single
+ * lock, so they can be made for every query and decoded row. The least
+ * recently used entries are evicted once the maximum size is reached, and
+ * entries may also expire a fixed time after they are written, so that updates
+ * made by other processes are eventually seen.
+ *
+ * Lookups of objects that do not exist can be cached as well, so that repeated
+ * lookups of a missing object do not each require a scan. These are kept for
+ * their own, typically shorter, time and are replaced as soon as the object is
+ * added through this cache.
+ *
+ * @param <T>
+ *            The type of object that is cached
+ */
+public class MetadataCache<T>
+{
+	/**
+	 * Returned by {@link #lookup(ByteArrayId)} for an object that a lookup
+	 * recently found to be missing
+	 */
+	public static final Object MISSING = new Object();
+
+	private final Cache<ByteArrayId, Object> cache;
+	private final long missExpiryMillis;
+
+	/**
+	 * @param maxEntries
+	 *            the maximum number of objects and misses to cache
+	 * @param expiryMillis
+	 *            the time after which a cached object is discarded, 0 to keep
+	 *            objects until they are evicted
+	 * @param missExpiryMillis
+	 *            the time after which a cached miss is discarded, 0 to not
+	 *            cache misses
+	 */
+	public MetadataCache(
+			final int maxEntries,
+			final long expiryMillis,
+			final long missExpiryMillis ) {
+		final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(
+				maxEntries).recordStats();
+		if (expiryMillis > 0) {
+			builder.expireAfterWrite(
+					expiryMillis,
+					TimeUnit.MILLISECONDS);
+		}
+		cache = builder.build();
+		this.missExpiryMillis = missExpiryMillis;
+	}
+
+	/**
+	 * Looks up the object with a single access of the cache, so that the
+	 * lookup is counted once in the cache statistics
+	 * 
+	 * @return the cached object, {@link #MISSING} if a lookup recently found
+	 *         the object to be missing, or null if neither is cached
+	 */
+	public Object lookup(
+			final ByteArrayId id ) {
+		final Object value = cache.getIfPresent(id);
+		if (value instanceof Miss) {
+			if (((Miss) value).expiration > System.currentTimeMillis()) {
+				return MISSING;
+			}
+			cache.asMap().remove(
+					id,
+					value);
+			return null;
+		}
+		return value;
+	}
+
+	public void put(
+			final ByteArrayId id,
+			final T object ) {
+		cache.put(
+				id,
+				object);
+	}
+
+	/**
+	 * Record that a lookup found the object to be missing, unless misses are
+	 * not cached or the object has been added in the meantime
+	 */
+	public void putMissing(
+			final ByteArrayId id ) {
+		if (missExpiryMillis > 0) {
+			cache.asMap().putIfAbsent(
+					id,
+					new Miss(
+							System.currentTimeMillis() + missExpiryMillis));
+		}
+	}
+
+	/**
+	 * @return whether the object was cached, a cached miss does not count
+	 */
+	public boolean remove(
+			final ByteArrayId id ) {
+		final Object value = cache.asMap().remove(
+				id);
+		return (value != null) && !(value instanceof Miss);
+	}
+
+	public void clear() {
+		cache.invalidateAll();
+	}
+
+	public long size() {
+		return cache.size();
+	}
+
+	/**
+	 * @return the hit, miss and eviction counts of the cache, in which the
+	 *         lookup of a cached miss counts as a hit
+	 */
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+
+	private static class Miss
+	{
+		private final long expiration;
+
+		private Miss(
+				final long expiration ) {
+			this.expiration = expiration;
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package mil.nga.giat.geowave.datastore.accumulo.query;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.ByteArrayUtils;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.index.StringUtils;
+import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo;
+import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
+import mil.nga.giat.geowave.core.store.filter.DedupeFilter;
+import mil.nga.giat.geowave.core.store.filter.DistributableQueryFilter;
+import mil.nga.giat.geowave.core.store.filter.QueryFilter;
+import mil.nga.giat.geowave.core.store.index.Index;
+import mil.nga.giat.geowave.core.store.query.aggregate.Aggregation;
+import mil.nga.giat.geowave.datastore.accumulo.AccumuloOperations;
+import mil.nga.giat.geowave.datastore.accumulo.AccumuloRowId;
+import mil.nga.giat.geowave.datastore.accumulo.util.AccumuloUtils;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.ScannerBase;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.log4j.Logger;
+
+/**
+ * This class aggregates the entries of an adapter that match numeric
+ * constraints and query filters within the tablet servers. Each tablet server
+ * aggregates the rows it scans into a copy of the aggregation and only the
+ * partial aggregations are returned, which are merged into the result.
+ * 
+ * Entries that are stored in several rows of the index may have rows in
+ * several ranges or tablets, so their rows are returned rather than aggregated
+ * by the tablet servers and are de-duplicated and aggregated here.
+ */
+public class AccumuloAggregationQuery extends
+		AccumuloConstraintsQuery
+{
+	private final static Logger LOGGER = Logger.getLogger(AccumuloAggregationQuery.class);
+	private final DataAdapter<?> adapter;
+	private final Aggregation<?> aggregation;
+
+	public AccumuloAggregationQuery(
+			final DataAdapter<?> adapter,
+			final Index index,
+			final MultiDimensionalNumericData constraints,
+			final List<QueryFilter> queryFilters,
+			final Aggregation<?> aggregation,
+			final String[] authorizations ) {
+		super(
+				Arrays.asList(new ByteArrayId[] {
+					adapter.getAdapterId()
+				}),
+				index,
+				constraints,
+				queryFilters,
+				authorizations);
+		if (queryFilters != null) {
+			for (final QueryFilter filter : queryFilters) {
+				if (!(filter instanceof DistributableQueryFilter)) {
+					// the entries are never returned to be filtered here
+					throw new IllegalArgumentException(
+							"Unable to aggregate within the tablet servers with filter '" + filter.getClass().getName() + "', only distributable filters are supported");
+				}
+			}
+		}
+		this.adapter = adapter;
+		this.aggregation = aggregation;
+	}
+
+	@Override
+	protected void addScanIteratorSettings(
+			final ScannerBase scanner ) {
+		super.addScanIteratorSettings(scanner);
+		final IteratorSetting iteratorSettings = new IteratorSetting(
+				AggregationIterator.AGGREGATION_ITERATOR_PRIORITY,
+				AggregationIterator.AGGREGATION_ITERATOR_NAME,
+				AggregationIterator.class);
+		iteratorSettings.addOption(
+				AggregationIterator.AGGREGATION,
+				ByteArrayUtils.byteArrayToString(PersistenceUtils.toBinary(aggregation)));
+		iteratorSettings.addOption(
+				AggregationIterator.ADAPTER,
+				ByteArrayUtils.byteArrayToString(PersistenceUtils.toBinary(adapter)));
+		iteratorSettings.addOption(
+				AggregationIterator.INDEX,
+				ByteArrayUtils.byteArrayToString(PersistenceUtils.toBinary(index)));
+		scanner.addScanIterator(iteratorSettings);
+	}
+
+	/**
+	 * @return the merged partial aggregations of the tablet servers, or the
+	 *         aggregation this query was constructed with if no entries
+	 *         matched
+	 */
+	@SuppressWarnings("unchecked")
+	public Aggregation<?> aggregate(
+			final AccumuloOperations accumuloOperations ) {
+		final String tableName = StringUtils.stringFromBinary(index.getId().getBytes());
+		if (!accumuloOperations.tableExists(tableName)) {
+			LOGGER.warn("Table does not exist " + tableName);
+			return aggregation;
+		}
+		final ScannerBase scanner = getScanner(
+				accumuloOperations,
+				null);
+		if (scanner == null) {
+			LOGGER.error("Could not get scanner instance, getScanner returned null");
+			return aggregation;
+		}
+		addScanIteratorSettings(scanner);
+		Aggregation<Object> result = null;
+		Aggregation<Object> duplicatedEntries = null;
+		final DedupeFilter dedupeFilter = new DedupeFilter();
+		try {
+			final Iterator<Entry<Key, Value>> it = scanner.iterator();
+			while (it.hasNext()) {
+				final Entry<Key, Value> row = it.next();
+				if (AggregationIterator.AGGREGATION_COLUMN_FAMILY.equals(row.getKey().getColumnFamily())) {
+					final Aggregation<Object> partial = PersistenceUtils.fromBinary(
+							row.getValue().get(),
+							Aggregation.class);
+					if (result == null) {
+						result = partial;
+					}
+					else {
+						result.merge(partial);
+					}
+				}
+				else {
+					final Pair<Object, DataStoreEntryInfo> entry = AccumuloUtils.decodeRow(
+							row.getKey(),
+							row.getValue(),
+							new AccumuloRowId(
+									row.getKey()),
+							(DataAdapter<Object>) adapter,
+							null,
+							dedupeFilter,
+							index,
+							null);
+					if (entry != null) {
+						if (duplicatedEntries == null) {
+							duplicatedEntries = PersistenceUtils.fromBinary(
+									PersistenceUtils.toBinary(aggregation),
+									Aggregation.class);
+						}
+						duplicatedEntries.aggregate(
+								entry.getRight(),
+								entry.getLeft());
+					}
+				}
+			}
+		}
+		finally {
+			scanner.close();
+		}
+		if (duplicatedEntries != null) {
+			if (result == null) {
+				result = duplicatedEntries;
+			}
+			else {
+				result.merge(duplicatedEntries);
+			}
+		}
+		return result == null ? aggregation : result;
+	}
+}
@@ -20,6 +20,7 @@ import mil.nga.giat.geowave.datastore.accumulo.util.AccumuloUtils;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.iterators.user.WholeRowIterator;
+import org.apache.log4j.Logger;
 
 /**
  * This class represents basic numeric contraints applied to an Accumulo Query
@@ -28,10 +29,13 @@ import org.apache.accumulo.core.iterators.user.WholeRowIterator;
 public class AccumuloConstraintsQuery extends
 		AccumuloFilteredIndexQuery
 {
-	private static final int MAX_RANGE_DECOMPOSITION = 5000;
+	private final static Logger LOGGER = Logger.getLogger(AccumuloConstraintsQuery.class);
 	protected final MultiDimensionalNumericData constraints;
 	protected final List<DistributableQueryFilter> distributableFilters;
 	protected boolean queryFiltersEnabled;
+	private RangeDecompositionPolicy rangeDecompositionPolicy = new FixedRangeDecompositionPolicy();
+	private int maxRangeDecomposition = -1;
+	private int rangeCount = -1;
 
 	public AccumuloConstraintsQuery(
 			final Index index,
@@ -189,10 +193,51 @@ public class AccumuloConstraintsQuery extends
 
 	@Override
 	protected List<ByteArrayRange> getRanges() {
-		return AccumuloUtils.constraintsToByteArrayRanges(
+		maxRangeDecomposition = rangeDecompositionPolicy.getMaxRangeDecomposition(
+				index,
+				adapterIds,
+				constraints,
+				getAdditionalAuthorizations());
+		final List<ByteArrayRange> ranges = AccumuloUtils.constraintsToByteArrayRanges(
 				constraints,
 				index.getIndexStrategy(),
-				MAX_RANGE_DECOMPOSITION);
+				maxRangeDecomposition);
+		rangeCount = (ranges == null) ? 0 : ranges.size();
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Decomposed query of index '" + index.getId().getString() + "' into " + rangeCount + " ranges, allowing " + maxRangeDecomposition);
+		}
+		if (scanCallback instanceof RangeDecompositionCallback) {
+			((RangeDecompositionCallback) scanCallback).rangesDecomposed(
+					index,
+					maxRangeDecomposition,
+					rangeCount);
+		}
+		return ranges;
+	}
+
+	public RangeDecompositionPolicy getRangeDecompositionPolicy() {
+		return rangeDecompositionPolicy;
+	}
+
+	public void setRangeDecompositionPolicy(
+			final RangeDecompositionPolicy rangeDecompositionPolicy ) {
+		this.rangeDecompositionPolicy = rangeDecompositionPolicy;
+	}
+
+	/**
+	 * @return the maximum number of ranges the policy allowed for the last
+	 *         scan of this query, -1 if it has not been scanned
+	 */
+	public int getMaxRangeDecomposition() {
+		return maxRangeDecomposition;
+	}
+
+	/**
+	 * @return the number of ranges scanned by the last scan of this query, -1
+	 *         if it has not been scanned
+	 */
+	public int getRangeCount() {
+		return rangeCount;
 	}
 
 	public boolean isQueryFiltersEnabled() {
@@ -0,0 +1,237 @@
+package mil.nga.giat.geowave.datastore.accumulo.query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.dimension.NumericDimensionDefinition;
+import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericData;
+import mil.nga.giat.geowave.core.store.adapter.statistics.CountDataStatistics;
+import mil.nga.giat.geowave.core.store.adapter.statistics.DataStatistics;
+import mil.nga.giat.geowave.core.store.adapter.statistics.DataStatisticsStore;
+import mil.nga.giat.geowave.core.store.adapter.statistics.RowRangeDataStatistics;
+import mil.nga.giat.geowave.core.store.index.Index;
+import mil.nga.giat.geowave.datastore.accumulo.AccumuloOperations;
+
+import org.apache.hadoop.io.Text;
+import org.apache.log4j.Logger;
+
+/**
+ * Allows more ranges for queries expected to match more rows or to span more
+ * tablets, and fewer for small queries, for which computing and seeking to
+ * many ranges costs more than the few rows it saves scanning.
+ *
+ * The fraction of the index's space covered by the constraints is applied to
+ * the count statistics of the queried adapters to estimate the number of rows
+ * matched, and to the number of tablets holding data, from the split points of
+ * the table within the index's row range statistics, to estimate the number of
+ * tablets spanned. The budget allows one range for every so many rows
+ * expected, and a minimum number of ranges for each tablet spanned so that the
+ * scan is spread across the tablet servers.
+ *
+ * The counts are only estimates, so they are cached for a while rather than
+ * looked up for every query, regardless of the authorizations of the query.
+ */
+public class AdaptiveRangeDecompositionPolicy implements
+		RangeDecompositionPolicy
+{
+	private final static Logger LOGGER = Logger.getLogger(AdaptiveRangeDecompositionPolicy.class);
+	protected static final int MIN_RANGE_DECOMPOSITION = 16;
+	protected static final int MAX_RANGE_DECOMPOSITION = 20000;
+	/**
+	 * Seeking to a range costs about as much as scanning this many rows
+	 */
+	protected static final int ROWS_PER_RANGE = 100;
+	protected static final int RANGES_PER_TABLET = 16;
+	private static final long CACHE_TIMEOUT_MILLIS = 60000;
+
+	private final AccumuloOperations accumuloOperations;
+	private final DataStatisticsStore statisticsStore;
+	private final Map<ByteArrayId, Cached> rowCountCache = new ConcurrentHashMap<ByteArrayId, Cached>();
+	private final Map<ByteArrayId, Cached> tabletCountCache = new ConcurrentHashMap<ByteArrayId, Cached>();
+
+	public AdaptiveRangeDecompositionPolicy(
+			final AccumuloOperations accumuloOperations,
+			final DataStatisticsStore statisticsStore ) {
+		this.accumuloOperations = accumuloOperations;
+		this.statisticsStore = statisticsStore;
+	}
+
+	@Override
+	public int getMaxRangeDecomposition(
+			final Index index,
+			final List<ByteArrayId> adapterIds,
+			final MultiDimensionalNumericData constraints,
+			final String... authorizations ) {
+		if ((constraints == null) || (constraints.getDimensionCount() == 0)) {
+			// the full index is scanned regardless
+			return FixedRangeDecompositionPolicy.DEFAULT_MAX_RANGE_DECOMPOSITION;
+		}
+		final double fraction = getConstraintFraction(
+				index.getIndexStrategy().getOrderedDimensionDefinitions(),
+				constraints);
+		return getMaxRangeDecomposition(
+				fraction,
+				getRowCount(
+						adapterIds,
+						authorizations),
+				getTabletCount(
+						index,
+						authorizations));
+	}
+
+	/**
+	 * @param rowCount
+	 *            the number of rows of the queried adapters, negative if
+	 *            unknown
+	 */
+	protected static int getMaxRangeDecomposition(
+			final double fraction,
+			final long rowCount,
+			final int tabletCount ) {
+		final double rangesForRows = (rowCount < 0) ? FixedRangeDecompositionPolicy.DEFAULT_MAX_RANGE_DECOMPOSITION : Math.ceil((fraction * rowCount) / ROWS_PER_RANGE);
+		final double rangesForTablets = Math.ceil(fraction * tabletCount) * RANGES_PER_TABLET;
+		return (int) Math.max(
+				MIN_RANGE_DECOMPOSITION,
+				Math.min(
+						MAX_RANGE_DECOMPOSITION,
+						Math.max(
+								rangesForRows,
+								rangesForTablets)));
+	}
+
+	/**
+	 * @return the product over the dimensions of the fraction of the
+	 *         dimension's range within the constraints
+	 */
+	protected static double getConstraintFraction(
+			final NumericDimensionDefinition[] dimensions,
+			final MultiDimensionalNumericData constraints ) {
+		final NumericData[] constraintsPerDimension = constraints.getDataPerDimension();
+		double fraction = 1;
+		for (int d = 0; (d < dimensions.length) && (d < constraintsPerDimension.length); d++) {
+			final double range = dimensions[d].getRange();
+			if (range > 0) {
+				// binned dimensions, such as time, have the range of a
+				// single bin, which the constraints may well exceed
+				fraction *= Math.min(
+						1,
+						Math.max(
+								0,
+								constraintsPerDimension[d].getMax() - constraintsPerDimension[d].getMin()) / range);
+			}
+		}
+		return fraction;
+	}
+
+	private long getRowCount(
+			final List<ByteArrayId> adapterIds,
+			final String... authorizations ) {
+		if ((adapterIds == null) || adapterIds.isEmpty()) {
+			return -1;
+		}
+		long rowCount = 0;
+		for (final ByteArrayId adapterId : adapterIds) {
+			final Cached cached = rowCountCache.get(adapterId);
+			long adapterRowCount;
+			if ((cached != null) && cached.isCurrent()) {
+				adapterRowCount = cached.value;
+			}
+			else {
+				final DataStatistics<?> stats = statisticsStore.getDataStatistics(
+						adapterId,
+						CountDataStatistics.STATS_ID,
+						authorizations);
+				adapterRowCount = ((stats instanceof CountDataStatistics) && ((CountDataStatistics<?>) stats).isSet()) ? ((CountDataStatistics<?>) stats).getCount() : -1;
+				rowCountCache.put(
+						adapterId,
+						new Cached(
+								adapterRowCount));
+			}
+			if (adapterRowCount < 0) {
+				return -1;
+			}
+			rowCount += adapterRowCount;
+		}
+		return rowCount;
+	}
+
+	private int getTabletCount(
+			final Index index,
+			final String... authorizations ) {
+		final Cached cached = tabletCountCache.get(index.getId());
+		if ((cached != null) && cached.isCurrent()) {
+			return (int) cached.value;
+		}
+		final int tabletCount = countTablets(
+				index,
+				authorizations);
+		tabletCountCache.put(
+				index.getId(),
+				new Cached(
+						tabletCount));
+		return tabletCount;
+	}
+
+	/**
+	 * @return the number of tablets of the index table, only counting split
+	 *         points within the row range of the data if it is known
+	 */
+	private int countTablets(
+			final Index index,
+			final String... authorizations ) {
+		final String tableName = index.getId().getString();
+		Collection<Text> splits;
+		try {
+			splits = accumuloOperations.getSplits(tableName);
+		}
+		catch (final Exception e) {
+			LOGGER.warn(
+					"Unable to get the splits of table '" + tableName + "'",
+					e);
+			return 1;
+		}
+		if (splits.isEmpty()) {
+			return 1;
+		}
+		final DataStatistics<?> stats = statisticsStore.getDataStatistics(
+				null,
+				RowRangeDataStatistics.getId(index.getId()),
+				authorizations);
+		if (!(stats instanceof RowRangeDataStatistics) || !((RowRangeDataStatistics<?>) stats).isSet()) {
+			return splits.size() + 1;
+		}
+		final Text min = new Text(
+				((RowRangeDataStatistics<?>) stats).getMin());
+		final Text max = new Text(
+				((RowRangeDataStatistics<?>) stats).getMax());
+		int tabletCount = 1;
+		for (final Text split : splits) {
+			// the tablet ending at a split point holds the rows up to and
+			// including it
+			if ((split.compareTo(min) >= 0) && (split.compareTo(max) < 0)) {
+				tabletCount++;
+			}
+		}
+		return tabletCount;
+	}
+
+	private static class Cached
+	{
+		private final long value;
+		private final long time;
+
+		private Cached(
+				final long value ) {
+			this.value = value;
+			time = System.currentTimeMillis();
+		}
+
+		private boolean isCurrent() {
+			return (System.currentTimeMillis() - time) < CACHE_TIMEOUT_MILLIS;
+		}
+	}
+}
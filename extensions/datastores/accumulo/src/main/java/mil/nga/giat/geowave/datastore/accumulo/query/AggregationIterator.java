@@ -0,0 +1,217 @@
+package mil.nga.giat.geowave.datastore.accumulo.query;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+import mil.nga.giat.geowave.core.index.ByteArrayUtils;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo;
+import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
+import mil.nga.giat.geowave.core.store.index.Index;
+import mil.nga.giat.geowave.core.store.query.aggregate.Aggregation;
+import mil.nga.giat.geowave.datastore.accumulo.AccumuloRowId;
+import mil.nga.giat.geowave.datastore.accumulo.util.AccumuloUtils;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.WrappingIterator;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.hadoop.io.Text;
+
+/**
+ * This iterator runs after the whole row and query filter iterators and
+ * aggregates the rows that it is given into copies of an aggregation, rather
+ * than returning the rows. The aggregation, the data adapter to decode the rows
+ * with and the index are deserialized from byte arrays passed as options with
+ * the "aggregation", "adapter" and "index" keys.
+ * 
+ * Only rows of entries that are not duplicated are aggregated. The copies of a
+ * duplicated entry may be in other ranges or tablets, so its rows are returned
+ * unchanged for the client to de-duplicate and aggregate once. Each partial
+ * aggregation is returned before the next duplicated row, keyed by the last row
+ * aggregated with the {@link #AGGREGATION_COLUMN_FAMILY} column family. If the
+ * scan is torn down and re-seeked after any returned entry, the rows already
+ * aggregated are not aggregated again.
+ */
+public class AggregationIterator extends
+		WrappingIterator
+{
+	public static final String AGGREGATION_ITERATOR_NAME = "GEOWAVE_AGGREGATION_ITERATOR";
+	// after the whole row and query filter iterators
+	public static final int AGGREGATION_ITERATOR_PRIORITY = 25;
+	public static final String AGGREGATION = "aggregation";
+	public static final String ADAPTER = "adapter";
+	public static final String INDEX = "index";
+	/**
+	 * The column family of the keys of partial aggregations, distinguishing
+	 * them from duplicated rows
+	 */
+	public static final Text AGGREGATION_COLUMN_FAMILY = new Text(
+			"aggregation");
+	private byte[] aggregationBytes;
+	private DataAdapter<Object> adapter;
+	private Index index;
+	private Key topKey;
+	private Value topValue;
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void init(
+			final SortedKeyValueIterator<Key, Value> source,
+			final Map<String, String> options,
+			final IteratorEnvironment env )
+			throws IOException {
+		super.init(
+				source,
+				options,
+				env);
+		if ((options == null) || !options.containsKey(AGGREGATION) || !options.containsKey(ADAPTER) || !options.containsKey(INDEX)) {
+			throw new IllegalArgumentException(
+					"'" + AGGREGATION + "', '" + ADAPTER + "' and '" + INDEX + "' must be set for " + AggregationIterator.class.getName());
+		}
+		try {
+			aggregationBytes = ByteArrayUtils.byteArrayFromString(options.get(AGGREGATION));
+			adapter = PersistenceUtils.fromBinary(
+					ByteArrayUtils.byteArrayFromString(options.get(ADAPTER)),
+					DataAdapter.class);
+			index = PersistenceUtils.fromBinary(
+					ByteArrayUtils.byteArrayFromString(options.get(INDEX)),
+					Index.class);
+		}
+		catch (final Exception e) {
+			throw new IllegalArgumentException(
+					e);
+		}
+	}
+
+	@Override
+	public SortedKeyValueIterator<Key, Value> deepCopy(
+			final IteratorEnvironment env ) {
+		final AggregationIterator iterator = new AggregationIterator();
+		iterator.setSource(getSource().deepCopy(
+				env));
+		iterator.aggregationBytes = aggregationBytes;
+		iterator.adapter = adapter;
+		iterator.index = index;
+		return iterator;
+	}
+
+	@Override
+	public void seek(
+			final Range range,
+			final Collection<ByteSequence> columnFamilies,
+			final boolean inclusive )
+			throws IOException {
+		Range seekRange = range;
+		final Key startKey = range.getStartKey();
+		if ((startKey != null) && !range.isStartKeyInclusive() && AGGREGATION_COLUMN_FAMILY.equals(startKey.getColumnFamily())) {
+			// re-seeked after a partial aggregation, whose last row was
+			// aggregated in full
+			final Key followingRow = startKey.followingKey(PartialKey.ROW);
+			if (range.afterEndKey(followingRow)) {
+				topKey = null;
+				topValue = null;
+				return;
+			}
+			seekRange = new Range(
+					followingRow,
+					true,
+					range.getEndKey(),
+					range.isEndKeyInclusive());
+		}
+		super.seek(
+				seekRange,
+				columnFamilies,
+				inclusive);
+		aggregate();
+	}
+
+	@Override
+	public void next()
+			throws IOException {
+		aggregate();
+	}
+
+	@Override
+	public boolean hasTop() {
+		return topKey != null;
+	}
+
+	@Override
+	public Key getTopKey() {
+		return topKey;
+	}
+
+	@Override
+	public Value getTopValue() {
+		return topValue;
+	}
+
+	/**
+	 * Aggregates the rows of the source up to the next duplicated row, and
+	 * makes the partial aggregation or otherwise the duplicated row the top
+	 */
+	@SuppressWarnings("unchecked")
+	private void aggregate()
+			throws IOException {
+		topKey = null;
+		topValue = null;
+		final SortedKeyValueIterator<Key, Value> source = getSource();
+		Aggregation<Object> aggregation = null;
+		Text lastRow = null;
+		while (source.hasTop()) {
+			final Key key = source.getTopKey();
+			final AccumuloRowId rowId = new AccumuloRowId(
+					key.getRow().copyBytes());
+			if (rowId.getNumberOfDuplicates() > 0) {
+				if (aggregation == null) {
+					topKey = new Key(
+							key);
+					topValue = new Value(
+							source.getTopValue().get(),
+							true);
+					source.next();
+				}
+				// otherwise the duplicated row is returned after the partial
+				// aggregation of the rows before it
+				break;
+			}
+			final Pair<Object, DataStoreEntryInfo> entry = AccumuloUtils.decodeRow(
+					key,
+					source.getTopValue(),
+					rowId,
+					adapter,
+					null,
+					null,
+					index,
+					null);
+			if (entry != null) {
+				if (aggregation == null) {
+					aggregation = PersistenceUtils.fromBinary(
+							aggregationBytes,
+							Aggregation.class);
+				}
+				aggregation.aggregate(
+						entry.getRight(),
+						entry.getLeft());
+				lastRow = key.getRow();
+			}
+			source.next();
+		}
+		if (aggregation != null) {
+			// the whole row iterator keys rows without a column family, so
+			// this key sorts after the last row and before the next
+			topKey = new Key(
+					lastRow,
+					AGGREGATION_COLUMN_FAMILY);
+			topValue = new Value(
+					PersistenceUtils.toBinary(aggregation));
+		}
+	}
+}
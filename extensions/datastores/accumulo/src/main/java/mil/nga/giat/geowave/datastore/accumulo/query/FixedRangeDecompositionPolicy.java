@@ -0,0 +1,36 @@
+package mil.nga.giat.geowave.datastore.accumulo.query;
+
+import java.util.List;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import mil.nga.giat.geowave.core.store.index.Index;
+
+/**
+ * Allows the same number of ranges for every query
+ */
+public class FixedRangeDecompositionPolicy implements
+		RangeDecompositionPolicy
+{
+	public static final int DEFAULT_MAX_RANGE_DECOMPOSITION = 5000;
+	private final int maxRangeDecomposition;
+
+	public FixedRangeDecompositionPolicy() {
+		this(
+				DEFAULT_MAX_RANGE_DECOMPOSITION);
+	}
+
+	public FixedRangeDecompositionPolicy(
+			final int maxRangeDecomposition ) {
+		this.maxRangeDecomposition = maxRangeDecomposition;
+	}
+
+	@Override
+	public int getMaxRangeDecomposition(
+			final Index index,
+			final List<ByteArrayId> adapterIds,
+			final MultiDimensionalNumericData constraints,
+			final String... authorizations ) {
+		return maxRangeDecomposition;
+	}
+}
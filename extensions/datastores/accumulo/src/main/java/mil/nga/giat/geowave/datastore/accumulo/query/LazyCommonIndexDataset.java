@@ -0,0 +1,174 @@
+package mil.nga.giat.geowave.datastore.accumulo.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.data.PersistentDataset;
+import mil.nga.giat.geowave.core.store.data.PersistentValue;
+import mil.nga.giat.geowave.core.store.data.field.FieldReader;
+import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
+import mil.nga.giat.geowave.core.store.index.CommonIndexValue;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+/**
+ * A read-only view of the common index fields of a single row that decodes a
+ * field only when it is first requested. Field IDs are matched directly against
+ * the column qualifiers of the row's keys and field values are read straight
+ * from the values' backing arrays, so fields that a filter never looks at cost
+ * nothing. The same instance is reset for each row, therefore values should not
+ * be retained beyond the row they were read from.
+ */
+public class LazyCommonIndexDataset extends
+		PersistentDataset<CommonIndexValue>
+{
+	private final CommonIndexModel model;
+	private List<Key> keys = Collections.emptyList();
+	private List<Value> values = Collections.emptyList();
+	private int size = 0;
+	private CommonIndexValue[] decodedValues = new CommonIndexValue[0];
+	private boolean[] decoded = new boolean[0];
+
+	public LazyCommonIndexDataset(
+			final CommonIndexModel model ) {
+		super();
+		this.model = model;
+	}
+
+	/**
+	 * Point this dataset at the fields of a new row, discarding any values
+	 * decoded from the previous row
+	 */
+	public void reset(
+			final List<Key> keys,
+			final List<Value> values ) {
+		this.keys = keys;
+		this.values = values;
+		size = Math.min(
+				keys.size(),
+				values.size());
+		if (decoded.length < size) {
+			decodedValues = new CommonIndexValue[size];
+			decoded = new boolean[size];
+		}
+		else {
+			Arrays.fill(
+					decodedValues,
+					0,
+					size,
+					null);
+			Arrays.fill(
+					decoded,
+					0,
+					size,
+					false);
+		}
+	}
+
+	@Override
+	public CommonIndexValue getValue(
+			final ByteArrayId fieldId ) {
+		final byte[] fieldIdBytes = fieldId.getBytes();
+		for (int i = 0; i < size; i++) {
+			if (matches(
+					keys.get(
+							i).getColumnQualifierData(),
+					fieldIdBytes)) {
+				// like the eagerly decoded dataset, the first field with an ID
+				// wins
+				return getValue(
+						i,
+						fieldId);
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public List<PersistentValue<CommonIndexValue>> getValues() {
+		final List<PersistentValue<CommonIndexValue>> persistentValues = new ArrayList<PersistentValue<CommonIndexValue>>(
+				size);
+		for (int i = 0; i < size; i++) {
+			final ByteArrayId fieldId = new ByteArrayId(
+					keys.get(
+							i).getColumnQualifierData().toArray());
+			if (isFirstOccurrence(i)) {
+				final CommonIndexValue value = getValue(
+						i,
+						fieldId);
+				if (value != null) {
+					persistentValues.add(new PersistentValue<CommonIndexValue>(
+							fieldId,
+							value));
+				}
+			}
+		}
+		return persistentValues;
+	}
+
+	@Override
+	public void addValue(
+			final PersistentValue<CommonIndexValue> value ) {
+		throw new UnsupportedOperationException(
+				"Values of a lazily decoded row cannot be modified");
+	}
+
+	@Override
+	public void addOrUpdateValue(
+			final PersistentValue<CommonIndexValue> value ) {
+		throw new UnsupportedOperationException(
+				"Values of a lazily decoded row cannot be modified");
+	}
+
+	private CommonIndexValue getValue(
+			final int index,
+			final ByteArrayId fieldId ) {
+		if (!decoded[index]) {
+			decoded[index] = true;
+			final FieldReader<? extends CommonIndexValue> reader = model.getReader(fieldId);
+			if (reader != null) {
+				final Key key = keys.get(index);
+				final CommonIndexValue value = reader.readField(values.get(
+						index).get());
+				if (value != null) {
+					value.setVisibility(key.getColumnVisibilityData().getBackingArray());
+				}
+				decodedValues[index] = value;
+			}
+		}
+		return decodedValues[index];
+	}
+
+	private boolean isFirstOccurrence(
+			final int index ) {
+		final ByteSequence qualifier = keys.get(
+				index).getColumnQualifierData();
+		for (int i = 0; i < index; i++) {
+			if (qualifier.equals(keys.get(
+					i).getColumnQualifierData())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean matches(
+			final ByteSequence qualifier,
+			final byte[] fieldId ) {
+		final int length = qualifier.length();
+		if (length != fieldId.length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (qualifier.byteAt(i) != fieldId[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
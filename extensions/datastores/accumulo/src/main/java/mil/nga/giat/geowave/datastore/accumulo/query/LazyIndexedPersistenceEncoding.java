@@ -0,0 +1,156 @@
+package mil.nga.giat.geowave.datastore.accumulo.query;
+
+import java.util.Arrays;
+import java.util.List;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.data.IndexedPersistenceEncoding;
+import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+/**
+ * An indexed persistence encoding that is reset for each row scanned by an
+ * iterator instead of being created per row. The components of the row ID (see
+ * {@link mil.nga.giat.geowave.datastore.accumulo.AccumuloRowId}) are located
+ * within the row's bytes without copying and are only materialized when asked
+ * for, and the common index fields are decoded lazily by a
+ * {@link LazyCommonIndexDataset}. The encoding is only valid until the next
+ * reset, so filters must not retain it, although the IDs it returns are never
+ * reused.
+ */
+public class LazyIndexedPersistenceEncoding extends
+		IndexedPersistenceEncoding
+{
+	private final LazyCommonIndexDataset commonData;
+	private byte[] row;
+	private int insertionIdLength;
+	private int adapterIdLength;
+	private int dataIdLength;
+	private int numberOfDuplicates;
+	private ByteArrayId adapterId;
+	private ByteArrayId dataId;
+	private ByteArrayId insertionId;
+
+	public LazyIndexedPersistenceEncoding(
+			final CommonIndexModel model ) {
+		this(
+				new LazyCommonIndexDataset(
+						model));
+	}
+
+	private LazyIndexedPersistenceEncoding(
+			final LazyCommonIndexDataset commonData ) {
+		super(
+				null,
+				null,
+				null,
+				0,
+				commonData);
+		this.commonData = commonData;
+	}
+
+	/**
+	 * Point this encoding at a new row
+	 *
+	 * @param row
+	 *            the backing array of the row ID, which may be longer than the
+	 *            row ID
+	 * @param rowLength
+	 *            the length of the row ID
+	 * @param keys
+	 *            the keys of the row
+	 * @param values
+	 *            the values of the row
+	 */
+	public void reset(
+			final byte[] row,
+			final int rowLength,
+			final List<Key> keys,
+			final List<Value> values ) {
+		this.row = row;
+		adapterIdLength = readInt(
+				row,
+				rowLength - 12);
+		dataIdLength = readInt(
+				row,
+				rowLength - 8);
+		numberOfDuplicates = readInt(
+				row,
+				rowLength - 4);
+		insertionIdLength = rowLength - 12 - adapterIdLength - dataIdLength;
+		adapterId = null;
+		dataId = null;
+		insertionId = null;
+		commonData.reset(
+				keys,
+				values);
+	}
+
+	@Override
+	public LazyCommonIndexDataset getCommonData() {
+		return commonData;
+	}
+
+	@Override
+	public ByteArrayId getAdapterId() {
+		if (adapterId == null) {
+			adapterId = copyOfRow(
+					insertionIdLength,
+					adapterIdLength);
+		}
+		return adapterId;
+	}
+
+	@Override
+	public ByteArrayId getDataId() {
+		if (dataId == null) {
+			dataId = copyOfRow(
+					insertionIdLength + adapterIdLength,
+					dataIdLength);
+		}
+		return dataId;
+	}
+
+	@Override
+	public ByteArrayId getIndexInsertionId() {
+		if (insertionId == null) {
+			insertionId = copyOfRow(
+					0,
+					insertionIdLength);
+		}
+		return insertionId;
+	}
+
+	@Override
+	public boolean isDeduplicationEnabled() {
+		return numberOfDuplicates >= 0;
+	}
+
+	@Override
+	public int getDuplicateCount() {
+		return numberOfDuplicates;
+	}
+
+	@Override
+	public boolean isDuplicated() {
+		return numberOfDuplicates > 0;
+	}
+
+	private ByteArrayId copyOfRow(
+			final int offset,
+			final int length ) {
+		return new ByteArrayId(
+				Arrays.copyOfRange(
+						row,
+						offset,
+						offset + length));
+	}
+
+	private static int readInt(
+			final byte[] bytes,
+			final int offset ) {
+		return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+	}
+}
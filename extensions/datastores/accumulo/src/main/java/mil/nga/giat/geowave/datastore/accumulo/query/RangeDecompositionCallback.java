@@ -0,0 +1,24 @@
+package mil.nga.giat.geowave.datastore.accumulo.query;
+
+import mil.nga.giat.geowave.core.store.index.Index;
+
+/**
+ * A scan callback that also implements this interface is told how the
+ * constraints of each index scanned were decomposed into ranges, before the
+ * entries of that index are scanned
+ */
+public interface RangeDecompositionCallback
+{
+	/**
+	 * @param index
+	 *            the index being scanned
+	 * @param maxRangeDecomposition
+	 *            the maximum number of ranges the policy allowed
+	 * @param rangeCount
+	 *            the number of ranges that are scanned
+	 */
+	public void rangesDecomposed(
+			Index index,
+			int maxRangeDecomposition,
+			int rangeCount );
+}
@@ -0,0 +1,33 @@
+package mil.nga.giat.geowave.datastore.accumulo.query;
+
+import java.util.List;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import mil.nga.giat.geowave.core.store.index.Index;
+
+/**
+ * Decides how many ranges the constraints of a query may be decomposed into.
+ * More ranges follow the constraints more closely, so fewer rows outside of
+ * them are scanned and filtered, at the cost of computing the ranges and
+ * seeking to each of them.
+ */
+public interface RangeDecompositionPolicy
+{
+	/**
+	 * @param index
+	 *            the index being queried
+	 * @param adapterIds
+	 *            the adapters being queried, null or empty for all adapters
+	 * @param constraints
+	 *            the constraints of the query in the dimensions of the index
+	 * @param authorizations
+	 *            the authorizations of the query
+	 * @return the maximum number of ranges
+	 */
+	public int getMaxRangeDecomposition(
+			Index index,
+			List<ByteArrayId> adapterIds,
+			MultiDimensionalNumericData constraints,
+			String... authorizations );
+}
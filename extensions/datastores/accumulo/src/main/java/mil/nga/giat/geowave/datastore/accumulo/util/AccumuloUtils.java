@@ -3,7 +3,6 @@ package mil.nga.giat.geowave.datastore.accumulo.util;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -467,13 +466,34 @@ public class AccumuloUtils
 			final DataStoreEntryInfo entryInfo,
 			final T entry,
 			final Writer writer ) {
+		final List<Mutation> mutations = buildAltIndexMutations(
+				writableAdapter,
+				entryInfo,
+				entry);
+		if (!mutations.isEmpty()) {
+			writer.write(mutations);
+		}
+	}
+
+	/**
+	 * Build the mutations mapping the data ID of an encoded entry to its row
+	 * IDs within the alternate index table
+	 * 
+	 * @param writableAdapter
+	 * @param entryInfo
+	 * @param entry
+	 * @return one mutation per row ID, or none if the entry has no data ID
+	 */
+	public static <T> List<Mutation> buildAltIndexMutations(
+			final WritableDataAdapter<T> writableAdapter,
+			final DataStoreEntryInfo entryInfo,
+			final T entry ) {
 
 		final byte[] adapterId = writableAdapter.getAdapterId().getBytes();
 		final byte[] dataId = writableAdapter.getDataId(
 				entry).getBytes();
+		final List<Mutation> mutations = new ArrayList<Mutation>();
 		if ((dataId != null) && (dataId.length > 0)) {
-			final List<Mutation> mutations = new ArrayList<Mutation>();
-
 			for (final ByteArrayId rowId : entryInfo.getRowIds()) {
 
 				final Mutation mutation = new Mutation(
@@ -489,8 +509,8 @@ public class AccumuloUtils
 
 				mutations.add(mutation);
 			}
-			writer.write(mutations);
 		}
+		return mutations;
 	}
 
 	public static <T> List<Mutation> entryToMutations(
@@ -508,25 +528,43 @@ public class AccumuloUtils
 				ingestInfo);
 	}
 
-	private static <T> List<Mutation> buildMutations(
+	/**
+	 * Build the mutations for an entry that has already been encoded, so that
+	 * callers that also need the entry info do not have to encode it again
+	 * 
+	 * @param adapterId
+	 * @param ingestInfo
+	 * @return one mutation per row ID within the entry info
+	 */
+	public static List<Mutation> buildMutations(
 			final byte[] adapterId,
 			final DataStoreEntryInfo ingestInfo ) {
-		final List<Mutation> mutations = new ArrayList<Mutation>();
+		final List<ByteArrayId> rowIds = ingestInfo.getRowIds();
+		final List<Mutation> mutations = new ArrayList<Mutation>(
+				rowIds.size());
 		final List<FieldInfo> fieldInfoList = ingestInfo.getFieldInfo();
-		for (final ByteArrayId rowId : ingestInfo.getRowIds()) {
+		// the columns are the same for each row, so the visibilities are
+		// parsed once per entry rather than once per row and field, and the
+		// mutations copy the bytes of each column without wrapping them
+		final int fieldCount = fieldInfoList.size();
+		final byte[][] qualifiers = new byte[fieldCount][];
+		final ColumnVisibility[] visibilities = new ColumnVisibility[fieldCount];
+		final byte[][] values = new byte[fieldCount][];
+		for (int i = 0; i < fieldCount; i++) {
+			final FieldInfo fieldInfo = fieldInfoList.get(i);
+			qualifiers[i] = fieldInfo.getDataValue().getId().getBytes();
+			visibilities[i] = EncodingBuffer.getColumnVisibility(fieldInfo.getVisibility());
+			values[i] = fieldInfo.getWrittenValue();
+		}
+		for (final ByteArrayId rowId : rowIds) {
 			final Mutation mutation = new Mutation(
-					new Text(
-							rowId.getBytes()));
-			for (final FieldInfo fieldInfo : fieldInfoList) {
+					rowId.getBytes());
+			for (int i = 0; i < fieldCount; i++) {
 				mutation.put(
-						new Text(
-								adapterId),
-						new Text(
-								fieldInfo.getDataValue().getId().getBytes()),
-						new ColumnVisibility(
-								fieldInfo.getVisibility()),
-						new Value(
-								fieldInfo.getWrittenValue()));
+						adapterId,
+						qualifiers[i],
+						visibilities[i],
+						values[i]);
 			}
 
 			mutations.add(mutation);
@@ -574,7 +612,6 @@ public class AccumuloUtils
 		final int numberOfDuplicates = insertionIds.size() - 1;
 
 		for (final ByteArrayId insertionId : insertionIds) {
-			final byte[] indexId = insertionId.getBytes();
 			// because the combination of the adapter ID and data ID
 			// gaurantees uniqueness, we combine them in the row ID to
 			// disambiguate index values that are the same, also adding
@@ -583,14 +620,25 @@ public class AccumuloUtils
 			// metadata in our de-duplication
 			// step
 			rowIds.add(new ByteArrayId(
-					new AccumuloRowId(
-							indexId,
+					AccumuloRowId.getRowId(
+							insertionId.getBytes(),
 							dataId,
 							adapterId,
-							enableDeduplication ? numberOfDuplicates : -1).getRowId()));
+							enableDeduplication ? numberOfDuplicates : -1)));
 		}
 	}
 
+	public static <T> DataStoreEntryInfo getIngestInfo(
+			final WritableDataAdapter<T> dataWriter,
+			final Index index,
+			final T entry ) {
+		return getIngestInfo(
+				dataWriter,
+				index,
+				entry,
+				DEFAULT_VISIBILITY);
+	}
+
 	@SuppressWarnings({
 		"rawtypes",
 		"unchecked"
@@ -710,7 +758,9 @@ public class AccumuloUtils
 				visibility);
 	}
 
-	private static final byte[] BEG_AND_BYTE = "&".getBytes(StringUtils.UTF8_CHAR_SET);
+	private static final byte BEG_PAREN_BYTE = '(';
+	private static final byte END_PAREN_BYTE = ')';
+	private static final byte[] BEG_AND_BYTE = "&(".getBytes(StringUtils.UTF8_CHAR_SET);
 	private static final byte[] END_AND_BYTE = ")".getBytes(StringUtils.UTF8_CHAR_SET);
 
 	private static byte[] merge(
@@ -723,14 +773,13 @@ public class AccumuloUtils
 			return vis1;
 		}
 
-		final ByteBuffer buffer = ByteBuffer.allocate(vis1.length + 3 + vis2.length);
-		buffer.putChar('(');
-		buffer.put(vis1);
-		buffer.putChar(')');
-		buffer.put(BEG_AND_BYTE);
-		buffer.put(vis2);
-		buffer.put(END_AND_BYTE);
-		return buffer.array();
+		return EncodingBuffer.get().put(
+				BEG_PAREN_BYTE).put(
+				vis1).put(
+				END_PAREN_BYTE).put(
+				BEG_AND_BYTE).put(
+				vis2).put(
+				END_AND_BYTE).toByteArray();
 	}
 
 	/**
@@ -0,0 +1,153 @@
+package mil.nga.giat.geowave.datastore.accumulo.util;
+
+import java.util.Arrays;
+
+import org.apache.accumulo.core.security.ColumnVisibility;
+
+/**
+ * A growable byte buffer, reused by each thread, that the parts of a row ID or
+ * visibility expression are written into so that only the final byte array is
+ * allocated when an entry is encoded. The buffer also keeps the column
+ * visibilities most recently parsed by the thread, as the entries of an ingest
+ * typically share a few visibilities and parsing each one is costly.
+ *
+ * The buffer returned by {@link #get()} must not be held beyond the encoding of
+ * a single value, as the next call on the same thread resets it.
+ */
+public class EncodingBuffer
+{
+	private static final int INITIAL_CAPACITY = 256;
+	// larger buffers are not kept for the thread
+	private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+	private static final int VISIBILITY_CACHE_SIZE = 8;
+	private static final ColumnVisibility EMPTY_VISIBILITY = new ColumnVisibility();
+
+	private static final ThreadLocal<EncodingBuffer> BUFFERS = new ThreadLocal<EncodingBuffer>() {
+		@Override
+		protected EncodingBuffer initialValue() {
+			return new EncodingBuffer();
+		}
+	};
+
+	private byte[] bytes = new byte[INITIAL_CAPACITY];
+	private int length = 0;
+	private final byte[][] visibilityKeys = new byte[VISIBILITY_CACHE_SIZE][];
+	private final ColumnVisibility[] visibilities = new ColumnVisibility[VISIBILITY_CACHE_SIZE];
+	private int nextVisibility = 0;
+
+	protected EncodingBuffer() {}
+
+	/**
+	 * @return the empty buffer of the calling thread
+	 */
+	public static EncodingBuffer get() {
+		return BUFFERS.get().reset();
+	}
+
+	public EncodingBuffer reset() {
+		if (bytes.length > MAX_RETAINED_CAPACITY) {
+			bytes = new byte[INITIAL_CAPACITY];
+		}
+		length = 0;
+		return this;
+	}
+
+	public EncodingBuffer put(
+			final byte[] value ) {
+		return put(
+				value,
+				0,
+				value.length);
+	}
+
+	public EncodingBuffer put(
+			final byte[] value,
+			final int offset,
+			final int valueLength ) {
+		ensureCapacity(valueLength);
+		System.arraycopy(
+				value,
+				offset,
+				bytes,
+				length,
+				valueLength);
+		length += valueLength;
+		return this;
+	}
+
+	public EncodingBuffer put(
+			final byte value ) {
+		ensureCapacity(1);
+		bytes[length++] = value;
+		return this;
+	}
+
+	/**
+	 * Writes the value big-endian, as a ByteBuffer does
+	 */
+	public EncodingBuffer putInt(
+			final int value ) {
+		ensureCapacity(4);
+		bytes[length++] = (byte) (value >>> 24);
+		bytes[length++] = (byte) (value >>> 16);
+		bytes[length++] = (byte) (value >>> 8);
+		bytes[length++] = (byte) value;
+		return this;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * @return a copy of the bytes written since the buffer was reset
+	 */
+	public byte[] toByteArray() {
+		return Arrays.copyOf(
+				bytes,
+				length);
+	}
+
+	private void ensureCapacity(
+			final int additionalLength ) {
+		final int requiredLength = length + additionalLength;
+		if (requiredLength > bytes.length) {
+			bytes = Arrays.copyOf(
+					bytes,
+					Math.max(
+							bytes.length * 2,
+							requiredLength));
+		}
+	}
+
+	/**
+	 * @return the parsed visibility expression, from the cache of the calling
+	 *         thread if it was recently parsed
+	 */
+	public static ColumnVisibility getColumnVisibility(
+			final byte[] visibility ) {
+		if ((visibility == null) || (visibility.length == 0)) {
+			return EMPTY_VISIBILITY;
+		}
+		return BUFFERS.get().getCachedVisibility(
+				visibility);
+	}
+
+	private ColumnVisibility getCachedVisibility(
+			final byte[] visibility ) {
+		for (int i = 0; i < VISIBILITY_CACHE_SIZE; i++) {
+			if (Arrays.equals(
+					visibilityKeys[i],
+					visibility)) {
+				return visibilities[i];
+			}
+		}
+		final ColumnVisibility columnVisibility = new ColumnVisibility(
+				visibility);
+		// the visibility may be modified by the caller after it is cached
+		visibilityKeys[nextVisibility] = visibility.clone();
+		visibilities[nextVisibility] = columnVisibility;
+		nextVisibility = (nextVisibility + 1) % VISIBILITY_CACHE_SIZE;
+		return columnVisibility;
+	}
+}
@@ -0,0 +1,71 @@
+package mil.nga.giat.geowave.datastore.accumulo.util;
+
+import java.util.Iterator;
+
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo;
+import mil.nga.giat.geowave.core.store.IngestCallback;
+import mil.nga.giat.geowave.core.store.adapter.WritableDataAdapter;
+import mil.nga.giat.geowave.core.store.data.VisibilityWriter;
+import mil.nga.giat.geowave.core.store.index.Index;
+import mil.nga.giat.geowave.datastore.accumulo.util.IteratorWrapper.Callback;
+import mil.nga.giat.geowave.datastore.accumulo.util.IteratorWrapper.Converter;
+
+import org.apache.accumulo.core.data.Mutation;
+
+/**
+ * This converter encodes each entry exactly once during ingest. The entry info
+ * produced by the encoding is used to build the mutations and is retained
+ * until the iterator wrapper notifies that all of the entry's mutations have
+ * been consumed, at which point the same entry info is handed to the ingest
+ * callback rather than encoding the entry a second time.
+ *
+ * @param <T>
+ *            The type of entries being ingested
+ */
+public class EntryToMutationConverter<T> implements
+		Converter<T, Mutation>,
+		Callback<T, Mutation>
+{
+	private final WritableDataAdapter<T> dataWriter;
+	private final Index index;
+	private final VisibilityWriter<T> customFieldVisibilityWriter;
+	private final IngestCallback<T> ingestCallback;
+	private final byte[] adapterId;
+	private DataStoreEntryInfo lastEntryInfo;
+
+	public EntryToMutationConverter(
+			final WritableDataAdapter<T> dataWriter,
+			final Index index,
+			final VisibilityWriter<T> customFieldVisibilityWriter,
+			final IngestCallback<T> ingestCallback ) {
+		this.dataWriter = dataWriter;
+		this.index = index;
+		this.customFieldVisibilityWriter = customFieldVisibilityWriter;
+		this.ingestCallback = ingestCallback;
+		adapterId = dataWriter.getAdapterId().getBytes();
+	}
+
+	@Override
+	public Iterator<Mutation> convert(
+			final T entry ) {
+		lastEntryInfo = AccumuloUtils.getIngestInfo(
+				dataWriter,
+				index,
+				entry,
+				customFieldVisibilityWriter);
+		return AccumuloUtils.buildMutations(
+				adapterId,
+				lastEntryInfo).iterator();
+	}
+
+	@Override
+	public void notifyIterationComplete(
+			final T entry ) {
+		if ((ingestCallback != null) && (lastEntryInfo != null)) {
+			ingestCallback.entryIngested(
+					lastEntryInfo,
+					entry);
+		}
+		lastEntryInfo = null;
+	}
+}
@@ -0,0 +1,405 @@
+package mil.nga.giat.geowave.datastore.accumulo.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mil.nga.giat.geowave.core.store.CloseableIterator;
+
+import org.apache.log4j.Logger;
+
+/**
+ * This iterator drains several underlying iterators at once and merges their
+ * results through a bounded queue. When the consumer falls behind, the queue
+ * fills and the scanning threads block, so at most the queue capacity of
+ * results is buffered regardless of how many iterators are merged. The order
+ * of results across the underlying iterators is not defined.
+ *
+ * The scans run on a pool of daemon threads shared by every parallel scan in
+ * the JVM, so the number of scanning threads is bounded no matter how many
+ * queries run at once. Each parallel scan uses at most the given number of
+ * those threads, and each thread drains one underlying iterator after another.
+ * Scans never wait for a thread of the pool: if none of them can be started
+ * because the pool is saturated, the underlying iterators are drained one
+ * after another on the consumer's thread instead. A consumer that waits longer
+ * than the result timeout for the next result fails rather than waiting on a
+ * stalled scan forever.
+ *
+ * Any filtering or callbacks applied within the underlying iterators are
+ * invoked from the scanning threads, and so must be thread-safe. The iterator
+ * must be closed, otherwise its scans hold their threads waiting on the full
+ * queue.
+ *
+ * @param <E>
+ *            The type to iterate on
+ */
+public class ParallelScanIterator<E> implements
+		CloseableIterator<E>
+{
+	private final static Logger LOGGER = Logger.getLogger(ParallelScanIterator.class);
+	private static final long OFFER_TIMEOUT_MILLIS = 100;
+	public static final long DEFAULT_RESULT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+	private static final int SHARED_POOL_SIZE = Math.max(
+			8,
+			Runtime.getRuntime().availableProcessors() * 2);
+	// placed on the queue when each underlying iterator is finished
+	private static final Object END_OF_SCAN = new Object();
+	private static final ThreadPoolExecutor SHARED_EXECUTOR = createExecutor(SHARED_POOL_SIZE);
+
+	private final Queue<CloseableIterator<E>> pendingIterators;
+	private final BlockingQueue<Object> queue;
+	private final List<ScanTask> tasks = new ArrayList<ScanTask>();
+	private final CountDownLatch finishedTasks;
+	private final long resultTimeoutMillis;
+	// when no scan could be started, the consumer drains the iterators itself
+	private final boolean sequential;
+	private CloseableIterator<E> sequentialIterator = null;
+	private int activeScans;
+	private volatile boolean closed = false;
+	private volatile Throwable failure = null;
+	private Object nextValue = null;
+
+	public ParallelScanIterator(
+			final List<CloseableIterator<E>> iterators,
+			final int maxThreads,
+			final int queueCapacity ) {
+		this(
+				iterators,
+				maxThreads,
+				queueCapacity,
+				DEFAULT_RESULT_TIMEOUT_MILLIS);
+	}
+
+	/**
+	 * @param resultTimeoutMillis
+	 *            the longest the consumer waits for the next result before the
+	 *            scan fails
+	 */
+	public ParallelScanIterator(
+			final List<CloseableIterator<E>> iterators,
+			final int maxThreads,
+			final int queueCapacity,
+			final long resultTimeoutMillis ) {
+		this(
+				iterators,
+				maxThreads,
+				queueCapacity,
+				resultTimeoutMillis,
+				SHARED_EXECUTOR);
+	}
+
+	ParallelScanIterator(
+			final List<CloseableIterator<E>> iterators,
+			final int maxThreads,
+			final int queueCapacity,
+			final long resultTimeoutMillis,
+			final ThreadPoolExecutor executor ) {
+		this.resultTimeoutMillis = resultTimeoutMillis;
+		pendingIterators = new ConcurrentLinkedQueue<CloseableIterator<E>>(
+				iterators);
+		queue = new ArrayBlockingQueue<Object>(
+				Math.max(
+						1,
+						queueCapacity));
+		activeScans = iterators.size();
+		final int taskCount = iterators.isEmpty() ? 0 : Math.max(
+				1,
+				Math.min(
+						maxThreads,
+						iterators.size()));
+		finishedTasks = new CountDownLatch(
+				taskCount);
+		int startedTasks = 0;
+		for (int i = 0; i < taskCount; i++) {
+			final ScanTask task = new ScanTask();
+			try {
+				executor.execute(task);
+				tasks.add(task);
+				startedTasks++;
+			}
+			catch (final RejectedExecutionException e) {
+				// the pool is saturated, so this scan is not run
+				finishedTasks.countDown();
+			}
+		}
+		sequential = (taskCount > 0) && (startedTasks == 0);
+		if (sequential) {
+			LOGGER.debug("No parallel scan threads are available, scanning on the consumer's thread");
+		}
+	}
+
+	/**
+	 * @param poolSize
+	 *            the maximum number of scanning threads
+	 * @return a pool that never queues scans, rejecting them when all of its
+	 *         threads are busy
+	 */
+	static ThreadPoolExecutor createExecutor(
+			final int poolSize ) {
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+				poolSize,
+				poolSize,
+				60L,
+				TimeUnit.SECONDS,
+				new SynchronousQueue<Runnable>(),
+				new ThreadFactory() {
+					private final AtomicInteger threadCount = new AtomicInteger();
+
+					@Override
+					public Thread newThread(
+							final Runnable r ) {
+						final Thread thread = new Thread(
+								r,
+								"geowave-parallel-scan-" + threadCount.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		// the threads are only kept while there are scans to run
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * Drains underlying iterators until there are none left or the parallel
+	 * scan is closed. A task is claimed exactly once, either by the pool
+	 * thread that runs it or by close if it has not started yet, so that close
+	 * only waits on the tasks that are actually scanning.
+	 */
+	private class ScanTask implements
+			Runnable
+	{
+		private final AtomicBoolean claimed = new AtomicBoolean(
+				false);
+
+		@Override
+		public void run() {
+			if (!claimed.compareAndSet(
+					false,
+					true)) {
+				// the parallel scan was closed before this task started
+				return;
+			}
+			try {
+				CloseableIterator<E> iterator;
+				while (!closed && ((iterator = pendingIterators.poll()) != null)) {
+					scan(iterator);
+				}
+			}
+			finally {
+				finishedTasks.countDown();
+			}
+		}
+
+		private boolean claimUnstarted() {
+			return claimed.compareAndSet(
+					false,
+					true);
+		}
+	}
+
+	private void scan(
+			final CloseableIterator<E> iterator ) {
+		try {
+			while (!closed && iterator.hasNext()) {
+				if (!offer(iterator.next())) {
+					return;
+				}
+			}
+		}
+		catch (final Throwable t) {
+			LOGGER.error(
+					"Unable to complete parallel scan",
+					t);
+			failure = t;
+		}
+		finally {
+			closeIterator(iterator);
+			offer(END_OF_SCAN);
+		}
+	}
+
+	/**
+	 * block while the queue is full, giving up if this iterator is closed so
+	 * that abandoned scans do not hold onto their threads
+	 */
+	private boolean offer(
+			final Object value ) {
+		try {
+			while (!closed) {
+				if (queue.offer(
+						value,
+						OFFER_TIMEOUT_MILLIS,
+						TimeUnit.MILLISECONDS)) {
+					return true;
+				}
+			}
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return false;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (sequential) {
+			return hasNextSequential();
+		}
+		while ((nextValue == null) && (activeScans > 0) && !closed) {
+			try {
+				final Object value = queue.poll(
+						resultTimeoutMillis,
+						TimeUnit.MILLISECONDS);
+				if (value == null) {
+					// a stalled scan may never return, so it is left to close
+					// its own iterator rather than being waited on
+					close(false);
+					throw new RuntimeException(
+							"Parallel scan timed out after waiting " + resultTimeoutMillis + " ms for a result");
+				}
+				if (value == END_OF_SCAN) {
+					activeScans--;
+				}
+				else {
+					nextValue = value;
+				}
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				closeQuietly();
+				throw new RuntimeException(
+						"Interrupted while waiting for scan results",
+						e);
+			}
+		}
+		if (failure != null) {
+			closeQuietly();
+			throw new RuntimeException(
+					"Parallel scan failed",
+					failure);
+		}
+		return nextValue != null;
+	}
+
+	private boolean hasNextSequential() {
+		while ((nextValue == null) && !closed) {
+			if (sequentialIterator == null) {
+				sequentialIterator = pendingIterators.poll();
+				if (sequentialIterator == null) {
+					break;
+				}
+			}
+			if (sequentialIterator.hasNext()) {
+				nextValue = sequentialIterator.next();
+			}
+			else {
+				closeIterator(sequentialIterator);
+				sequentialIterator = null;
+			}
+		}
+		return nextValue != null;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public E next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		final E value = (E) nextValue;
+		nextValue = null;
+		return value;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException(
+				"Remove is not supported on a parallel scan");
+	}
+
+	private void closeQuietly() {
+		try {
+			close();
+		}
+		catch (final IOException e) {
+			LOGGER.warn(
+					"Unable to close parallel scan",
+					e);
+		}
+	}
+
+	private static void closeIterator(
+			final CloseableIterator<?> iterator ) {
+		try {
+			iterator.close();
+		}
+		catch (final IOException e) {
+			LOGGER.warn(
+					"Unable to close iterator",
+					e);
+		}
+	}
+
+	@Override
+	public void close()
+			throws IOException {
+		close(true);
+	}
+
+	/**
+	 * @param waitForScans
+	 *            whether to wait for the running scans to stop, which each
+	 *            close the iterator they are draining
+	 */
+	private void close(
+			final boolean waitForScans ) {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		nextValue = null;
+		for (final ScanTask task : tasks) {
+			if (task.claimUnstarted()) {
+				// the task was handed to a thread but has not started
+				finishedTasks.countDown();
+			}
+		}
+		// the running tasks see that the scan is closed within an offer
+		// timeout, and close the iterators they are draining themselves
+		try {
+			if (waitForScans) {
+				finishedTasks.await();
+			}
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.warn(
+					"Interrupted while waiting for parallel scans to finish",
+					e);
+		}
+		queue.clear();
+		if (sequentialIterator != null) {
+			closeIterator(sequentialIterator);
+			sequentialIterator = null;
+		}
+		// no task takes an iterator once the scan is closed
+		CloseableIterator<E> iterator;
+		while ((iterator = pendingIterators.poll()) != null) {
+			closeIterator(iterator);
+		}
+	}
+}
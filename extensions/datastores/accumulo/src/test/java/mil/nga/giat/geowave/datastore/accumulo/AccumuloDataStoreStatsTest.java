@@ -16,6 +16,7 @@ import mil.nga.giat.geowave.core.geotime.store.statistics.BoundingBoxDataStatist
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.index.StringUtils;
 import mil.nga.giat.geowave.core.store.CloseableIterator;
+import mil.nga.giat.geowave.core.store.IndexWriter;
 import mil.nga.giat.geowave.core.store.adapter.AbstractDataAdapter;
 import mil.nga.giat.geowave.core.store.adapter.NativeFieldHandler;
 import mil.nga.giat.geowave.core.store.adapter.PersistentIndexFieldHandler;
@@ -166,6 +167,72 @@ public class AccumuloDataStoreStatsTest
 		runtest();
 	}
 
+	@Test
+	public void testConcurrentIndexWriter()
+			throws InterruptedException {
+		accumuloOptions.setCreateTable(true);
+		accumuloOptions.setUseAltIndex(true);
+		accumuloOptions.setPersistDataStatistics(true);
+
+		final Index index = IndexType.SPATIAL_VECTOR.createDefaultIndex();
+		final WritableDataAdapter<TestGeometry> adapter = new TestGeometryAdapter();
+		final IndexWriter indexWriter = mockDataStore.createIndexWriter(index);
+		final int threadCount = 4;
+		final int entriesPerThread = 250;
+		final List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < threadCount; t++) {
+			final int thread = t;
+			threads.add(new Thread(
+					new Runnable() {
+						@Override
+						public void run() {
+							for (int i = 0; i < entriesPerThread; i++) {
+								indexWriter.write(
+										adapter,
+										new TestGeometry(
+												factory.createPoint(new Coordinate(
+														25 + (thread * 0.1),
+														31.5 + (i * 0.001))),
+												"test_pt_" + thread + "_" + i));
+							}
+						}
+					}));
+		}
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		indexWriter.close();
+
+		final CloseableIterator<?> it = mockDataStore.query(
+				adapter,
+				index,
+				new SpatialQuery(
+						factory.toGeometry(new Envelope(
+								24,
+								28,
+								31,
+								33))),
+				-1);
+		int count = 0;
+		while (it.hasNext()) {
+			it.next();
+			count++;
+		}
+		assertEquals(
+				threadCount * entriesPerThread,
+				count);
+
+		final CountDataStatistics<?> countStats = (CountDataStatistics<?>) statsStore.getDataStatistics(
+				adapter.getAdapterId(),
+				CountDataStatistics.STATS_ID);
+		assertEquals(
+				threadCount * entriesPerThread,
+				countStats.getCount());
+	}
+
 	private void runtest() {
 
 		final Index index = IndexType.SPATIAL_VECTOR.createDefaultIndex();
@@ -0,0 +1,187 @@
+package mil.nga.giat.geowave.datastore.accumulo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import mil.nga.giat.geowave.datastore.accumulo.metadata.AbstractAccumuloPersistence;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.io.Text;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BulkImportWriterTest
+{
+	private File bulkImportDirectory;
+	private Connector mockConnector;
+	private BulkImportAccumuloOperations operations;
+
+	@Before
+	public void setUp()
+			throws AccumuloException,
+			AccumuloSecurityException,
+			IOException {
+		mockConnector = new MockInstance().getConnector(
+				"root",
+				new PasswordToken(
+						new byte[0]));
+		bulkImportDirectory = File.createTempFile(
+				"bulk",
+				"");
+		bulkImportDirectory.delete();
+		bulkImportDirectory.mkdirs();
+		// a tiny buffer so that each mutation is written to its own file
+		operations = new BulkImportAccumuloOperations(
+				mockConnector,
+				"test",
+				bulkImportDirectory.getAbsolutePath(),
+				new Configuration(),
+				1);
+	}
+
+	@After
+	public void tearDown() {
+		FileUtil.fullyDelete(bulkImportDirectory);
+	}
+
+	@Test
+	public void testImport()
+			throws TableNotFoundException {
+		final Writer writer = operations.createWriter("bulk");
+		Assert.assertTrue(writer instanceof BulkImportWriter);
+		// write out of order, the files must be sorted
+		for (int i = 9; i >= 0; i--) {
+			final Mutation mutation = new Mutation(
+					new Text(
+							"row" + i));
+			mutation.put(
+					new Text(
+							"cf"),
+					new Text(
+							"cq"),
+					new Value(
+							new byte[] {
+								(byte) i
+							}));
+			mutation.put(
+					new Text(
+							"cf"),
+					new Text(
+							"cp"),
+					new Value(
+							new byte[0]));
+			writer.write(mutation);
+		}
+		// flushing imports the files written so far
+		writer.flush();
+		List<Key> keys = scan("bulk");
+		Assert.assertEquals(
+				20,
+				keys.size());
+		Assert.assertEquals(
+				"row0",
+				keys.get(
+						0).getRow().toString());
+		Assert.assertEquals(
+				"row9",
+				keys.get(
+						19).getRow().toString());
+
+		final Mutation mutation = new Mutation(
+				new Text(
+						"rowA"));
+		mutation.put(
+				new Text(
+						"cf"),
+				new Text(
+						"cq"),
+				new Value(
+						new byte[0]));
+		writer.write(mutation);
+		writer.close();
+		keys = scan("bulk");
+		Assert.assertEquals(
+				21,
+				keys.size());
+		Assert.assertEquals(
+				"rowA",
+				keys.get(
+						20).getRow().toString());
+		// the working directory of the writer is removed once imported
+		Assert.assertEquals(
+				0,
+				new File(
+						bulkImportDirectory,
+						"test_bulk").list().length);
+	}
+
+	@Test
+	public void testFailedImport()
+			throws TableNotFoundException,
+			AccumuloException,
+			AccumuloSecurityException {
+		final Writer writer = operations.createWriter("failed");
+		final Mutation mutation = new Mutation(
+				new Text(
+						"row"));
+		mutation.put(
+				new Text(
+						"cf"),
+				new Text(
+						"cq"),
+				new Value(
+						new byte[0]));
+		writer.write(mutation);
+		mockConnector.tableOperations().delete(
+				"test_failed");
+		try {
+			writer.close();
+			Assert.fail("the failed import must be thrown");
+		}
+		catch (final RuntimeException e) {
+			// expected
+		}
+		// the files are kept to be imported manually
+		Assert.assertEquals(
+				1,
+				new File(
+						bulkImportDirectory,
+						"test_failed").list().length);
+	}
+
+	private List<Key> scan(
+			final String tableName )
+			throws TableNotFoundException {
+		final List<Key> keys = new ArrayList<Key>();
+		final Iterator<Entry<Key, Value>> it = operations.createScanner(
+				tableName).iterator();
+		while (it.hasNext()) {
+			keys.add(it.next().getKey());
+		}
+		return keys;
+	}
+
+	@Test
+	public void testMetadataUsesBatchWriter()
+			throws TableNotFoundException {
+		final Writer writer = operations.createWriter(AbstractAccumuloPersistence.METADATA_TABLE);
+		Assert.assertTrue(writer instanceof BatchWriterWrapper);
+		writer.close();
+	}
+}
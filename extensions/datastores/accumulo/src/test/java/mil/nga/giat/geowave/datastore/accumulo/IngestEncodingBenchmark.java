@@ -0,0 +1,236 @@
+package mil.nga.giat.geowave.datastore.accumulo;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import mil.nga.giat.geowave.core.geotime.IndexType;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo.FieldInfo;
+import mil.nga.giat.geowave.core.store.IngestCallback;
+import mil.nga.giat.geowave.core.store.adapter.WritableDataAdapter;
+import mil.nga.giat.geowave.core.store.data.VisibilityWriter;
+import mil.nga.giat.geowave.core.store.data.visibility.UnconstrainedVisibilityHandler;
+import mil.nga.giat.geowave.core.store.data.visibility.UniformVisibilityWriter;
+import mil.nga.giat.geowave.core.store.index.Index;
+import mil.nga.giat.geowave.datastore.accumulo.AccumuloDataStoreStatsTest.TestGeometry;
+import mil.nga.giat.geowave.datastore.accumulo.AccumuloDataStoreStatsTest.TestGeometryAdapter;
+import mil.nga.giat.geowave.datastore.accumulo.util.AccumuloUtils;
+import mil.nga.giat.geowave.datastore.accumulo.util.EntryToMutationConverter;
+import mil.nga.giat.geowave.datastore.accumulo.util.IteratorWrapper;
+
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.io.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+/**
+ * Compares the entries per second of the ingest encoding path when each entry
+ * is encoded once for the mutations and again for the ingest callback (the
+ * previous behavior) against encoding each entry a single time and sharing the
+ * entry info with the callback. It also compares building the row IDs and
+ * mutations of encoded entries through intermediate buffers and wrappers (the
+ * previous behavior) against building them with the thread's encoding buffer.
+ * Both row encoding benchmarks decode the same row IDs and build the same row
+ * ID list, entry info and mutation list per entry, so that they differ only
+ * in how the row IDs and mutations are encoded. Run the main method from the
+ * test classpath; the GC profiler reports the bytes allocated per entry as
+ * gc.alloc.rate.norm.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IngestEncodingBenchmark
+{
+	private static final int ENTRY_COUNT = 1000;
+
+	private final Index index = IndexType.SPATIAL_VECTOR.createDefaultIndex();
+	private final WritableDataAdapter<TestGeometry> adapter = new TestGeometryAdapter();
+	private final VisibilityWriter<TestGeometry> visibilityWriter = new UniformVisibilityWriter<TestGeometry>(
+			new UnconstrainedVisibilityHandler<TestGeometry, Object>());
+	private final List<TestGeometry> entries = new ArrayList<TestGeometry>();
+	private final List<DataStoreEntryInfo> entryInfos = new ArrayList<DataStoreEntryInfo>();
+
+	@Setup
+	public void setup() {
+		final GeometryFactory factory = new GeometryFactory();
+		final Random random = new Random(
+				7);
+		for (int i = 0; i < ENTRY_COUNT; i++) {
+			entries.add(new TestGeometry(
+					factory.createPoint(new Coordinate(
+							(random.nextDouble() * 360) - 180,
+							(random.nextDouble() * 180) - 90)),
+					"pt_" + i));
+		}
+		for (final TestGeometry entry : entries) {
+			entryInfos.add(AccumuloUtils.getIngestInfo(
+					adapter,
+					index,
+					entry,
+					visibilityWriter));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ENTRY_COUNT)
+	public void twoPassEncoding(
+			final Blackhole blackhole ) {
+		for (final TestGeometry entry : entries) {
+			for (final Mutation mutation : AccumuloUtils.entryToMutations(
+					adapter,
+					index,
+					entry,
+					visibilityWriter)) {
+				blackhole.consume(mutation);
+			}
+			blackhole.consume(AccumuloUtils.getIngestInfo(
+					adapter,
+					index,
+					entry,
+					visibilityWriter));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ENTRY_COUNT)
+	public void singlePassEncoding(
+			final Blackhole blackhole ) {
+		final EntryToMutationConverter<TestGeometry> converter = new EntryToMutationConverter<TestGeometry>(
+				adapter,
+				index,
+				visibilityWriter,
+				new IngestCallback<TestGeometry>() {
+					@Override
+					public void entryIngested(
+							final DataStoreEntryInfo entryInfo,
+							final TestGeometry entry ) {
+						blackhole.consume(entryInfo);
+					}
+				});
+		final Iterator<Mutation> it = new IteratorWrapper<TestGeometry, Mutation>(
+				entries.iterator(),
+				converter,
+				converter);
+		while (it.hasNext()) {
+			blackhole.consume(it.next());
+		}
+	}
+
+	/**
+	 * Builds the row IDs, entry info and mutations of each entry as ingest did
+	 * before the encoding buffer: through a byte buffer per row ID and a Text,
+	 * Value and ColumnVisibility wrapper per column
+	 */
+	@Benchmark
+	@OperationsPerInvocation(ENTRY_COUNT)
+	public void wrappedRowEncoding(
+			final Blackhole blackhole ) {
+		final byte[] adapterId = adapter.getAdapterId().getBytes();
+		for (int i = 0; i < ENTRY_COUNT; i++) {
+			final DataStoreEntryInfo entryInfo = entryInfos.get(i);
+			final List<ByteArrayId> rowIds = new ArrayList<ByteArrayId>();
+			for (final ByteArrayId rowId : entryInfo.getRowIds()) {
+				final AccumuloRowId decoded = new AccumuloRowId(
+						rowId.getBytes());
+				final ByteBuffer buf = ByteBuffer.allocate(12 + decoded.getDataId().length + adapterId.length + decoded.getInsertionId().length);
+				buf.put(decoded.getInsertionId());
+				buf.put(adapterId);
+				buf.put(decoded.getDataId());
+				buf.putInt(adapterId.length);
+				buf.putInt(decoded.getDataId().length);
+				buf.putInt(decoded.getNumberOfDuplicates());
+				rowIds.add(new ByteArrayId(
+						buf.array()));
+			}
+			final DataStoreEntryInfo encodedInfo = new DataStoreEntryInfo(
+					rowIds,
+					entryInfo.getFieldInfo());
+			final List<Mutation> mutations = new ArrayList<Mutation>();
+			for (final ByteArrayId rowId : encodedInfo.getRowIds()) {
+				final Mutation mutation = new Mutation(
+						new Text(
+								rowId.getBytes()));
+				for (final FieldInfo fieldInfo : encodedInfo.getFieldInfo()) {
+					mutation.put(
+							new Text(
+									adapterId),
+							new Text(
+									fieldInfo.getDataValue().getId().getBytes()),
+							new ColumnVisibility(
+									fieldInfo.getVisibility()),
+							new Value(
+									fieldInfo.getWrittenValue()));
+				}
+				mutations.add(mutation);
+			}
+			blackhole.consume(mutations);
+		}
+	}
+
+	/**
+	 * Builds the same row IDs, entry info and mutations of each entry through
+	 * the thread's encoding buffer
+	 */
+	@Benchmark
+	@OperationsPerInvocation(ENTRY_COUNT)
+	public void bufferedRowEncoding(
+			final Blackhole blackhole ) {
+		final byte[] adapterId = adapter.getAdapterId().getBytes();
+		for (int i = 0; i < ENTRY_COUNT; i++) {
+			final DataStoreEntryInfo entryInfo = entryInfos.get(i);
+			final List<ByteArrayId> rowIds = new ArrayList<ByteArrayId>();
+			for (final ByteArrayId rowId : entryInfo.getRowIds()) {
+				final AccumuloRowId decoded = new AccumuloRowId(
+						rowId.getBytes());
+				rowIds.add(new ByteArrayId(
+						AccumuloRowId.getRowId(
+								decoded.getInsertionId(),
+								decoded.getDataId(),
+								adapterId,
+								decoded.getNumberOfDuplicates())));
+			}
+			final DataStoreEntryInfo encodedInfo = new DataStoreEntryInfo(
+					rowIds,
+					entryInfo.getFieldInfo());
+			blackhole.consume(AccumuloUtils.buildMutations(
+					adapterId,
+					encodedInfo));
+		}
+	}
+
+	public static void main(
+			final String[] args )
+			throws RunnerException {
+		new Runner(
+				new OptionsBuilder().include(
+						IngestEncodingBenchmark.class.getSimpleName()).addProfiler(
+						GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,180 @@
+package mil.nga.giat.geowave.datastore.accumulo.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+
+import org.junit.Test;
+
+public class MetadataCacheTest
+{
+	private static final ByteArrayId ID = new ByteArrayId(
+			"id");
+
+	@Test
+	public void testHitsAndMisses() {
+		final MetadataCache<String> cache = new MetadataCache<String>(
+				10,
+				0,
+				0);
+		assertNull(cache.lookup(ID));
+		cache.put(
+				ID,
+				"value");
+		assertEquals(
+				"value",
+				cache.lookup(ID));
+		assertEquals(
+				1,
+				cache.getStats().hitCount());
+		assertEquals(
+				1,
+				cache.getStats().missCount());
+		assertTrue(cache.remove(ID));
+		assertFalse(cache.remove(ID));
+		assertNull(cache.lookup(ID));
+	}
+
+	@Test
+	public void testEviction() {
+		final MetadataCache<String> cache = new MetadataCache<String>(
+				5,
+				0,
+				0);
+		for (int i = 0; i < 20; i++) {
+			cache.put(
+					new ByteArrayId(
+							Integer.toString(i)),
+					Integer.toString(i));
+		}
+		assertTrue(cache.size() <= 5);
+		assertEquals(
+				20 - cache.size(),
+				cache.getStats().evictionCount());
+	}
+
+	@Test
+	public void testMissCaching() {
+		final MetadataCache<String> cache = new MetadataCache<String>(
+				10,
+				0,
+				60000);
+		assertFalse(cache.lookup(ID) == MetadataCache.MISSING);
+		cache.putMissing(ID);
+		assertTrue(cache.lookup(ID) == MetadataCache.MISSING);
+		// a miss is not an object that can be removed
+		assertFalse(cache.remove(ID));
+		assertFalse(cache.lookup(ID) == MetadataCache.MISSING);
+
+		cache.putMissing(ID);
+		cache.put(
+				ID,
+				"value");
+		assertFalse(cache.lookup(ID) == MetadataCache.MISSING);
+		// a miss does not replace an object
+		cache.putMissing(ID);
+		assertEquals(
+				"value",
+				cache.lookup(ID));
+	}
+
+	@Test
+	public void testLookup() {
+		final MetadataCache<String> cache = new MetadataCache<String>(
+				10,
+				0,
+				60000);
+		assertNull(cache.lookup(ID));
+		cache.putMissing(ID);
+		assertTrue(cache.lookup(ID) == MetadataCache.MISSING);
+		cache.put(
+				ID,
+				"value");
+		assertEquals(
+				"value",
+				cache.lookup(ID));
+		// each lookup is a single request, whatever it finds
+		assertEquals(
+				3,
+				cache.getStats().requestCount());
+		assertEquals(
+				1,
+				cache.getStats().missCount());
+	}
+
+	@Test
+	public void testMissCachingDisabled() {
+		final MetadataCache<String> cache = new MetadataCache<String>(
+				10,
+				0,
+				0);
+		cache.putMissing(ID);
+		assertFalse(cache.lookup(ID) == MetadataCache.MISSING);
+		assertEquals(
+				0,
+				cache.size());
+	}
+
+	@Test
+	public void testMissExpiry()
+			throws InterruptedException {
+		final MetadataCache<String> cache = new MetadataCache<String>(
+				10,
+				0,
+				1);
+		cache.putMissing(ID);
+		Thread.sleep(10);
+		assertFalse(cache.lookup(ID) == MetadataCache.MISSING);
+	}
+
+	@Test
+	public void testConcurrentAccess()
+			throws InterruptedException {
+		final MetadataCache<String> cache = new MetadataCache<String>(
+				50,
+				0,
+				60000);
+		final AtomicInteger failures = new AtomicInteger();
+		final List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < 8; t++) {
+			final int thread = t;
+			threads.add(new Thread(
+					new Runnable() {
+						@Override
+						public void run() {
+							for (int i = 0; i < 10000; i++) {
+								final String value = Integer.toString((i + thread) % 100);
+								final ByteArrayId id = new ByteArrayId(
+										value);
+								final Object cached = cache.lookup(id);
+								if (cached == null) {
+									cache.put(
+											id,
+											value);
+								}
+								else if (!cached.equals(value)) {
+									failures.incrementAndGet();
+								}
+							}
+						}
+					}));
+		}
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(
+				0,
+				failures.get());
+		assertTrue(cache.size() <= 50);
+	}
+}
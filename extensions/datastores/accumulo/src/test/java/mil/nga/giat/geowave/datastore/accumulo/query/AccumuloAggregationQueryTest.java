@@ -0,0 +1,175 @@
+package mil.nga.giat.geowave.datastore.accumulo.query;
+
+import java.util.HashSet;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import mil.nga.giat.geowave.core.geotime.IndexType;
+import mil.nga.giat.geowave.core.geotime.store.query.SpatialQuery;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.DataStore;
+import mil.nga.giat.geowave.core.store.adapter.WritableDataAdapter;
+import mil.nga.giat.geowave.core.store.adapter.statistics.CountDataStatistics;
+import mil.nga.giat.geowave.core.store.index.Index;
+import mil.nga.giat.geowave.core.store.query.aggregate.DataStatisticsAggregation;
+import mil.nga.giat.geowave.datastore.accumulo.AccumuloDataStore;
+import mil.nga.giat.geowave.datastore.accumulo.AccumuloRowId;
+import mil.nga.giat.geowave.datastore.accumulo.BasicAccumuloOperations;
+import mil.nga.giat.geowave.datastore.accumulo.query.AccumuloRangeQueryTest.TestGeometry;
+import mil.nga.giat.geowave.datastore.accumulo.query.AccumuloRangeQueryTest.TestGeometryAdapter;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+public class AccumuloAggregationQueryTest
+{
+	private DataStore mockDataStore;
+	private BasicAccumuloOperations mockOperations;
+	private Index index;
+	private WritableDataAdapter<TestGeometry> adapter;
+	private final GeometryFactory factory = new GeometryFactory();
+
+	@Before
+	public void ingestGeometries()
+			throws AccumuloException,
+			AccumuloSecurityException {
+		final MockInstance mockInstance = new MockInstance();
+		final Connector mockConnector = mockInstance.getConnector(
+				"root",
+				new PasswordToken(
+						new byte[0]));
+		mockOperations = new BasicAccumuloOperations(
+				mockConnector);
+		mockDataStore = new AccumuloDataStore(
+				mockOperations);
+
+		index = IndexType.SPATIAL_VECTOR.createDefaultIndex();
+		adapter = new TestGeometryAdapter();
+
+		for (int i = 0; i < 20; i++) {
+			mockDataStore.ingest(
+					adapter,
+					index,
+					new TestGeometry(
+							factory.createPoint(new Coordinate(
+									i,
+									i)),
+							"test_point_" + i));
+		}
+	}
+
+	@Test
+	public void testCount() {
+		final DataStatisticsAggregation<TestGeometry> aggregation = new DataStatisticsAggregation<TestGeometry>(
+				new CountDataStatistics<TestGeometry>(
+						adapter.getAdapterId()));
+
+		final DataStatisticsAggregation<TestGeometry> all = mockDataStore.aggregate(
+				adapter,
+				index,
+				null,
+				aggregation);
+		Assert.assertEquals(
+				20,
+				((CountDataStatistics<TestGeometry>) all.getStatistics()).getCount());
+
+		final DataStatisticsAggregation<TestGeometry> some = mockDataStore.aggregate(
+				adapter,
+				index,
+				new SpatialQuery(
+						factory.toGeometry(new Envelope(
+								4.5,
+								9.5,
+								4.5,
+								9.5))),
+				aggregation);
+		Assert.assertEquals(
+				5,
+				((CountDataStatistics<TestGeometry>) some.getStatistics()).getCount());
+
+		final DataStatisticsAggregation<TestGeometry> none = mockDataStore.aggregate(
+				adapter,
+				index,
+				new SpatialQuery(
+						factory.toGeometry(new Envelope(
+								-10,
+								-5,
+								-10,
+								-5))),
+				aggregation);
+		Assert.assertFalse(((CountDataStatistics<TestGeometry>) none.getStatistics()).isSet());
+		// the aggregation passed in is never modified
+		Assert.assertFalse(((CountDataStatistics<TestGeometry>) aggregation.getStatistics()).isSet());
+	}
+
+	@Test
+	public void testCountDuplicatedPolygons()
+			throws TableNotFoundException {
+		// polygons straddling the equator are stored in several rows
+		for (int i = 1; i <= 7; i++) {
+			mockDataStore.ingest(
+					adapter,
+					index,
+					new TestGeometry(
+							factory.toGeometry(new Envelope(
+									(i * 10) - 91,
+									(i * 10) - 89,
+									-1,
+									1)),
+							"test_polygon_" + i));
+		}
+		final Set<ByteArrayId> duplicatedIds = new HashSet<ByteArrayId>();
+		for (final Entry<Key, Value> entry : mockOperations.createScanner(index.getId().getString())) {
+			final AccumuloRowId rowId = new AccumuloRowId(
+					entry.getKey());
+			if (rowId.getNumberOfDuplicates() > 0) {
+				duplicatedIds.add(new ByteArrayId(
+						rowId.getDataId()));
+			}
+		}
+		Assert.assertEquals(
+				7,
+				duplicatedIds.size());
+
+		final DataStatisticsAggregation<TestGeometry> aggregation = new DataStatisticsAggregation<TestGeometry>(
+				new CountDataStatistics<TestGeometry>(
+						adapter.getAdapterId()));
+		final DataStatisticsAggregation<TestGeometry> all = mockDataStore.aggregate(
+				adapter,
+				index,
+				null,
+				aggregation);
+		Assert.assertEquals(
+				27,
+				((CountDataStatistics<TestGeometry>) all.getStatistics()).getCount());
+
+		// the query is decomposed into several ranges, each of which may hold
+		// copies of the same polygon
+		final DataStatisticsAggregation<TestGeometry> polygons = mockDataStore.aggregate(
+				adapter,
+				index,
+				new SpatialQuery(
+						factory.toGeometry(new Envelope(
+								-85,
+								-35,
+								-5,
+								5))),
+				aggregation);
+		Assert.assertEquals(
+				5,
+				((CountDataStatistics<TestGeometry>) polygons.getStatistics()).getCount());
+	}
+}
@@ -1,5 +1,6 @@
 package mil.nga.giat.geowave.datastore.accumulo.query;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -11,6 +12,8 @@ import mil.nga.giat.geowave.core.geotime.store.query.SpatialQuery;
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.store.CloseableIterator;
 import mil.nga.giat.geowave.core.store.DataStore;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo;
+import mil.nga.giat.geowave.core.store.ScanCallback;
 import mil.nga.giat.geowave.core.store.adapter.AbstractDataAdapter;
 import mil.nga.giat.geowave.core.store.adapter.NativeFieldHandler;
 import mil.nga.giat.geowave.core.store.adapter.PersistentIndexFieldHandler;
@@ -25,6 +28,7 @@ import mil.nga.giat.geowave.core.store.index.Index;
 import mil.nga.giat.geowave.core.store.query.Query;
 import mil.nga.giat.geowave.datastore.accumulo.AccumuloDataStore;
 import mil.nga.giat.geowave.datastore.accumulo.BasicAccumuloOperations;
+import mil.nga.giat.geowave.datastore.accumulo.metadata.AccumuloAdapterStore;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
@@ -46,6 +50,7 @@ import com.vividsolutions.jts.io.WKBWriter;
 public class AccumuloRangeQueryTest
 {
 	private DataStore mockDataStore;
+	private BasicAccumuloOperations mockOperations;
 	private Index index;
 	private WritableDataAdapter<TestGeometry> adapter;
 	private final GeometryFactory factory = new GeometryFactory();
@@ -75,9 +80,10 @@ public class AccumuloRangeQueryTest
 				"root",
 				new PasswordToken(
 						new byte[0]));
+		mockOperations = new BasicAccumuloOperations(
+				mockConnector);
 		mockDataStore = new AccumuloDataStore(
-				new BasicAccumuloOperations(
-						mockConnector));
+				mockOperations);
 
 		index = IndexType.SPATIAL_VECTOR.createDefaultIndex();
 		adapter = new TestGeometryAdapter();
@@ -252,6 +258,67 @@ public class AccumuloRangeQueryTest
 				geom1.id);
 	}
 
+	@Test
+	public void testRangeDecompositionReported()
+			throws IOException {
+		final Query query = new SpatialQuery(
+				createPolygon(100));
+		final TestRangeDecompositionCallback callback = new TestRangeDecompositionCallback();
+		final AccumuloConstraintsQuery accumuloQuery = new AccumuloConstraintsQuery(
+				null,
+				index,
+				query.getIndexConstraints(index.getIndexStrategy()),
+				query.createFilters(index.getIndexModel()),
+				null,
+				callback,
+				new String[0]);
+		accumuloQuery.setRangeDecompositionPolicy(new FixedRangeDecompositionPolicy(
+				8));
+		try (final CloseableIterator<?> results = accumuloQuery.query(
+				mockOperations,
+				new AccumuloAdapterStore(
+						mockOperations),
+				null)) {
+			while (results.hasNext()) {
+				results.next();
+			}
+		}
+		Assert.assertEquals(
+				index,
+				callback.index);
+		Assert.assertEquals(
+				8,
+				callback.maxRangeDecomposition);
+		Assert.assertEquals(
+				accumuloQuery.getRangeCount(),
+				callback.rangeCount);
+		Assert.assertTrue(callback.rangeCount > 0);
+	}
+
+	private static class TestRangeDecompositionCallback implements
+			ScanCallback<TestGeometry>,
+			RangeDecompositionCallback
+	{
+		private Index index;
+		private int maxRangeDecomposition = -1;
+		private int rangeCount = -1;
+
+		@Override
+		public void rangesDecomposed(
+				final Index index,
+				final int maxRangeDecomposition,
+				final int rangeCount ) {
+			this.index = index;
+			this.maxRangeDecomposition = maxRangeDecomposition;
+			this.rangeCount = rangeCount;
+		}
+
+		@Override
+		public void entryScanned(
+				final DataStoreEntryInfo entryInfo,
+				final TestGeometry entry ) {}
+	}
+
 	private static Polygon createPolygon(
 			final int numPoints ) {
 		final double centerX = 4;
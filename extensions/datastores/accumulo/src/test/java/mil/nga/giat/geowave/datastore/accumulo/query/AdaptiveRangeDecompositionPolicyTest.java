@@ -0,0 +1,114 @@
+package mil.nga.giat.geowave.datastore.accumulo.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import mil.nga.giat.geowave.core.index.dimension.BasicDimensionDefinition;
+import mil.nga.giat.geowave.core.index.dimension.NumericDimensionDefinition;
+import mil.nga.giat.geowave.core.index.sfc.data.BasicNumericDataset;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericRange;
+
+import org.junit.Test;
+
+public class AdaptiveRangeDecompositionPolicyTest
+{
+	private static final NumericDimensionDefinition[] DIMENSIONS = new NumericDimensionDefinition[] {
+		new BasicDimensionDefinition(
+				-180,
+				180),
+		new BasicDimensionDefinition(
+				-90,
+				90)
+	};
+
+	@Test
+	public void testConstraintFraction() {
+		assertEquals(
+				0.125,
+				AdaptiveRangeDecompositionPolicy.getConstraintFraction(
+						DIMENSIONS,
+						constraints(
+								0,
+								180,
+								0,
+								45)),
+				0.000001);
+		// constraints beyond the dimension's range
+		assertEquals(
+				1.0,
+				AdaptiveRangeDecompositionPolicy.getConstraintFraction(
+						DIMENSIONS,
+						constraints(
+								-200,
+								200,
+								-100,
+								100)),
+				0.000001);
+		assertEquals(
+				0.0,
+				AdaptiveRangeDecompositionPolicy.getConstraintFraction(
+						DIMENSIONS,
+						constraints(
+								10,
+								10,
+								-90,
+								90)),
+				0.000001);
+	}
+
+	@Test
+	public void testSmallQueriesAreDecomposedLess() {
+		// a map tile over a dense data set
+		final int tile = AdaptiveRangeDecompositionPolicy.getMaxRangeDecomposition(
+				0.00001,
+				10000000,
+				10);
+		// a large part of the same data set
+		final int large = AdaptiveRangeDecompositionPolicy.getMaxRangeDecomposition(
+				0.5,
+				10000000,
+				10);
+		assertEquals(
+				AdaptiveRangeDecompositionPolicy.MIN_RANGE_DECOMPOSITION,
+				tile);
+		assertTrue(large > FixedRangeDecompositionPolicy.DEFAULT_MAX_RANGE_DECOMPOSITION);
+		assertTrue(large <= AdaptiveRangeDecompositionPolicy.MAX_RANGE_DECOMPOSITION);
+	}
+
+	@Test
+	public void testTabletsSpanned() {
+		// few rows spread over many tablets still get ranges for each tablet
+		assertEquals(
+				50 * AdaptiveRangeDecompositionPolicy.RANGES_PER_TABLET,
+				AdaptiveRangeDecompositionPolicy.getMaxRangeDecomposition(
+						0.5,
+						1000,
+						100));
+	}
+
+	@Test
+	public void testUnknownRowCount() {
+		assertEquals(
+				FixedRangeDecompositionPolicy.DEFAULT_MAX_RANGE_DECOMPOSITION,
+				AdaptiveRangeDecompositionPolicy.getMaxRangeDecomposition(
+						0.001,
+						-1,
+						1));
+	}
+
+	private static BasicNumericDataset constraints(
+			final double minX,
+			final double maxX,
+			final double minY,
+			final double maxY ) {
+		return new BasicNumericDataset(
+				new NumericData[] {
+					new NumericRange(
+							minX,
+							maxX),
+					new NumericRange(
+							minY,
+							maxY)
+				});
+	}
+}
@@ -0,0 +1,211 @@
+package mil.nga.giat.geowave.datastore.accumulo.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import mil.nga.giat.geowave.core.geotime.IndexType;
+import mil.nga.giat.geowave.core.geotime.store.dimension.GeometryWrapper;
+import mil.nga.giat.geowave.core.geotime.store.query.SpatialQuery;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.StringUtils;
+import mil.nga.giat.geowave.core.store.data.IndexedPersistenceEncoding;
+import mil.nga.giat.geowave.core.store.data.PersistentDataset;
+import mil.nga.giat.geowave.core.store.data.PersistentValue;
+import mil.nga.giat.geowave.core.store.filter.QueryFilter;
+import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
+import mil.nga.giat.geowave.core.store.index.CommonIndexValue;
+import mil.nga.giat.geowave.core.store.index.Index;
+import mil.nga.giat.geowave.datastore.accumulo.AccumuloRowId;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+public class LazyIndexedPersistenceEncodingTest
+{
+	private final GeometryFactory factory = new GeometryFactory();
+	private final Index index = IndexType.SPATIAL_VECTOR.createDefaultIndex();
+	private final CommonIndexModel model = index.getIndexModel();
+	private final ByteArrayId geometryFieldId = model.getDimensions()[0].getFieldId();
+
+	@Test
+	public void testRowIdAndFields() {
+		final Geometry point = factory.createPoint(new Coordinate(
+				25,
+				32));
+		final byte[] row = new AccumuloRowId(
+				StringUtils.stringToBinary("insertion"),
+				StringUtils.stringToBinary("data"),
+				StringUtils.stringToBinary("adapter"),
+				2).getRowId();
+		// the row is usually the prefix of a larger reused buffer
+		final byte[] buffer = Arrays.copyOf(
+				row,
+				row.length + 7);
+		final List<Key> keys = new ArrayList<Key>();
+		final List<Value> values = new ArrayList<Value>();
+		addField(
+				row,
+				StringUtils.stringToBinary("extended"),
+				new byte[] {
+					1,
+					2,
+					3
+				},
+				keys,
+				values);
+		addField(
+				row,
+				geometryFieldId.getBytes(),
+				model.getWriter(
+						geometryFieldId).writeField(
+						new GeometryWrapper(
+								point)),
+				keys,
+				values);
+
+		final LazyIndexedPersistenceEncoding encoding = new LazyIndexedPersistenceEncoding(
+				model);
+		encoding.reset(
+				buffer,
+				row.length,
+				keys,
+				values);
+		Assert.assertEquals(
+				new ByteArrayId(
+						"adapter"),
+				encoding.getAdapterId());
+		Assert.assertEquals(
+				new ByteArrayId(
+						"data"),
+				encoding.getDataId());
+		Assert.assertEquals(
+				new ByteArrayId(
+						"insertion"),
+				encoding.getIndexInsertionId());
+		Assert.assertEquals(
+				2,
+				encoding.getDuplicateCount());
+		Assert.assertTrue(encoding.isDuplicated());
+		Assert.assertTrue(encoding.isDeduplicationEnabled());
+
+		final CommonIndexValue value = encoding.getCommonData().getValue(
+				geometryFieldId);
+		Assert.assertTrue(((GeometryWrapper) value).getGeometry().equalsExact(
+				point));
+		Assert.assertNull(encoding.getCommonData().getValue(
+				new ByteArrayId(
+						"extended")));
+		final List<PersistentValue<CommonIndexValue>> allValues = encoding.getCommonData().getValues();
+		Assert.assertEquals(
+				1,
+				allValues.size());
+		Assert.assertEquals(
+				geometryFieldId,
+				allValues.get(
+						0).getId());
+
+		// resetting to a row without fields discards the decoded values
+		encoding.reset(
+				row,
+				row.length,
+				new ArrayList<Key>(),
+				new ArrayList<Value>());
+		Assert.assertNull(encoding.getCommonData().getValue(
+				geometryFieldId));
+	}
+
+	@Test
+	public void testFilterMatchesEagerEncoding() {
+		final SpatialQuery query = new SpatialQuery(
+				factory.toGeometry(new Envelope(
+						new Coordinate(
+								-10,
+								-10),
+						new Coordinate(
+								10,
+								10))));
+		final List<QueryFilter> filters = query.createFilters(model);
+		final LazyIndexedPersistenceEncoding lazyEncoding = new LazyIndexedPersistenceEncoding(
+				model);
+		for (int x = -20; x <= 20; x += 5) {
+			for (int y = -20; y <= 20; y += 5) {
+				final Geometry point = factory.createPoint(new Coordinate(
+						x,
+						y));
+				final byte[] row = new AccumuloRowId(
+						new byte[] {
+							(byte) x,
+							(byte) y
+						},
+						StringUtils.stringToBinary(x + "," + y),
+						StringUtils.stringToBinary("adapter"),
+						0).getRowId();
+				final byte[] fieldValue = model.getWriter(
+						geometryFieldId).writeField(
+						new GeometryWrapper(
+								point));
+				final List<Key> keys = new ArrayList<Key>();
+				final List<Value> values = new ArrayList<Value>();
+				addField(
+						row,
+						geometryFieldId.getBytes(),
+						fieldValue,
+						keys,
+						values);
+				lazyEncoding.reset(
+						row,
+						row.length,
+						keys,
+						values);
+
+				final PersistentDataset<CommonIndexValue> commonData = new PersistentDataset<CommonIndexValue>();
+				commonData.addValue(new PersistentValue<CommonIndexValue>(
+						geometryFieldId,
+						model.getReader(
+								geometryFieldId).readField(
+								fieldValue)));
+				final IndexedPersistenceEncoding eagerEncoding = new IndexedPersistenceEncoding(
+						new ByteArrayId(
+								"adapter"),
+						new ByteArrayId(
+								x + "," + y),
+						new ByteArrayId(
+								new byte[] {
+									(byte) x,
+									(byte) y
+								}),
+						0,
+						commonData);
+				for (final QueryFilter filter : filters) {
+					Assert.assertEquals(
+							filter.accept(eagerEncoding),
+							filter.accept(lazyEncoding));
+				}
+			}
+		}
+	}
+
+	private static void addField(
+			final byte[] row,
+			final byte[] fieldId,
+			final byte[] value,
+			final List<Key> keys,
+			final List<Value> values ) {
+		keys.add(new Key(
+				row,
+				StringUtils.stringToBinary("adapter"),
+				fieldId,
+				new byte[0],
+				Long.MAX_VALUE));
+		values.add(new Value(
+				value));
+	}
+}
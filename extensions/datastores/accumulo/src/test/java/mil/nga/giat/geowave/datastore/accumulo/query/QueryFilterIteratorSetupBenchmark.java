@@ -0,0 +1,150 @@
+package mil.nga.giat.geowave.datastore.accumulo.query;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import mil.nga.giat.geowave.core.geotime.IndexType;
+import mil.nga.giat.geowave.core.geotime.store.query.SpatialQuery;
+import mil.nga.giat.geowave.core.index.ByteArrayUtils;
+import mil.nga.giat.geowave.core.index.Persistable;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.index.StringUtils;
+import mil.nga.giat.geowave.core.store.filter.DedupeFilter;
+import mil.nga.giat.geowave.core.store.filter.DistributableFilterList;
+import mil.nga.giat.geowave.core.store.filter.DistributableQueryFilter;
+import mil.nga.giat.geowave.core.store.filter.QueryFilter;
+import mil.nga.giat.geowave.core.store.index.Index;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+/**
+ * Measures the cost of setting up a QueryFilterIterator (deserializing the
+ * filter list and the index model) using the cached class factory in
+ * PersistenceUtils, against the previous approach of resolving the class and
+ * its constructor reflectively for every persistable. Run the main method from
+ * the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class QueryFilterIteratorSetupBenchmark
+{
+	private final Map<String, String> options = new HashMap<String, String>();
+	private byte[] filterBytes;
+	private byte[] modelBytes;
+
+	@Setup
+	public void setup() {
+		final Index index = IndexType.SPATIAL_VECTOR.createDefaultIndex();
+		final SpatialQuery query = new SpatialQuery(
+				new GeometryFactory().toGeometry(new Envelope(
+						new Coordinate(
+								-10,
+								-10),
+						new Coordinate(
+								10,
+								10))));
+		final List<DistributableQueryFilter> filters = new ArrayList<DistributableQueryFilter>();
+		filters.add(new DedupeFilter());
+		for (final QueryFilter filter : query.createFilters(index.getIndexModel())) {
+			if (filter instanceof DistributableQueryFilter) {
+				filters.add((DistributableQueryFilter) filter);
+			}
+		}
+		filterBytes = PersistenceUtils.toBinary(new DistributableFilterList(
+				filters));
+		modelBytes = PersistenceUtils.toBinary(index.getIndexModel());
+		options.put(
+				QueryFilterIterator.FILTER,
+				ByteArrayUtils.byteArrayToString(filterBytes));
+		options.put(
+				QueryFilterIterator.MODEL,
+				ByteArrayUtils.byteArrayToString(modelBytes));
+	}
+
+	@Benchmark
+	public QueryFilterIterator cachedIteratorSetup()
+			throws IOException {
+		final QueryFilterIterator iterator = new QueryFilterIterator();
+		iterator.init(
+				null,
+				options,
+				null);
+		return iterator;
+	}
+
+	@Benchmark
+	public Object[] cachedFromBinary() {
+		return new Object[] {
+			PersistenceUtils.fromBinary(
+					filterBytes,
+					Persistable.class),
+			PersistenceUtils.fromBinary(
+					modelBytes,
+					Persistable.class)
+		};
+	}
+
+	@Benchmark
+	public Object[] reflectiveFromBinary()
+			throws Exception {
+		return new Object[] {
+			reflectiveFromBinary(filterBytes),
+			reflectiveFromBinary(modelBytes)
+		};
+	}
+
+	/**
+	 * the uncached deserialization, equivalent to PersistenceUtils prior to
+	 * caching constructors; nested persistables still go through
+	 * PersistenceUtils so this understates the difference
+	 */
+	private static Persistable reflectiveFromBinary(
+			final byte[] bytes )
+			throws Exception {
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		final byte[] classNameBinary = new byte[buf.getInt()];
+		buf.get(classNameBinary);
+		final byte[] persistableBinary = new byte[buf.remaining()];
+		buf.get(persistableBinary);
+		final Class<?> factoryType = Class.forName(StringUtils.stringFromBinary(classNameBinary));
+		final Constructor<?> noArgConstructor = factoryType.getDeclaredConstructor();
+		noArgConstructor.setAccessible(true);
+		final Persistable persistable = (Persistable) noArgConstructor.newInstance();
+		persistable.fromBinary(persistableBinary);
+		return persistable;
+	}
+
+	public static void main(
+			final String[] args )
+			throws RunnerException {
+		new Runner(
+				new OptionsBuilder().include(
+						QueryFilterIteratorSetupBenchmark.class.getSimpleName()).build()).run();
+	}
+}
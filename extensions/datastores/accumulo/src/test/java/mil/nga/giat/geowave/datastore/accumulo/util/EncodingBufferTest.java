@@ -0,0 +1,114 @@
+package mil.nga.giat.geowave.datastore.accumulo.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import mil.nga.giat.geowave.datastore.accumulo.AccumuloRowId;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EncodingBufferTest
+{
+	@Test
+	public void testRowId() {
+		final byte[] insertionId = new byte[] {
+			1,
+			2,
+			3,
+			4,
+			5
+		};
+		final byte[] dataId = "data".getBytes();
+		final byte[] adapterId = "adapter".getBytes();
+		final byte[] rowId = AccumuloRowId.getRowId(
+				insertionId,
+				dataId,
+				adapterId,
+				3);
+
+		// the layout is unchanged from when it was written with a ByteBuffer
+		final ByteBuffer expected = ByteBuffer.allocate(12 + dataId.length + adapterId.length + insertionId.length);
+		expected.put(insertionId);
+		expected.put(adapterId);
+		expected.put(dataId);
+		expected.putInt(adapterId.length);
+		expected.putInt(dataId.length);
+		expected.putInt(3);
+		Assert.assertArrayEquals(
+				expected.array(),
+				rowId);
+
+		final AccumuloRowId decoded = new AccumuloRowId(
+				rowId);
+		Assert.assertArrayEquals(
+				insertionId,
+				decoded.getInsertionId());
+		Assert.assertArrayEquals(
+				dataId,
+				decoded.getDataId());
+		Assert.assertArrayEquals(
+				adapterId,
+				decoded.getAdapterId());
+		Assert.assertEquals(
+				3,
+				decoded.getNumberOfDuplicates());
+		Assert.assertFalse(new AccumuloRowId(
+				AccumuloRowId.getRowId(
+						insertionId,
+						dataId,
+						adapterId,
+						-1)).isDeduplicationEnabled());
+	}
+
+	@Test
+	public void testGrowAndReset() {
+		final byte[] value = new byte[1000];
+		Arrays.fill(
+				value,
+				(byte) 7);
+		final EncodingBuffer buffer = EncodingBuffer.get();
+		for (int i = 0; i < 100; i++) {
+			buffer.put(value);
+		}
+		buffer.putInt(-2);
+		final byte[] bytes = buffer.toByteArray();
+		Assert.assertEquals(
+				100004,
+				bytes.length);
+		Assert.assertEquals(
+				7,
+				bytes[99999]);
+		Assert.assertEquals(
+				-2,
+				ByteBuffer.wrap(
+						bytes,
+						100000,
+						4).getInt());
+
+		// the buffer of the thread is reused empty
+		Assert.assertSame(
+				buffer,
+				EncodingBuffer.get());
+		Assert.assertEquals(
+				0,
+				buffer.getLength());
+	}
+
+	@Test
+	public void testVisibilityCache() {
+		final byte[] visibility = "a&b".getBytes();
+		Assert.assertSame(
+				EncodingBuffer.getColumnVisibility(visibility),
+				EncodingBuffer.getColumnVisibility("a&b".getBytes()));
+		Assert.assertSame(
+				EncodingBuffer.getColumnVisibility(null),
+				EncodingBuffer.getColumnVisibility(new byte[0]));
+		// changing the array after it is cached does not change the cache
+		visibility[0] = 'c';
+		Assert.assertArrayEquals(
+				"c&b".getBytes(),
+				EncodingBuffer.getColumnVisibility(
+						visibility).getExpression());
+	}
+}
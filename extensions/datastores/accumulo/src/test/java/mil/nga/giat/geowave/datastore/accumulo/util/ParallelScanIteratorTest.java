@@ -0,0 +1,254 @@
+package mil.nga.giat.geowave.datastore.accumulo.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mil.nga.giat.geowave.core.store.CloseableIterator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelScanIteratorTest
+{
+	private static List<CloseableIterator<Integer>> createScans(
+			final int scanCount,
+			final int valuesPerScan,
+			final AtomicInteger closeCount ) {
+		final List<CloseableIterator<Integer>> scans = new ArrayList<CloseableIterator<Integer>>();
+		for (int s = 0; s < scanCount; s++) {
+			final List<Integer> values = new ArrayList<Integer>();
+			for (int v = 0; v < valuesPerScan; v++) {
+				values.add((s * valuesPerScan) + v);
+			}
+			final Iterator<Integer> it = values.iterator();
+			scans.add(new CloseableIteratorWrapper<Integer>(
+					new Closeable() {
+						@Override
+						public void close() {
+							closeCount.incrementAndGet();
+						}
+					},
+					it));
+		}
+		return scans;
+	}
+
+	@Test
+	public void testAllResultsMerged()
+			throws IOException {
+		final AtomicInteger closeCount = new AtomicInteger();
+		// the queue is much smaller than the results so the scans have to wait
+		// on the consumer
+		final ParallelScanIterator<Integer> it = new ParallelScanIterator<Integer>(
+				createScans(
+						5,
+						2000,
+						closeCount),
+				3,
+				10);
+		final Set<Integer> results = new HashSet<Integer>();
+		int count = 0;
+		while (it.hasNext()) {
+			results.add(it.next());
+			count++;
+		}
+		it.close();
+		Assert.assertEquals(
+				10000,
+				count);
+		Assert.assertEquals(
+				10000,
+				results.size());
+		Assert.assertTrue(closeCount.get() >= 5);
+	}
+
+	@Test
+	public void testEarlyClose()
+			throws IOException {
+		final AtomicInteger closeCount = new AtomicInteger();
+		final ParallelScanIterator<Integer> it = new ParallelScanIterator<Integer>(
+				createScans(
+						4,
+						100000,
+						closeCount),
+				2,
+				10);
+		for (int i = 0; i < 50; i++) {
+			Assert.assertTrue(it.hasNext());
+			it.next();
+		}
+		it.close();
+		Assert.assertFalse(it.hasNext());
+		Assert.assertEquals(
+				4,
+				closeCount.get());
+	}
+
+	@Test
+	public void testCloseWaitsForScans()
+			throws IOException {
+		final AtomicInteger scansInUse = new AtomicInteger();
+		final AtomicInteger closedInUse = new AtomicInteger();
+		final List<CloseableIterator<Integer>> scans = new ArrayList<CloseableIterator<Integer>>();
+		for (int s = 0; s < 6; s++) {
+			scans.add(new CloseableIterator<Integer>() {
+				private int value = 0;
+				private volatile boolean inUse = false;
+
+				@Override
+				public boolean hasNext() {
+					return true;
+				}
+
+				@Override
+				public Integer next() {
+					scansInUse.incrementAndGet();
+					inUse = true;
+					try {
+						Thread.sleep(1);
+					}
+					catch (final InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					finally {
+						inUse = false;
+						scansInUse.decrementAndGet();
+					}
+					return value++;
+				}
+
+				@Override
+				public void remove() {}
+
+				@Override
+				public void close() {
+					if (inUse) {
+						closedInUse.incrementAndGet();
+					}
+				}
+			});
+		}
+		final ParallelScanIterator<Integer> it = new ParallelScanIterator<Integer>(
+				scans,
+				3,
+				5);
+		for (int i = 0; i < 20; i++) {
+			it.next();
+		}
+		it.close();
+		// no scan is still reading once the iterator is closed
+		Assert.assertEquals(
+				0,
+				scansInUse.get());
+		Assert.assertEquals(
+				0,
+				closedInUse.get());
+	}
+
+	@Test
+	public void testSaturatedPoolScansOnConsumer()
+			throws IOException {
+		final ThreadPoolExecutor executor = ParallelScanIterator.createExecutor(1);
+		final AtomicInteger closeCount = new AtomicInteger();
+		// the only thread of the pool is held by a scan that is not consumed
+		final ParallelScanIterator<Integer> blocking = new ParallelScanIterator<Integer>(
+				createScans(
+						2,
+						1000,
+						closeCount),
+				2,
+				1,
+				ParallelScanIterator.DEFAULT_RESULT_TIMEOUT_MILLIS,
+				executor);
+		final ParallelScanIterator<Integer> it = new ParallelScanIterator<Integer>(
+				createScans(
+						3,
+						100,
+						closeCount),
+				2,
+				1,
+				ParallelScanIterator.DEFAULT_RESULT_TIMEOUT_MILLIS,
+				executor);
+		int count = 0;
+		while (it.hasNext()) {
+			it.next();
+			count++;
+		}
+		it.close();
+		Assert.assertEquals(
+				300,
+				count);
+		blocking.close();
+		Assert.assertEquals(
+				5,
+				closeCount.get());
+		executor.shutdown();
+	}
+
+	@Test
+	public void testStalledScanTimesOut()
+			throws IOException {
+		final CountDownLatch release = new CountDownLatch(
+				1);
+		final List<CloseableIterator<Integer>> scans = new ArrayList<CloseableIterator<Integer>>();
+		scans.add(new CloseableIterator<Integer>() {
+			@Override
+			public boolean hasNext() {
+				try {
+					release.await();
+				}
+				catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return false;
+			}
+
+			@Override
+			public Integer next() {
+				throw new NoSuchElementException();
+			}
+
+			@Override
+			public void remove() {}
+
+			@Override
+			public void close() {}
+		});
+		final ParallelScanIterator<Integer> it = new ParallelScanIterator<Integer>(
+				scans,
+				1,
+				10,
+				50);
+		try {
+			it.hasNext();
+			Assert.fail("a stalled scan should time out");
+		}
+		catch (final RuntimeException e) {
+			// expected
+		}
+		finally {
+			release.countDown();
+			it.close();
+		}
+	}
+
+	@Test
+	public void testEmpty()
+			throws IOException {
+		final ParallelScanIterator<Integer> it = new ParallelScanIterator<Integer>(
+				new ArrayList<CloseableIterator<Integer>>(),
+				2,
+				10);
+		Assert.assertFalse(it.hasNext());
+		it.close();
+	}
+}
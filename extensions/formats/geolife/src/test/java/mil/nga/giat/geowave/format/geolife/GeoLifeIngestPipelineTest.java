@@ -0,0 +1,181 @@
+package mil.nga.giat.geowave.format.geolife;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import mil.nga.giat.geowave.core.ingest.IngestCommandLineOptions;
+import mil.nga.giat.geowave.core.ingest.local.IngestPipelineCommandLineOptions;
+import mil.nga.giat.geowave.core.ingest.local.IngestRunData;
+import mil.nga.giat.geowave.core.ingest.local.LocalFileIngestPlugin;
+import mil.nga.giat.geowave.core.ingest.local.LocalIngestPipeline;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
+import mil.nga.giat.geowave.core.store.DataStore;
+import mil.nga.giat.geowave.core.store.adapter.WritableDataAdapter;
+import mil.nga.giat.geowave.datastore.accumulo.AccumuloDataStore;
+import mil.nga.giat.geowave.datastore.accumulo.BasicAccumuloOperations;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+
+public class GeoLifeIngestPipelineTest
+{
+	private static final int FILE_COUNT = 8;
+	private static final int POINT_COUNT = 200;
+
+	private File inputDirectory;
+	private DataStore dataStore;
+
+	@Before
+	public void setUp()
+			throws IOException,
+			AccumuloException,
+			AccumuloSecurityException {
+		inputDirectory = File.createTempFile(
+				"geolife",
+				"");
+		inputDirectory.delete();
+		inputDirectory.mkdirs();
+		for (int i = 0; i < FILE_COUNT; i++) {
+			// each track is at its own latitude and encodes the track and
+			// point in the elevation so that mixed up attributes are detected
+			try (PrintWriter writer = new PrintWriter(
+					new File(
+							inputDirectory,
+							"track" + i + ".plt"),
+					"UTF-8")) {
+				writer.println("Geolife trajectory");
+				writer.println("WGS 84");
+				writer.println("Altitude is in Feet");
+				writer.println("Reserved 3");
+				writer.println("0,2,255,My Track,0,0,2,8421376");
+				writer.println("0");
+				for (int j = 0; j < POINT_COUNT; j++) {
+					writer.println((10 + i) + "," + (20 + (j * 0.001)) + ",0," + ((i * 1000) + j) + ",39744.1," + "2008-10-23," + String.format(
+							"02:%02d:%02d",
+							j / 60,
+							j % 60));
+				}
+			}
+		}
+		dataStore = new AccumuloDataStore(
+				new BasicAccumuloOperations(
+						new MockInstance().getConnector(
+								"root",
+								new PasswordToken(
+										new byte[0]))));
+	}
+
+	@After
+	public void tearDown()
+			throws IOException {
+		FileUtils.deleteDirectory(inputDirectory);
+	}
+
+	@Test
+	public void testConcurrentParsing()
+			throws IOException {
+		final GeoLifeIngestFormat format = new GeoLifeIngestFormat();
+		final WritableDataAdapter<SimpleFeature>[] adapters = format.getLocalFileIngestPlugin().getDataAdapters(
+				null);
+		try (IngestRunData runData = new IngestRunData(
+				Arrays.<WritableDataAdapter<?>> asList(adapters),
+				dataStore)) {
+			try (LocalIngestPipeline pipeline = new LocalIngestPipeline(
+					new IngestCommandLineOptions(
+							null,
+							false,
+							"spatial"),
+					new IngestPipelineCommandLineOptions(
+							4,
+							2,
+							100,
+							10),
+					runData,
+					new LocalIngestPipeline.PluginFactory() {
+						@Override
+						public LocalFileIngestPlugin<?> createPlugin(
+								final String typeName ) {
+							final LocalFileIngestPlugin<?> plugin = format.getLocalFileIngestPlugin();
+							plugin.init(inputDirectory);
+							return plugin;
+						}
+					})) {
+				for (int i = 0; i < FILE_COUNT; i++) {
+					pipeline.submit(
+							new File(
+									inputDirectory,
+									"track" + i + ".plt"),
+							format.getIngestFormatName());
+				}
+			}
+		}
+
+		final Map<String, SimpleFeature> points = query(adapters[0]);
+		Assert.assertEquals(
+				FILE_COUNT * POINT_COUNT,
+				points.size());
+		for (final SimpleFeature point : points.values()) {
+			final String trackId = (String) point.getAttribute("trackid");
+			final int pointInstance = (Integer) point.getAttribute("pointinstance");
+			final int track = Integer.parseInt(trackId.substring(
+					"track".length(),
+					trackId.indexOf('.')));
+			Assert.assertEquals(
+					trackId + "_" + (pointInstance + 1),
+					point.getID());
+			Assert.assertEquals(
+					(track * 1000) + pointInstance,
+					(Double) point.getAttribute("Elevation"),
+					0);
+			Assert.assertEquals(
+					10 + track,
+					(Double) point.getAttribute("Latitude"),
+					0);
+		}
+
+		final Map<String, SimpleFeature> tracks = query(adapters[1]);
+		Assert.assertEquals(
+				FILE_COUNT,
+				tracks.size());
+		for (int i = 0; i < FILE_COUNT; i++) {
+			final SimpleFeature track = tracks.get("track" + i + ".plt");
+			Assert.assertNotNull(track);
+			Assert.assertEquals(
+					POINT_COUNT,
+					((Number) track.getAttribute("NumberPoints")).intValue());
+			Assert.assertEquals(
+					10 + i,
+					track.getDefaultGeometryProperty().getBounds().getMinY(),
+					0);
+		}
+	}
+
+	private Map<String, SimpleFeature> query(
+			final WritableDataAdapter<SimpleFeature> adapter )
+			throws IOException {
+		final Map<String, SimpleFeature> features = new HashMap<String, SimpleFeature>();
+		try (CloseableIterator<SimpleFeature> it = dataStore.query(
+				adapter,
+				null)) {
+			while (it.hasNext()) {
+				final SimpleFeature feature = it.next();
+				features.put(
+						feature.getID(),
+						feature);
+			}
+		}
+		return features;
+	}
+}
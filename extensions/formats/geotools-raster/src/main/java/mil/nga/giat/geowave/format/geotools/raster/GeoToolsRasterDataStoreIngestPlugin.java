@@ -106,7 +106,8 @@ public class GeoToolsRasterDataStoreIngestPlugin implements
 						metadata,
 						coverage,
 						optionProvider.getTileSize(),
-						optionProvider.isBuildPyramid());
+						optionProvider.isBuildPyramid(),
+						optionProvider.isCompressTiles());
 				final List<GeoWaveData<GridCoverage>> coverages = new ArrayList<GeoWaveData<GridCoverage>>();
 				coverages.add(new GeoWaveData<GridCoverage>(
 						adapter,
@@ -12,9 +12,11 @@ public class RasterOptionProvider implements
 {
 	private final static String BUILD_PYRAMID = "pyramid";
 	private final static String TILE_SIZE = "tileSize";
+	private final static String COMPRESS_TILES = "compressTiles";
 
 	private boolean buildPyramid = RasterDataAdapter.DEFAULT_BUILD_PYRAMID;
 	private int tileSize = RasterDataAdapter.DEFAULT_TILE_SIZE;
+	private boolean compressTiles = RasterDataAdapter.DEFAULT_COMPRESS_TILES;
 
 	public RasterOptionProvider() {}
 
@@ -29,6 +31,10 @@ public class RasterOptionProvider implements
 				TILE_SIZE,
 				true,
 				"Optional parameter to set the tile size stored (default is 256)"));
+		allOptions.addOption(new Option(
+				COMPRESS_TILES,
+				false,
+				"Deflate the samples of each stored tile when that makes the tile smaller"));
 	}
 
 	@Override
@@ -38,6 +44,7 @@ public class RasterOptionProvider implements
 		if (commandLine.hasOption(TILE_SIZE)) {
 			tileSize = Integer.parseInt(commandLine.getOptionValue(TILE_SIZE));
 		}
+		compressTiles = commandLine.hasOption(COMPRESS_TILES);
 	}
 
 	public boolean isBuildPyramid() {
@@ -47,4 +54,8 @@ public class RasterOptionProvider implements
 	public int getTileSize() {
 		return tileSize;
 	}
+
+	public boolean isCompressTiles() {
+		return compressTiles;
+	}
 }
@@ -29,6 +29,14 @@ abstract public class KafkaTestEnvironment<I> extends
 
 	protected void testKafkaStage(
 			final String ingestFilePath ) {
+		testKafkaStage(
+				"gpx",
+				ingestFilePath);
+	}
+
+	protected void testKafkaStage(
+			final String formatName,
+			final String ingestFilePath ) {
 		LOGGER.warn("Staging '" + ingestFilePath + "' to a Kafka topic - this may take several minutes...");
 		String[] args = null;
 		String localhost = "localhost";
@@ -41,7 +49,7 @@ abstract public class KafkaTestEnvironment<I> extends
 					e);
 		}
 		synchronized (MUTEX) {
-			args = StringUtils.split("-kafkastage -f gpx -b " + ingestFilePath + " -metadataBrokerList " + localhost + ":9092 -requestRequiredAcks 1 -producerType sync -retryBackoffMs 1000 -serializerClass mil.nga.giat.geowave.core.ingest.kafka.AvroKafkaEncoder" + ' ');
+			args = StringUtils.split("-kafkastage -f " + formatName + " -b " + ingestFilePath + " -metadataBrokerList " + localhost + ":9092 -requestRequiredAcks 1 -producerType sync -retryBackoffMs 1000 -serializerClass mil.nga.giat.geowave.core.ingest.kafka.AvroKafkaEncoder" + ' ');
 		}
 
 		GeoWaveMain.main(args);
@@ -50,9 +58,31 @@ abstract public class KafkaTestEnvironment<I> extends
 	protected void testKafkaIngest(
 			final IndexType indexType,
 			final String ingestFilePath ) {
+		testKafkaIngest(
+				indexType,
+				ingestFilePath,
+				1);
+	}
+
+	protected void testKafkaIngest(
+			final IndexType indexType,
+			final String ingestFilePath,
+			final int consumerThreads ) {
+		testKafkaIngest(
+				"gpx",
+				indexType,
+				ingestFilePath,
+				consumerThreads);
+	}
+
+	protected void testKafkaIngest(
+			final String formatName,
+			final IndexType indexType,
+			final String ingestFilePath,
+			final int consumerThreads ) {
 		LOGGER.warn("Ingesting '" + ingestFilePath + "' - this may take several minutes...");
 		final String[] args = StringUtils.split(
-				"-kafkaingest -f gpx -consumerTimeoutMs 5000 -reconnectOnTimeout -groupId testGroup -autoOffsetReset smallest -fetchMessageMaxBytes " + MAX_MESSAGE_BYTES + " -zookeeperConnect " + zookeeper + " -z " + zookeeper + " -i " + accumuloInstance + " -u " + accumuloUser + " -p " + accumuloPassword + " -n " + TEST_NAMESPACE + " -dim " + (indexType.equals(IndexType.SPATIAL_VECTOR) ? "spatial" : "spatial-temporal"),
+				"-kafkaingest -f " + formatName + " -consumerTimeoutMs 5000 -reconnectOnTimeout -consumerThreads " + consumerThreads + " -flushIntervalMs 1000 -groupId testGroup -autoOffsetReset smallest -fetchMessageMaxBytes " + MAX_MESSAGE_BYTES + " -zookeeperConnect " + zookeeper + " -z " + zookeeper + " -i " + accumuloInstance + " -u " + accumuloUser + " -p " + accumuloPassword + " -n " + TEST_NAMESPACE + " -dim " + (indexType.equals(IndexType.SPATIAL_VECTOR) ? "spatial" : "spatial-temporal"),
 				' ');
 		GeoWaveMain.main(args);
 	}
@@ -93,9 +123,11 @@ abstract public class KafkaTestEnvironment<I> extends
 		props.put(
 				"replica.fetch.max.bytes",
 				MAX_MESSAGE_BYTES);
+		// several partitions so that the consumer threads of a topic each
+		// have partitions to consume
 		props.put(
 				"num.partitions",
-				"1");
+				"4");
 		return new KafkaConfig(
 				props);
 	}
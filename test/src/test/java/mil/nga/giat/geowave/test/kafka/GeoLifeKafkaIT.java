@@ -0,0 +1,164 @@
+package mil.nga.giat.geowave.test.kafka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import mil.nga.giat.geowave.core.geotime.IndexType;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.ingest.avro.WholeFile;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
+import mil.nga.giat.geowave.core.store.adapter.AdapterStore;
+import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
+import mil.nga.giat.geowave.core.store.index.Index;
+import mil.nga.giat.geowave.datastore.accumulo.AccumuloDataStore;
+import mil.nga.giat.geowave.datastore.accumulo.metadata.AccumuloAdapterStore;
+import mil.nga.giat.geowave.datastore.accumulo.metadata.AccumuloDataStatisticsStore;
+import mil.nga.giat.geowave.datastore.accumulo.metadata.AccumuloIndexStore;
+import mil.nga.giat.geowave.format.geolife.GeoLifeUtils;
+
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+
+/**
+ * Ingests GeoLife tracks from Kafka with several consumer threads. The GeoLife
+ * plugin builds its features with builders it keeps between records, so the
+ * attributes of every feature are checked against the track it came from.
+ */
+public class GeoLifeKafkaIT extends
+		KafkaTestBase<WholeFile>
+{
+	private static final Index INDEX = IndexType.SPATIAL_VECTOR.createDefaultIndex();
+	private static final String GEOLIFE_INPUT_DIR = TEST_CASE_BASE + "geolife_test_case/";
+	private static final int TRACK_COUNT = 40;
+	private static final int POINT_COUNT = 500;
+
+	@Test
+	public void testConcurrentIngestGeoLife()
+			throws Exception {
+		writeTracks();
+		testKafkaStage(
+				"geolife",
+				GEOLIFE_INPUT_DIR);
+		// consume the topic's partitions with several threads
+		testKafkaIngest(
+				"geolife",
+				IndexType.SPATIAL_VECTOR,
+				GEOLIFE_INPUT_DIR,
+				4);
+		// wait a sufficient time for consumers to ingest all of the data
+		Thread.sleep(60000);
+
+		final AdapterStore adapterStore = new AccumuloAdapterStore(
+				accumuloOperations);
+		final Map<String, SimpleFeature> points = query(adapterStore.getAdapter(new ByteArrayId(
+				GeoLifeUtils.GEOLIFE_POINT_FEATURE)));
+		assertEquals(
+				"geolife points ingested does not match expected count",
+				TRACK_COUNT * POINT_COUNT,
+				points.size());
+		for (final SimpleFeature point : points.values()) {
+			final String trackId = (String) point.getAttribute("trackid");
+			final int pointInstance = (Integer) point.getAttribute("pointinstance");
+			final int track = Integer.parseInt(trackId.substring(
+					"track".length(),
+					trackId.indexOf('.')));
+			assertEquals(
+					"point '" + point.getID() + "' has the attributes of another point",
+					trackId + "_" + (pointInstance + 1),
+					point.getID());
+			assertEquals(
+					"point '" + point.getID() + "' has the elevation of another point",
+					(track * 1000) + pointInstance,
+					(Double) point.getAttribute("Elevation"),
+					0);
+			assertEquals(
+					"point '" + point.getID() + "' has the latitude of another track",
+					10 + track,
+					(Double) point.getAttribute("Latitude"),
+					0);
+		}
+
+		final Map<String, SimpleFeature> tracks = query(adapterStore.getAdapter(new ByteArrayId(
+				GeoLifeUtils.GEOLIFE_TRACK_FEATURE)));
+		assertEquals(
+				"geolife tracks ingested does not match expected count",
+				TRACK_COUNT,
+				tracks.size());
+		for (int i = 0; i < TRACK_COUNT; i++) {
+			final SimpleFeature track = tracks.get("track" + i + ".plt");
+			assertNotNull(
+					"track " + i + " was not ingested",
+					track);
+			assertEquals(
+					"track " + i + " has the point count of another track",
+					POINT_COUNT,
+					((Number) track.getAttribute("NumberPoints")).intValue());
+		}
+	}
+
+	private static void writeTracks()
+			throws IOException {
+		final File inputDirectory = new File(
+				GEOLIFE_INPUT_DIR);
+		inputDirectory.mkdirs();
+		for (int i = 0; i < TRACK_COUNT; i++) {
+			// each track is at its own latitude and encodes the track and
+			// point in the elevation
+			try (PrintWriter writer = new PrintWriter(
+					new File(
+							inputDirectory,
+							"track" + i + ".plt"),
+					"UTF-8")) {
+				writer.println("Geolife trajectory");
+				writer.println("WGS 84");
+				writer.println("Altitude is in Feet");
+				writer.println("Reserved 3");
+				writer.println("0,2,255,My Track,0,0,2,8421376");
+				writer.println("0");
+				for (int j = 0; j < POINT_COUNT; j++) {
+					writer.println((10 + i) + "," + (20 + (j * 0.001)) + ",0," + ((i * 1000) + j) + ",39744.1," + "2008-10-23," + String.format(
+							"%02d:%02d:%02d",
+							j / 3600,
+							(j / 60) % 60,
+							j % 60));
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, SimpleFeature> query(
+			final DataAdapter<?> adapter )
+			throws IOException {
+		assertNotNull(
+				"adapter was not ingested",
+				adapter);
+		final mil.nga.giat.geowave.core.store.DataStore geowaveStore = new AccumuloDataStore(
+				new AccumuloIndexStore(
+						accumuloOperations),
+				new AccumuloAdapterStore(
+						accumuloOperations),
+				new AccumuloDataStatisticsStore(
+						accumuloOperations),
+				accumuloOperations);
+		final Map<String, SimpleFeature> features = new HashMap<String, SimpleFeature>();
+		try (CloseableIterator<SimpleFeature> it = geowaveStore.query(
+				(DataAdapter<SimpleFeature>) adapter,
+				INDEX,
+				null)) {
+			while (it.hasNext()) {
+				final SimpleFeature feature = it.next();
+				features.put(
+						feature.getID(),
+						feature);
+			}
+		}
+		return features;
+	}
+}